@@ -0,0 +1,178 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fills the benchmark database from the sample script ADT/videogame_store.sql.
+ * The profiles of the script are inserted as they are; the rows of VIDEOGAME_
+ * are repeated (with a numbered name) until the catalog reaches the requested
+ * size. A number of extra users, and reviews of user1, are added so the
+ * queries that depend on them have realistic data to go through.
+ *
+ * @version 1.0
+ */
+public class CatalogSeeder {
+
+    /** Una fila entre paréntesis de un INSERT ... VALUES. */
+    private static final Pattern ROW = Pattern.compile("\\(((?:'(?:[^']|'')*'|[^()'])*)\\)");
+
+    /** Un valor de la fila: texto entre comillas o literal sin comillas. */
+    private static final Pattern VALUE = Pattern.compile("'((?:[^']|'')*)'|([^,\\s]+)");
+
+    private static final int BATCH = 500;
+
+    private final Path script;
+
+    /**
+     * Creates a seeder for the given sample script.
+     *
+     * @param script Path of videogame_store.sql
+     */
+    public CatalogSeeder(Path script) {
+        this.script = script;
+    }
+
+    /**
+     * Empties the tables and fills them again.
+     *
+     * @param connection Connection to the benchmark database
+     * @param games Number of videogames to insert
+     * @param users Number of extra users to insert
+     * @param reviews Number of games reviewed by user1
+     * @throws IOException If the script cannot be read
+     * @throws SQLException If an insert fails
+     */
+    public void seed(Connection connection, int games, int users, int reviews) throws IOException, SQLException {
+        List<List<String>> sampleGames = new ArrayList<>();
+
+        try (Statement st = connection.createStatement()) {
+            for (String table : new String[]{"REVIEW_", "Order_", "RESERVATION_", "VIDEOGAME_", "ADMIN_", "USER_", "PROFILE_"}) {
+                st.executeUpdate("DELETE FROM " + table);
+            }
+
+            // Los perfiles del script se ejecutan tal cual; los juegos se guardan para escalarlos
+            for (String sql : statements()) {
+                if (sql.startsWith("INSERT INTO VIDEOGAME_")) {
+                    Matcher row = ROW.matcher(sql.substring(sql.indexOf("VALUES")));
+                    while (row.find()) {
+                        sampleGames.add(values(row.group(1)));
+                    }
+                } else if (sql.startsWith("INSERT")) {
+                    st.executeUpdate(sql);
+                }
+            }
+        }
+        if (sampleGames.isEmpty()) {
+            throw new IllegalStateException("No VIDEOGAME_ rows found in " + script);
+        }
+
+        insertGames(connection, sampleGames, games);
+        insertUsers(connection, users);
+        insertReviews(connection, reviews);
+    }
+
+    private void insertGames(Connection connection, List<List<String>> sample, int games) throws SQLException {
+        String sql = "INSERT INTO VIDEOGAME_ (company_name, genre, name, platform, pegi, price, stock, release_date, version)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < games; i++) {
+                List<String> row = sample.get(i % sample.size());
+                int copy = i / sample.size();
+                ps.setString(1, row.get(0));
+                ps.setString(2, row.get(1));
+                ps.setString(3, copy == 0 ? row.get(2) : row.get(2) + " #" + copy);
+                ps.setString(4, row.get(3));
+                ps.setString(5, row.get(4));
+                ps.setDouble(6, Double.parseDouble(row.get(5)));
+                ps.setInt(7, Integer.parseInt(row.get(6)));
+                ps.setDate(8, Date.valueOf(row.get(7)));
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertUsers(Connection connection, int users) throws SQLException {
+        String profileSql = "INSERT INTO PROFILE_ (username, password, email, name, telephone, surname) VALUES (?, ?, ?, ?, ?, ?)";
+        String userSql = "INSERT INTO USER_ (user_code, gender, card_number)"
+                + " SELECT user_code, 'other', 'ES0000000000000000000000' FROM PROFILE_ WHERE username = ?";
+        try (PreparedStatement profile = connection.prepareStatement(profileSql);
+                PreparedStatement user = connection.prepareStatement(userSql)) {
+            for (int i = 0; i < users; i++) {
+                String username = "bench" + i;
+                profile.setString(1, username);
+                profile.setString(2, "1234");
+                profile.setString(3, username + "@example.com");
+                profile.setString(4, "Bench");
+                profile.setString(5, "600000000");
+                profile.setString(6, "User " + i);
+                profile.addBatch();
+                user.setString(1, username);
+                user.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    profile.executeBatch();
+                    user.executeBatch();
+                }
+            }
+            profile.executeBatch();
+            user.executeBatch();
+        }
+    }
+
+    private void insertReviews(Connection connection, int reviews) throws SQLException {
+        String sql = "INSERT INTO REVIEW_ (id_user, id_videogame, rating, comment)"
+                + " SELECT p.user_code, v.videogame_code, 4, 'Muy bueno' FROM PROFILE_ p, VIDEOGAME_ v"
+                + " WHERE p.username = 'user1'"
+                + " AND v.videogame_code < (SELECT MIN(videogame_code) FROM VIDEOGAME_) + ?";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, reviews);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Splits the script into statements, without comments.
+     */
+    private List<String> statements() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String line : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+            if (!line.trim().startsWith("--")) {
+                text.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String sql : text.toString().split(";\\s*\n")) {
+            if (!sql.trim().isEmpty()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Splits the inside of a row into its values, without quotes.
+     */
+    private static List<String> values(String row) {
+        List<String> values = new ArrayList<>();
+        Matcher value = VALUE.matcher(row);
+        while (value.find()) {
+            values.add(value.group(1) != null ? value.group(1).replace("''", "'") : value.group(2));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,180 @@
+package benchmark;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import model.CatalogCache;
+import model.DBImplementation;
+import model.HibernateSession;
+import model.Order;
+import model.Profile;
+import model.User;
+import model.Videogame;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the persistence hot paths of DBImplementation. Each fork
+ * boots HibernateSession against an in-memory H2 database (see
+ * hibernate-bench.cfg.xml) and seeds it from ADT/videogame_store.sql, scaled
+ * to the number of games given by {@link #games}.
+ *
+ * Run with "ant bench"; extra JMH options go in -Dbench.args, for example
+ * -Dbench.args="DaoBenchmark.logIn -p games=10000".
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + HibernateSession.CONFIG_PROPERTY + "=hibernate-bench.cfg.xml")
+public class DaoBenchmark {
+
+    /** Propiedad con la ruta del script de ejemplo. */
+    public static final String SEED_PROPERTY = "bench.seed";
+
+    private static final int USERS = 1000;
+    private static final int REVIEWS = 100;
+
+    @Param({"10000", "100000"})
+    public int games;
+
+    private DBImplementation dao;
+    private User user;
+    private int[] gameIds;
+    private Videogame middle;
+
+    @Setup
+    public void setUp() throws Exception {
+        CatalogSeeder seeder = new CatalogSeeder(Paths.get(System.getProperty(SEED_PROPERTY, "../../ADT/videogame_store.sql")));
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                try {
+                    seeder.seed(connection, games, USERS, REVIEWS);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            transaction.commit();
+        }
+        CatalogCache.getInstance().invalidate();
+
+        dao = new DBImplementation();
+        user = dao.getUserByUsername("user1");
+        List<Videogame> all = dao.getAllGames();
+        gameIds = new int[all.size()];
+        for (int i = 0; i < gameIds.length; i++) {
+            gameIds[i] = all.get(i).getIdVideogame();
+        }
+        middle = all.get(all.size() / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println(HibernateSession.getPoolStatistics());
+        HibernateSession.close();
+    }
+
+    private int randomGameId() {
+        return gameIds[ThreadLocalRandom.current().nextInt(gameIds.length)];
+    }
+
+    @Benchmark
+    public Profile logInUser() {
+        return dao.logIn("user1", "1234");
+    }
+
+    @Benchmark
+    public Profile logInAdmin() {
+        return dao.logIn("admin1", "1234");
+    }
+
+    /**
+     * Ráfaga de intentos con una contraseña incorrecta.
+     */
+    @Benchmark
+    public Profile logInWrongPassword() {
+        return dao.logIn("user1", "wrong");
+    }
+
+    @Benchmark
+    public List<Videogame> getAllGames() {
+        return dao.getAllGames();
+    }
+
+    /**
+     * Lectura completa de VIDEOGAME_, sin pasar por la caché del catálogo.
+     */
+    @Benchmark
+    public List<Videogame> getAllGamesUncached() {
+        CatalogCache.getInstance().invalidate();
+        return dao.getAllGames();
+    }
+
+    @Benchmark
+    public List<Videogame> getGamesFiltered() {
+        return dao.getGamesFiltered("zelda", "", "SWITCH");
+    }
+
+    @Benchmark
+    public List<Videogame> getGamesFilteredByGenre() {
+        return dao.getGamesFiltered("", "RPG", "");
+    }
+
+    @Benchmark
+    public List<Videogame> getGamesFirstPage() {
+        return dao.getGamesPage(null, 0, 0, 100);
+    }
+
+    /**
+     * Página a mitad del catálogo, buscada por clave (nombre, código).
+     */
+    @Benchmark
+    public List<Videogame> getGamesPageAfterKey() {
+        return dao.getGamesPage(middle.getName(), middle.getIdVideogame(), 0, 100);
+    }
+
+    @Benchmark
+    public boolean createOrder() {
+        Videogame game = new Videogame();
+        game.setIdVideogame(randomGameId());
+        return dao.createOrder(new Order(user, game, 19.99, 1));
+    }
+
+    @Benchmark
+    public boolean reviewExists() {
+        return dao.reviewExists(user.getUserCode(), randomGameId());
+    }
+
+    /**
+     * Más clientes a la vez que conexiones mínimas del pool: la espera por
+     * conexión aparece en HibernateSession.getPoolStatistics().
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean reviewExistsConcurrent() {
+        return dao.reviewExists(user.getUserCode(), randomGameId());
+    }
+
+    @Benchmark
+    public List<String> comboBoxInsert() {
+        return dao.comboBoxInsert();
+    }
+}
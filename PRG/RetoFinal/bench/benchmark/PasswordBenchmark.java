@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import model.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of PasswordHasher: the cost of one PBKDF2 hash, of a check
+ * answered by the recently verified passwords, and the throughput of the
+ * bounded hasher pool when several logins arrive at once.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    private final PasswordHasher hasher = PasswordHasher.getInstance();
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        stored = hasher.hash("1234");
+        hasher.verify("1234", stored);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.encode("1234");
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return hasher.verify("1234", stored);
+    }
+
+    /**
+     * Una contraseña incorrecta nunca se recuerda: siempre calcula el hash.
+     */
+    @Benchmark
+    public boolean verifyWrongPassword() {
+        return hasher.verify("wrong", stored);
+    }
+
+    /**
+     * Comprobaciones por segundo con más inicios de sesión simultáneos que
+     * hilos del hasher.
+     */
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean verifyConcurrent() {
+        return hasher.verify("wrong", stored);
+    }
+}
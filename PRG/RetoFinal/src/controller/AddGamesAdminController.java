@@ -1,19 +1,21 @@
 package controller;
 
+import java.io.File;
 import java.net.URL;
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
 import javafx.fxml.*;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.*;
+import threads.AsyncLogHandler;
+import threads.CatalogLoader;
 
 /**
  * Controller class for the Add Games Admin window. Manages the administrative interface
@@ -25,8 +27,7 @@ import model.*;
  */
 public class AddGamesAdminController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(AddGamesAdminController.class, "AddGamesAdmin");
     
     // FXML UI Components
     @FXML
@@ -47,62 +48,17 @@ public class AddGamesAdminController implements Initializable {
     private DatePicker datePickerReleaseDate;
     @FXML
     private Button buttonAddGame;
+    @FXML
+    private Button buttonLoadCatalog;
+    @FXML
+    private ProgressBar progressLoadCatalog;
+    @FXML
+    private Label labelLoadCatalog;
     private Controller cont;
     private AdminShopController adminShopController;
+    // Carga de un fichero de catálogo en curso, o null
+    private Task<CatalogLoader.Summary> catalogTask;
     
-    /**
-     * Static block to initialize the logging system for AddGamesAdminController.
-     * Creates the logs directory if it does not exist and configures the FileHandler.
-     */
-    static {
-        initializeLogger();
-    }
-    
-    /**
-     * Initializes the logger system for this controller.
-     * Creates log directory and configures file handler with custom formatter
-     * that logs INFO, SEVERE and WARNING level messages.
-     */
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/AddGamesAdmin.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Sets the Controller instance for database operations.
      *
@@ -142,9 +98,9 @@ public class AddGamesAdminController implements Initializable {
                 try {
                     double priceValue = Double.valueOf(spinnerPrice.getEditor().getText());
                     spinnerPrice.getValueFactory().setValue(priceValue);
-                    logger.info("Spinner price updated from editor: " + priceValue);
+                    logger.info(() -> "Spinner price updated from editor: " + priceValue);
                 } catch (NumberFormatException e) {
-                    logger.warning("Invalid price format in spinner editor: " + spinnerPrice.getEditor().getText());
+                    logger.warning(() -> "Invalid price format in spinner editor: " + spinnerPrice.getEditor().getText());
                 }
             }
             
@@ -152,9 +108,9 @@ public class AddGamesAdminController implements Initializable {
                 try {
                     int stockValue = Integer.valueOf(spinnerStock.getEditor().getText());
                     spinnerStock.getValueFactory().setValue(stockValue);
-                    logger.info("Spinner stock updated from editor: " + stockValue);
+                    logger.info(() -> "Spinner stock updated from editor: " + stockValue);
                 } catch (NumberFormatException e) {
-                    logger.warning("Invalid stock format in spinner editor: " + spinnerStock.getEditor().getText());
+                    logger.warning(() -> "Invalid stock format in spinner editor: " + spinnerStock.getEditor().getText());
                 }
             }
             
@@ -170,14 +126,14 @@ public class AddGamesAdminController implements Initializable {
             
             // Registrar datos del juego a añadir
             logger.info("Attempting to add new game with data:");
-            logger.info("  Name: " + gameName);
-            logger.info("  Company: " + company);
-            logger.info("  Genre: " + (genre != null ? genre.name() : "null"));
-            logger.info("  Platform: " + (platform != null ? platform.name() : "null"));
-            logger.info("  PEGI: " + (pegi != null ? pegi.name() : "null"));
-            logger.info("  Price: " + price);
-            logger.info("  Stock: " + stock);
-            logger.info("  Release Date: " + releaseDate);
+            logger.info(() -> "  Name: " + gameName);
+            logger.info(() -> "  Company: " + company);
+            logger.info(() -> "  Genre: " + (genre != null ? genre.name() : "null"));
+            logger.info(() -> "  Platform: " + (platform != null ? platform.name() : "null"));
+            logger.info(() -> "  PEGI: " + (pegi != null ? pegi.name() : "null"));
+            logger.info(() -> "  Price: " + price);
+            logger.info(() -> "  Stock: " + stock);
+            logger.info(() -> "  Release Date: " + releaseDate);
             
             // Validar campos requeridos
             if (gameName == null || gameName.trim().isEmpty() ||
@@ -196,68 +152,84 @@ public class AddGamesAdminController implements Initializable {
             
             logger.info("Form validation passed - Attempting to add game to database");
             
-            // Intentar añadir el juego
-            boolean success = cont.addGame(company, genre, gameName, platform, pegi, price, stock, Date.valueOf(releaseDate));
+            // Intentar añadir el juego en segundo plano
+            buttonAddGame.setDisable(true);
+            cont.async().addGame(company, genre, gameName, platform, pegi, price, stock, Date.valueOf(releaseDate)).whenCompleteAsync((success, failure) -> {
+                buttonAddGame.setDisable(false);
+                if (failure != null) {
+                    logger.severe(() -> "Exception while adding game: " + AsyncController.unwrap(failure).getMessage());
+                }
+                onGameAdded(gameName, failure == null && success);
+            }, AsyncController.FX);
             
-            if (success) {
-                logger.info("Game added SUCCESSFULLY to database: " + gameName);
-                
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Game added successfully!");
-                successAlert.setHeaderText(gameName + " was added successfully.");
-                successAlert.setContentText("The game " + gameName + " was successfully added to the list of games in the store.");
-                successAlert.showAndWait();
-                
-                logger.info("Showing success alert for game: " + gameName);
+        } catch (Exception ex) {
+            logger.severe(() -> "Exception while adding game: " + ex.getMessage());
+            
+            Alert error = new Alert(Alert.AlertType.ERROR);
+            error.setTitle("ERROR");
+            error.setContentText("There was an error while attempting to add the game. Check the fields to see if anything's wrong.");
+            error.showAndWait();
+        }
+    }
+    
+    /**
+     * Shows the result of adding a game (JavaFX thread). On success, asks the
+     * admin whether to add another game or close the window.
+     *
+     * @param gameName Name of the game
+     * @param success true if the game was stored in the database
+     */
+    private void onGameAdded(String gameName, boolean success) {
+        if (success) {
+            logger.info(() -> "Game added SUCCESSFULLY to database: " + gameName);
+            
+            Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+            successAlert.setTitle("Game added successfully!");
+            successAlert.setHeaderText(gameName + " was added successfully.");
+            successAlert.setContentText("The game " + gameName + " was successfully added to the list of games in the store.");
+            successAlert.showAndWait();
+            
+            logger.info(() -> "Showing success alert for game: " + gameName);
 
-                // Preguntar si quiere añadir más juegos
-                logger.info("Asking admin if they want to add more games");
-                Alert choice = new Alert(Alert.AlertType.CONFIRMATION);
-                choice.setTitle("Add more?");
-                choice.setHeaderText("Do you want to add more games?");
-                choice.showAndWait();
+            // Preguntar si quiere añadir más juegos
+            logger.info("Asking admin if they want to add more games");
+            Alert choice = new Alert(Alert.AlertType.CONFIRMATION);
+            choice.setTitle("Add more?");
+            choice.setHeaderText("Do you want to add more games?");
+            choice.showAndWait();
+            
+            // Recargar la tabla en AdminShopController (comentado en tu código)
+            /*if (adminShopController != null) {
+                adminShopController.reloadGames();
+            }*/
+            
+            if (choice.getResult().equals(ButtonType.OK)) {
+                logger.info("Admin chose to add another game - Clearing form");
                 
-                // Recargar la tabla en AdminShopController (comentado en tu código)
-                /*if (adminShopController != null) {
-                    adminShopController.reloadGames();
-                }*/
+                // Limpiar campos para añadir otro juego
+                textFieldName.clear();
+                comboBoxPlatforms.valueProperty().set(null);
+                textFieldCompany.clear();
+                spinnerStock.getValueFactory().setValue(0);
+                comboBoxGenre.valueProperty().set(null);
+                spinnerPrice.getValueFactory().setValue(0.0);
+                comboBoxPEGI.valueProperty().set(null);
+                datePickerReleaseDate.setValue(LocalDate.now());
                 
-                if (choice.getResult().equals(ButtonType.OK)) {
-                    logger.info("Admin chose to add another game - Clearing form");
-                    
-                    // Limpiar campos para añadir otro juego
-                    textFieldName.clear();
-                    comboBoxPlatforms.valueProperty().set(null);
-                    textFieldCompany.clear();
-                    spinnerStock.getValueFactory().setValue(0);
-                    comboBoxGenre.valueProperty().set(null);
-                    spinnerPrice.getValueFactory().setValue(0.0);
-                    comboBoxPEGI.valueProperty().set(null);
-                    datePickerReleaseDate.setValue(LocalDate.now());
-                    
-                    logger.info("Form cleared - Ready for new game entry");
-                    
-                } else {
-                    logger.info("Admin chose NOT to add more games - Closing window");
-                    
-                    // Cerrar la ventana
-                    Stage currentStage = (Stage) buttonAddGame.getScene().getWindow();
-                    currentStage.close();
-                    
-                    logger.info("AddGamesAdmin window closed");
-                }
+                logger.info("Form cleared - Ready for new game entry");
                 
             } else {
-                logger.warning("Failed to add game to database: " + gameName);
+                logger.info("Admin chose NOT to add more games - Closing window");
                 
-                Alert error = new Alert(Alert.AlertType.ERROR);
-                error.setTitle("ERROR");
-                error.setContentText("There was an error while attempting to add the game. Check the fields to see if anything's wrong.");
-                error.showAndWait();
+                // Cerrar la ventana
+                Stage currentStage = (Stage) buttonAddGame.getScene().getWindow();
+                currentStage.close();
+                
+                logger.info("AddGamesAdmin window closed");
             }
             
-        } catch (Exception ex) {
-            logger.severe("Exception while adding game: " + ex.getMessage());
+        } else {
+            logger.warning(() -> "Failed to add game to database: " + gameName);
             
             Alert error = new Alert(Alert.AlertType.ERROR);
             error.setTitle("ERROR");
@@ -266,6 +238,104 @@ public class AddGamesAdminController implements Initializable {
         }
     }
     
+    /**
+     * Loads a catalog CSV file chosen by the admin in the background. The
+     * progress bar follows the file as it is read and the window stays
+     * usable; while the load runs the same button cancels it after the
+     * current batch.
+     *
+     * @param event The ActionEvent triggered by the load catalog button
+     */
+    @FXML
+    private void loadCatalog(ActionEvent event) {
+        if (catalogTask != null) {
+            logger.info("Cancelling catalog load");
+            catalogTask.cancel(true);
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Load catalog");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(buttonLoadCatalog.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        logger.info(() -> "Loading catalog from " + file);
+
+        Task<CatalogLoader.Summary> task = new Task<CatalogLoader.Summary>() {
+            @Override
+            protected CatalogLoader.Summary call() throws Exception {
+                updateMessage("Loading " + file.getName() + "...");
+                return new CatalogLoader().load(file.toPath(), (read, total, summary) -> {
+                    updateProgress(read, total);
+                    updateMessage(summary.toString());
+                });
+            }
+        };
+        catalogTask = task;
+        progressLoadCatalog.setVisible(true);
+        progressLoadCatalog.progressProperty().bind(task.progressProperty());
+        labelLoadCatalog.textProperty().bind(task.messageProperty());
+        buttonLoadCatalog.setText("Cancel");
+        buttonAddGame.setDisable(true);
+
+        task.setOnSucceeded(e -> onCatalogLoaded(task.getValue(), null));
+        task.setOnFailed(e -> onCatalogLoaded(null, task.getException()));
+        task.setOnCancelled(e -> onCatalogLoaded(null, null));
+
+        Thread thread = new Thread(task, "catalog-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shows the result of a catalog load (JavaFX thread) and refreshes the
+     * admin table.
+     *
+     * @param summary Totals of the load, or null if it failed or was cancelled
+     * @param error Error that stopped the load, or null
+     */
+    private void onCatalogLoaded(CatalogLoader.Summary summary, Throwable error) {
+        catalogTask = null;
+        progressLoadCatalog.progressProperty().unbind();
+        labelLoadCatalog.textProperty().unbind();
+        buttonLoadCatalog.setText("Load CSV...");
+        buttonAddGame.setDisable(false);
+        if (adminShopController != null) {
+            adminShopController.reloadGames();
+        }
+
+        if (summary == null) {
+            progressLoadCatalog.setVisible(false);
+            if (error == null) {
+                // Los lotes ya escritos se quedan en la base de datos
+                logger.info("Catalog load cancelled");
+                labelLoadCatalog.setText("Load cancelled");
+                return;
+            }
+            logger.severe(() -> "Error loading catalog: " + error.getMessage());
+            labelLoadCatalog.setText("");
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("ERROR");
+            alert.setHeaderText("The catalog could not be loaded");
+            alert.setContentText(error.getMessage());
+            alert.showAndWait();
+            return;
+        }
+
+        logger.info(() -> "Catalog loaded: " + summary);
+        labelLoadCatalog.setText(summary.toString());
+        Alert alert = new Alert(summary.getRejected() == 0 ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+        alert.setTitle("Catalog loaded");
+        alert.setHeaderText(summary.getLoaded() + " games added, " + summary.getDuplicates()
+                + " already in the store, " + summary.getRejected() + " invalid lines.");
+        if (!summary.getProblems().isEmpty()) {
+            alert.setContentText(String.join("\n", summary.getProblems()));
+        }
+        alert.showAndWait();
+    }
+
     /**
      * Sets up all ComboBox components and Spinners with their respective values.
      * Populates ComboBoxes with enum values and configures Spinner ranges and editors.
@@ -278,7 +348,7 @@ public class AddGamesAdminController implements Initializable {
             comboBoxPlatforms.getItems().addAll(Platform.values());
             comboBoxPEGI.getItems().addAll(PEGI.values());
             
-            logger.info("ComboBoxes populated - Genres: " + GameGenre.values().length + 
+            logger.info(() -> "ComboBoxes populated - Genres: " + GameGenre.values().length + 
                        ", Platforms: " + Platform.values().length + 
                        ", PEGI: " + PEGI.values().length);
             
@@ -293,7 +363,7 @@ public class AddGamesAdminController implements Initializable {
             logger.info("Spinners configured - Stock range: 0-1000, Price range: 0.0-1000.0");
             
         } catch (Exception e) {
-            logger.severe("Error setting up combo boxes: " + e.getMessage());
+            logger.severe(() -> "Error setting up combo boxes: " + e.getMessage());
         }
     }
 
@@ -313,10 +383,10 @@ public class AddGamesAdminController implements Initializable {
             datePickerReleaseDate.setValue(LocalDate.now());
             
             logger.info("AddGamesAdminController initialized successfully");
-            logger.info("Release date set to: " + LocalDate.now());
+            logger.info(() -> "Release date set to: " + LocalDate.now());
             
         } catch (Exception e) {
-            logger.severe("Error initializing AddGamesAdminController: " + e.getMessage());
+            logger.severe(() -> "Error initializing AddGamesAdminController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
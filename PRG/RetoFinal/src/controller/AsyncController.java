@@ -0,0 +1,390 @@
+package controller;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.*;
+
+/**
+ * Asynchronous version of Controller. Every operation runs on a small pool of
+ * background threads and returns a CompletableFuture, so the JavaFX thread
+ * never waits on the database.
+ *
+ * Reads fail with a TimeoutException if the database does not answer in
+ * time, and cancelling them interrupts the thread that is running the query.
+ * Writes ({@link #runWrite}) never time out and are never interrupted: a
+ * write abandoned half way could still commit, and the window would not know
+ * whether it did. Their future completes when the worker finishes, and every
+ * statement is bounded by the query timeout of the connection pool
+ * (model.DbcpConnectionProvider#QUERY_TIMEOUT_SECONDS), so a stuck write
+ * fails and rolls back instead of hanging.
+ * Callbacks that touch the UI must be chained with {@link #FX}:
+ *
+ * <pre>
+ * cont.async().getAllGames().whenCompleteAsync((games, error) -&gt; ..., AsyncController.FX);
+ * </pre>
+ *
+ * @version 1.0
+ */
+public class AsyncController {
+
+    /** Executes callbacks on the JavaFX Application Thread. */
+    public static final Executor FX = runnable -> javafx.application.Platform.runLater(runnable);
+
+    /** Default time a database operation may take before it is abandoned. */
+    public static final long DEFAULT_TIMEOUT_SECONDS = 15;
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_SIZE = 64;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /** Background threads shared by every AsyncController. */
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "dao-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** Fires the timeouts of pending operations. */
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dao-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Los hilos ociosos se liberan cuando la aplicación no está usando la base de datos
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private final Controller cont;
+    private final long timeoutMillis;
+
+    /**
+     * Creates an asynchronous controller with the default timeout.
+     *
+     * @param cont Synchronous controller that performs the actual work
+     */
+    public AsyncController(Controller cont) {
+        this(cont, TimeUnit.SECONDS.toMillis(DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Creates an asynchronous controller.
+     *
+     * @param cont Synchronous controller that performs the actual work
+     * @param timeoutMillis Maximum time for each operation in milliseconds
+     */
+    public AsyncController(Controller cont, long timeoutMillis) {
+        this.cont = cont;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs any piece of work in the background with the default timeout. Use it
+     * to chain several calls that must run one after another (for example,
+     * load the user and then create an order).
+     *
+     * @param <T> Type of the result
+     * @param work Work to run
+     * @return Future completed with the result of the work
+     */
+    public <T> CompletableFuture<T> run(Callable<T> work) {
+        return run(work, timeoutMillis);
+    }
+
+    /**
+     * Runs any piece of work in the background.
+     *
+     * @param <T> Type of the result
+     * @param work Work to run
+     * @param timeoutMillis Maximum time in milliseconds
+     * @return Future completed with the result of the work
+     */
+    public <T> CompletableFuture<T> run(Callable<T> work, long timeoutMillis) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        final Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        final ScheduledFuture<?> timeout = timer.schedule(
+                () -> result.completeExceptionally(new TimeoutException("Database operation timed out after " + timeoutMillis + " ms")),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+
+        result.whenComplete((value, error) -> {
+            timeout.cancel(false);
+            // Si nadie va a usar el resultado, liberamos el hilo
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs a piece of work that writes to the database in the background,
+     * without a timeout. The future is completed only by the worker, with the
+     * real outcome of the write; cancelling it does not stop the worker.
+     *
+     * @param <T> Type of the result
+     * @param work Work to run
+     * @return Future completed with the result of the work
+     */
+    public <T> CompletableFuture<T> runWrite(Callable<T> work) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // No ha empezado: no se ha escrito nada
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the real cause of an error received in a whenComplete or
+     * exceptionally callback.
+     *
+     * @param error Error received by the callback
+     * @return Error thrown by the operation
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * @see Controller#logIn(String, String)
+     */
+    public CompletableFuture<Profile> logIn(String username, String password) {
+        return run(() -> cont.logIn(username, password));
+    }
+
+    /**
+     * @see Controller#signUp(String, String, String, String, String, String, String, String)
+     */
+    public CompletableFuture<SignUpResult> signUp(String gender, String cardNumber, String username, String password, String email,
+            String name, String telephone, String surname) {
+        return runWrite(() -> cont.signUp(gender, cardNumber, username, password, email, name, telephone, surname));
+    }
+
+    /**
+     * @see Controller#dropOutUser(String, String)
+     */
+    public CompletableFuture<Boolean> dropOutUser(String username, String password) {
+        return runWrite(() -> cont.dropOutUser(username, password));
+    }
+
+    /**
+     * @see Controller#dropOutAdmin(String, String, String)
+     */
+    public CompletableFuture<Boolean> dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword) {
+        return runWrite(() -> cont.dropOutAdmin(usernameToDelete, adminUsername, adminPassword));
+    }
+
+    /**
+     * @see Controller#modificarUser(String, String, String, String, String, String, String)
+     */
+    public CompletableFuture<Boolean> modificarUser(String password, String email, String name, String telephone, String surname, String username, String gender) {
+        return runWrite(() -> cont.modificarUser(password, email, name, telephone, surname, username, gender));
+    }
+
+    /**
+     * @see Controller#comboBoxInsert()
+     */
+    public CompletableFuture<List<String>> comboBoxInsert() {
+        return run(() -> cont.comboBoxInsert());
+    }
+
+    /**
+     * @see Controller#userExists(String)
+     */
+    public CompletableFuture<Boolean> userExists(String username) {
+        return run(() -> cont.userExists(username));
+    }
+
+    /**
+     * @see Controller#getUserByUsername(String)
+     */
+    public CompletableFuture<User> getUserByUsername(String username) {
+        return run(() -> cont.getUserByUsername(username));
+    }
+
+    /**
+     * @see Controller#addGame(String, GameGenre, String, Platform, PEGI, double, int, Date)
+     */
+    public CompletableFuture<Boolean> addGame(String companyName, GameGenre gameGenre, String name, Platform platforms, PEGI pegi, double price, int stock, Date releaseDate) {
+        return runWrite(() -> cont.addGame(companyName, gameGenre, name, platforms, pegi, price, stock, releaseDate));
+    }
+
+    /**
+     * @see Controller#modifyGame(Videogame)
+     */
+    public CompletableFuture<Boolean> modifyGame(Videogame game) {
+        return runWrite(() -> cont.modifyGame(game));
+    }
+
+    /**
+     * @see Controller#deleteGame(Videogame)
+     */
+    public CompletableFuture<Boolean> deleteGame(Videogame game) {
+        return runWrite(() -> cont.deleteGame(game));
+    }
+
+    /**
+     * @see Controller#addToCart(Videogame)
+     */
+    public CompletableFuture<Boolean> addToCart(Videogame game) {
+        return run(() -> cont.addToCart(game));
+    }
+
+    /**
+     * @see Controller#getAllGames()
+     */
+    public CompletableFuture<List<Videogame>> getAllGames() {
+        return run(() -> cont.getAllGames());
+    }
+
+    /**
+     * @see Controller#getGamesFiltered(String, String, String)
+     */
+    public CompletableFuture<List<Videogame>> getGamesFiltered(String name, String genre, String platform) {
+        return run(() -> cont.getGamesFiltered(name, genre, platform));
+    }
+
+    /**
+     * @see Controller#getGamesPage(String, int, int, int)
+     */
+    public CompletableFuture<List<Videogame>> getGamesPage(String afterName, int afterId, int skip, int size) {
+        return run(() -> cont.getGamesPage(afterName, afterId, skip, size));
+    }
+
+    /**
+     * @see Controller#countGames()
+     */
+    public CompletableFuture<Long> countGames() {
+        return run(() -> cont.countGames());
+    }
+
+    /**
+     * @see Controller#createOrder(Order)
+     */
+    public CompletableFuture<Boolean> createOrder(Order order) {
+        return runWrite(() -> cont.createOrder(order));
+    }
+
+    /**
+     * @see Controller#createReview(Review)
+     */
+    public CompletableFuture<ReviewResult> createReview(Review review) {
+        return runWrite(() -> cont.createReview(review));
+    }
+
+    /**
+     * @see Controller#createReview(int, int, double, String)
+     */
+    public CompletableFuture<ReviewResult> createReview(int userId, int videogameId, double rating, String comment) {
+        return runWrite(() -> cont.createReview(userId, videogameId, rating, comment));
+    }
+
+    /**
+     * @see Controller#reviewExists(int, int)
+     */
+    public CompletableFuture<Boolean> reviewExists(int userId, int videogameId) {
+        return run(() -> cont.reviewExists(userId, videogameId));
+    }
+
+    /**
+     * @see Controller#getReviewedGames(int)
+     */
+    public CompletableFuture<ReviewedGames> getReviewedGames(int userId) {
+        return run(() -> cont.getReviewedGames(userId));
+    }
+
+    /**
+     * @see Controller#getRatingSummary(int)
+     */
+    public CompletableFuture<RatingSummary> getRatingSummary(int videogameId) {
+        return run(() -> cont.getRatingSummary(videogameId));
+    }
+
+    /**
+     * @see Controller#getRatingSummaries(Collection)
+     */
+    public CompletableFuture<Map<Integer, RatingSummary>> getRatingSummaries(Collection<Integer> videogameIds) {
+        return run(() -> cont.getRatingSummaries(videogameIds));
+    }
+
+    /**
+     * @see Controller#checkout(User, List)
+     */
+    public CompletableFuture<Boolean> checkout(User user, List<Order> orders) {
+        return runWrite(() -> cont.checkout(user, orders));
+    }
+
+    /**
+     * @see Controller#reserveStock(int, int, int)
+     */
+    public CompletableFuture<Boolean> reserveStock(int userCode, int idVideogame, int quantity) {
+        return runWrite(() -> cont.reserveStock(userCode, idVideogame, quantity));
+    }
+
+    /**
+     * @see Controller#releaseReservations(int)
+     */
+    public CompletableFuture<Boolean> releaseReservations(int userCode) {
+        return runWrite(() -> cont.releaseReservations(userCode));
+    }
+
+    /**
+     * @see Controller#getCart(int)
+     */
+    public CompletableFuture<List<CartItem>> getCart(int userCode) {
+        return run(() -> cont.getCart(userCode));
+    }
+
+    /**
+     * @see Controller#flushCart()
+     */
+    public CompletableFuture<Integer> flushCart() {
+        return runWrite(() -> cont.flushCart());
+    }
+}
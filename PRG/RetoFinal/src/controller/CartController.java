@@ -1,19 +1,15 @@
 package controller;
 
 import java.io.IOException;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.event.ActionEvent;
+import threads.AsyncLogHandler;
 
 /**
  * Controller class for managing the shopping cart functionality.
@@ -23,11 +19,10 @@ import javafx.event.ActionEvent;
  */
 public class CartController {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(CartController.class, "CartWindow");
     
     @FXML
-    private ListView<String> listViewCarrito;
+    private ListView<CartModel.Entry> listViewCarrito;
 
     @FXML
     private Label labelTotalItems;
@@ -54,64 +49,14 @@ public class CartController {
     private Button buttonEliminar;
 
     private Stage stage;
-    private ObservableList<String> carritoData;
-    private ObservableList<CartItem> itemsCarrito;
-    private ObservableList<Videogame> juegosCarrito;
-    private int indiceSeleccionado = -1;
+    // Juegos del carrito por código, con los totales al día
+    private final CartModel carrito = new CartModel();
+    private CartModel.Entry seleccionado;
     private int cantidadActual = 0;
     
     private Profile profile;
     private Controller cont;
-    private List<Videogame> todosLosJuegos;
     
-    static {
-        initializeLogger();
-    }
-
-    /**
-     * Initializes the logger system.
-     * Creates log directory and configures file handler with custom formatter.
-     */
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-
-            FileHandler fileHandler = new FileHandler("logs/CartWindow.log", true);
-
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Initializes the controller after FXML loading.
      * Sets up the observable lists and configures selection listeners.
@@ -122,22 +67,18 @@ public class CartController {
         
         try {
             
-            carritoData = FXCollections.observableArrayList();
-            itemsCarrito = FXCollections.observableArrayList();
-            juegosCarrito = FXCollections.observableArrayList();
-            listViewCarrito.setItems(carritoData);
+            listViewCarrito.setItems(carrito.getEntries());
+            // Cada celda se pinta a partir de su entrada, solo cuando es visible
+            listViewCarrito.setCellFactory(list -> new CartCell());
 
             
             listViewCarrito.getSelectionModel().selectedItemProperty().addListener(
                     (observable, oldValue, newValue) -> mostrarDetalleItem(newValue));
             
             logger.info("CartController initialized successfully");
-            logger.info("Lists initialized - carritoData: " + carritoData.size() + 
-                       ", itemsCarrito: " + itemsCarrito.size() + 
-                       ", juegosCarrito: " + juegosCarrito.size());
             
         } catch (Exception e) {
-            logger.severe("Error initializing CartController: " + e.getMessage());
+            logger.severe(() -> "Error initializing CartController: " + e.getMessage());
         }
     }
     
@@ -155,7 +96,25 @@ public class CartController {
             logger.info("CartController setup completed successfully");
             
         } catch (Exception e) {
-            logger.severe("Error in CartController setup: " + e.getMessage());
+            logger.severe(() -> "Error in CartController setup: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Cell of the cart list: shows the game, units and price of an entry.
+     */
+    private final class CartCell extends ListCell<CartModel.Entry> {
+
+        @Override
+        protected void updateItem(CartModel.Entry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            if (empty || entry == null) {
+                setText(null);
+            } else {
+                setText(String.format("Usuario: %s | Videojuego: %s | Cantidad: %d | Precio: $%.2f",
+                        profile != null ? profile.getUsername() : "", entry.getGame().getName(),
+                        entry.getQuantity(), entry.getPrice()));
+            }
         }
     }
     
@@ -165,28 +124,24 @@ public class CartController {
      * @param profile The user profile to set
      */
     public void setUsuario(Profile profile) {
-        logger.info("Setting user profile in CartController: " + 
+        logger.info(() -> "Setting user profile in CartController: " + 
                    (profile != null ? profile.getUsername() + " (ID: " + profile.getUserCode() + ")" : "null"));
         this.profile = profile;
     }
     
     /**
-     * Sets the main controller reference and loads all games.
+     * Sets the main controller reference.
      *
      * @param cont The main controller to set
      */
     public void setCont(Controller cont) {
         logger.info("Setting controller in CartController");
         this.cont = cont;
-        if (cont != null) {
-            this.todosLosJuegos = cont.getAllGames();
-            logger.info("Loaded all games for cart reference: " + 
-                       (todosLosJuegos != null ? todosLosJuegos.size() : 0) + " games");
-        }
     }
     
     /**
-     * Adds an item to the shopping cart.
+     * Adds an item to the shopping cart. If the game is already in the cart
+     * its quantity is increased.
      *
      * @param usuario The username
      * @param videojuego The videogame object
@@ -194,7 +149,7 @@ public class CartController {
      * @param precio The price per unit
      */
     public void agregarItemCarrito(String usuario, Videogame videojuego, int cantidad, double precio) {
-        logger.info("Adding item to cart - User: " + usuario + 
+        logger.info(() -> "Adding item to cart - User: " + usuario + 
                    ", Game: " + videojuego.getName() + 
                    " (ID: " + videojuego.getIdVideogame() + 
                    "), Quantity: " + cantidad + 
@@ -202,127 +157,47 @@ public class CartController {
         
         try {
             
-            for (int i = 0; i < itemsCarrito.size(); i++) {
-                CartItem item = itemsCarrito.get(i);
-                if (item.getIdVideojuego() == videojuego.getIdVideogame()) {
-                    
-                    int nuevaCantidad = item.getCantidad() + cantidad;
-                    item.setCantidad(nuevaCantidad);
-                    
-                    logger.info("Item already in cart - Updating quantity from " + 
-                               item.getCantidad() + " to " + nuevaCantidad + 
-                               " for game: " + videojuego.getName());
-                    
-                    
-                    String itemActualizado = String.format("Usuario: %s | Videojuego: %s | Cantidad: %d | Precio: $%.2f",
-                            usuario, videojuego.getName(), nuevaCantidad, precio);
-                    carritoData.set(i, itemActualizado);
-                    
-                    actualizarTotales();
-                    return;
-                }
-            }
-            
-            
-            String item = String.format("Usuario: %s | Videojuego: %s | Cantidad: %d | Precio: $%.2f",
-                    usuario, videojuego.getName(), cantidad, precio);
-            carritoData.add(item);
-            
-            CartItem cartItem = new CartItem(
-                    profile.getUserCode(),
-                    videojuego.getIdVideogame(),
-                    cantidad,
-                    precio
-            );
-            itemsCarrito.add(cartItem);
-            juegosCarrito.add(videojuego);
+            boolean yaEnCarrito = carrito.get(videojuego.getIdVideogame()) != null;
+            CartModel.Entry entrada = carrito.add(videojuego, cantidad, precio);
             
-            logger.info("New item added to cart - Total items now: " + itemsCarrito.size());
-            
-            actualizarTotales();
-            actualizarEstadoBotones();
+            if (yaEnCarrito) {
+                logger.info(() -> "Item already in cart - Quantity is now " + entrada.getQuantity() + 
+                           " for game: " + videojuego.getName());
+            } else {
+                logger.info(() -> "New item added to cart - Total items now: " + carrito.size());
+            }
             
-        } catch (Exception e) {
-            logger.severe("Error adding item to cart: " + e.getMessage());
-        }
-    }
-    
-    /**
-     * Adds an item to the shopping cart (compatibility method).
-     *
-     * @param usuario The username
-     * @param videojuegoNombre The videogame name
-     * @param cantidad The quantity to add
-     * @param precio The price per unit
-     */
-    public void agregarItemCarrito(String usuario, String videojuegoNombre, int cantidad, double precio) {
-        logger.info("Adding item to cart (compatibility method) - User: " + usuario + 
-                   ", Game: " + videojuegoNombre + 
-                   ", Quantity: " + cantidad + 
-                   ", Price: $" + precio);
-        
-        try {
-            String item = String.format("Usuario: %s | Videojuego: %s | Cantidad: %d | Precio: $%.2f",
-                    usuario, videojuegoNombre, cantidad, precio);
-            carritoData.add(item);
             actualizarTotales();
             actualizarEstadoBotones();
             
-            logger.info("Item added via compatibility method - Cart data size: " + carritoData.size());
-            
         } catch (Exception e) {
-            logger.severe("Error in compatibility method agregarItemCarrito: " + e.getMessage());
+            logger.severe(() -> "Error adding item to cart: " + e.getMessage());
         }
     }
 
     /**
      * Displays details of the selected cart item.
      *
-     * @param item The selected item string
+     * @param entrada The selected entry
      */
-    private void mostrarDetalleItem(String item) {
-        if (item != null) {
-            logger.info("Item selected in cart: " + item);
-            
+    private void mostrarDetalleItem(CartModel.Entry entrada) {
+        if (entrada != null) {
+            logger.fine(() -> "Item selected in cart: " + entrada.getGame().getName());
             
-            indiceSeleccionado = listViewCarrito.getSelectionModel().getSelectedIndex();
-            
-            
-            if (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size()) {
-                logger.info("Valid selection - Index: " + indiceSeleccionado + 
-                           ", Items in cart: " + itemsCarrito.size());
-                
-                
-                String[] partes = item.split("\\|");
-                if (partes.length >= 4) {
-                    String usuario = partes[0].trim().split(":")[1].trim();
-                    String videojuego = partes[1].trim().split(":")[1].trim();
-                    String cantidadStr = partes[2].trim().split(":")[1].trim();
-                    String precio = partes[3].trim();
-
-                    
-                    labelItemSeleccionado.setText(videojuego);
-                    cantidadActual = Integer.parseInt(cantidadStr);
-                    labelCantidadActual.setText(String.valueOf(cantidadActual));
+            seleccionado = entrada;
+            labelItemSeleccionado.setText(entrada.getGame().getName());
+            cantidadActual = entrada.getQuantity();
+            labelCantidadActual.setText(String.valueOf(cantidadActual));
 
-                    logger.info("Item details extracted - Game: " + videojuego + 
-                               ", Quantity: " + cantidadActual + 
-                               ", Price: " + precio);
-                    
-                    
-                    actualizarEstadoBotones();
-                } else {
-                    logger.warning("Invalid item format in cart: " + item);
-                }
-            } else {
-                logger.warning("Invalid selection index: " + indiceSeleccionado + 
-                             " (itemsCarrito size: " + itemsCarrito.size() + ")");
-                limpiarSeleccion();
-            }
+            logger.fine(() -> "Item details - Game: " + entrada.getGame().getName() + 
+                       ", Quantity: " + cantidadActual + 
+                       ", Price: " + entrada.getPrice());
+            
+            actualizarEstadoBotones();
         } else {
             
-            logger.info("No item selected in cart");
-            indiceSeleccionado = -1;
+            logger.fine("No item selected in cart");
+            seleccionado = null;
             cantidadActual = 0;
             labelItemSeleccionado.setText("Selecciona un item");
             labelCantidadActual.setText("0");
@@ -339,10 +214,10 @@ public class CartController {
         logger.info("Increase quantity button clicked");
         
         
-        if (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size()) {
+        if (seleccionado != null) {
             cantidadActual++;
-            logger.info("Increasing quantity to: " + cantidadActual + 
-                       " for item at index: " + indiceSeleccionado);
+            logger.info(() -> "Increasing quantity to: " + cantidadActual + 
+                       " for game: " + seleccionado.getGame().getName());
             actualizarItemCantidad();
         } else {
             logger.warning("Attempted to increase quantity without valid selection");
@@ -359,11 +234,11 @@ public class CartController {
         logger.info("Decrease quantity button clicked");
         
         
-        if (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size()) {
+        if (seleccionado != null) {
             if (cantidadActual > 1) {
                 cantidadActual--;
-                logger.info("Decreasing quantity to: " + cantidadActual + 
-                           " for item at index: " + indiceSeleccionado);
+                logger.info(() -> "Decreasing quantity to: " + cantidadActual + 
+                           " for game: " + seleccionado.getGame().getName());
                 actualizarItemCantidad();
             } else if (cantidadActual == 1) {
                 logger.info("Quantity is 1 - Asking if user wants to remove item");
@@ -394,42 +269,66 @@ public class CartController {
     }
 
     /**
-     * Updates the quantity of the selected item in the cart.
+     * Updates the quantity of the selected item in the cart. The new quantity
+     * is reserved in the database first; if there is not enough stock the
+     * previous quantity is kept.
      */
     private void actualizarItemCantidad() {
         
-        if (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size()) {
-            try {
-                
-                CartItem item = itemsCarrito.get(indiceSeleccionado);
-                Videogame videojuego = juegosCarrito.get(indiceSeleccionado);
-                
-                logger.info("Updating quantity - Game: " + videojuego.getName() + 
-                           ", Old quantity: " + item.getCantidad() + 
-                           ", New quantity: " + cantidadActual);
-                
-                
-                item.setCantidad(cantidadActual);
-                
-                
-                String nuevoItem = String.format("Usuario: %s | Videojuego: %s | Cantidad: %d | Precio: $%.2f",
-                        profile.getUsername(), videojuego.getName(), cantidadActual, item.getPrecio());
-                carritoData.set(indiceSeleccionado, nuevoItem);
-                
-                
-                labelCantidadActual.setText(String.valueOf(cantidadActual));
-                actualizarTotales();
-                actualizarEstadoBotones();
-                
-                logger.info("Quantity updated successfully");
-                
-            } catch (Exception e) {
-                logger.severe("Error updating item quantity: " + e.getMessage());
-                mostrarAlerta("Error", "No se pudo actualizar la cantidad del item.");
-            }
+        if (seleccionado != null) {
+            final CartModel.Entry entrada = seleccionado;
+            final Videogame videojuego = entrada.getGame();
+            final int nuevaCantidad = cantidadActual;
+            
+            logger.info(() -> "Updating quantity - Game: " + videojuego.getName() + 
+                       ", Old quantity: " + entrada.getQuantity() + 
+                       ", New quantity: " + nuevaCantidad);
+            
+            buttonMas.setDisable(true);
+            buttonMenos.setDisable(true);
+            cont.async().reserveStock(profile.getUserCode(), videojuego.getIdVideogame(), nuevaCantidad)
+                    .whenCompleteAsync((reservado, error) -> {
+                        if (error != null || !reservado) {
+                            if (error != null) {
+                                logger.severe(() -> "Error updating item quantity: " + AsyncController.unwrap(error).getMessage());
+                                mostrarAlerta("Error", "No se pudo actualizar la cantidad del item.");
+                            } else {
+                                logger.warning(() -> "Insufficient stock - " + videojuego.getName() + 
+                                             ", Cantidad solicitada: " + nuevaCantidad);
+                                mostrarAlerta("Stock insuficiente", 
+                                    "No hay unidades suficientes de " + videojuego.getName() + ".");
+                            }
+                            // Volvemos a la cantidad que sigue reservada
+                            if (entrada == seleccionado) {
+                                cantidadActual = entrada.getQuantity();
+                                labelCantidadActual.setText(String.valueOf(cantidadActual));
+                            }
+                            actualizarEstadoBotones();
+                            return;
+                        }
+                        
+                        if (carrito.get(videojuego.getIdVideogame()) != entrada) {
+                            // Se eliminó mientras se reservaba: su reserva ya se liberó
+                            actualizarEstadoBotones();
+                            return;
+                        }
+                        
+                        // La celda de la entrada se vuelve a pintar al cambiar su cantidad
+                        carrito.setQuantity(entrada, nuevaCantidad);
+                        // Solo en memoria: el carrito se guarda en segundo plano junto con los demás cambios
+                        cont.updateCart(profile.getUserCode(), videojuego.getIdVideogame(), nuevaCantidad, entrada.getPrice());
+                        
+                        if (entrada == seleccionado) {
+                            labelCantidadActual.setText(String.valueOf(nuevaCantidad));
+                        }
+                        actualizarTotales();
+                        actualizarEstadoBotones();
+                        
+                        logger.info("Quantity updated successfully");
+                    }, AsyncController.FX);
         } else {
             
-            logger.warning("Invalid index when updating quantity: " + indiceSeleccionado);
+            logger.warning("No item selected when updating quantity");
             limpiarSeleccion();
         }
     }
@@ -439,8 +338,8 @@ public class CartController {
      */
     public void actualizarEstadoBotones() {
         try {
-            boolean hayItemSeleccionado = (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size());
-            boolean carritoVacio = carritoData.isEmpty();
+            boolean hayItemSeleccionado = seleccionado != null;
+            boolean carritoVacio = carrito.isEmpty();
 
             
             buttonMas.setDisable(!hayItemSeleccionado);
@@ -452,13 +351,13 @@ public class CartController {
             
             buttonComprar.setDisable(carritoVacio);
             
-            logger.info("Button states updated - Selected: " + hayItemSeleccionado + 
+            logger.fine(() -> "Button states updated - Selected: " + hayItemSeleccionado + 
                        ", Cart empty: " + carritoVacio + 
                        ", Current quantity: " + cantidadActual + 
-                       ", Items in cart: " + itemsCarrito.size());
+                       ", Items in cart: " + carrito.size());
             
         } catch (Exception e) {
-            logger.severe("Error updating button states: " + e.getMessage());
+            logger.severe(() -> "Error updating button states: " + e.getMessage());
         }
     }
 
@@ -470,12 +369,11 @@ public class CartController {
     private void eliminarItem() {
         logger.info("Delete item button clicked");
         
-        if (indiceSeleccionado >= 0 && indiceSeleccionado < itemsCarrito.size()) {
+        if (seleccionado != null) {
             try {
-                CartItem item = itemsCarrito.get(indiceSeleccionado);
-                logger.info("Confirming deletion of item at index: " + indiceSeleccionado + 
-                           " - Game ID: " + item.getIdVideojuego() + 
-                           ", Quantity: " + item.getCantidad());
+                final CartModel.Entry entrada = seleccionado;
+                logger.info(() -> "Confirming deletion of item - Game ID: " + entrada.getGame().getIdVideogame() + 
+                           ", Quantity: " + entrada.getQuantity());
                 
                 Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
                 alert.setTitle("Confirmar Eliminación");
@@ -490,16 +388,19 @@ public class CartController {
                     if (response == buttonTypeSi) {
                         logger.info("User confirmed item deletion");
                         
+                        // Devolver al stock las unidades reservadas
+                        int idVideojuego = entrada.getGame().getIdVideogame();
+                        cont.updateCart(profile.getUserCode(), idVideojuego, 0, entrada.getPrice());
+                        cont.async().reserveStock(profile.getUserCode(), idVideojuego, 0).whenComplete((liberado, error) -> {
+                            if (error != null || !liberado) {
+                                logger.warning(() -> "Could not release reservation for game ID: " + idVideojuego
+                                        + " - It will expire on its own");
+                            }
+                        });
                         
-                        carritoData.remove(indiceSeleccionado);
-                        if (indiceSeleccionado < itemsCarrito.size()) {
-                            itemsCarrito.remove(indiceSeleccionado);
-                        }
-                        if (indiceSeleccionado < juegosCarrito.size()) {
-                            juegosCarrito.remove(indiceSeleccionado);
-                        }
+                        carrito.remove(idVideojuego);
                         
-                        logger.info("Item removed - Remaining items: " + itemsCarrito.size());
+                        logger.info(() -> "Item removed - Remaining items: " + carrito.size());
                         
                         actualizarTotales();
                         limpiarSeleccion();
@@ -509,7 +410,7 @@ public class CartController {
                     }
                 });
             } catch (Exception e) {
-                logger.severe("Error deleting item: " + e.getMessage());
+                logger.severe(() -> "Error deleting item: " + e.getMessage());
                 mostrarAlerta("Error", "No se pudo eliminar el item.");
             }
         } else {
@@ -526,7 +427,7 @@ public class CartController {
         
         try {
             listViewCarrito.getSelectionModel().clearSelection();
-            indiceSeleccionado = -1;
+            seleccionado = null;
             cantidadActual = 0;
             labelCantidadActual.setText("0");
             labelItemSeleccionado.setText("Selecciona un item");
@@ -535,7 +436,7 @@ public class CartController {
             logger.info("Selection cleared successfully");
             
         } catch (Exception e) {
-            logger.severe("Error clearing selection: " + e.getMessage());
+            logger.severe(() -> "Error clearing selection: " + e.getMessage());
         }
     }
 
@@ -554,35 +455,33 @@ public class CartController {
             logger.info("Cart window closed");
             
         } catch (Exception e) {
-            logger.severe("Error closing cart window: " + e.getMessage());
+            logger.severe(() -> "Error closing cart window: " + e.getMessage());
         }
     }
 
     /**
-     * Updates the total items count and total price display.
+     * Updates the total items count and total price display. The totals are
+     * kept up to date by the cart model, so the items are not added up again.
      */
     public void actualizarTotales() {
-        logger.info("Updating cart totals");
+        logger.fine("Updating cart totals");
         
         try {
-            int totalItems = 0;
-            double totalPagar = 0.0;
-
-            for (CartItem item : itemsCarrito) {
-                totalItems += item.getCantidad();
-                totalPagar += item.getPrecio() * item.getCantidad();
-            }
+            int totalItems = carrito.getTotalUnits();
+            double totalPagar = carrito.getTotal();
 
             labelTotalItems.setText(String.valueOf(totalItems));
             labelTotalPagar.setText(String.format("$%.2f", totalPagar));
             actualizarEstadoBotones();
             
-            logger.info("Cart totals updated - Total items: " + totalItems + 
-                       ", Total to pay: $" + totalPagar + 
-                       ", Cart items: " + itemsCarrito.size());
+            int itemCount = totalItems;
+            double total = totalPagar;
+            logger.fine(() -> "Cart totals updated - Total items: " + itemCount + 
+                       ", Total to pay: $" + total + 
+                       ", Cart items: " + carrito.size());
             
         } catch (Exception e) {
-            logger.severe("Error updating cart totals: " + e.getMessage());
+            logger.severe(() -> "Error updating cart totals: " + e.getMessage());
         }
     }
 
@@ -593,7 +492,7 @@ public class CartController {
      * @param mensaje The alert message
      */
     private void mostrarAlerta(String titulo, String mensaje) {
-        logger.info("Showing alert - Title: " + titulo + ", Message: " + mensaje);
+        logger.info(() -> "Showing alert - Title: " + titulo + ", Message: " + mensaje);
         
         try {
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -602,7 +501,7 @@ public class CartController {
             alert.setContentText(mensaje);
             alert.showAndWait();
         } catch (Exception e) {
-            logger.severe("Error showing alert: " + e.getMessage());
+            logger.severe(() -> "Error showing alert: " + e.getMessage());
         }
     }
 
@@ -612,10 +511,10 @@ public class CartController {
      */
     @FXML
     private void comprar() {
-        logger.info("Buy button clicked - Items in cart: " + itemsCarrito.size() + 
+        logger.info(() -> "Buy button clicked - Items in cart: " + carrito.size() + 
                    ", Total: " + labelTotalPagar.getText());
         
-        if (carritoData.isEmpty()) {
+        if (carrito.isEmpty()) {
             logger.warning("Attempted to buy with empty cart");
             mostrarAlerta("Carrito vacío", "No hay items en el carrito para comprar.");
             return;
@@ -625,7 +524,7 @@ public class CartController {
         alert.setTitle("Confirmar Compra");
         alert.setHeaderText("¿Realizar compra?");
         alert.setContentText("Total a pagar: " + labelTotalPagar.getText() + 
-                           "\n\nEsta acción procesará " + itemsCarrito.size() + " items.");
+                           "\n\nEsta acción procesará " + carrito.size() + " items.");
 
         ButtonType buttonTypeSi = new ButtonType("Sí");
         ButtonType buttonTypeNo = new ButtonType("No");
@@ -633,7 +532,7 @@ public class CartController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == buttonTypeSi) {
-                logger.info("User confirmed purchase - Processing " + itemsCarrito.size() + " items");
+                logger.info(() -> "User confirmed purchase - Processing " + carrito.size() + " items");
                 procesarCompra();
             } else {
                 logger.info("User cancelled purchase");
@@ -643,92 +542,95 @@ public class CartController {
     
     /**
      * Processes the purchase of all items in the cart.
-     * Creates orders in the database and updates stock levels.
+     * Registers all orders and updates stock levels in one transaction. The database
+     * work runs in the background; the result is shown on the JavaFX thread.
      */
     private void procesarCompra() {
-        logger.info("Starting purchase processing for user: " + 
+        logger.info(() -> "Starting purchase processing for user: " + 
                    (profile != null ? profile.getUsername() : "unknown"));
         
-        try {
-            
-            logger.info("Retrieving user from database: " + profile.getUsername());
-            User usuario = cont.getUserByUsername(profile.getUsername());
-            if (usuario == null) {
-                logger.severe("User not found in database: " + profile.getUsername());
-                mostrarAlerta("Error", "Usuario no encontrado en la base de datos.");
-                return;
-            }
-            
-            logger.info("User retrieved successfully - User ID: " + usuario.getUserCode());
-            
-            
-            logger.info("Validating stock for " + itemsCarrito.size() + " items");
-            if (!validarStockDisponible()) {
-                return;
-            }
-            
-            
-            boolean exitoTotal = true;
-            StringBuilder errores = new StringBuilder();
-            int itemsProcesados = 0;
-            
-            logger.info("Processing " + itemsCarrito.size() + " cart items");
-            
-            for (int i = 0; i < itemsCarrito.size(); i++) {
-                CartItem item = itemsCarrito.get(i);
-                Videogame videojuego = juegosCarrito.get(i);
-                
-                try {
-                    logger.info("Processing item " + (i+1) + "/" + itemsCarrito.size() + 
-                               " - Game: " + videojuego.getName() + 
-                               " x" + item.getCantidad());
-                    
-                    
-                    Order order = new Order(usuario, videojuego, item.getPrecio(), item.getCantidad());
-                    
-                    
-                    logger.info("Creating order in database...");
-                    boolean exito = cont.createOrder(order);
-                    
-                    if (exito) {
-                        
-                        int nuevoStock = videojuego.getStock() - item.getCantidad();
-                        videojuego.setStock(nuevoStock);
-                        
-                        logger.info("Order created successfully - Updating stock from " + 
-                                   videojuego.getStock() + " to " + nuevoStock);
-                        
-                        
-                        cont.modifyGame(videojuego);
-                        
-                        itemsProcesados++;
-                        logger.info("Item processed successfully");
-                        
+        // El stock no se valida aquí contra los datos en memoria: checkout lo
+        // comprueba en la base de datos al consumir las reservas
+        // Copiamos los datos del carrito: las propiedades JavaFX no se leen fuera de su hilo
+        final UserSession sesion = UserSession.of(profile);
+        final List<Videogame> juegos = new ArrayList<>(carrito.size());
+        final List<Integer> cantidades = new ArrayList<>(carrito.size());
+        final List<Double> precios = new ArrayList<>(carrito.size());
+        for (CartModel.Entry entrada : carrito.getEntries()) {
+            juegos.add(entrada.getGame());
+            cantidades.add(entrada.getQuantity());
+            precios.add(entrada.getPrice());
+        }
+        
+        // Sin límite de tiempo: el botón sigue desactivado hasta que la compra
+        // termina de verdad, para no repetir una compra que quizá ya se guardó
+        buttonComprar.setDisable(true);
+        cont.async().runWrite(() -> registrarCompra(sesion, juegos, cantidades, precios))
+                .whenCompleteAsync((resultado, error) -> {
+                    buttonComprar.setDisable(false);
+                    if (error != null) {
+                        Throwable e = AsyncController.unwrap(error);
+                        logger.severe(() -> "Critical error processing purchase: " + e.getMessage());
+                        mostrarAlerta("Error en la compra", "Ocurrió un error al procesar la compra: " + e.getMessage());
+                        e.printStackTrace();
                     } else {
-                        exitoTotal = false;
-                        String errorMsg = "Error al procesar: " + videojuego.getName();
-                        errores.append("- ").append(errorMsg).append("\n");
-                        logger.warning(errorMsg);
+                        mostrarResultadoCompra(resultado);
                     }
-                    
-                } catch (Exception e) {
-                    exitoTotal = false;
-                    String errorMsg = "Error: " + e.getMessage() + " for game: " + videojuego.getName();
-                    errores.append("- ").append(errorMsg).append("\n");
-                    logger.severe(errorMsg);
-                    e.printStackTrace();
-                }
-            }
-            
-            if (exitoTotal) {
-                
-                logger.info("Purchase completed successfully - " + itemsProcesados + " items processed");
+                }, AsyncController.FX);
+    }
+    
+    /**
+     * Registers the whole purchase in a single transaction (background thread).
+     *
+     * @param sesion Identity of the buyer
+     * @param juegos Games in the cart
+     * @param cantidades Quantity of each game
+     * @param precios Unit price of each game
+     * @return Outcome of the purchase
+     */
+    private ResultadoCompra registrarCompra(UserSession sesion, List<Videogame> juegos, List<Integer> cantidades, List<Double> precios) {
+        // Los pedidos solo necesitan el código del usuario, no se vuelve a leer
+        if (sesion.isAdmin()) {
+            logger.severe(() -> "Profile is not a user: " + sesion.getUsername());
+            return ResultadoCompra.USUARIO_NO_ENCONTRADO;
+        }
+        User usuario = sesion.reference();
+        
+        List<Order> pedidos = new ArrayList<>(juegos.size());
+        for (int i = 0; i < juegos.size(); i++) {
+            pedidos.add(new Order(usuario, juegos.get(i), precios.get(i), cantidades.get(i)));
+        }
+        
+        logger.info(() -> "Processing " + pedidos.size() + " cart items in a single checkout - User ID: " + usuario.getUserCode());
+        return cont.checkout(usuario, pedidos) ? ResultadoCompra.COMPLETADA : ResultadoCompra.RECHAZADA;
+    }
+    
+    /**
+     * Shows the result of the purchase and closes the cart if it was completed
+     * (JavaFX thread).
+     *
+     * @param resultado Outcome returned by registrarCompra
+     */
+    private void mostrarResultadoCompra(ResultadoCompra resultado) {
+        switch (resultado) {
+            case USUARIO_NO_ENCONTRADO:
+                mostrarAlerta("Error", "Usuario no encontrado en la base de datos.");
+                break;
+            case RECHAZADA:
+                // La compra es atómica: si algo falla no se ha guardado ningún pedido
+                logger.warning("Checkout rejected - No items were processed");
+                mostrarAlerta("Compra no realizada",
+                    "No se pudo completar la compra. Puede que algún juego ya no tenga stock suficiente.\n" +
+                    "No se ha realizado ningún cargo.");
+                break;
+            default:
+                logger.info(() -> "Purchase completed successfully - " + carrito.size() + " items processed");
                 
                 Alert success = new Alert(Alert.AlertType.INFORMATION);
                 success.setTitle("Compra Realizada");
                 success.setHeaderText("¡Compra exitosa!");
                 success.setContentText("Tu compra se ha realizado correctamente.\n" +
-                                     "Se procesaron " + itemsCarrito.size() + " items.\n" +
+                                     "Se procesaron " + carrito.size() + " items.\n" +
                                      "Total pagado: " + labelTotalPagar.getText());
                 success.showAndWait();
                 
@@ -741,56 +643,14 @@ public class CartController {
                 currentStage.close();
                 
                 logger.info("Cart window closed after purchase");
-                
-            } else {
-                logger.warning("Partial purchase - " + itemsProcesados + "/" + itemsCarrito.size() + 
-                             " items processed successfully");
-                mostrarAlerta("Compra parcial", 
-                    "Algunos items no se pudieron procesar:\n" + errores.toString());
-            }
-            
-        } catch (Exception e) {
-            logger.severe("Critical error processing purchase: " + e.getMessage());
-            mostrarAlerta("Error en la compra", "Ocurrió un error al procesar la compra: " + e.getMessage());
-            e.printStackTrace();
         }
     }
     
     /**
-     * Validates that all items in the cart have sufficient stock.
-     *
-     * @return true if all items have sufficient stock, false otherwise
+     * Possible outcomes of a purchase.
      */
-    private boolean validarStockDisponible() {
-        logger.info("Validating stock availability");
-        
-        StringBuilder erroresStock = new StringBuilder();
-        int itemsConStockInsuficiente = 0;
-        
-        for (int i = 0; i < itemsCarrito.size(); i++) {
-            CartItem item = itemsCarrito.get(i);
-            Videogame videojuego = juegosCarrito.get(i);
-            
-            if (item.getCantidad() > videojuego.getStock()) {
-                itemsConStockInsuficiente++;
-                String errorMsg = videojuego.getName() + 
-                                ": Stock disponible: " + videojuego.getStock() + 
-                                ", Cantidad solicitada: " + item.getCantidad();
-                erroresStock.append("- ").append(errorMsg).append("\n");
-                logger.warning("Insufficient stock - " + errorMsg);
-            }
-        }
-        
-        if (erroresStock.length() > 0) {
-            logger.warning("Stock validation failed - " + itemsConStockInsuficiente + 
-                          " items with insufficient stock");
-            mostrarAlerta("Stock insuficiente", 
-                "Los siguientes items no tienen stock suficiente:\n\n" + erroresStock.toString());
-            return false;
-        }
-        
-        logger.info("Stock validation passed - All items have sufficient stock");
-        return true;
+    private enum ResultadoCompra {
+        COMPLETADA, RECHAZADA, USUARIO_NO_ENCONTRADO
     }
     
     /**
@@ -800,17 +660,15 @@ public class CartController {
         logger.info("Clearing entire cart");
         
         try {
-            int itemsCount = itemsCarrito.size();
-            carritoData.clear();
-            itemsCarrito.clear();
-            juegosCarrito.clear();
+            int itemsCount = carrito.size();
+            carrito.clear();
             limpiarSeleccion();
             actualizarTotales();
             
-            logger.info("Cart cleared - Removed " + itemsCount + " items");
+            logger.info(() -> "Cart cleared - Removed " + itemsCount + " items");
             
         } catch (Exception e) {
-            logger.severe("Error clearing cart: " + e.getMessage());
+            logger.severe(() -> "Error clearing cart: " + e.getMessage());
         }
     }
 
@@ -832,7 +690,7 @@ public class CartController {
      */
     private void showAlert(String title, String message) {
         try {
-            logger.info("Showing alert: " + title + " - " + message);
+            logger.info(() -> "Showing alert: " + title + " - " + message);
 
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(title);
@@ -841,7 +699,7 @@ public class CartController {
             alert.showAndWait();
 
         } catch (Exception e) {
-            logger.severe("Error showing alert: " + e.getMessage());
+            logger.severe(() -> "Error showing alert: " + e.getMessage());
         }
     }
 
@@ -864,7 +722,7 @@ public class CartController {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("User manual PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "User manual PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 
                 String[] possiblePaths = {
@@ -877,10 +735,11 @@ public class CartController {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found manual PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found manual PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -897,7 +756,7 @@ public class CartController {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened user manual PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened user manual PDF: " + pdfFileName);
                 } else {
                     throw new IOException("OPEN action not supported on this platform");
                 }
@@ -906,7 +765,7 @@ public class CartController {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening user manual PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening user manual PDF: " + ex.getMessage());
 
             
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -939,7 +798,7 @@ public class CartController {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("Project report PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "Project report PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 
                 String[] possiblePaths = {
@@ -952,10 +811,11 @@ public class CartController {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found report PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found report PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -972,7 +832,7 @@ public class CartController {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened project report PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened project report PDF: " + pdfFileName);
 
                     
                     Alert info = new Alert(Alert.AlertType.INFORMATION);
@@ -989,7 +849,7 @@ public class CartController {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening project report PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening project report PDF: " + ex.getMessage());
 
             // Mostrar instrucciones alternativas
             Alert alert = new Alert(Alert.AlertType.ERROR);
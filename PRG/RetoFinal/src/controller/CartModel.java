@@ -0,0 +1,199 @@
+package controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.beans.Observable;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Videogame;
+
+/**
+ * Contents of the cart window: one entry per game, indexed by the game code,
+ * so finding, adding or changing a game does not walk the cart. The entries
+ * are also kept in an observable list, in the order they were added, for the
+ * ListView; a change of quantity redraws only the cell of that entry.
+ *
+ * The totals are updated with every change instead of being added up again.
+ * The amount is kept in cents so that many changes do not accumulate
+ * rounding errors.
+ *
+ * All methods must be called on the JavaFX thread.
+ *
+ * @version 1.0
+ */
+public class CartModel {
+
+    /**
+     * A game in the cart with its units and unit price.
+     */
+    public static final class Entry {
+
+        private final Videogame game;
+        private final double price;
+        private final long priceCents;
+        private final IntegerProperty quantity;
+
+        private Entry(Videogame game, int quantity, double price) {
+            this.game = game;
+            this.price = price;
+            this.priceCents = Math.round(price * 100);
+            this.quantity = new SimpleIntegerProperty(quantity);
+        }
+
+        /**
+         * Gets the game.
+         */
+        public Videogame getGame() {
+            return game;
+        }
+
+        /**
+         * Gets the unit price.
+         */
+        public double getPrice() {
+            return price;
+        }
+
+        /**
+         * Gets the units.
+         */
+        public int getQuantity() {
+            return quantity.get();
+        }
+
+        /**
+         * Gets the units property, which the list observes to redraw the cell.
+         */
+        public ReadOnlyIntegerProperty quantityProperty() {
+            return quantity;
+        }
+
+        /**
+         * Gets the price of all the units.
+         */
+        public double getSubtotal() {
+            return priceCents * quantity.get() / 100.0;
+        }
+    }
+
+    // Índice por código de juego; el orden de la lista es el de llegada
+    private final Map<Integer, Entry> byGame = new LinkedHashMap<>();
+    private final ObservableList<Entry> entries
+            = FXCollections.observableArrayList(entry -> new Observable[]{entry.quantity});
+    private int totalUnits;
+    private long totalCents;
+
+    /**
+     * Adds units of a game. If the game is already in the cart its units are
+     * added to the entry, which keeps its price.
+     *
+     * @param game Game to add
+     * @param quantity Units to add
+     * @param price Unit price
+     * @return The entry of the game
+     */
+    public Entry add(Videogame game, int quantity, double price) {
+        Entry entry = byGame.get(game.getIdVideogame());
+        if (entry != null) {
+            setQuantity(entry, entry.getQuantity() + quantity);
+            return entry;
+        }
+        entry = new Entry(game, quantity, price);
+        byGame.put(game.getIdVideogame(), entry);
+        entries.add(entry);
+        totalUnits += quantity;
+        totalCents += entry.priceCents * quantity;
+        return entry;
+    }
+
+    /**
+     * Gets the entry of a game.
+     *
+     * @param idVideogame Code of the game
+     * @return The entry, or null if the game is not in the cart
+     */
+    public Entry get(int idVideogame) {
+        return byGame.get(idVideogame);
+    }
+
+    /**
+     * Changes the units of an entry of this cart.
+     *
+     * @param entry Entry to change
+     * @param quantity New units, at least 1 (use {@link #remove} for 0)
+     */
+    public void setQuantity(Entry entry, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1: " + quantity);
+        }
+        int change = quantity - entry.getQuantity();
+        totalUnits += change;
+        totalCents += entry.priceCents * change;
+        entry.quantity.set(quantity);
+    }
+
+    /**
+     * Removes a game from the cart.
+     *
+     * @param idVideogame Code of the game
+     * @return The removed entry, or null if the game was not in the cart
+     */
+    public Entry remove(int idVideogame) {
+        Entry entry = byGame.remove(idVideogame);
+        if (entry != null) {
+            entries.remove(entry);
+            totalUnits -= entry.getQuantity();
+            totalCents -= entry.priceCents * entry.getQuantity();
+        }
+        return entry;
+    }
+
+    /**
+     * Empties the cart.
+     */
+    public void clear() {
+        byGame.clear();
+        entries.clear();
+        totalUnits = 0;
+        totalCents = 0;
+    }
+
+    /**
+     * Gets the entries in the order they were added, for the ListView. The
+     * list must not be modified directly.
+     */
+    public ObservableList<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the number of games in the cart.
+     */
+    public int size() {
+        return byGame.size();
+    }
+
+    /**
+     * Checks whether the cart is empty.
+     */
+    public boolean isEmpty() {
+        return byGame.isEmpty();
+    }
+
+    /**
+     * Gets the units of all the games.
+     */
+    public int getTotalUnits() {
+        return totalUnits;
+    }
+
+    /**
+     * Gets the amount to pay.
+     */
+    public double getTotal() {
+        return totalCents / 100.0;
+    }
+}
@@ -1,7 +1,9 @@
 package controller;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import model.*;
 
 /**
@@ -14,6 +16,21 @@ public class Controller {
 
     ClassDAO dao = new DBImplementation();
 
+    private AsyncController async;
+
+    /**
+     * Returns the asynchronous version of this controller. Windows must use it
+     * for any call made from the JavaFX thread.
+     *
+     * @return AsyncController that runs the calls of this controller in the background
+     */
+    public synchronized AsyncController async() {
+        if (async == null) {
+            async = new AsyncController(this);
+        }
+        return async;
+    }
+
     /**
      * Attempts to log in a user or admin.
      *
@@ -22,7 +39,12 @@ public class Controller {
      * @return Profile object if login succeeds, null otherwise
      */
     public Profile logIn(String username, String password) {
-        return dao.logIn(username, password);
+        Profile profile = dao.logIn(username, password);
+        if (profile != null) {
+            // Las ventanas toman de aquí el usuario para sus compras y reseñas
+            UserSession.start(profile);
+        }
+        return profile;
     }
 
     /**
@@ -36,9 +58,9 @@ public class Controller {
      * @param name
      * @param telephone
      * @param surname
-     * @return true if signup succeeds, false otherwise
+     * @return CREATED, USERNAME_TAKEN, EMAIL_TAKEN or ERROR
      */
-    public boolean signUp(String gender, String cardNumber, String username, String password, String email,
+    public SignUpResult signUp(String gender, String cardNumber, String username, String password, String email,
             String name, String telephone, String surname) {
         return dao.signUp(gender, cardNumber, username, password, email, name, telephone, surname);
     }
@@ -79,7 +101,7 @@ public class Controller {
      *
      * @return
      */
-    public List comboBoxInsert() {
+    public List<String> comboBoxInsert() {
         return dao.comboBoxInsert();
     }
 
@@ -115,6 +137,14 @@ public class Controller {
         return dao.getGamesFiltered(name, genre, platform);
     }
 
+    public List<Videogame> getGamesPage(String afterName, int afterId, int skip, int size) {
+        return dao.getGamesPage(afterName, afterId, skip, size);
+    }
+
+    public long countGames() {
+        return dao.countGames();
+    }
+
     // ... después de los métodos existentes en la clase Controller:
     /**
      * Creates a new order in the database.
@@ -130,12 +160,25 @@ public class Controller {
      * Creates a new review in the database.
      *
      * @param review Review object to create
-     * @return true if review creation successful, false otherwise
+     * @return CREATED, ALREADY_REVIEWED or ERROR
      */
-    public boolean createReview(Review review) {
+    public ReviewResult createReview(Review review) {
         return dao.createReview(review);
     }
 
+    /**
+     * Creates a new review from the keys of the author and the game.
+     *
+     * @param userId Code of the author
+     * @param videogameId Code of the reviewed game
+     * @param rating Rating from 0 to 5
+     * @param comment Text of the review
+     * @return CREATED, ALREADY_REVIEWED or ERROR
+     */
+    public ReviewResult createReview(int userId, int videogameId, double rating, String comment) {
+        return dao.createReview(userId, videogameId, rating, comment);
+    }
+
     /**
      * Checks if a user has already reviewed a specific video game.
      *
@@ -146,4 +189,129 @@ public class Controller {
     public boolean reviewExists(int userId, int videogameId) {
         return dao.reviewExists(userId, videogameId);
     }
+
+    /**
+     * Gets the set of games a user has reviewed.
+     *
+     * @param userId User ID
+     * @return The reviewed games, or null on error
+     */
+    public ReviewedGames getReviewedGames(int userId) {
+        return dao.getReviewedGames(userId);
+    }
+
+    /**
+     * Gets the rating summary of a video game.
+     *
+     * @param videogameId Videogame ID
+     * @return The summary, or null on error
+     */
+    public RatingSummary getRatingSummary(int videogameId) {
+        return dao.getRatingSummary(videogameId);
+    }
+
+    /**
+     * Gets the rating summaries of several video games at once.
+     *
+     * @param videogameIds Videogame IDs
+     * @return Summary of each game that has reviews, by videogame ID
+     */
+    public Map<Integer, RatingSummary> getRatingSummaries(Collection<Integer> videogameIds) {
+        return dao.getRatingSummaries(videogameIds);
+    }
+
+    /**
+     * Registers a whole purchase in a single transaction.
+     *
+     * @param user Buyer
+     * @param orders Lines of the purchase
+     * @return true if the purchase was completed, false otherwise
+     */
+    public boolean checkout(User user, List<Order> orders) {
+        return dao.checkout(user, orders);
+    }
+
+    /**
+     * Sets how many units of a game a user holds in the cart.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @param quantity Units to hold (0 releases the hold)
+     * @return true if the hold was updated, false if there is not enough stock
+     */
+    public boolean reserveStock(int userCode, int idVideogame, int quantity) {
+        return dao.reserveStock(userCode, idVideogame, quantity);
+    }
+
+    /**
+     * Returns to the stock every unit held by a user.
+     *
+     * @param userCode User ID
+     * @return true if the holds were released
+     */
+    public boolean releaseReservations(int userCode) {
+        return dao.releaseReservations(userCode);
+    }
+
+    /**
+     * Returns to the stock the units of every expired hold.
+     *
+     * @return Number of holds released
+     */
+    public int releaseExpiredReservations() {
+        return dao.releaseExpiredReservations();
+    }
+
+    /**
+     * Gets the shopping cart of a user.
+     *
+     * @param userCode User ID
+     * @return Lines of the cart, in the order they were added
+     */
+    public List<CartItem> getCart(int userCode) {
+        return dao.getCart(userCode);
+    }
+
+    /**
+     * Gets one line of the shopping cart of a user.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @return The line, or null if the game is not in the cart
+     */
+    public CartItem getCartItem(int userCode, int idVideogame) {
+        return dao.getCartItem(userCode, idVideogame);
+    }
+
+    /**
+     * Sets the units of a game in the shopping cart of a user. Only memory
+     * is changed; the database is written in the background.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @param quantity Units (0 removes the game from the cart)
+     * @param price Unit price
+     */
+    public void updateCart(int userCode, int idVideogame, int quantity, double price) {
+        dao.updateCart(userCode, idVideogame, quantity, price);
+    }
+
+    /**
+     * Saves the pending changes of every cart.
+     *
+     * @return Number of cart lines saved, or -1 on error
+     */
+    public int flushCart() {
+        return dao.flushCart();
+    }
+
+    /**
+     * Gets several video games by their IDs.
+     *
+     * @param videogameIds Videogame IDs
+     * @return Each game that exists, by videogame ID
+     */
+    public Map<Integer, Videogame> getGames(Collection<Integer> videogameIds) {
+        return dao.getGames(videogameIds);
+    }
 }
@@ -1,29 +1,25 @@
 package controller;
 
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import java.io.IOException;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.stage.Stage;
 import model.Profile;
 import javafx.scene.control.ComboBox;
+import threads.AsyncLogHandler;
 
 /**
  * FXML Controller class for deleting user accounts as an Admin.
  */
 public class DeleteAccountAdminController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(DeleteAccountAdminController.class, "DeleteAccountAdmin");
     
     @FXML
     private ComboBox<String> ComboBoxUser; // ComboBox with all users
@@ -39,50 +35,6 @@ public class DeleteAccountAdminController implements Initializable {
     @FXML
     private Button Button_Delete; // Button to delete selected user
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/DeleteAccountAdmin.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     // Set the controller instance
     public void setCont(Controller cont) {
         logger.info("Setting controller in DeleteAccountAdminController");
@@ -91,7 +43,7 @@ public class DeleteAccountAdminController implements Initializable {
 
     // Set the current admin profile
     public void setProfile(Profile profile) {
-        logger.info("Setting admin profile: " + (profile != null ? profile.getUsername() : "null"));
+        logger.info(() -> "Setting admin profile: " + (profile != null ? profile.getUsername() : "null"));
         this.profile = profile;
     }
 
@@ -99,18 +51,20 @@ public class DeleteAccountAdminController implements Initializable {
     public void setComboBoxUser() {
         logger.info("Populating ComboBox with users");
         
-        try {
-            List<String> users = cont.comboBoxInsert();
+        cont.async().comboBoxInsert().whenCompleteAsync((users, error) -> {
+            if (error != null) {
+                logger.severe(() -> "Error populating ComboBox with users: " + AsyncController.unwrap(error).getMessage());
+                return;
+            }
             int userCount = users != null ? users.size() : 0;
-            
+
             ComboBoxUser.getItems().clear();
-            ComboBoxUser.getItems().addAll(users);
-            
-            logger.info("ComboBox populated with " + userCount + " users");
-            
-        } catch (Exception e) {
-            logger.severe("Error populating ComboBox with users: " + e.getMessage());
-        }
+            if (users != null) {
+                ComboBoxUser.getItems().addAll(users);
+            }
+
+            logger.info(() -> "ComboBox populated with " + userCount + " users");
+        }, AsyncController.FX);
     }
 
     // Cancel button action: returns to MenuWindow
@@ -130,7 +84,7 @@ public class DeleteAccountAdminController implements Initializable {
             stage.setScene(new javafx.scene.Scene(root));
             stage.show();
             
-            logger.info("MenuWindow opened successfully for admin: " + 
+            logger.info(() -> "MenuWindow opened successfully for admin: " + 
                        (profile != null ? profile.getUsername() : "unknown"));
 
             // Close current window
@@ -140,8 +94,8 @@ public class DeleteAccountAdminController implements Initializable {
             logger.info("DeleteAccountAdmin window closed");
 
         } catch (IOException ex) {
-            logger.severe("Error navigating to MenuWindow from cancel: " + ex.getMessage());
-            Logger.getLogger(MenuWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error navigating to MenuWindow from cancel: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -152,7 +106,7 @@ public class DeleteAccountAdminController implements Initializable {
         
         // Validación de contraseña
         if (TextFieldPassword.getText().isEmpty()) {
-            logger.warning("Delete attempted without password - Admin: " + 
+            logger.warning(() -> "Delete attempted without password - Admin: " + 
                           (profile != null ? profile.getUsername() : "unknown"));
             
             javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
@@ -165,7 +119,7 @@ public class DeleteAccountAdminController implements Initializable {
 
         // Validación de usuario seleccionado
         if (ComboBoxUser.getValue() == null || ComboBoxUser.getValue().isEmpty()) {
-            logger.warning("Delete attempted without selecting a user - Admin: " + 
+            logger.warning(() -> "Delete attempted without selecting a user - Admin: " + 
                           (profile != null ? profile.getUsername() : "unknown"));
             
             javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
@@ -180,8 +134,8 @@ public class DeleteAccountAdminController implements Initializable {
         String userToDelete = ComboBoxUser.getValue();
         String adminUsername = profile != null ? profile.getUsername() : "unknown";
         
-        logger.info("Admin " + adminUsername + " attempting to delete user: " + userToDelete);
-        logger.info("Password provided: [PROTECTED], Length: " + TextFieldPassword.getText().length());
+        logger.info(() -> "Admin " + adminUsername + " attempting to delete user: " + userToDelete);
+        logger.info(() -> "Password provided: [PROTECTED], Length: " + TextFieldPassword.getText().length());
 
         // Confirmación de eliminación
         javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.CONFIRMATION);
@@ -191,16 +145,27 @@ public class DeleteAccountAdminController implements Initializable {
 
         java.util.Optional<javafx.scene.control.ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == javafx.scene.control.ButtonType.OK) {
-            logger.info("Admin confirmed deletion of user: " + userToDelete);
+            logger.info(() -> "Admin confirmed deletion of user: " + userToDelete);
             
-            try {
-                String adminPassword = TextFieldPassword.getText();
-
-                logger.info("Calling dropOutAdmin - Admin: " + adminUsername + ", Target user: " + userToDelete);
-                Boolean success = cont.dropOutAdmin(userToDelete, adminUsername, adminPassword);
-                
-                if (success) {
-                    logger.info("Account deletion SUCCESSFUL - Admin: " + adminUsername + 
+            String adminPassword = TextFieldPassword.getText();
+
+            logger.info(() -> "Calling dropOutAdmin - Admin: " + adminUsername + ", Target user: " + userToDelete);
+            Button_Delete.setDisable(true);
+            cont.async().dropOutAdmin(userToDelete, adminUsername, adminPassword).whenCompleteAsync((success, failure) -> {
+                Button_Delete.setDisable(false);
+                if (failure != null) {
+                    Throwable ex = AsyncController.unwrap(failure);
+                    logger.severe(() -> "Exception during account deletion - Admin: " + adminUsername + 
+                                ", Target: " + userToDelete + ", Error: " + ex.getMessage());
+                    
+                    ex.printStackTrace();
+                    javafx.scene.control.Alert errorAlert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
+                    errorAlert.setTitle("Error");
+                    errorAlert.setHeaderText("The account could not be deleted.");
+                    errorAlert.setContentText(ex.getMessage());
+                    errorAlert.showAndWait();
+                } else if (success) {
+                    logger.info(() -> "Account deletion SUCCESSFUL - Admin: " + adminUsername + 
                                " deleted user: " + userToDelete);
                     
                     javafx.scene.control.Alert successAlert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.INFORMATION);
@@ -229,11 +194,11 @@ public class DeleteAccountAdminController implements Initializable {
                         logger.info("Successfully returned to MenuWindow after account deletion");
 
                     } catch (IOException ex) {
-                        logger.severe("Error navigating to MenuWindow after deletion: " + ex.getMessage());
-                        Logger.getLogger(MenuWindowController.class.getName()).log(Level.SEVERE, null, ex);
+                        logger.severe(() -> "Error navigating to MenuWindow after deletion: " + ex.getMessage());
+                        logger.log(Level.SEVERE, null, ex);
                     }
                 } else {
-                    logger.warning("Account deletion FAILED - Incorrect password for admin: " + adminUsername);
+                    logger.warning(() -> "Account deletion FAILED - Incorrect password for admin: " + adminUsername);
                     
                     javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
                     error.setTitle("Error");
@@ -241,20 +206,9 @@ public class DeleteAccountAdminController implements Initializable {
                     error.setContentText("The password is incorrect. Please try again.");
                     error.showAndWait();
                 }
-
-            } catch (Exception ex) {
-                logger.severe("Exception during account deletion - Admin: " + adminUsername + 
-                            ", Target: " + userToDelete + ", Error: " + ex.getMessage());
-                
-                ex.printStackTrace();
-                javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
-                error.setTitle("Error");
-                error.setHeaderText("The account could not be deleted.");
-                error.setContentText(ex.getMessage());
-                error.showAndWait();
-            }
+            }, AsyncController.FX);
         } else {
-            logger.info("Account deletion CANCELLED by admin: " + adminUsername);
+            logger.info(() -> "Account deletion CANCELLED by admin: " + adminUsername);
             System.out.println("Deletion cancelled by the user.");
         }
     }
@@ -268,7 +222,7 @@ public class DeleteAccountAdminController implements Initializable {
             logger.info("DeleteAccountAdminController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing DeleteAccountAdminController: " + e.getMessage());
+            logger.severe(() -> "Error initializing DeleteAccountAdminController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -8,21 +8,19 @@ import java.util.logging.Level;
 import javafx.fxml.FXML;
 import javafx.stage.Stage;
 import model.Profile;
+import model.UserSession;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
+import threads.AsyncLogHandler;
 
 /**
  * Controller for the Delete Account window for regular Users. This controller allows a user to delete their own account.
  */
 public class DeleteAccountController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(DeleteAccountController.class, "DeleteAccount");
     
     // Label displaying the username of the logged-in user
     @FXML
@@ -44,50 +42,6 @@ public class DeleteAccountController implements Initializable {
     // Current logged-in profile
     private Profile profile;
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/DeleteAccount.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Sets the Controller instance.
      *
@@ -104,10 +58,10 @@ public class DeleteAccountController implements Initializable {
      * @param profile Profile object
      */
     public void setProfile(Profile profile) {
-        logger.info("Setting user profile for deletion: " + (profile != null ? profile.getUsername() : "null"));
+        logger.info(() -> "Setting user profile for deletion: " + (profile != null ? profile.getUsername() : "null"));
         this.profile = profile;
         LabelUsername.setText(profile.getUsername());
-        logger.info("Username label updated: " + profile.getUsername());
+        logger.info(() -> "Username label updated: " + profile.getUsername());
     }
 
     /**
@@ -115,7 +69,7 @@ public class DeleteAccountController implements Initializable {
      */
     @FXML
     private void cancel() {
-        logger.info("Cancel button clicked - User: " + (profile != null ? profile.getUsername() : "unknown"));
+        logger.info(() -> "Cancel button clicked - User: " + (profile != null ? profile.getUsername() : "unknown"));
         
         try {
             javafx.fxml.FXMLLoader fxmlLoader = new javafx.fxml.FXMLLoader(getClass().getResource("/view/MenuWindow.fxml"));
@@ -128,7 +82,7 @@ public class DeleteAccountController implements Initializable {
             stage.setScene(new javafx.scene.Scene(root));
             stage.show();
             
-            logger.info("MenuWindow opened successfully for user: " + profile.getUsername());
+            logger.info(() -> "MenuWindow opened successfully for user: " + profile.getUsername());
 
             Stage currentStage = (Stage) Button_Cancel.getScene().getWindow();
             currentStage.close();
@@ -136,8 +90,8 @@ public class DeleteAccountController implements Initializable {
             logger.info("DeleteAccount window closed (cancelled)");
 
         } catch (IOException ex) {
-            logger.severe("Error navigating to MenuWindow from cancel: " + ex.getMessage());
-            java.util.logging.Logger.getLogger(MenuWindowController.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
+            logger.severe(() -> "Error navigating to MenuWindow from cancel: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -150,7 +104,7 @@ public class DeleteAccountController implements Initializable {
         
         // Validación de contraseña
         if (TextFieldPassword.getText().isEmpty()) {
-            logger.warning("Self-delete attempted without password - User: " + 
+            logger.warning(() -> "Self-delete attempted without password - User: " + 
                           (profile != null ? profile.getUsername() : "unknown"));
             
             javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
@@ -164,8 +118,8 @@ public class DeleteAccountController implements Initializable {
         String username = LabelUsername.getText();
         String password = TextFieldPassword.getText();
         
-        logger.info("User " + username + " attempting self-account deletion");
-        logger.info("Password provided: [PROTECTED], Length: " + password.length());
+        logger.info(() -> "User " + username + " attempting self-account deletion");
+        logger.info(() -> "Password provided: [PROTECTED], Length: " + password.length());
 
         // Confirmación de eliminación
         javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.CONFIRMATION);
@@ -175,14 +129,25 @@ public class DeleteAccountController implements Initializable {
 
         java.util.Optional<javafx.scene.control.ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == javafx.scene.control.ButtonType.OK) {
-            logger.info("User confirmed self-account deletion: " + username);
+            logger.info(() -> "User confirmed self-account deletion: " + username);
             
-            try {
-                logger.info("Calling dropOutUser - User: " + username + " (self-deletion)");
-                Boolean success = cont.dropOutUser(username, password);
-                
-                if (success) {
-                    logger.info("Self-account deletion SUCCESSFUL - User: " + username + 
+            logger.info(() -> "Calling dropOutUser - User: " + username + " (self-deletion)");
+            Button_Delete.setDisable(true);
+            cont.async().dropOutUser(username, password).whenCompleteAsync((success, failure) -> {
+                Button_Delete.setDisable(false);
+                if (failure != null) {
+                    Throwable ex = AsyncController.unwrap(failure);
+                    logger.severe(() -> "Exception during self-account deletion - User: " + username + 
+                                ", Error: " + ex.getMessage());
+                    
+                    ex.printStackTrace();
+                    javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
+                    error.setTitle("Error");
+                    error.setHeaderText("The account could not be deleted.");
+                    error.setContentText(ex.getMessage());
+                    error.showAndWait();
+                } else if (success) {
+                    logger.info(() -> "Self-account deletion SUCCESSFUL - User: " + username + 
                                " (ID: " + (profile != null ? profile.getUserCode() : "unknown") + ")");
                     
                     javafx.scene.control.Alert successAlert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.INFORMATION);
@@ -191,6 +156,9 @@ public class DeleteAccountController implements Initializable {
                     successAlert.setContentText("Your account has been successfully deleted.");
                     successAlert.showAndWait();
 
+                    // La cuenta ya no existe: se cierra su sesión
+                    UserSession.end();
+
                     try {
                         logger.info("Navigating to LoginWindow after successful self-deletion");
                         
@@ -208,11 +176,11 @@ public class DeleteAccountController implements Initializable {
                         logger.info("Successfully navigated to LoginWindow after account deletion");
 
                     } catch (IOException ex) {
-                        logger.severe("Error navigating to LoginWindow after self-deletion: " + ex.getMessage());
-                        Logger.getLogger(DeleteAccountController.class.getName()).log(Level.SEVERE, null, ex);
+                        logger.severe(() -> "Error navigating to LoginWindow after self-deletion: " + ex.getMessage());
+                        logger.log(Level.SEVERE, null, ex);
                     }
                 } else {
-                    logger.warning("Self-account deletion FAILED - Incorrect password for user: " + username);
+                    logger.warning(() -> "Self-account deletion FAILED - Incorrect password for user: " + username);
                     
                     javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
                     error.setTitle("Error");
@@ -220,20 +188,9 @@ public class DeleteAccountController implements Initializable {
                     error.setContentText("The password is incorrect. Please try again.");
                     error.showAndWait();
                 }
-
-            } catch (Exception ex) {
-                logger.severe("Exception during self-account deletion - User: " + username + 
-                            ", Error: " + ex.getMessage());
-                
-                ex.printStackTrace();
-                javafx.scene.control.Alert error = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
-                error.setTitle("Error");
-                error.setHeaderText("The account could not be deleted.");
-                error.setContentText(ex.getMessage());
-                error.showAndWait();
-            }
+            }, AsyncController.FX);
         } else {
-            logger.info("Self-account deletion CANCELLED by user: " + username);
+            logger.info(() -> "Self-account deletion CANCELLED by user: " + username);
         }
     }
 
@@ -246,7 +203,7 @@ public class DeleteAccountController implements Initializable {
             logger.info("DeleteAccountController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing DeleteAccountController: " + e.getMessage());
+            logger.severe(() -> "Error initializing DeleteAccountController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -2,19 +2,15 @@ package controller;
 
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 import javafx.fxml.*;
 import javafx.scene.control.*;
 import model.*;
+import threads.AsyncLogHandler;
 
 public class HelpWindowController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(HelpWindowController.class, "HelpWindow");
     
     @FXML
     private MenuBar menuBar;
@@ -33,52 +29,8 @@ public class HelpWindowController implements Initializable {
 
     private Profile profile;
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/HelpWindow.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     public void setUsuario(Profile profile) {
-        logger.info("Setting user profile in HelpWindowController: " + 
+        logger.info(() -> "Setting user profile in HelpWindowController: " + 
                    (profile != null ? profile.getUsername() + 
                     " (Type: " + (profile instanceof Admin ? "Admin" : "User") + ")" : "null"));
         this.profile = profile;
@@ -103,14 +55,14 @@ public class HelpWindowController implements Initializable {
             logger.info("Admin help menu items loaded successfully");
             
         } catch (Exception e) {
-            logger.severe("Error loading admin help menu items: " + e.getMessage());
+            logger.severe(() -> "Error loading admin help menu items: " + e.getMessage());
         }
     }
 
     @FXML
     private void changeHelpText1() {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Help menu item 1 clicked - User: " + 
+        logger.info(() -> "Help menu item 1 clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType);
         
@@ -183,17 +135,17 @@ public class HelpWindowController implements Initializable {
                     + "• Las reseñas ayudan a otros usuarios a decidir\n");
             }
             
-            logger.info("Help text 1 displayed successfully for " + userType);
+            logger.info(() -> "Help text 1 displayed successfully for " + userType);
             
         } catch (Exception e) {
-            logger.severe("Error displaying help text 1: " + e.getMessage());
+            logger.severe(() -> "Error displaying help text 1: " + e.getMessage());
         }
     }
 
     @FXML
     private void changeHelpText2() {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Help menu item 2 clicked - User: " + 
+        logger.info(() -> "Help menu item 2 clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType);
         
@@ -215,17 +167,17 @@ public class HelpWindowController implements Initializable {
                 info.setText("");
             }
             
-            logger.info("Help text 2 displayed successfully for " + userType);
+            logger.info(() -> "Help text 2 displayed successfully for " + userType);
             
         } catch (Exception e) {
-            logger.severe("Error displaying help text 2: " + e.getMessage());
+            logger.severe(() -> "Error displaying help text 2: " + e.getMessage());
         }
     }
 
     @FXML
     private void changeHelpText3() {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Help menu item 3 clicked - User: " + 
+        logger.info(() -> "Help menu item 3 clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType);
         
@@ -238,17 +190,17 @@ public class HelpWindowController implements Initializable {
                 info.setText("");
             }
             
-            logger.info("Help text 3 displayed successfully for " + userType);
+            logger.info(() -> "Help text 3 displayed successfully for " + userType);
             
         } catch (Exception e) {
-            logger.severe("Error displaying help text 3: " + e.getMessage());
+            logger.severe(() -> "Error displaying help text 3: " + e.getMessage());
         }
     }
 
     @FXML
     private void changeHelpText4() {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Help menu item 4 clicked - User: " + 
+        logger.info(() -> "Help menu item 4 clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType);
         
@@ -259,10 +211,10 @@ public class HelpWindowController implements Initializable {
             }
             // Nota: Para usuarios normales, este item no es visible
             
-            logger.info("Help text 4 displayed successfully for " + userType);
+            logger.info(() -> "Help text 4 displayed successfully for " + userType);
             
         } catch (Exception e) {
-            logger.severe("Error displaying help text 4: " + e.getMessage());
+            logger.severe(() -> "Error displaying help text 4: " + e.getMessage());
         }
     }
 
@@ -284,7 +236,7 @@ public class HelpWindowController implements Initializable {
             logger.info("HelpWindowController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing HelpWindowController: " + e.getMessage());
+            logger.severe(() -> "Error initializing HelpWindowController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
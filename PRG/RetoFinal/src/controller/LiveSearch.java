@@ -0,0 +1,115 @@
+package controller;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Runs a search while the user types. Every change restarts a short debounce
+ * timer; when it fires, the query is built on the JavaFX thread (so it can read
+ * the current filter values) and executed on a background thread. A newer
+ * search cancels the one still running, and only the result of the latest
+ * search is delivered back to the JavaFX thread.
+ *
+ * @param <T> Type of the search result
+ * @version 1.0
+ */
+public class LiveSearch<T> {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /** Background threads shared by every live search in the application. */
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "live-search-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PauseTransition debounce;
+    private final Supplier<Callable<T>> queryFactory;
+    private final Consumer<T> onResult;
+    private final Consumer<Exception> onError;
+    private final AtomicLong sequence = new AtomicLong();
+    private Future<?> pending;
+
+    /**
+     * Creates a live search.
+     *
+     * @param delay Time without changes before the search is launched
+     * @param queryFactory Builds the query from the current UI state (JavaFX thread),
+     * or returns null when there is nothing to run in the background
+     * @param onResult Receives the result of the latest search (JavaFX thread)
+     * @param onError Receives any error thrown by the query (JavaFX thread)
+     */
+    public LiveSearch(Duration delay, Supplier<Callable<T>> queryFactory, Consumer<T> onResult, Consumer<Exception> onError) {
+        this.queryFactory = queryFactory;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(event -> runNow());
+    }
+
+    /**
+     * Restarts the debounce timer. Call it on every keystroke or filter change.
+     */
+    public void trigger() {
+        debounce.playFromStart();
+    }
+
+    /**
+     * Launches the search immediately, skipping the debounce (Search button).
+     */
+    public void runNow() {
+        debounce.stop();
+        final long mySequence = sequence.incrementAndGet();
+        final Callable<T> query = queryFactory.get();
+
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        if (query == null) {
+            return;
+        }
+
+        pending = executor.submit(() -> {
+            try {
+                T result = query.call();
+                deliver(mySequence, () -> onResult.accept(result));
+            } catch (Exception e) {
+                deliver(mySequence, () -> onError.accept(e));
+            }
+        });
+    }
+
+    /**
+     * Stops the timer and discards any search still running.
+     */
+    public void cancel() {
+        debounce.stop();
+        sequence.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    private void deliver(long mySequence, Runnable action) {
+        if (mySequence != sequence.get() || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        javafx.application.Platform.runLater(() -> {
+            // Puede haber llegado otra búsqueda mientras esperábamos al hilo de JavaFX
+            if (mySequence == sequence.get()) {
+                action.run();
+            }
+        });
+    }
+}
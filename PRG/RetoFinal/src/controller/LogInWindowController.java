@@ -5,11 +5,9 @@ import javafx.scene.control.TextField;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -19,14 +17,14 @@ import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.stage.Stage;
 import model.Profile;
+import threads.AsyncLogHandler;
 
 /**
  * Controller for the Login window. Handles user login and navigation to the main menu or signup window.
  */
 public class LogInWindowController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(LogInWindowController.class, "LogInWindow");
     
     @FXML
     private TextField TextField_Username;
@@ -46,50 +44,6 @@ public class LogInWindowController implements Initializable {
     // Controller handling business logic
     private Controller cont = new Controller();
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/LogInWindow.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Opens the SignUp window.
      */
@@ -117,8 +71,8 @@ public class LogInWindowController implements Initializable {
             logger.info("Login window closed");
             
         } catch (IOException ex) {
-            logger.severe("Error opening SignUp window: " + ex.getMessage());
-            Logger.getLogger(LogInWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error opening SignUp window: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -133,49 +87,93 @@ public class LogInWindowController implements Initializable {
         String password = PasswordField_Password.getText();
         
         // Log seguro (no mostrar contraseña completa)
-        logger.info("Login attempt - Username: " + username + 
+        logger.info(() -> "Login attempt - Username: " + username + 
                    ", Password length: " + (password != null ? password.length() : 0) + " characters");
         
         if (username.equals("") || password.equals("")) {
             logger.warning("Login failed - Empty username or password field");
             labelIncorrecto.setText("Please fill in both fields.");
         } else {
-            logger.info("Attempting authentication for user: " + username);
-            Profile profile = cont.logIn(username, password);
-            
-            if (profile != null) {
-                logger.info("Login successful for user: " + username + " (ID: " + profile.getUserCode() + ")");
-                
-                try {
-                    logger.info("Navigating to MenuWindow for user: " + username);
-                    
-                    FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/MenuWindow.fxml"));
-                    Parent root = fxmlLoader.load();
-
-                    controller.MenuWindowController controllerWindow = fxmlLoader.getController();
-                    controllerWindow.setUsuario(profile);
-                    controllerWindow.setCont(cont);
-
-                    Stage stage = new Stage();
-                    stage.setScene(new Scene(root));
-                    stage.show();
-                    
-                    logger.info("MenuWindow opened successfully for user: " + username);
-
-                    Stage currentStage = (Stage) Button_LogIn.getScene().getWindow();
-                    currentStage.close();
-                    
-                    logger.info("Login window closed after successful login");
-
-                } catch (IOException ex) {
-                    logger.severe("Error opening MenuWindow after successful login: " + ex.getMessage());
-                    Logger.getLogger(LogInWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.info(() -> "Attempting authentication for user: " + username);
+
+            // La consulta se hace en segundo plano; evitamos dobles clics mientras tanto
+            Button_LogIn.setDisable(true);
+            labelIncorrecto.setText("");
+            cont.async().logIn(username, password).whenCompleteAsync((profile, error) -> {
+                Button_LogIn.setDisable(false);
+                if (error != null) {
+                    logger.severe(() -> "Error during authentication for user " + username + ": " + AsyncController.unwrap(error));
+                    labelIncorrecto.setText("Could not connect to the database. Please try again.");
+                } else {
+                    onLogInResult(username, profile);
                 }
-            } else {
-                logger.warning("Login failed - Invalid credentials for username: " + username);
-                labelIncorrecto.setText("The username and/or password are incorrect.");
+            }, AsyncController.FX);
+        }
+    }
+
+    /**
+     * Handles the result of the authentication on the JavaFX thread.
+     *
+     * @param username Username typed by the user
+     * @param profile Authenticated profile, or null if the credentials are wrong
+     */
+    private void onLogInResult(String username, Profile profile) {
+        if (profile != null) {
+            logger.info(() -> "Login successful for user: " + username + " (ID: " + profile.getUserCode() + ")");
+
+            try {
+                logger.info(() -> "Navigating to MenuWindow for user: " + username);
+
+                FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/MenuWindow.fxml"));
+                Parent root = fxmlLoader.load();
+
+                controller.MenuWindowController controllerWindow = fxmlLoader.getController();
+                controllerWindow.setUsuario(profile);
+                controllerWindow.setCont(cont);
+
+                Stage stage = new Stage();
+                stage.setScene(new Scene(root));
+                stage.show();
+
+                logger.info(() -> "MenuWindow opened successfully for user: " + username);
+
+                Stage currentStage = (Stage) Button_LogIn.getScene().getWindow();
+                currentStage.close();
+
+                logger.info("Login window closed after successful login");
+
+            } catch (IOException ex) {
+                logger.severe(() -> "Error opening MenuWindow after successful login: " + ex.getMessage());
+                logger.log(Level.SEVERE, null, ex);
             }
+        } else {
+            logger.warning(() -> "Login failed - Invalid credentials for username: " + username);
+            labelIncorrecto.setText("The username and/or password are incorrect.");
+        }
+    }
+
+    /**
+     * Keeps the LogIn button disabled until the database is ready. Used by the
+     * first login window, which is shown while the data layer is still starting.
+     *
+     * @param ready Future that completes when users can log in
+     */
+    public void awaitDataLayer(CompletableFuture<?> ready) {
+        if (ready.isDone() && !ready.isCompletedExceptionally()) {
+            return;
         }
+        Button_LogIn.setDisable(true);
+        labelIncorrecto.setText("Connecting to the database...");
+        ready.whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                logger.severe(() -> "Could not start the data layer: " + AsyncController.unwrap(error));
+                labelIncorrecto.setText("Could not connect to the database. Please restart the application.");
+            } else {
+                logger.info("Data layer ready - LogIn enabled");
+                Button_LogIn.setDisable(false);
+                labelIncorrecto.setText("");
+            }
+        }, AsyncController.FX);
     }
 
     @Override
@@ -187,7 +185,7 @@ public class LogInWindowController implements Initializable {
             logger.info("LogInWindowController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing LogInWindowController: " + e.getMessage());
+            logger.severe(() -> "Error initializing LogInWindowController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -5,11 +5,8 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -21,14 +18,15 @@ import javafx.stage.Stage;
 import model.Admin;
 import model.Profile;
 import model.User;
+import model.UserSession;
+import threads.AsyncLogHandler;
 
 /**
  * Controller for the main Menu window. Handles navigation to modify, delete, and logout actions.
  */
 public class MenuWindowController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(MenuWindowController.class, "MenuWindow");
     
     @FXML
     private Button Button_Delete;
@@ -47,57 +45,13 @@ public class MenuWindowController implements Initializable {
     @FXML
     private Button Button_Store;
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/MenuWindow.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     public void setUsuario(Profile profile) {
-        logger.info("Setting user profile in MenuWindowController: " + 
+        logger.info(() -> "Setting user profile in MenuWindowController: " + 
                    (profile != null ? profile.getUsername() + 
                     " (Type: " + (profile instanceof Admin ? "Admin" : "User") + ")" : "null"));
         this.profile = profile;
         label_Username.setText(profile.getUsername());
-        logger.info("Username label updated: " + profile.getUsername());
+        logger.info(() -> "Username label updated: " + profile.getUsername());
     }
 
     public void setCont(Controller cont) {
@@ -114,7 +68,7 @@ public class MenuWindowController implements Initializable {
      */
     @FXML
     private void modifyVentana(ActionEvent event) {
-        logger.info("Modify button clicked - User: " + 
+        logger.info(() -> "Modify button clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown"));
         
         try {
@@ -129,7 +83,7 @@ public class MenuWindowController implements Initializable {
             stage.setScene(new Scene(root));
             stage.show();
             
-            logger.info("ModifyWindow opened successfully for user: " + profile.getUsername());
+            logger.info(() -> "ModifyWindow opened successfully for user: " + profile.getUsername());
 
             Stage currentStage = (Stage) Button_Modify.getScene().getWindow();
             currentStage.close();
@@ -137,8 +91,8 @@ public class MenuWindowController implements Initializable {
             logger.info("MenuWindow closed (navigating to ModifyWindow)");
 
         } catch (IOException ex) {
-            logger.severe("Error opening ModifyWindow: " + ex.getMessage());
-            Logger.getLogger(MenuWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error opening ModifyWindow: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -148,14 +102,14 @@ public class MenuWindowController implements Initializable {
     @FXML
     private void delete() {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Delete button clicked - User: " + 
+        logger.info(() -> "Delete button clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType);
         
         try {
             FXMLLoader fxmlLoader;
             if (profile instanceof User) {
-                logger.info("Opening user self-delete window for: " + profile.getUsername());
+                logger.info(() -> "Opening user self-delete window for: " + profile.getUsername());
                 
                 fxmlLoader = new FXMLLoader(getClass().getResource("/view/DeleteAccount.fxml"));
                 javafx.scene.Parent root = fxmlLoader.load();
@@ -167,7 +121,7 @@ public class MenuWindowController implements Initializable {
                 stage.setScene(new Scene(root));
                 stage.show();
                 
-                logger.info("DeleteAccount window opened successfully for user: " + profile.getUsername());
+                logger.info(() -> "DeleteAccount window opened successfully for user: " + profile.getUsername());
 
                 Stage currentStage = (Stage) Button_Delete.getScene().getWindow();
                 currentStage.close();
@@ -175,7 +129,7 @@ public class MenuWindowController implements Initializable {
                 logger.info("MenuWindow closed (navigating to user DeleteAccount)");
 
             } else if (profile instanceof Admin) {
-                logger.info("Opening admin delete user window for admin: " + profile.getUsername());
+                logger.info(() -> "Opening admin delete user window for admin: " + profile.getUsername());
                 
                 fxmlLoader = new FXMLLoader(getClass().getResource("/view/DeleteAccountAdmin.fxml"));
                 javafx.scene.Parent root = fxmlLoader.load();
@@ -188,7 +142,7 @@ public class MenuWindowController implements Initializable {
                 stage.setScene(new Scene(root));
                 stage.show();
                 
-                logger.info("DeleteAccountAdmin window opened successfully for admin: " + profile.getUsername());
+                logger.info(() -> "DeleteAccountAdmin window opened successfully for admin: " + profile.getUsername());
 
                 Stage currentStage = (Stage) Button_Delete.getScene().getWindow();
                 currentStage.close();
@@ -196,8 +150,8 @@ public class MenuWindowController implements Initializable {
                 logger.info("MenuWindow closed (navigating to admin DeleteAccountAdmin)");
             }
         } catch (IOException ex) {
-            logger.severe("Error opening Delete window: " + ex.getMessage());
-            Logger.getLogger(MenuWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error opening Delete window: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -206,11 +160,16 @@ public class MenuWindowController implements Initializable {
      */
     @FXML
     private void cerrarVentana(ActionEvent event) {
-        logger.info("LogOut button clicked - User: " + 
+        logger.info(() -> "LogOut button clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown"));
         
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.close();
+        UserSession.end();
+        // El carrito se conserva: guardar ya sus cambios pendientes
+        if (cont != null) {
+            cont.async().flushCart();
+        }
         
         logger.info("MenuWindow closed (user logged out)");
     }
@@ -224,7 +183,7 @@ public class MenuWindowController implements Initializable {
             logger.info("MenuWindowController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing MenuWindowController: " + e.getMessage());
+            logger.severe(() -> "Error initializing MenuWindowController: " + e.getMessage());
         }
     }
 
@@ -234,14 +193,14 @@ public class MenuWindowController implements Initializable {
     @FXML
     private void StoreWindow(ActionEvent event) {
         String userType = profile instanceof Admin ? "Admin" : "User";
-        logger.info("Store button clicked - User: " + 
+        logger.info(() -> "Store button clicked - User: " + 
                    (profile != null ? profile.getUsername() : "unknown") + 
                    ", Type: " + userType + ", Opening " + (profile instanceof Admin ? "Admin" : "User") + " store");
         
         try {
             if (profile instanceof Admin) {
                 // ADMIN: Va a la ventana de administrador de tienda
-                logger.info("Opening AdminShopController for admin: " + profile.getUsername());
+                logger.info(() -> "Opening AdminShopController for admin: " + profile.getUsername());
                 
                 FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/StoreAdminWindow.fxml"));
                 Parent root = fxmlLoader.load();
@@ -260,7 +219,7 @@ public class MenuWindowController implements Initializable {
 
             } else {
                 // USER: Va a la ventana normal de tienda
-                logger.info("Opening ShopWindowController for user: " + profile.getUsername());
+                logger.info(() -> "Opening ShopWindowController for user: " + profile.getUsername());
                 
                 FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/StoreWindow.fxml"));
                 Parent root = fxmlLoader.load();
@@ -285,8 +244,8 @@ public class MenuWindowController implements Initializable {
             logger.info("MenuWindow closed (navigating to store)");
 
         } catch (IOException ex) {
-            logger.severe("Error opening store window: " + ex.getMessage());
-            Logger.getLogger(MenuWindowController.class.getName()).log(Level.SEVERE, "Error al abrir la ventana de tienda", ex);
+            logger.severe(() -> "Error opening store window: " + ex.getMessage());
+            logger.log(Level.SEVERE, "Error al abrir la ventana de tienda", ex);
         }
     }
 }
\ No newline at end of file
@@ -5,16 +5,14 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.fxml.*;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
 import model.*;
+import threads.AsyncLogHandler;
 
 /**
  * Controller class for the Modify Game Admin window. Manages the administrative interface
@@ -26,8 +24,7 @@ import model.*;
  */
 public class ModifyGameAdminController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(ModifyGameAdminController.class, "ModifyGameAdmin");
     
     // FXML UI Components
     @FXML
@@ -53,54 +50,6 @@ public class ModifyGameAdminController implements Initializable {
     private AdminShopController adminShopController;
     private Videogame videogameToModify;
     
-    static {
-        initializeLogger();
-    }
-    
-    /**
-     * Initializes the logging system in a synchronized manner to prevent
-     * multiple initializations in multi-threaded environments.
-     */
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/ModifyGameAdmin.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Sets the Controller instance for database operations.
      *
@@ -127,7 +76,7 @@ public class ModifyGameAdminController implements Initializable {
      * @param videogame The Videogame object to be modified
      */
     public void setVideogame(Videogame videogame) {
-        logger.info("Setting videogame to modify: " + 
+        logger.info(() -> "Setting videogame to modify: " + 
                    (videogame != null ? videogame.getName() + " (ID: " + videogame.getIdVideogame() + ")" : "null"));
         this.videogameToModify = videogame;
         loadGameData();
@@ -151,7 +100,7 @@ public class ModifyGameAdminController implements Initializable {
                 spinnerPrice.getValueFactory().setValue(videogameToModify.getPrice());
                 spinnerStock.getValueFactory().setValue(videogameToModify.getStock());
                 
-                logger.info("Loaded game data - Name: " + videogameToModify.getName() + 
+                logger.info(() -> "Loaded game data - Name: " + videogameToModify.getName() + 
                            ", Company: " + videogameToModify.getCompanyName() + 
                            ", Genre: " + videogameToModify.getGameGenre() + 
                            ", Price: " + videogameToModify.getPrice() + 
@@ -162,20 +111,20 @@ public class ModifyGameAdminController implements Initializable {
                     // Para java.sql.Date, usar toLocalDate() directamente
                     if (videogameToModify.getReleaseDate() instanceof java.sql.Date) {
                         datePickerReleaseDate.setValue(((java.sql.Date) videogameToModify.getReleaseDate()).toLocalDate());
-                        logger.info("Release date loaded: " + datePickerReleaseDate.getValue());
+                        logger.info(() -> "Release date loaded: " + datePickerReleaseDate.getValue());
                     } else {
                         // Para java.util.Date
                         LocalDate localDate = videogameToModify.getReleaseDate().toInstant()
                             .atZone(ZoneId.systemDefault()).toLocalDate();
                         datePickerReleaseDate.setValue(localDate);
-                        logger.info("Release date loaded: " + localDate);
+                        logger.info(() -> "Release date loaded: " + localDate);
                     }
                 } else {
                     logger.info("No release date available for this game");
                 }
                 
             } catch (Exception e) {
-                logger.severe("Error loading game data: " + e.getMessage());
+                logger.severe(() -> "Error loading game data: " + e.getMessage());
             }
         } else {
             logger.warning("Attempted to load data but videogameToModify is null");
@@ -203,7 +152,7 @@ public class ModifyGameAdminController implements Initializable {
                 datePickerReleaseDate.getValue() == null) {
                 
                 logger.warning("Validation failed - Missing required fields");
-                logger.warning("Fields status - Name: " + textFieldName.getText() + 
+                logger.warning(() -> "Fields status - Name: " + textFieldName.getText() + 
                              ", Company: " + textFieldCompany.getText() + 
                              ", Genre: " + comboBoxGenre.getValue() + 
                              ", Platform: " + comboBoxPlatforms.getValue() + 
@@ -221,7 +170,7 @@ public class ModifyGameAdminController implements Initializable {
             logger.info("Form validation passed - Proceeding with game modification");
             
             // Registrar datos antes de modificar
-            logger.info("Game modification data - " +
+            logger.info(() -> "Game modification data - " +
                        "Name: " + textFieldName.getText() + 
                        ", Company: " + textFieldCompany.getText() + 
                        ", Genre: " + comboBoxGenre.getValue() + 
@@ -241,43 +190,19 @@ public class ModifyGameAdminController implements Initializable {
             videogameToModify.setStock(spinnerStock.getValue());
             videogameToModify.setReleaseDate(Date.valueOf(datePickerReleaseDate.getValue()));
 
-            logger.info("Attempting to modify game in database - Game ID: " + videogameToModify.getIdVideogame());
+            logger.info(() -> "Attempting to modify game in database - Game ID: " + videogameToModify.getIdVideogame());
             
-            if (cont.modifyGame(videogameToModify)) {
-                logger.info("Game modified successfully - Game: " + videogameToModify.getName() + 
-                           " (ID: " + videogameToModify.getIdVideogame() + ")");
-                
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Game modified successfully!");
-                success.setHeaderText(videogameToModify.getName() + " was modified successfully.");
-                success.setContentText("The game " + videogameToModify.getName() + " was successfully modified in the store.");
-                success.showAndWait();
-
-                // Recargar la tabla en AdminShopController
-                if (adminShopController != null) {
-                    logger.info("Notifying AdminShopController to reload games");
-                    adminShopController.reloadGames();
-                } else {
-                    logger.warning("AdminShopController reference is null - cannot reload games table");
+            buttonModifyGame.setDisable(true);
+            cont.async().modifyGame(videogameToModify).whenCompleteAsync((modified, failure) -> {
+                buttonModifyGame.setDisable(false);
+                if (failure != null) {
+                    logger.severe(() -> "Unexpected error modifying game: " + AsyncController.unwrap(failure).getMessage());
                 }
-
-                // Cerrar la ventana
-                Stage currentStage = (Stage) buttonModifyGame.getScene().getWindow();
-                currentStage.close();
-                
-                logger.info("ModifyGame window closed after successful modification");
-                
-            } else {
-                logger.warning("Game modification failed in database - Game: " + videogameToModify.getName());
-                
-                Alert error = new Alert(Alert.AlertType.ERROR);
-                error.setTitle("ERROR");
-                error.setContentText("There was an error while attempting to modify the game. Check the fields to see if anything's wrong.");
-                error.showAndWait();
-            }
+                onGameModified(failure == null && modified);
+            }, AsyncController.FX);
             
         } catch (Exception ex) {
-            logger.severe("Unexpected error modifying game: " + ex.getMessage());
+            logger.severe(() -> "Unexpected error modifying game: " + ex.getMessage());
             
             Alert error = new Alert(Alert.AlertType.ERROR);
             error.setTitle("ERROR");
@@ -286,7 +211,47 @@ public class ModifyGameAdminController implements Initializable {
             error.showAndWait();
             
             // También registrar el stack trace completo
-            Logger.getLogger(ModifyGameAdminController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Shows the result of the modification (JavaFX thread). On success, reloads
+     * the admin games table and closes the window.
+     *
+     * @param modified true if the game was updated in the database
+     */
+    private void onGameModified(boolean modified) {
+        if (modified) {
+            logger.info(() -> "Game modified successfully - Game: " + videogameToModify.getName() + 
+                       " (ID: " + videogameToModify.getIdVideogame() + ")");
+            
+            Alert success = new Alert(Alert.AlertType.INFORMATION);
+            success.setTitle("Game modified successfully!");
+            success.setHeaderText(videogameToModify.getName() + " was modified successfully.");
+            success.setContentText("The game " + videogameToModify.getName() + " was successfully modified in the store.");
+            success.showAndWait();
+
+            // Recargar la tabla en AdminShopController
+            if (adminShopController != null) {
+                logger.info("Notifying AdminShopController to reload games");
+                adminShopController.reloadGames();
+            } else {
+                logger.warning("AdminShopController reference is null - cannot reload games table");
+            }
+
+            // Cerrar la ventana
+            Stage currentStage = (Stage) buttonModifyGame.getScene().getWindow();
+            currentStage.close();
+            
+            logger.info("ModifyGame window closed after successful modification");
+        } else {
+            logger.warning(() -> "Game modification failed in database - Game: " + videogameToModify.getName());
+            
+            Alert error = new Alert(Alert.AlertType.ERROR);
+            error.setTitle("ERROR");
+            error.setContentText("There was an error while attempting to modify the game. Check the fields to see if anything's wrong.");
+            error.showAndWait();
         }
     }
 
@@ -315,12 +280,12 @@ public class ModifyGameAdminController implements Initializable {
             spinnerPrice.setEditable(true);
             
             logger.info("ModifyGameAdminController initialized successfully");
-            logger.info("Loaded enums - Genres: " + GameGenre.values().length + 
+            logger.info(() -> "Loaded enums - Genres: " + GameGenre.values().length + 
                        ", Platforms: " + Platform.values().length + 
                        ", PEGI ratings: " + PEGI.values().length);
             
         } catch (Exception e) {
-            logger.severe("Error initializing ModifyGameAdminController: " + e.getMessage());
+            logger.severe(() -> "Error initializing ModifyGameAdminController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package controller;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javafx.collections.ObservableListBase;
+import model.Videogame;
+
+/**
+ * Catalog model for a TableView that only keeps a bounded window of rows in
+ * memory. The list reports the size of the whole catalog, but its rows are
+ * read page by page as the table asks for them: a row that is not loaded yet
+ * is returned as null (an empty row) and its page is requested in the
+ * background; when the page arrives, the rows are replaced and the table
+ * redraws them. Only the most recently used pages are kept.
+ *
+ * Pages are read with keyset pagination: the list remembers the last game of
+ * every page it has seen and asks for the rows after it. When the user jumps
+ * further ahead (dragging the scroll bar), the page is read from the nearest
+ * known page plus an offset.
+ *
+ * All methods must be called on the JavaFX thread.
+ *
+ * @version 1.0
+ */
+public class PagedGameList extends ObservableListBase<Videogame> {
+
+    /** Rows read in each query. */
+    public static final int PAGE_SIZE = 100;
+
+    /** Pages kept in memory at most. */
+    public static final int MAX_PAGES = 10;
+
+    /**
+     * Reads a page of the catalog in the background.
+     *
+     * @see AsyncController#getGamesPage(String, int, int, int)
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+
+        CompletableFuture<List<Videogame>> load(String afterName, int afterId, int skip, int size);
+    }
+
+    /**
+     * Position of a game in the (name, code) order.
+     */
+    private static final class Key {
+
+        private final String name;
+        private final int id;
+
+        private Key(Videogame game) {
+            // name es NOT NULL (V9); un null aquí haría que la página siguiente empezara de cero
+            this.name = game.getName() == null ? "" : game.getName();
+            this.id = game.getIdVideogame();
+        }
+    }
+
+    private final Supplier<CompletableFuture<Long>> counter;
+    private final PageLoader loader;
+    private final Consumer<Throwable> onError;
+    private final Executor callbackExecutor;
+    private final int pageSize;
+
+    /** Páginas cargadas, de la menos a la más usada recientemente. */
+    private final Map<Integer, List<Videogame>> pages;
+
+    /** Último juego de cada página vista: punto de partida de la siguiente. */
+    private final TreeMap<Integer, Key> lastKeys = new TreeMap<>();
+
+    private final Set<Integer> loading = new HashSet<>();
+    private int size;
+    private long generation;
+
+    /**
+     * Creates an empty list; call {@link #reload()} to read the catalog.
+     *
+     * @param counter Counts the games of the catalog in the background
+     * @param loader Reads a page of the catalog in the background
+     * @param onError Receives any error of a background read (JavaFX thread)
+     */
+    public PagedGameList(Supplier<CompletableFuture<Long>> counter, PageLoader loader, Consumer<Throwable> onError) {
+        this(counter, loader, onError, AsyncController.FX, PAGE_SIZE, MAX_PAGES);
+    }
+
+    PagedGameList(Supplier<CompletableFuture<Long>> counter, PageLoader loader, Consumer<Throwable> onError,
+            Executor callbackExecutor, int pageSize, final int maxPages) {
+        this.counter = counter;
+        this.loader = loader;
+        this.onError = onError;
+        this.callbackExecutor = callbackExecutor;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, List<Videogame>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Videogame>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Discards every loaded page and reads the size of the catalog again.
+     * Call it after the catalog changes.
+     */
+    public void reload() {
+        final long myGeneration = ++generation;
+        pages.clear();
+        lastKeys.clear();
+        loading.clear();
+
+        counter.get().whenCompleteAsync((count, error) -> {
+            if (myGeneration != generation) {
+                return;
+            }
+            if (error != null) {
+                onError.accept(AsyncController.unwrap(error));
+                return;
+            }
+            int oldSize = size;
+            size = (int) Math.min(Integer.MAX_VALUE, count);
+
+            // Todas las filas pasan a estar sin cargar: la tabla las vuelve a pedir
+            beginChange();
+            nextReplace(0, size, Collections.nCopies(oldSize, (Videogame) null));
+            endChange();
+        }, callbackExecutor);
+    }
+
+    @Override
+    public Videogame get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int page = index / pageSize;
+        List<Videogame> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks for a game only among the loaded rows, so that the table never
+     * forces the whole catalog to be read.
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<Videogame>> entry : pages.entrySet()) {
+            int offset = entry.getValue().indexOf(o);
+            if (offset >= 0) {
+                return entry.getKey() * pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Number of pages held in memory.
+     */
+    int loadedPages() {
+        return pages.size();
+    }
+
+    private void request(final int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        final long myGeneration = generation;
+
+        // Partimos del último juego de la página conocida más cercana por detrás
+        Map.Entry<Integer, Key> anchor = lastKeys.floorEntry(page - 1);
+        String afterName = anchor == null ? null : anchor.getValue().name;
+        int afterId = anchor == null ? 0 : anchor.getValue().id;
+        int skip = (page - (anchor == null ? 0 : anchor.getKey() + 1)) * pageSize;
+
+        loader.load(afterName, afterId, skip, pageSize).whenCompleteAsync((rows, error) -> {
+            if (myGeneration != generation) {
+                return;
+            }
+            loading.remove(page);
+            if (error != null || rows == null) {
+                if (error != null) {
+                    onError.accept(AsyncController.unwrap(error));
+                }
+                return;
+            }
+            pages.put(page, rows);
+            if (!rows.isEmpty()) {
+                lastKeys.put(page, new Key(rows.get(rows.size() - 1)));
+            }
+
+            int from = page * pageSize;
+            int to = Math.min(size, from + pageSize);
+            if (from < to) {
+                beginChange();
+                for (int i = from; i < to; i++) {
+                    nextSet(i, null);
+                }
+                endChange();
+            }
+        }, callbackExecutor);
+    }
+}
@@ -5,12 +5,9 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.*;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.event.ActionEvent;
+import threads.AsyncLogHandler;
 
 /**
  * Controller class for managing video game reviews.
@@ -20,8 +17,7 @@ import javafx.event.ActionEvent;
  */
 public class ReviewController {
 
-    private static final Logger logger = Logger.getLogger(ReviewController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(ReviewController.class, "ReviewWindow");
     
     @FXML
     private Slider sliderPuntuacion;
@@ -49,54 +45,6 @@ public class ReviewController {
     private Controller cont;
     private Videogame videojuegoCompleto;
     
-    static {
-        initializeLogger();
-    }
-
-    /**
-     * Initializes the logger system.
-     * Creates log directory and configures file handler with custom formatter.
-     */
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-
-            FileHandler fileHandler = new FileHandler("logs/ReviewWindow.log", true);
-
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-
-            loggerInitialized = true;
-            logger.info("ReviewController logger initialized");
-
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     /**
      * Initializes the controller after FXML loading.
      * Configures UI components and sets up event listeners.
@@ -120,7 +68,7 @@ public class ReviewController {
             logger.info("ReviewController initialized successfully");
             
         } catch (Exception e) {
-            logger.severe("Error initializing ReviewController: " + e.getMessage());
+            logger.severe(() -> "Error initializing ReviewController: " + e.getMessage());
         }
     }
 
@@ -130,7 +78,7 @@ public class ReviewController {
      * @param profile The user profile to set
      */
     public void setUsuario(Profile profile) {
-        logger.info("Setting user profile in ReviewController: " + 
+        logger.info(() -> "Setting user profile in ReviewController: " + 
                    (profile != null ? profile.getUsername() + " (ID: " + profile.getUserCode() + ")" : "null"));
         this.profile = profile;
         if (profile != null) {
@@ -163,7 +111,7 @@ public class ReviewController {
      * @param videojuego The complete videogame object
      */
     public void setVideojuegoCompleto(Videogame videojuego) {
-        logger.info("Setting complete game in ReviewController: " + 
+        logger.info(() -> "Setting complete game in ReviewController: " + 
                    (videojuego != null ? videojuego.getName() + " (ID: " + videojuego.getIdVideogame() + ")" : "null"));
         this.videojuegoCompleto = videojuego;
         this.nombreVideojuego = videojuego != null ? videojuego.getName() : "";
@@ -180,7 +128,7 @@ public class ReviewController {
      * @param idVideojuego The videogame ID
      */
     public void setVideojuego(String nombre, int idVideojuego) {
-        logger.info("Setting game (compatibility method) in ReviewController: " + nombre + " (ID: " + idVideojuego + ")");
+        logger.info(() -> "Setting game (compatibility method) in ReviewController: " + nombre + " (ID: " + idVideojuego + ")");
         this.nombreVideojuego = nombre;
         this.idVideojuego = idVideojuego;
         if (labelVideojuego != null) {
@@ -215,7 +163,7 @@ public class ReviewController {
             logger.info("Slider configured successfully");
             
         } catch (Exception e) {
-            logger.severe("Error configuring slider: " + e.getMessage());
+            logger.severe(() -> "Error configuring slider: " + e.getMessage());
         }
     }
 
@@ -229,11 +177,11 @@ public class ReviewController {
             boolean tieneComentarioValido = comentario.length() >= 10;
             buttonEnviar.setDisable(!tieneComentarioValido);
             
-            logger.info("Send button state updated - Valid comment: " + tieneComentarioValido + 
+            logger.info(() -> "Send button state updated - Valid comment: " + tieneComentarioValido + 
                        ", Comment length: " + comentario.length());
             
         } catch (Exception e) {
-            logger.severe("Error updating send button state: " + e.getMessage());
+            logger.severe(() -> "Error updating send button state: " + e.getMessage());
         }
     }
 
@@ -254,7 +202,7 @@ public class ReviewController {
         double puntuacion = Math.round(sliderPuntuacion.getValue() * 2) / 2.0;
         String comentario = textAreaComentario.getText().trim();
 
-        logger.info("Review data prepared - Rating: " + puntuacion + 
+        logger.info(() -> "Review data prepared - Rating: " + puntuacion + 
                    ", Comment length: " + comentario.length());
 
         
@@ -272,24 +220,7 @@ public class ReviewController {
                 logger.info("User confirmed review submission");
                 
                 
-                boolean exito = guardarReviewEnBD(puntuacion, comentario);
-
-                if (exito) {
-                    logger.info("Review saved successfully");
-                    
-                    
-                    Alert exitoAlert = new Alert(Alert.AlertType.INFORMATION);
-                    exitoAlert.setTitle("Valoración Enviada");
-                    exitoAlert.setHeaderText("¡Gracias por tu valoración!");
-                    exitoAlert.setContentText("Tu reseña ha sido publicada correctamente.");
-                    exitoAlert.showAndWait();
-
-                    
-                    cerrarVentana();
-                    
-                } else {
-                    logger.warning("Failed to save review to database");
-                }
+                enviarReview(puntuacion, comentario);
             } else {
                 logger.info("User cancelled review submission");
             }
@@ -313,7 +244,7 @@ public class ReviewController {
 
         
         if (textAreaComentario.getText().trim().length() < 10) {
-            logger.warning("Validation failed: Comment too short - " + 
+            logger.warning(() -> "Validation failed: Comment too short - " + 
                           textAreaComentario.getText().trim().length() + " characters");
             mostrarAlerta("Error", "El comentario debe tener al menos 10 caracteres.");
             return false;
@@ -322,7 +253,7 @@ public class ReviewController {
         
         double puntuacion = sliderPuntuacion.getValue();
         if (puntuacion < 0 || puntuacion > 5) {
-            logger.warning("Validation failed: Invalid rating - " + puntuacion);
+            logger.warning(() -> "Validation failed: Invalid rating - " + puntuacion);
             mostrarAlerta("Error", "La puntuación debe estar entre 0 y 5.");
             return false;
         }
@@ -346,75 +277,120 @@ public class ReviewController {
     }
 
     /**
-     * Saves the review to the database.
+     * Saves the review in the background and shows the result on the JavaFX
+     * thread.
+     *
+     * @param puntuacion The rating score
+     * @param comentario The review comment
+     */
+    private void enviarReview(double puntuacion, String comentario) {
+        if (profile == null || cont == null || videojuegoCompleto == null) {
+            logger.severe(() -> "Cannot save review: Incomplete data - Profile: " + 
+                         (profile != null) + ", Controller: " + (cont != null) + 
+                         ", Game: " + (videojuegoCompleto != null));
+            mostrarAlerta("Error", "No se puede guardar la reseña: datos incompletos.");
+            return;
+        }
+
+        // La identidad del usuario conectado basta para escribir la reseña
+        final UserSession sesion = UserSession.of(profile);
+        final Videogame videojuego = videojuegoCompleto;
+
+        buttonEnviar.setDisable(true);
+        cont.async().runWrite(() -> guardarReviewEnBD(sesion, videojuego, puntuacion, comentario))
+                .whenCompleteAsync((resultado, error) -> {
+                    buttonEnviar.setDisable(false);
+                    if (error != null) {
+                        Throwable e = AsyncController.unwrap(error);
+                        logger.severe(() -> "Error saving review to database: " + e.getMessage());
+                        e.printStackTrace();
+                        mostrarAlerta("Error", "Ocurrió un error al guardar la reseña: " + e.getMessage());
+                        return;
+                    }
+
+                    switch (resultado) {
+                        case GUARDADA:
+                            logger.info("Review saved successfully");
+
+                            Alert exitoAlert = new Alert(Alert.AlertType.INFORMATION);
+                            exitoAlert.setTitle("Valoración Enviada");
+                            exitoAlert.setHeaderText("¡Gracias por tu valoración!");
+                            exitoAlert.setContentText("Tu reseña ha sido publicada correctamente.");
+                            exitoAlert.showAndWait();
+
+                            cerrarVentana();
+                            break;
+                        case USUARIO_NO_ENCONTRADO:
+                            mostrarAlerta("Error", "Usuario no encontrado en la base de datos.");
+                            break;
+                        case DUPLICADA:
+                            mostrarAlerta("Reseña duplicada", "Ya has reseñado este videojuego anteriormente.");
+                            break;
+                        default:
+                            logger.warning("Failed to save review to database");
+                            mostrarAlerta("Error", "No se pudo guardar la reseña en la base de datos.");
+                    }
+                }, AsyncController.FX);
+    }
+
+    /**
+     * Saves the review to the database (background thread).
      *
+     * @param sesion Identity of the author
+     * @param videojuego Reviewed game
      * @param puntuacion The rating score
      * @param comentario The review comment
-     * @return true if save was successful, false otherwise
+     * @return Outcome of the operation
      */
-    private boolean guardarReviewEnBD(double puntuacion, String comentario) {
-        logger.info("Saving review to database - Rating: " + puntuacion + 
+    private ResultadoReview guardarReviewEnBD(UserSession sesion, Videogame videojuego, double puntuacion, String comentario) {
+        logger.info(() -> "Saving review to database - Rating: " + puntuacion + 
                    ", Comment length: " + comentario.length());
-        
-        try {
-            
-            if (profile == null || cont == null || videojuegoCompleto == null) {
-                logger.severe("Cannot save review: Incomplete data - Profile: " + 
-                             (profile != null) + ", Controller: " + (cont != null) + 
-                             ", Game: " + (videojuegoCompleto != null));
-                mostrarAlerta("Error", "No se puede guardar la reseña: datos incompletos.");
-                return false;
-            }
 
-            logger.info("Getting complete user from database: " + profile.getUsername());
-            
-            
-            User usuario = cont.getUserByUsername(profile.getUsername());
-            if (usuario == null) {
-                logger.severe("User not found in database: " + profile.getUsername());
-                mostrarAlerta("Error", "Usuario no encontrado en la base de datos.");
-                return false;
-            }
+        // Solo los usuarios (no los administradores) pueden reseñar
+        if (sesion.isAdmin()) {
+            logger.severe(() -> "Profile is not a user: " + sesion.getUsername());
+            return ResultadoReview.USUARIO_NO_ENCONTRADO;
+        }
 
-            logger.info("User retrieved - ID: " + usuario.getUserCode());
-            
-            
-            logger.info("Checking for existing review - User ID: " + usuario.getUserCode() + 
-                       ", Game ID: " + videojuegoCompleto.getIdVideogame());
-            
-            if (cont.reviewExists(usuario.getUserCode(), videojuegoCompleto.getIdVideogame())) {
-                logger.warning("Duplicate review found - User already reviewed this game");
-                mostrarAlerta("Reseña duplicada", "Ya has reseñado este videojuego anteriormente.");
-                return false;
-            }
+        // Se comprueba en memoria con los juegos reseñados del usuario
+        logger.info(() -> "Checking for existing review - User ID: " + sesion.getUserCode() + 
+                   ", Game ID: " + videojuego.getIdVideogame());
+        
+        if (cont.reviewExists(sesion.getUserCode(), videojuego.getIdVideogame())) {
+            logger.warning("Duplicate review found - User already reviewed this game");
+            return ResultadoReview.DUPLICADA;
+        }
 
-            logger.info("No duplicate review found - Creating new review");
-            
-            
-            Review review = new Review(usuario, videojuegoCompleto, puntuacion, comentario);
-            boolean resultado = cont.createReview(review);
-
-            if (resultado) {
-                logger.info("Review saved successfully in database:");
-                logger.info("User: " + usuario.getUsername());
-                logger.info("Videojuego: " + videojuegoCompleto.getName());
-                logger.info("Puntuación: " + puntuacion);
-                logger.info("Comentario length: " + comentario.length());
-                return true;
-            } else {
-                logger.severe("Failed to save review in database");
-                mostrarAlerta("Error", "No se pudo guardar la reseña en la base de datos.");
-                return false;
-            }
+        logger.info("No duplicate review found - Creating new review");
+        
+        // Sin volver a leer el usuario: la reseña solo necesita su código
+        ReviewResult resultado = cont.createReview(sesion.getUserCode(), videojuego.getIdVideogame(), puntuacion, comentario);
 
-        } catch (Exception e) {
-            logger.severe("Error saving review to database: " + e.getMessage());
-            e.printStackTrace();
-            mostrarAlerta("Error", "Ocurrió un error al guardar la reseña: " + e.getMessage());
-            return false;
+        if (resultado == ReviewResult.ALREADY_REVIEWED) {
+            // Otra reseña del mismo usuario llegó antes a la base de datos
+            logger.warning("Duplicate review rejected by the database");
+            return ResultadoReview.DUPLICADA;
+        }
+        if (resultado.isCreated()) {
+            logger.info("Review saved successfully in database:");
+            logger.info(() -> "User: " + sesion.getUsername());
+            logger.info(() -> "Videojuego: " + videojuego.getName());
+            logger.info(() -> "Puntuación: " + puntuacion);
+            logger.info(() -> "Comentario length: " + comentario.length());
+            return ResultadoReview.GUARDADA;
+        } else {
+            logger.severe("Failed to save review in database");
+            return ResultadoReview.ERROR;
         }
     }
 
+    /**
+     * Possible outcomes of saving a review.
+     */
+    private enum ResultadoReview {
+        GUARDADA, USUARIO_NO_ENCONTRADO, DUPLICADA, ERROR
+    }
+
     /**
      * Handles the cancel button action.
      * Shows confirmation dialog if there is unsaved data.
@@ -463,7 +439,7 @@ public class ReviewController {
             logger.info("Review window closed");
             
         } catch (Exception e) {
-            logger.severe("Error closing review window: " + e.getMessage());
+            logger.severe(() -> "Error closing review window: " + e.getMessage());
         }
     }
 
@@ -474,7 +450,7 @@ public class ReviewController {
      * @param mensaje The alert message
      */
     private void mostrarAlerta(String titulo, String mensaje) {
-        logger.info("Showing alert - Title: " + titulo + ", Message: " + mensaje);
+        logger.info(() -> "Showing alert - Title: " + titulo + ", Message: " + mensaje);
         
         try {
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -483,7 +459,7 @@ public class ReviewController {
             alert.setContentText(mensaje);
             alert.showAndWait();
         } catch (Exception e) {
-            logger.severe("Error showing alert: " + e.getMessage());
+            logger.severe(() -> "Error showing alert: " + e.getMessage());
         }
     }
 
@@ -494,7 +470,7 @@ public class ReviewController {
      * @param comentario The existing review comment
      */
     public void cargarReviewExistente(double puntuacion, String comentario) {
-        logger.info("Loading existing review - Rating: " + puntuacion + 
+        logger.info(() -> "Loading existing review - Rating: " + puntuacion + 
                    ", Comment length: " + (comentario != null ? comentario.length() : 0));
         
         try {
@@ -505,7 +481,7 @@ public class ReviewController {
             logger.info("Existing review loaded successfully");
             
         } catch (Exception e) {
-            logger.severe("Error loading existing review: " + e.getMessage());
+            logger.severe(() -> "Error loading existing review: " + e.getMessage());
         }
     }
     
@@ -528,7 +504,7 @@ public class ReviewController {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("User manual PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "User manual PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 
                 String[] possiblePaths = {
@@ -541,10 +517,11 @@ public class ReviewController {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found manual PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found manual PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -561,7 +538,7 @@ public class ReviewController {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened user manual PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened user manual PDF: " + pdfFileName);
                 } else {
                     throw new IOException("OPEN action not supported on this platform");
                 }
@@ -570,7 +547,7 @@ public class ReviewController {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening user manual PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening user manual PDF: " + ex.getMessage());
 
             
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -603,7 +580,7 @@ public class ReviewController {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("Project report PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "Project report PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 
                 String[] possiblePaths = {
@@ -616,10 +593,11 @@ public class ReviewController {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found report PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found report PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -636,7 +614,7 @@ public class ReviewController {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened project report PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened project report PDF: " + pdfFileName);
 
                     
                     Alert info = new Alert(Alert.AlertType.INFORMATION);
@@ -653,7 +631,7 @@ public class ReviewController {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening project report PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening project report PDF: " + ex.getMessage());
 
             
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -675,7 +653,7 @@ public class ReviewController {
      */
     private void showAlert(String title, String message) {
         try {
-            logger.info("Showing alert: " + title + " - " + message);
+            logger.info(() -> "Showing alert: " + title + " - " + message);
 
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(title);
@@ -684,7 +662,7 @@ public class ReviewController {
             alert.showAndWait();
 
         } catch (Exception e) {
-            logger.severe("Error showing alert: " + e.getMessage());
+            logger.severe(() -> "Error showing alert: " + e.getMessage());
         }
     }
 }
@@ -3,16 +3,27 @@ package controller;
 import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.*;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.*;
 import javafx.event.ActionEvent;
 import javafx.fxml.*;
 import javafx.scene.*;
 import javafx.scene.control.*;
 import javafx.stage.*;
+import javafx.util.Duration;
 import javafx.scene.control.cell.PropertyValueFactory;
 import model.*;
+import threads.AsyncLogHandler;
 
 /**
  * Main controller for the video game store window. Handles the
@@ -24,8 +35,7 @@ import model.*;
  */
 public class ShopWindowController implements Initializable {
 
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(ShopWindowController.class, "ShopWindow");
 
     // FXML UI elements
     @FXML
@@ -49,6 +59,10 @@ public class ShopWindowController implements Initializable {
     @FXML
     private TableColumn<Videogame, LocalDate> colReleaseDate;
     @FXML
+    private TableColumn<Videogame, String> colRating;
+    @FXML
+    private TableColumn<Videogame, Integer> colReviews;
+    @FXML
     private TextField textFieldSearch;
     @FXML
     private ComboBox<GameGenre> comboBoxGenre;
@@ -106,61 +120,13 @@ public class ShopWindowController implements Initializable {
     private Profile profile;
     private Controller cont;
     private ObservableList<Videogame> gamesList;
+    private PagedGameList catalog;
     private ObservableList<Integer> favoriteGameIds;
-    private static ObservableList<CartItem> sharedCart;
-
-    /**
-     * Static block to initialize the logging system. Creates the logs
-     * directory if it does not exist and configures the FileHandler to write
-     * logs to a specific file.
-     */
-    static {
-        initializeLogger();
-    }
-
-    /**
-     * Initializes the logging system in a synchronized manner to prevent
-     * multiple initializations in multi-threaded environments.
-     */
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-
-            FileHandler fileHandler = new FileHandler("logs/ShopWindow.log", true);
-
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
+    private LiveSearch<List<Videogame>> liveSearch;
+    // Valoraciones de los juegos leídos, por código; se rellena en segundo plano
+    private final Map<Integer, RatingSummary> ratings = new ConcurrentHashMap<>();
+    // Juegos que el usuario ya ha reseñado; la misma instancia que actualiza el DAO
+    private ReviewedGames reviewedGames;
 
     /**
      * Initialization method called automatically by JavaFX after loading
@@ -177,14 +143,18 @@ public class ShopWindowController implements Initializable {
         try {
             cont = new Controller();
             gamesList = FXCollections.observableArrayList();
+            catalog = new PagedGameList(() -> cont.async().countGames(),
+                    (afterName, afterId, skip, size) -> cont.async().getGamesPage(afterName, afterId, skip, size)
+                            .thenCompose(this::withRatings),
+                    error -> logger.severe(() -> "Error loading games: " + error.getMessage()));
             favoriteGameIds = FXCollections.observableArrayList();
-            sharedCart = FXCollections.observableArrayList();
 
             // Configure table columns
             configureTableColumns();
 
-            // Load all games initially
-            tableViewGames.setItems(gamesList);
+            // Without filters the table shows the whole catalog, read page by page
+            tableViewGames.setItems(catalog);
+            tableViewGames.setSortPolicy(table -> table.getItems() != catalog && TableView.DEFAULT_SORT_POLICY.call(table));
 
             // Configure row selection listener
             tableViewGames.getSelectionModel().selectedItemProperty().addListener(
@@ -220,14 +190,17 @@ public class ShopWindowController implements Initializable {
             comboBoxPlatform.getItems().setAll(Platform.values());
             comboBoxPlatform.setValue(Platform.ALL);
 
-            // Load all games
-            gamesList.setAll(cont.getAllGames());
+            // Load the first rows of the catalog in the background
+            showCatalog();
+
+            // Filter the table while the user types or changes a filter
+            configureLiveSearch();
 
             logger.info("ShopWindowController initialized successfully");
-            logger.info("Loaded " + gamesList.size() + " games, genres and platforms configured");
+            logger.info("Genres and platforms configured, loading games");
 
         } catch (Exception e) {
-            logger.severe("Error initializing ShopWindowController: " + e.getMessage());
+            logger.severe(() -> "Error initializing ShopWindowController: " + e.getMessage());
             throw e;
         }
     }
@@ -239,10 +212,23 @@ public class ShopWindowController implements Initializable {
      * @param profile Profile of the logged-in user
      */
     public void setUsuario(Profile profile) {
-        logger.info("Setting user profile: " + (profile != null ? profile.getUsername() : "null"));
+        logger.info(() -> "Setting user profile: " + (profile != null ? profile.getUsername() : "null"));
         this.profile = profile;
         labelWelcome.setText("Welcome, " + this.profile.getUsername() + "!");
-        logger.info("User set successfully: " + this.profile.getUsername() + " (ID: " + this.profile.getUserCode() + ")");
+
+        // Una sola consulta por sesión; después se comprueba en memoria
+        cont.async().getReviewedGames(profile.getUserCode()).whenCompleteAsync((games, error) -> {
+            if (games != null) {
+                reviewedGames = games;
+                logger.info(() -> "Reviewed games loaded: " + games.size());
+                getSelectedTableItem();
+            }
+        }, AsyncController.FX);
+
+        // El carrito guardado se lee ahora, así añadir un juego ya no espera a la base de datos
+        cont.async().getCart(profile.getUserCode()).thenAccept(items
+                -> logger.info(() -> "Cart loaded: " + items.size() + " items"));
+        logger.info(() -> "User set successfully: " + this.profile.getUsername() + " (ID: " + this.profile.getUserCode() + ")");
     }
 
     /**
@@ -276,13 +262,67 @@ public class ShopWindowController implements Initializable {
         colStock.setCellValueFactory(new PropertyValueFactory<>("stock"));
         colCompanyName.setCellValueFactory(new PropertyValueFactory<>("companyName"));
         colReleaseDate.setCellValueFactory(new PropertyValueFactory<>("releaseDate"));
+
+        // La valoración sale del resumen ya leído, sin cargar las reseñas de cada juego
+        colRating.setCellValueFactory(cell -> {
+            RatingSummary summary = ratings.get(cell.getValue().getIdVideogame());
+            return new SimpleStringProperty(summary == null || summary.getReviewCount() == 0
+                    ? "-" : String.format("%.1f ★", summary.getAverage()));
+        });
+        colReviews.setCellValueFactory(cell -> {
+            RatingSummary summary = ratings.get(cell.getValue().getIdVideogame());
+            return new SimpleObjectProperty<>(summary == null ? 0 : summary.getReviewCount());
+        });
     }
 
     /**
-     * Loads all available video games from the database.
+     * Reads the rating summaries of a page of games in a single query, before
+     * the page is shown, so its rating cells are filled when the rows appear.
+     *
+     * @param games Games of the page
+     * @return The same games, once their ratings are known
      */
-    private void loadAllGames() {
-        gamesList.setAll(cont.getAllGames());
+    private CompletableFuture<List<Videogame>> withRatings(List<Videogame> games) {
+        return cont.async().getRatingSummaries(gameIds(games)).thenApply(found -> {
+            ratings.putAll(found);
+            return games;
+        });
+    }
+
+    private static List<Integer> gameIds(List<Videogame> games) {
+        List<Integer> ids = new ArrayList<>(games.size());
+        for (Videogame game : games) {
+            if (game != null) {
+                ids.add(game.getIdVideogame());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reads again the rating of a game, after the user may have reviewed it.
+     *
+     * @param game Reviewed game
+     */
+    private void refreshRating(Videogame game) {
+        cont.async().getRatingSummary(game.getIdVideogame()).whenCompleteAsync((summary, error) -> {
+            if (summary != null) {
+                ratings.put(game.getIdVideogame(), summary);
+                tableViewGames.refresh();
+                getSelectedTableItem();
+            }
+        }, AsyncController.FX);
+    }
+
+    /**
+     * Shows the whole catalog in the table. Rows are read from the database in
+     * pages as the user scrolls, so only a few of them are kept in memory.
+     */
+    private void showCatalog() {
+        if (tableViewGames.getItems() != catalog) {
+            tableViewGames.setItems(catalog);
+        }
+        catalog.reload();
     }
 
     /**
@@ -292,11 +332,22 @@ public class ShopWindowController implements Initializable {
     private void getSelectedTableItem() {
         selected = tableViewGames.getSelectionModel().getSelectedItem();
         if (selected != null) {
-            logger.info("Game selected: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
-            labelGameInfo.setText(selected.getName() + " - " + selected.getPrice() + "€ - Stock: " + selected.getStock());
+            logger.info(() -> "Game selected: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
+            labelGameInfo.setText(selected.getName() + " - " + selected.getPrice() + "€ - Stock: " + selected.getStock()
+                    + (hasReviewed(selected) ? " - Already reviewed" : ""));
         }
     }
 
+    /**
+     * Checks in memory whether the user has already reviewed a game.
+     *
+     * @param game Game to check
+     * @return true if the reviewed games are loaded and include the game
+     */
+    private boolean hasReviewed(Videogame game) {
+        return reviewedGames != null && reviewedGames.contains(game.getIdVideogame());
+    }
+
     /**
      * Performs a search for video games based on the specified filters.
      * Filters include search text, genre, and platform.
@@ -306,29 +357,10 @@ public class ShopWindowController implements Initializable {
     @FXML
     private void search(ActionEvent event) {
         logger.info("Search button clicked");
-        logger.info("Search filters - Text: '" + textFieldSearch.getText() + "', Genre: " + comboBoxGenre.getValue() + ", Platform: " + comboBoxPlatform.getValue());
+        logger.info(() -> "Search filters - Text: '" + textFieldSearch.getText() + "', Genre: " + comboBoxGenre.getValue() + ", Platform: " + comboBoxPlatform.getValue());
 
-        try {
-            GameGenre genre = comboBoxGenre.getValue();
-            Platform platform = comboBoxPlatform.getValue();
-
-            String genreFilter = (genre == GameGenre.ALL) ? "" : genre.name();
-            String platformFilter = (platform == Platform.ALL) ? "" : platform.name();
-
-            gamesList.setAll(
-                    cont.getGamesFiltered(
-                            textFieldSearch.getText(),
-                            genreFilter,
-                            platformFilter
-                    )
-            );
-
-            logger.info("Search completed. Found " + gamesList.size() + " games matching criteria");
-
-        } catch (Exception e) {
-            logger.severe("Error in search operation: " + e.getMessage());
-            showAlert("Search Error", "An error occurred while searching. Please try again.");
-        }
+        // Misma búsqueda que al escribir, pero sin esperar al temporizador
+        liveSearch.runNow();
     }
 
     /**
@@ -364,80 +396,123 @@ public class ShopWindowController implements Initializable {
                 alert.showAndWait();
                 return;
             }
-
-            if (selected.getStock() <= 0) {
-                logger.warning("Attempted to add out-of-stock game to cart: " + selected.getName());
-                Alert alert = new Alert(Alert.AlertType.WARNING);
-                alert.setTitle("Out of Stock");
-                alert.setHeaderText("Game not available");
-                alert.setContentText(selected.getName() + " is currently out of stock.");
-                alert.showAndWait();
-                return;
-            }
         } catch (Exception e) {
-            logger.severe(String.format("Error in addToCart: %s", e.getMessage()));
+            logger.severe(() -> String.format("Error in addToCart: %s", e.getMessage()));
             showAlert("Error", "Could not add the game to the cart.");
             return;
         }
 
-        // Check if game already in cart
-        boolean gameInCart = false;
-        for (CartItem item : sharedCart) {
-            if (item.getIdVideojuego() == selected.getIdVideogame() && item.getIdUsuario() == profile.getUserCode()) {
-                gameInCart = true;
-                break;
+        // In the background: check the cart by its index, then reserve one unit in
+        // the database before adding it, since the stock shown in the table may be
+        // out of date
+        final Videogame game = selected;
+        final int userCode = profile.getUserCode();
+        buttonAddToCart.setDisable(true);
+        cont.async().runWrite(() -> {
+            if (cont.getCartItem(userCode, game.getIdVideogame()) != null) {
+                return AddResult.ALREADY_IN_CART;
             }
-        }
-
-        if (gameInCart) {
-            logger.info("Game already in cart: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Already in Cart");
-            alert.setHeaderText("Game already added");
-            alert.setContentText(selected.getName() + " is already in your cart.");
-            alert.showAndWait();
-            return;
-        }
+            if (!cont.reserveStock(userCode, game.getIdVideogame(), 1)) {
+                return AddResult.OUT_OF_STOCK;
+            }
+            cont.updateCart(userCode, game.getIdVideogame(), 1, game.getPrice());
+            return AddResult.ADDED;
+        }).whenCompleteAsync((result, error) -> {
+            buttonAddToCart.setDisable(false);
+            if (error != null) {
+                logger.severe(() -> String.format("Error in addToCart: %s", AsyncController.unwrap(error).getMessage()));
+                showAlert("Error", "Could not add the game to the cart.");
+            } else if (result == AddResult.ALREADY_IN_CART) {
+                logger.info(() -> "Game already in cart: " + game.getName() + " (ID: " + game.getIdVideogame() + ")");
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Already in Cart");
+                alert.setHeaderText("Game already added");
+                alert.setContentText(game.getName() + " is already in your cart.");
+                alert.showAndWait();
+            } else if (result == AddResult.OUT_OF_STOCK) {
+                logger.warning(() -> "Attempted to add out-of-stock game to cart: " + game.getName());
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Out of Stock");
+                alert.setHeaderText("Game not available");
+                alert.setContentText(game.getName() + " is currently out of stock.");
+                alert.showAndWait();
+            } else {
+                addReservedGameToCart(game);
+            }
+        }, AsyncController.FX);
+    }
 
-        // Add to cart
-        CartItem cartItem = new CartItem(
-                profile.getUserCode(),
-                selected.getIdVideogame(),
-                1,
-                selected.getPrice()
-        );
+    /**
+     * Possible outcomes of adding a game to the cart.
+     */
+    private enum AddResult {
+        ADDED, ALREADY_IN_CART, OUT_OF_STOCK
+    }
 
-        sharedCart.add(cartItem);
+    /**
+     * Shows that a game whose unit is already reserved was added to the cart.
+     *
+     * @param game Reserved video game
+     */
+    private void addReservedGameToCart(Videogame game) {
+        tableViewGames.refresh();
 
-        logger.info("Game added to cart successfully - User: " + profile.getUsername() + ", Game: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
+        logger.info(() -> "Game added to cart successfully - User: " + profile.getUsername() + ", Game: " + game.getName() + " (ID: " + game.getIdVideogame() + ")");
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Added to Cart");
         alert.setHeaderText("Game added successfully");
-        alert.setContentText(selected.getName() + " has been added to your cart!");
+        alert.setContentText(game.getName() + " has been added to your cart!");
         alert.showAndWait();
     }
 
     /**
-     * Gets the shared shopping cart between windows. This is a static cart that
-     * maintains items between different instances of the store window.
+     * Opens the shopping cart window. The saved cart and its games are looked
+     * up in the background by their codes: games already read by any window
+     * come from the shared game registry, so usually nothing is read from the
+     * database. The window is then opened with them.
      *
-     * @return Observable list with cart items
+     * @param event Cart button action event
      */
-    public static ObservableList<CartItem> getSharedCart() {
-        return sharedCart;
+    @FXML
+    private void openCart(ActionEvent event) {
+        logger.info(() -> "Opening cart window for user: " + (profile != null ? profile.getUsername() : "unknown"));
+
+        final Window owner = ((Node) event.getSource()).getScene().getWindow();
+        final int userCode = profile.getUserCode();
+        cont.async().run(() -> {
+            List<CartItem> items = cont.getCart(userCode);
+            List<Integer> ids = new ArrayList<>(items.size());
+            for (CartItem item : items) {
+                ids.add(item.getIdVideojuego());
+            }
+            // Solo se leen los juegos que no se leyeron al abrir antes el carrito
+            Map<Integer, Videogame> games = cont.getGames(ids);
+            Map<CartItem, Videogame> lines = new LinkedHashMap<>();
+            for (CartItem item : items) {
+                Videogame game = games.get(item.getIdVideojuego());
+                if (game != null) {
+                    lines.put(item, game);
+                }
+            }
+            return lines;
+        }).whenCompleteAsync((lines, error) -> {
+            if (error != null) {
+                logger.severe(() -> "Error loading cart: " + AsyncController.unwrap(error).getMessage());
+                showAlert("Error", "Could not load your cart.");
+            } else {
+                showCart(owner, lines);
+            }
+        }, AsyncController.FX);
     }
 
     /**
-     * Opens the shopping cart window. Loads the cart interface and
-     * passes the current items.
+     * Opens the shopping cart window with the given items.
      *
-     * @param event Cart button action event
+     * @param owner Window that owns the cart window
+     * @param lines Lines of the cart with their games, in cart order
      */
-    @FXML
-    private void openCart(ActionEvent event) {
-        logger.info("Opening cart window for user: " + (profile != null ? profile.getUsername() : "unknown"));
-
+    private void showCart(Window owner, Map<CartItem, Videogame> lines) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/CartWindow.fxml"));
             Parent root = loader.load();
@@ -450,8 +525,8 @@ public class ShopWindowController implements Initializable {
             cartC.setUsuario(profile);
             cartC.setCont(cont);
 
-            // Load shared cart items WITH COMPLETE VIDEOGAMES
-            loadCartItemsToController(cartC);
+            // Load the cart items WITH COMPLETE VIDEOGAMES
+            loadCartItemsToController(cartC, lines);
 
             cartC.actualizarTotales();
             cartC.actualizarEstadoBotones();
@@ -460,78 +535,111 @@ public class ShopWindowController implements Initializable {
             stage.setTitle("Your Cart - " + profile.getUsername());
             stage.setScene(new Scene(root));
             stage.initModality(Modality.WINDOW_MODAL);
-            stage.initOwner(((Node) event.getSource()).getScene().getWindow());
+            stage.initOwner(owner);
             stage.show();
 
             logger.info("Cart window opened successfully");
 
         } catch (IOException ex) {
-            logger.severe("Error opening cart window: " + ex.getMessage());
-            Logger.getLogger(ShopWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error opening cart window: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
     /**
-     * Auxiliary method to load the shared cart items into the cart window
+     * Auxiliary method to load the cart items into the cart window
      * controller.
      *
      * @param cartController Cart window controller
+     * @param lines Lines of the cart of the user with their games
      */
-    private void loadCartItemsToController(CartController cartController) {
-        for (CartItem item : sharedCart) {
-            if (item.getIdUsuario() == profile.getUserCode()) {
-                // Find the complete video game in the list
-                Videogame videojuegoCompleto = null;
-                for (Videogame game : gamesList) {
-                    if (game.getIdVideogame() == item.getIdVideojuego()) {
-                        videojuegoCompleto = game;
-                        break;
-                    }
-                }
-
-                if (videojuegoCompleto != null) {
-                    cartController.agregarItemCarrito(
-                            profile.getUsername(),
-                            videojuegoCompleto,
-                            item.getCantidad(),
-                            item.getPrecio()
-                    );
-                }
-            }
+    private void loadCartItemsToController(CartController cartController, Map<CartItem, Videogame> lines) {
+        for (Map.Entry<CartItem, Videogame> line : lines.entrySet()) {
+            CartItem item = line.getKey();
+            cartController.agregarItemCarrito(
+                    profile.getUsername(),
+                    line.getValue(),
+                    item.getCantidad(),
+                    item.getPrecio()
+            );
         }
     }
 
     /**
-     * Refreshes the list of video games applying the current filters. If there
-     * are active filters, it applies the filtered search; otherwise, it loads
-     * all games.
+     * Configures the live search: typing in the search field or changing the
+     * genre or platform filter launches a debounced search in the background.
      */
-    private void refreshGamesList() {
-        logger.info("Refreshing games list");
+    private void configureLiveSearch() {
+        liveSearch = new LiveSearch<>(Duration.millis(300), this::buildSearchQuery,
+                this::applySearchResult, this::handleSearchError);
 
-        String name = textFieldSearch.getText();
-        GameGenre genre = comboBoxGenre.getValue();
-        Platform platform = comboBoxPlatform.getValue();
+        textFieldSearch.textProperty().addListener((observable, oldValue, newValue) -> liveSearch.trigger());
+        comboBoxGenre.valueProperty().addListener((observable, oldValue, newValue) -> liveSearch.trigger());
+        comboBoxPlatform.valueProperty().addListener((observable, oldValue, newValue) -> liveSearch.trigger());
+    }
+
+    /**
+     * Builds the query for the current filters. Runs on the JavaFX thread, so
+     * the filter values are read here and captured by the returned task, which
+     * then runs in the background.
+     *
+     * @return Task that retrieves the games matching the current filters, or
+     * null when there are no filters and the paged catalog is shown instead
+     */
+    private Callable<List<Videogame>> buildSearchQuery() {
+        final Controller controller = cont;
+        final String name = textFieldSearch.getText();
+        final GameGenre genre = comboBoxGenre.getValue();
+        final Platform platform = comboBoxPlatform.getValue();
 
         boolean hasFilters = (name != null && !name.isEmpty())
-                || genre != GameGenre.ALL
-                || platform != Platform.ALL;
-
-        if (hasFilters) {
-            logger.info("Applying filters - Name: '" + name + "', Genre: " + genre + ", Platform: " + platform);
-            gamesList.setAll(
-                    cont.getGamesFiltered(
-                            name,
-                            genre == GameGenre.ALL ? "" : genre.name(),
-                            platform == Platform.ALL ? "" : platform.name()
-                    )
-            );
-        } else {
+                || (genre != null && genre != GameGenre.ALL)
+                || (platform != null && platform != Platform.ALL);
+
+        if (!hasFilters) {
             logger.info("Loading all games (no filters)");
-            gamesList.setAll(cont.getAllGames());
+            showCatalog();
+            return null;
         }
 
-        logger.info("Games list refreshed. Total games: " + gamesList.size());
+        logger.info(() -> "Applying filters - Name: '" + name + "', Genre: " + genre + ", Platform: " + platform);
+        final String genreFilter = (genre == null || genre == GameGenre.ALL) ? "" : genre.name();
+        final String platformFilter = (platform == null || platform == Platform.ALL) ? "" : platform.name();
+        return () -> {
+            List<Videogame> games = controller.getGamesFiltered(name, genreFilter, platformFilter);
+            ratings.putAll(controller.getRatingSummaries(gameIds(games)));
+            return games;
+        };
+    }
+
+    /**
+     * Shows the result of the latest search in the table.
+     *
+     * @param games Games matching the filters
+     */
+    private void applySearchResult(List<Videogame> games) {
+        gamesList.setAll(games);
+        tableViewGames.setItems(gamesList);
+        logger.info(() -> "Search completed. Found " + gamesList.size() + " games matching criteria");
+    }
+
+    /**
+     * Handles an error thrown by a background search.
+     *
+     * @param e Error thrown by the query
+     */
+    private void handleSearchError(Exception e) {
+        logger.severe(() -> "Error in search operation: " + e.getMessage());
+        showAlert("Search Error", "An error occurred while searching. Please try again.");
+    }
+
+    /**
+     * Refreshes the list of video games applying the current filters in the
+     * background.
+     */
+    private void refreshGamesList() {
+        logger.info("Refreshing games list");
+        liveSearch.runNow();
     }
 
     /**
@@ -552,6 +660,7 @@ public class ShopWindowController implements Initializable {
             controller.setUsuario(profile);
             controller.setCont(cont);
 
+            leaveStore();
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
             stage.setTitle("Main Window");
             stage.setScene(new Scene(root));
@@ -560,8 +669,20 @@ public class ShopWindowController implements Initializable {
             logger.info("Successfully returned to Main Menu");
 
         } catch (IOException e) {
-            logger.severe("Error returning to main menu: " + e.getMessage());
-            Logger.getLogger(AdminShopController.class.getName()).log(Level.SEVERE, null, e);
+            logger.severe(() -> "Error returning to main menu: " + e.getMessage());
+            logger.log(Level.SEVERE, null, e);
+        }
+    }
+
+    /**
+     * Called by every way out of the store. The cart is kept for the next
+     * visit, but its units are returned to the stock until then; the purchase
+     * takes them again if they are still there.
+     */
+    private void leaveStore() {
+        if (profile != null && cont != null) {
+            final int userCode = profile.getUserCode();
+            cont.async().runWrite(() -> cont.getCart(userCode).isEmpty() || cont.releaseReservations(userCode));
         }
     }
 
@@ -585,8 +706,14 @@ public class ShopWindowController implements Initializable {
             return;
         }
 
+        if (hasReviewed(selected)) {
+            logger.info(() -> "Game already reviewed by the user: " + selected.getName());
+            showAlert("Already reviewed", "You have already reviewed " + selected.getName() + ".");
+            return;
+        }
+
         try {
-            logger.info("Opening review window for game: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
+            logger.info(() -> "Opening review window for game: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ReviewWindow.fxml"));
             Parent root = loader.load();
@@ -600,7 +727,7 @@ public class ShopWindowController implements Initializable {
             if (profile != null) {
                 controller.setUsuario(profile);
                 controller.setCont(cont);
-                logger.info("Setting user for review: " + profile.getUsername() + " (ID: " + profile.getUserCode() + ")");
+                logger.info(() -> "Setting user for review: " + profile.getUsername() + " (ID: " + profile.getUserCode() + ")");
             }
 
             // Create a NEW window (Stage) modal
@@ -610,13 +737,15 @@ public class ShopWindowController implements Initializable {
             stage.initModality(Modality.WINDOW_MODAL);
             stage.initOwner(((Node) event.getSource()).getScene().getWindow());
             stage.setResizable(false);
+            final Videogame reviewed = selected;
+            stage.setOnHidden(e -> refreshRating(reviewed));
             stage.show();
 
-            logger.info("Review window opened successfully for game: " + selected.getName());
+            logger.info(() -> "Review window opened successfully for game: " + selected.getName());
 
         } catch (IOException e) {
-            logger.severe("Failed to open review window for game: " + selected.getName() + " - " + e.getMessage());
-            Logger.getLogger(ShopWindowController.class.getName()).log(Level.SEVERE, "Error loading ReviewWindow", e);
+            logger.severe(() -> "Failed to open review window for game: " + selected.getName() + " - " + e.getMessage());
+            logger.log(Level.SEVERE, "Error loading ReviewWindow", e);
 
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
@@ -660,7 +789,7 @@ public class ShopWindowController implements Initializable {
 
         if (favoriteGameIds.contains(gameId)) {
             // Remove from favorites
-            logger.info("Removing game from favorites - User: " + profile.getUsername() + ", Game: " + selected.getName() + " (ID: " + gameId + ")");
+            logger.info(() -> "Removing game from favorites - User: " + profile.getUsername() + ", Game: " + selected.getName() + " (ID: " + gameId + ")");
             favoriteGameIds.remove(Integer.valueOf(gameId));
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
             alert.setTitle("Favorite Removed");
@@ -669,7 +798,7 @@ public class ShopWindowController implements Initializable {
             alert.showAndWait();
         } else {
             // Add to favorites
-            logger.info("Adding game to favorites - User: " + profile.getUsername() + ", Game: " + selected.getName() + " (ID: " + gameId + ")");
+            logger.info(() -> "Adding game to favorites - User: " + profile.getUsername() + ", Game: " + selected.getName() + " (ID: " + gameId + ")");
             favoriteGameIds.add(gameId);
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
             alert.setTitle("Favorite Added");
@@ -680,7 +809,7 @@ public class ShopWindowController implements Initializable {
 
         // Refresh the table to update highlighting
         tableViewGames.refresh();
-        logger.info("Favorites updated. Total favorites: " + favoriteGameIds.size());
+        logger.info(() -> "Favorites updated. Total favorites: " + favoriteGameIds.size());
     }
 
     /**
@@ -704,7 +833,7 @@ public class ShopWindowController implements Initializable {
             return;
         }
 
-        logger.info("Showing details for game: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
+        logger.info(() -> "Showing details for game: " + selected.getName() + " (ID: " + selected.getIdVideogame() + ")");
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Game Details - " + selected.getName());
@@ -730,7 +859,7 @@ public class ShopWindowController implements Initializable {
      */
     @FXML
     private void menuUserWindow(ActionEvent event) {
-        logger.info("Opening user profile modification window for: " + (profile != null ? profile.getUsername() : "unknown"));
+        logger.info(() -> "Opening user profile modification window for: " + (profile != null ? profile.getUsername() : "unknown"));
 
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ModifyWindow.fxml"));
@@ -749,6 +878,7 @@ public class ShopWindowController implements Initializable {
             }
 
             // Close the current window (StoreWindow)
+            leaveStore();
             Stage currentStage = (Stage) menuBar.getScene().getWindow();
             currentStage.close();
 
@@ -761,7 +891,7 @@ public class ShopWindowController implements Initializable {
             stage.show();
 
         } catch (IOException ex) {
-            logger.severe("Error loading ModifyWindow for user: " + (profile != null ? profile.getUsername() : "unknown") + " - " + ex.getMessage());
+            logger.severe(() -> "Error loading ModifyWindow for user: " + (profile != null ? profile.getUsername() : "unknown") + " - " + ex.getMessage());
 
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
@@ -791,7 +921,7 @@ public class ShopWindowController implements Initializable {
             if (controller != null) {
                 if (profile != null) {
                     controller.setUsuario(profile);
-                    logger.info("Passing user to MenuWindow: " + profile.getUsername());
+                    logger.info(() -> "Passing user to MenuWindow: " + profile.getUsername());
                 }
                 if (cont != null) {
                     controller.setCont(cont);
@@ -799,6 +929,7 @@ public class ShopWindowController implements Initializable {
             }
 
             // Get the current window
+            leaveStore();
             Stage currentStage = (Stage) menuBar.getScene().getWindow();
 
             // Reemplazar la escena actual
@@ -809,7 +940,7 @@ public class ShopWindowController implements Initializable {
             logger.info("Successfully returned to Main Menu");
 
         } catch (IOException ex) {
-            logger.severe("Error loading MenuWindow: " + ex.getMessage());
+            logger.severe(() -> "Error loading MenuWindow: " + ex.getMessage());
 
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
@@ -827,7 +958,7 @@ public class ShopWindowController implements Initializable {
      */
     private void showAlert(String title, String message) {
         try {
-            logger.info("Showing alert: " + title + " - " + message);
+            logger.info(() -> "Showing alert: " + title + " - " + message);
 
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(title);
@@ -836,7 +967,7 @@ public class ShopWindowController implements Initializable {
             alert.showAndWait();
 
         } catch (Exception e) {
-            logger.severe("Error showing alert: " + e.getMessage());
+            logger.severe(() -> "Error showing alert: " + e.getMessage());
         }
     }
 
@@ -860,7 +991,7 @@ public class ShopWindowController implements Initializable {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("User manual PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "User manual PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 // Try to search in different common locations
                 String[] possiblePaths = {
@@ -873,10 +1004,11 @@ public class ShopWindowController implements Initializable {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found manual PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found manual PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -893,7 +1025,7 @@ public class ShopWindowController implements Initializable {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened user manual PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened user manual PDF: " + pdfFileName);
                 } else {
                     throw new IOException("OPEN action not supported on this platform");
                 }
@@ -902,7 +1034,7 @@ public class ShopWindowController implements Initializable {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening user manual PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening user manual PDF: " + ex.getMessage());
 
             // Mostrar instrucciones alternativas
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -936,7 +1068,7 @@ public class ShopWindowController implements Initializable {
             java.io.File pdfFile = new java.io.File(pdfPath);
 
             if (!pdfFile.exists()) {
-                logger.warning("Project report PDF not found at: " + pdfFile.getAbsolutePath());
+                logger.warning(() -> "Project report PDF not found at: " + new java.io.File(pdfPath).getAbsolutePath());
 
                 // Try to search in different common locations
                 String[] possiblePaths = {
@@ -949,10 +1081,11 @@ public class ShopWindowController implements Initializable {
 
                 boolean found = false;
                 for (String path : possiblePaths) {
-                    pdfFile = new java.io.File(path);
-                    if (pdfFile.exists()) {
+                    java.io.File candidate = new java.io.File(path);
+                    if (candidate.exists()) {
+                        pdfFile = candidate;
                         found = true;
-                        logger.info("Found report PDF at: " + pdfFile.getAbsolutePath());
+                        logger.info(() -> "Found report PDF at: " + candidate.getAbsolutePath());
                         break;
                     }
                 }
@@ -969,7 +1102,7 @@ public class ShopWindowController implements Initializable {
                 java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
                 if (desktop.isSupported(java.awt.Desktop.Action.OPEN)) {
                     desktop.open(pdfFile);
-                    logger.info("Successfully opened project report PDF: " + pdfFile.getName());
+                    logger.info(() -> "Successfully opened project report PDF: " + pdfFileName);
 
                     // Mostrar confirmación
                     Alert info = new Alert(Alert.AlertType.INFORMATION);
@@ -986,7 +1119,7 @@ public class ShopWindowController implements Initializable {
             }
 
         } catch (IOException ex) {
-            logger.severe("Error opening project report PDF: " + ex.getMessage());
+            logger.severe(() -> "Error opening project report PDF: " + ex.getMessage());
 
             // Mostrar instrucciones alternativas
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -8,18 +8,18 @@ import javafx.scene.control.TextField;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import model.Profile;
+import model.SignUpResult;
+import threads.AsyncLogHandler;
 
 /**
  * Controller for the SignUp window. Handles user registration and navigation to login or main menu.
@@ -27,8 +27,7 @@ import model.Profile;
 public class SignUpWindowController implements Initializable {
 
     // Logger para esta clase
-    private static final Logger logger = Logger.getLogger(ShopWindowController.class.getName());
-    private static boolean loggerInitialized = false;
+    private static final Logger logger = AsyncLogHandler.getLogger(SignUpWindowController.class, "SignUpWindow");
     
     @FXML
     private TextField textFieldEmail, textFieldName, textFieldSurname, textFieldTelephone;
@@ -42,50 +41,6 @@ public class SignUpWindowController implements Initializable {
     private Controller cont;
     private ToggleGroup grupOp;
     
-    static {
-        initializeLogger();
-    }
-    
-    private static synchronized void initializeLogger() {
-        if (loggerInitialized) {
-            return;
-        }
-        
-        try {
-            java.io.File logsFolder = new java.io.File("logs");
-            if (!logsFolder.exists()) {
-                logsFolder.mkdirs();
-            }
-            
-            FileHandler fileHandler = new FileHandler("logs/SignUpWindow.log", true);
-            
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    if (record.getLevel() == Level.INFO || record.getLevel() == Level.SEVERE || record.getLevel() == Level.WARNING) {
-                        return String.format("[%1$tF %1$tT] [%2$s] %3$s %n",
-                                new java.util.Date(record.getMillis()),
-                                record.getLevel(),
-                                record.getMessage());
-                    }
-                    return "";
-                }
-            });
-            
-            fileHandler.setLevel(Level.INFO);
-            logger.addHandler(fileHandler);
-            logger.setLevel(Level.INFO);
-            logger.setUseParentHandlers(false);
-            
-            loggerInitialized = true;
-            logger.info("AdminShopController logger initialized");
-            
-        } catch (Exception e) {
-            System.err.println("ERROR initializing logger: " + e.getMessage());
-            loggerInitialized = true;
-        }
-    }
-
     public void setCont(Controller cont) {
         logger.info("Setting controller in SignUpWindowController");
         this.cont = cont;
@@ -112,8 +67,8 @@ public class SignUpWindowController implements Initializable {
             logger.info("Successfully navigated to login window");
             
         } catch (IOException ex) {
-            logger.severe("Error navigating to login window: " + ex.getMessage());
-            Logger.getLogger(SignUpWindowController.class.getName()).log(Level.SEVERE, null, ex);
+            logger.severe(() -> "Error navigating to login window: " + ex.getMessage());
+            logger.log(Level.SEVERE, null, ex);
         }
     }
 
@@ -136,9 +91,9 @@ public class SignUpWindowController implements Initializable {
         String gender = null;
 
         // Registrar datos obtenidos (sin contraseñas por seguridad)
-        logger.info("Registration attempt - Username: " + username + 
+        logger.info(() -> "Registration attempt - Username: " + username + 
                    ", Email: " + email + ", Name: " + name + " " + surname);
-        logger.info("Gender selection - M: " + rButtonM.isSelected() + 
+        logger.info(() -> "Gender selection - M: " + rButtonM.isSelected() + 
                    ", W: " + rButtonW.isSelected() + ", O: " + rButtonO.isSelected());
 
         // Determinar género seleccionado
@@ -165,44 +120,87 @@ public class SignUpWindowController implements Initializable {
         logger.info("Password validation successful");
 
         // Intentar registro
-        logger.info("Attempting to sign up user: " + username);
-        if (cont.signUp(gender, cardN, username, pass, email, name, telephone, surname)) {
-            logger.info("SignUp successful for user: " + username);
-            
-            // Intentar login automático
-            logger.info("Attempting auto-login for new user: " + username);
-            Profile profile = cont.logIn(username, pass);
-            
-            if (profile != null) {
-                logger.info("Auto-login successful for user: " + username + " (ID: " + profile.getUserCode() + ")");
-                
-                try {
-                    // Navegar a la ventana principal
-                    logger.info("Navigating to MenuWindow for new user: " + username);
-                    FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/MenuWindow.fxml"));
-                    Parent root = fxmlLoader.load();
-                    controller.MenuWindowController controllerWindow = fxmlLoader.getController();
-                    controllerWindow.setUsuario(profile);
-                    controllerWindow.setCont(this.cont);
-                    
-                    Stage stage = new Stage();
-                    stage.setScene(new Scene(root));
-                    stage.show();
-                    
-                    Stage currentStage = (Stage) buttonSignUp.getScene().getWindow();
-                    currentStage.close();
-                    
-                    logger.info("Successfully navigated to MenuWindow for new user: " + username);
-                    
-                } catch (IOException ex) {
-                    logger.severe("Error navigating to MenuWindow after signup: " + ex.getMessage());
-                    Logger.getLogger(SignUpWindowController.class.getName()).log(Level.SEVERE, null, ex);
-                }
+        logger.info(() -> "Attempting to sign up user: " + username);
+        buttonSignUp.setDisable(true);
+        cont.async().signUp(gender, cardN, username, pass, email, name, telephone, surname).whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                buttonSignUp.setDisable(false);
+                logger.severe(() -> "Error signing up user " + username + ": " + AsyncController.unwrap(error));
+                showSignUpError("Could not connect to the database. Please try again.");
+            } else if (result.isCreated()) {
+                logger.info(() -> "SignUp successful for user: " + username);
+
+                // Intentar login automático
+                logger.info(() -> "Attempting auto-login for new user: " + username);
+                cont.async().logIn(username, pass).whenCompleteAsync((profile, loginError) -> {
+                    buttonSignUp.setDisable(false);
+                    if (loginError != null) {
+                        logger.severe(() -> "Auto-login failed after successful signup for user: " + username + ": " + AsyncController.unwrap(loginError));
+                    } else {
+                        onAutoLogIn(username, profile);
+                    }
+                }, AsyncController.FX);
             } else {
-                logger.severe("Auto-login failed after successful signup for user: " + username);
+                buttonSignUp.setDisable(false);
+                logger.warning(() -> "SignUp failed for user: " + username + " - " + result);
+                if (result == SignUpResult.USERNAME_TAKEN) {
+                    showSignUpError("The username " + username + " is already taken. Please choose another one.");
+                } else if (result == SignUpResult.EMAIL_TAKEN) {
+                    showSignUpError("There is already an account with the email " + email + ".");
+                } else {
+                    showSignUpError("The user could not be registered. Check the fields and try again.");
+                }
+            }
+        }, AsyncController.FX);
+    }
+
+    /**
+     * Shows why the registration failed (JavaFX thread).
+     *
+     * @param message Text for the user
+     */
+    private void showSignUpError(String message) {
+        Alert error = new Alert(Alert.AlertType.ERROR);
+        error.setTitle("Sign Up Error");
+        error.setHeaderText("Could not sign up");
+        error.setContentText(message);
+        error.showAndWait();
+    }
+
+    /**
+     * Opens the main menu for the newly registered user (JavaFX thread).
+     *
+     * @param username Username of the new user
+     * @param profile Profile returned by the automatic login, or null if it failed
+     */
+    private void onAutoLogIn(String username, Profile profile) {
+        if (profile != null) {
+            logger.info(() -> "Auto-login successful for user: " + username + " (ID: " + profile.getUserCode() + ")");
+
+            try {
+                // Navegar a la ventana principal
+                logger.info(() -> "Navigating to MenuWindow for new user: " + username);
+                FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/MenuWindow.fxml"));
+                Parent root = fxmlLoader.load();
+                controller.MenuWindowController controllerWindow = fxmlLoader.getController();
+                controllerWindow.setUsuario(profile);
+                controllerWindow.setCont(this.cont);
+
+                Stage stage = new Stage();
+                stage.setScene(new Scene(root));
+                stage.show();
+
+                Stage currentStage = (Stage) buttonSignUp.getScene().getWindow();
+                currentStage.close();
+
+                logger.info(() -> "Successfully navigated to MenuWindow for new user: " + username);
+
+            } catch (IOException ex) {
+                logger.severe(() -> "Error navigating to MenuWindow after signup: " + ex.getMessage());
+                logger.log(Level.SEVERE, null, ex);
             }
         } else {
-            logger.warning("SignUp failed for user: " + username + " - User may already exist or invalid data");
+            logger.severe(() -> "Auto-login failed after successful signup for user: " + username);
         }
     }
 
@@ -219,7 +217,7 @@ public class SignUpWindowController implements Initializable {
             logger.info("SignUpWindowController initialized successfully - ToggleGroup configured");
             
         } catch (Exception e) {
-            logger.severe("Error initializing SignUpWindowController: " + e.getMessage());
+            logger.severe(() -> "Error initializing SignUpWindowController: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,29 +1,36 @@
 package main;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
 import javafx.application.Application;
 import static javafx.application.Application.launch;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
+import controller.LogInWindowController;
+import controller.PagedGameList;
+import model.HibernateSession;
+import model.SignUpResult;
 import model.DBImplementation;
+import threads.CartFlusher;
+import threads.ReservationSweeper;
+import threads.ThreadConnection;
 
 public class Main extends Application {
 
+    /**
+     * Completes when the database can be used: the SessionFactory is built and
+     * the default admin exists.
+     */
+    private static CompletableFuture<Void> dataLayer;
+
     private static void CreateTableHibernate() {
         try {
-
-            SessionFactory sessionFactory = model.HibernateSession.getSessionFactory();
-            Session session = sessionFactory.openSession();
-            session.close();
-
-            System.out.println("Tablas creadas/validadas");
             
             // Crear admin por defecto con usuario y contraseña = "admin"
             DBImplementation db = new DBImplementation();
-            boolean adminCreated = db.createAdmin(
+            SignUpResult adminCreated = db.createAdmin(
                 "admin",           // username
                 "admin",           // password
                 "admin@store.com", // email
@@ -33,19 +40,48 @@ public class Main extends Application {
                 "CTA-ADMIN"        // currentAccount
             );
             
-            if (adminCreated) {
+            if (adminCreated.isCreated()) {
                 System.out.println("Admin por defecto creado/validado: admin");
+            } else if (adminCreated == SignUpResult.USERNAME_TAKEN) {
+                System.out.println("Admin 'admin' ya existe");
             } else {
-                System.out.println("Admin 'admin' ya existe o error al crearlo");
+                System.out.println("Error al crear el admin 'admin': " + adminCreated);
             }
             
         } catch (Exception e) {
-            System.err.println("Error al crear tablas: " + e.getMessage());
-            // Decidir si continuar o salir
-            System.exit(1);  // Sale si no puede crear tablas
+            System.err.println("Error al crear el admin por defecto: " + e.getMessage());
         }
     }
 
+    /**
+     * Starts the data layer in the background: the SessionFactory and the
+     * schema first, then the default admin, the reservation sweeper, the cart
+     * flusher and the warm-up thread.
+     *
+     * @return Future that completes when users can log in
+     */
+    private static CompletableFuture<Void> startDataLayer() {
+        long start = System.currentTimeMillis();
+        return HibernateSession.start().thenRun(() -> {
+            System.out.println("Tablas creadas/validadas");
+            CreateTableHibernate();
+            System.out.println("Base de datos lista en " + (System.currentTimeMillis() - start) + " ms");
+
+            // Devolver al stock las reservas de carritos abandonados
+            new ReservationSweeper(new DBImplementation(), 60 * 1000).start();
+
+            // Guardar en lotes los cambios de los carritos
+            new CartFlusher(new DBImplementation(), 2 * 1000).start();
+
+            // Abrir conexiones y preparar las consultas mientras se muestra el login
+            new ThreadConnection(new DBImplementation(), 5, PagedGameList.PAGE_SIZE).start();
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error al crear tablas: " + error.getMessage());
+            }
+        });
+    }
+
     /**
      * Starts the JavaFX application by loading the login window.
      *
@@ -54,11 +90,31 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage stage) throws Exception {
-        Parent root = FXMLLoader.load(getClass().getResource("/view/LogInWindow.fxml"));
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LogInWindow.fxml"));
+        Parent root = loader.load();
+        if (dataLayer == null) {
+            // Lanzada sin pasar por main (por ejemplo, desde los tests de TestFX)
+            dataLayer = startDataLayer();
+        }
+        LogInWindowController controller = loader.getController();
+        controller.awaitDataLayer(dataLayer);
+
         Scene scene = new Scene(root);
         stage.setTitle("Login Application");
         stage.setScene(scene);
         stage.show();
+        System.out.println("Ventana de login mostrada "
+                + (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime())
+                + " ms después de arrancar la JVM");
+    }
+
+    /**
+     * Saves the cart changes not yet written by the cart flusher when the
+     * application closes.
+     */
+    @Override
+    public void stop() {
+        new DBImplementation().flushCart();
     }
 
     /**
@@ -67,7 +123,9 @@ public class Main extends Application {
      * @param args command-line arguments (not used)
      */
     public static void main(String[] args) {
-        CreateTableHibernate();
+        // La base de datos se prepara mientras JavaFX arranca y muestra el login
+        dataLayer = startDataLayer();
+
         launch(args);
     }
 }
@@ -0,0 +1,95 @@
+-- Esquema inicial: el mismo que creaba hibernate.hbm2ddl.auto con las entidades
+-- de model de la primera versión de la aplicación (mismos nombres de
+-- restricciones e índices). Es el esquema de las bases de datos que ya existían
+-- sin historial (ver model.SchemaMigrator); lo añadido después va en otros scripts.
+
+create table ADMIN_ (
+    current_account varchar(40),
+    user_code integer not null,
+    primary key (user_code)
+) engine=InnoDB;
+
+create table Order_ (
+    order_code integer not null auto_increment,
+    price double precision not null,
+    quantity integer not null,
+    id_user integer not null,
+    id_videogame integer not null,
+    primary key (order_code)
+) engine=InnoDB;
+
+create table PROFILE_ (
+    user_code integer not null auto_increment,
+    email varchar(50) not null,
+    name varchar(50),
+    password varchar(50) not null,
+    surname varchar(50) not null,
+    telephone varchar(50) not null,
+    username varchar(50) not null,
+    primary key (user_code)
+) engine=InnoDB;
+
+create table REVIEW_ (
+    review_code integer not null auto_increment,
+    comment varchar(500),
+    rating double precision,
+    id_user integer not null,
+    id_videogame integer not null,
+    primary key (review_code)
+) engine=InnoDB;
+
+create table USER_ (
+    card_number varchar(24),
+    gender varchar(50),
+    user_code integer not null,
+    primary key (user_code)
+) engine=InnoDB;
+
+create table VIDEOGAME_ (
+    videogame_code integer not null auto_increment,
+    company_name varchar(255),
+    genre varchar(255),
+    name varchar(255),
+    pegi varchar(255),
+    platform varchar(255),
+    price double precision,
+    release_date date,
+    stock integer,
+    primary key (videogame_code)
+) engine=InnoDB;
+
+alter table PROFILE_
+    add constraint UK_jrej8m7bl0q2x5ebp0urlbtu1 unique (email);
+
+alter table PROFILE_
+    add constraint UK_cwwrhvuyvwbic7sfxjrq8498j unique (username);
+
+alter table ADMIN_
+    add constraint FKc3nyf2dtcbvmcs2umju3e9x3o
+    foreign key (user_code)
+    references PROFILE_ (user_code);
+
+alter table Order_
+    add constraint FKiacilyhe3kqd39mn7btn2twyi
+    foreign key (id_user)
+    references USER_ (user_code);
+
+alter table Order_
+    add constraint FK2do5bndrc93yrdwqrm4pn7mco
+    foreign key (id_videogame)
+    references VIDEOGAME_ (videogame_code);
+
+alter table REVIEW_
+    add constraint FK99x2707qd56e1evpaix15r6v8
+    foreign key (id_user)
+    references USER_ (user_code);
+
+alter table REVIEW_
+    add constraint FK5rsxb7b3o1hmycb23fbd2xssw
+    foreign key (id_videogame)
+    references VIDEOGAME_ (videogame_code);
+
+alter table USER_
+    add constraint FKmcacw0qm5x168sftn9wrvayb2
+    foreign key (user_code)
+    references PROFILE_ (user_code);
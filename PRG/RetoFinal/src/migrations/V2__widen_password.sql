@@ -0,0 +1,3 @@
+-- Las contraseñas se guardan como hash PBKDF2 (model.PasswordHasher), que no
+-- cabe en los 50 caracteres de V1.
+alter table PROFILE_ modify password varchar(255) not null;
@@ -0,0 +1,9 @@
+-- Índices de las consultas más frecuentes.
+-- Las búsquedas por nombre ya usan idx_videogame_name_code (name, videogame_code),
+-- que en InnoDB es el mismo índice que uno solo sobre name.
+
+-- Filtro del catálogo por género y plataforma
+create index idx_videogame_genre_platform on VIDEOGAME_ (genre, platform);
+
+-- Comprobación de si un usuario ya ha valorado un juego (reviewExists)
+create index idx_review_user_game on REVIEW_ (id_user, id_videogame);
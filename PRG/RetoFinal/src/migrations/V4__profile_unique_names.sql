@@ -0,0 +1,8 @@
+-- Nombres legibles para las restricciones UNIQUE de PROFILE_: el registro
+-- (DBImplementation.signUp y createAdmin) las usa para saber si el usuario o
+-- el email ya existen, sin consultarlo antes.
+alter table PROFILE_ drop index UK_cwwrhvuyvwbic7sfxjrq8498j;
+alter table PROFILE_ add constraint uk_profile_username unique (username);
+
+alter table PROFILE_ drop index UK_jrej8m7bl0q2x5ebp0urlbtu1;
+alter table PROFILE_ add constraint uk_profile_email unique (email);
@@ -0,0 +1,36 @@
+-- Resumen de las valoraciones de cada juego: número, suma y cuántas hay de
+-- cada estrella (stars_N cuenta las puntuaciones de N a N + 0.5). Lo mantiene
+-- DBImplementation.createReview en la misma transacción que la reseña, así que
+-- la media se lee sin cargar las reseñas. Un juego sin reseñas no tiene fila.
+create table RATING_SUMMARY_ (
+    id_videogame integer not null,
+    review_count integer not null default 0,
+    rating_sum double precision not null default 0,
+    stars_0 integer not null default 0,
+    stars_1 integer not null default 0,
+    stars_2 integer not null default 0,
+    stars_3 integer not null default 0,
+    stars_4 integer not null default 0,
+    stars_5 integer not null default 0,
+    primary key (id_videogame)
+) engine=InnoDB;
+
+alter table RATING_SUMMARY_
+    add constraint FK_rating_summary_videogame
+    foreign key (id_videogame)
+    references VIDEOGAME_ (videogame_code)
+    on delete cascade;
+
+-- Reseñas escritas antes de esta versión
+insert into RATING_SUMMARY_ (id_videogame, review_count, rating_sum,
+        stars_0, stars_1, stars_2, stars_3, stars_4, stars_5)
+    select id_videogame, count(*), sum(rating),
+        sum(case when rating < 1 then 1 else 0 end),
+        sum(case when rating >= 1 and rating < 2 then 1 else 0 end),
+        sum(case when rating >= 2 and rating < 3 then 1 else 0 end),
+        sum(case when rating >= 3 and rating < 4 then 1 else 0 end),
+        sum(case when rating >= 4 and rating < 5 then 1 else 0 end),
+        sum(case when rating >= 5 then 1 else 0 end)
+    from REVIEW_
+    where rating is not null
+    group by id_videogame;
@@ -0,0 +1,24 @@
+-- Carrito de cada usuario, que se conserva entre sesiones. Lo escribe
+-- model.CartService en segundo plano: los cambios se acumulan en memoria y se
+-- guardan por lotes, con una fila por juego y la última cantidad elegida.
+-- added_at conserva el orden en que se añadieron los juegos al carrito.
+create table CART_ (
+    id_user integer not null,
+    id_videogame integer not null,
+    quantity integer not null,
+    price double precision not null,
+    added_at datetime(6) not null,
+    primary key (id_user, id_videogame)
+) engine=InnoDB;
+
+alter table CART_
+    add constraint FK_cart_user
+    foreign key (id_user)
+    references USER_ (user_code)
+    on delete cascade;
+
+alter table CART_
+    add constraint FK_cart_videogame
+    foreign key (id_videogame)
+    references VIDEOGAME_ (videogame_code)
+    on delete cascade;
@@ -0,0 +1,33 @@
+-- Lo que se añadió al mapeo después de la primera versión y no estaba en V1,
+-- que las bases de datos anteriores a las migraciones no tienen.
+
+-- Bloqueo optimista de los juegos (Videogame.version)
+alter table VIDEOGAME_ add column version INT DEFAULT 0 NOT NULL;
+
+-- Paginación y búsqueda del catálogo por nombre (DBImplementation.getGamesPage)
+create index idx_videogame_name_code on VIDEOGAME_ (name, videogame_code);
+
+-- Stock apartado mientras los juegos están en el carrito (model.Reservation)
+create table RESERVATION_ (
+    reservation_code integer not null auto_increment,
+    expires_at datetime(6) not null,
+    quantity integer not null,
+    id_user integer not null,
+    id_videogame integer not null,
+    primary key (reservation_code)
+) engine=InnoDB;
+
+create index idx_reservation_expires on RESERVATION_ (expires_at);
+
+alter table RESERVATION_
+    add constraint uk_reservation_user_game unique (id_user, id_videogame);
+
+alter table RESERVATION_
+    add constraint FKl9f9ps9ybwvel5smhyaer8m0v
+    foreign key (id_user)
+    references USER_ (user_code);
+
+alter table RESERVATION_
+    add constraint FKspmk295cibhdpykld96khfm8g
+    foreign key (id_videogame)
+    references VIDEOGAME_ (videogame_code);
@@ -0,0 +1,34 @@
+-- Una sola reseña por usuario y juego, garantizada por la base de datos:
+-- DBImplementation.createReview traduce la violación de uk_review_user_game en
+-- "ya reseñado", aunque dos envíos se crucen o el índice en memoria
+-- (model.ReviewIndex) no tenga aún la reseña.
+
+-- Reseñas repetidas de antes: se queda la primera de cada usuario y juego
+delete from REVIEW_
+    where review_code not in (
+        select review_code from (
+            select min(review_code) as review_code
+            from REVIEW_
+            group by id_user, id_videogame) first_reviews);
+
+-- El resumen se vuelve a calcular sin las repetidas, como en V5
+delete from RATING_SUMMARY_;
+
+insert into RATING_SUMMARY_ (id_videogame, review_count, rating_sum,
+        stars_0, stars_1, stars_2, stars_3, stars_4, stars_5)
+    select id_videogame, count(*), sum(rating),
+        sum(case when rating < 1 then 1 else 0 end),
+        sum(case when rating >= 1 and rating < 2 then 1 else 0 end),
+        sum(case when rating >= 2 and rating < 3 then 1 else 0 end),
+        sum(case when rating >= 3 and rating < 4 then 1 else 0 end),
+        sum(case when rating >= 4 and rating < 5 then 1 else 0 end),
+        sum(case when rating >= 5 then 1 else 0 end)
+    from REVIEW_
+    where rating is not null
+    group by id_videogame;
+
+-- El índice único sustituye al de V3, que tenía las mismas columnas
+alter table REVIEW_
+    add constraint uk_review_user_game unique (id_user, id_videogame);
+
+alter table REVIEW_ drop index idx_review_user_game;
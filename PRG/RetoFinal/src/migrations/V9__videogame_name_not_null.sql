@@ -0,0 +1,7 @@
+-- El catálogo se pagina por (name, videogame_code) desde el último juego de la
+-- página anterior (DBImplementation.getGamesPage). Con un nombre null ese juego
+-- no sirve de punto de partida y los juegos sin nombre no cumplen name >= :name,
+-- así que el nombre pasa a ser obligatorio.
+update VIDEOGAME_ set name = '' where name is null;
+
+alter table VIDEOGAME_ modify name varchar(255) not null;
@@ -0,0 +1,93 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of one cache region of {@link LocalRegionFactory}. Keeps at most a
+ * fixed number of entries, dropping the least recently used one when full,
+ * and forgets every entry once its time to live has passed.
+ *
+ * @version 1.0
+ */
+class BoundedStorageAccess implements DomainDataStorageAccess {
+
+    /** Valor guardado junto con el momento en que caduca. */
+    private static final class CachedValue {
+
+        private final Object value;
+        private final long expiresAt;
+
+        private CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<Object, CachedValue> entries;
+
+    /**
+     * Creates the storage.
+     *
+     * @param maxEntries Maximum number of entries, or 0 for no limit
+     * @param ttlMillis Time to live of each entry in milliseconds, or 0 for no expiry
+     */
+    BoundedStorageAccess(final int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Object, CachedValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CachedValue> eldest) {
+                return maxEntries > 0 && size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        CachedValue entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        entries.put(key, new CachedValue(value, expiresAt));
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return getFromCache(key, null) != null;
+    }
+
+    @Override
+    public synchronized void evictData() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void evictData(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    /**
+     * Number of entries currently held, including expired ones not yet removed.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,222 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Carritos de los usuarios, guardados en la tabla CART_ con escritura
+ * diferida. Cada usuario tiene un índice de sus líneas por código de juego,
+ * leído de la base de datos la primera vez que se usa, así que consultar o
+ * cambiar una línea se resuelve en memoria. Los cambios se anotan por
+ * (usuario, juego) quedándose solo con el último, y {@link #flush()} los
+ * escribe todos en un lote: pulsar diez veces "+" es una única escritura.
+ *
+ * Los cambios pendientes se pierden si la aplicación termina sin llamar a
+ * {@link #flush()}; la hebra threads.CartFlusher lo llama cada pocos
+ * segundos y Main al cerrar.
+ *
+ * @version 1.0
+ */
+public class CartService {
+
+    private final IntFunction<List<CartItem>> loader;
+    private final Consumer<List<CartItem>> writer;
+
+    // Líneas de cada usuario cargado, por código de juego y en orden de llegada
+    private final Map<Integer, Map<Integer, CartItem>> carts = new HashMap<>();
+    // Último estado de cada línea cambiada desde la última escritura; cantidad 0 es un borrado
+    private Map<Long, CartItem> pending = new LinkedHashMap<>();
+    // Una sola escritura a la vez, para que no se adelante a otra anterior
+    private final Object flushLock = new Object();
+
+    /**
+     * Creates the service.
+     *
+     * @param loader Reads the cart of a user from the database
+     * @param writer Writes a batch of changes in one transaction; a line with
+     * quantity 0 is deleted. It throws a RuntimeException if nothing was
+     * written
+     */
+    public CartService(IntFunction<List<CartItem>> loader, Consumer<List<CartItem>> writer) {
+        this.loader = loader;
+        this.writer = writer;
+    }
+
+    /**
+     * Gets the lines of the cart of a user, reading them from the database
+     * the first time.
+     *
+     * @param userCode Code of the user
+     * @return Copy of the lines, in the order they were added
+     */
+    public List<CartItem> getItems(int userCode) {
+        Map<Integer, CartItem> cart = cart(userCode);
+        synchronized (this) {
+            List<CartItem> items = new ArrayList<>(cart.size());
+            for (CartItem item : cart.values()) {
+                items.add(copy(item, item.getCantidad()));
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Gets one line of the cart of a user.
+     *
+     * @param userCode Code of the user
+     * @param idVideogame Code of the game
+     * @return Copy of the line, or null if the game is not in the cart
+     */
+    public CartItem getItem(int userCode, int idVideogame) {
+        Map<Integer, CartItem> cart = cart(userCode);
+        synchronized (this) {
+            CartItem item = cart.get(idVideogame);
+            return item == null ? null : copy(item, item.getCantidad());
+        }
+    }
+
+    /**
+     * Sets the units of a game in the cart of a user. Only memory is changed;
+     * the database is written by the next {@link #flush()}.
+     *
+     * @param userCode Code of the user
+     * @param idVideogame Code of the game
+     * @param quantity Units (0 removes the game from the cart)
+     * @param price Unit price
+     */
+    public void update(int userCode, int idVideogame, int quantity, double price) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Negative quantity: " + quantity);
+        }
+        Map<Integer, CartItem> cart = cart(userCode);
+        CartItem line = new CartItem(userCode, idVideogame, quantity, price);
+        synchronized (this) {
+            if (quantity == 0) {
+                cart.remove(idVideogame);
+            } else {
+                cart.put(idVideogame, line);
+            }
+            pending.put(key(userCode, idVideogame), line);
+        }
+    }
+
+    /**
+     * Empties the cart of a user after a purchase. The purchase already
+     * deleted its rows; they are deleted again in case a write that started
+     * before the purchase puts them back.
+     *
+     * @param userCode Code of the user
+     */
+    public synchronized void clear(int userCode) {
+        Map<Integer, CartItem> cart = carts.get(userCode);
+        if (cart == null) {
+            return;
+        }
+        for (CartItem item : cart.values()) {
+            pending.put(key(userCode, item.getIdVideojuego()), copy(item, 0));
+        }
+        cart.clear();
+    }
+
+    /**
+     * Removes a deleted game from every loaded cart. Its rows are deleted in
+     * cascade, so its pending changes are dropped.
+     *
+     * @param idVideogame Code of the game
+     */
+    public synchronized void removed(int idVideogame) {
+        for (Map<Integer, CartItem> cart : carts.values()) {
+            cart.remove(idVideogame);
+        }
+        pending.values().removeIf(item -> item.getIdVideojuego() == idVideogame);
+    }
+
+    /**
+     * Writes the pending changes in one batch. If the write fails they are
+     * kept to be written by the next call, unless a newer change replaced
+     * them in the meantime.
+     *
+     * @return Number of lines written
+     * @throws RuntimeException the error of the writer
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            Map<Long, CartItem> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            try {
+                writer.accept(new ArrayList<>(batch.values()));
+                return batch.size();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    // Los cambios llegados durante la escritura van después y ganan
+                    batch.putAll(pending);
+                    pending = batch;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lines waiting to be written.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Carrito de un usuario, leído de la base de datos fuera del cerrojo si
+     * aún no está cargado. Los cambios pendientes del usuario se aplican
+     * encima: son más recientes que lo leído.
+     */
+    private Map<Integer, CartItem> cart(int userCode) {
+        synchronized (this) {
+            Map<Integer, CartItem> cart = carts.get(userCode);
+            if (cart != null) {
+                return cart;
+            }
+        }
+        List<CartItem> rows = loader.apply(userCode);
+        synchronized (this) {
+            Map<Integer, CartItem> cart = carts.get(userCode);
+            if (cart != null) {
+                // Otro hilo lo cargó mientras tanto
+                return cart;
+            }
+            cart = new LinkedHashMap<>();
+            for (CartItem row : rows) {
+                cart.put(row.getIdVideojuego(), row);
+            }
+            for (CartItem change : pending.values()) {
+                if (change.getIdUsuario() == userCode) {
+                    if (change.getCantidad() == 0) {
+                        cart.remove(change.getIdVideojuego());
+                    } else {
+                        cart.put(change.getIdVideojuego(), change);
+                    }
+                }
+            }
+            carts.put(userCode, cart);
+            return cart;
+        }
+    }
+
+    private static long key(int userCode, int idVideogame) {
+        return ((long) userCode << 32) | (idVideogame & 0xFFFFFFFFL);
+    }
+
+    private static CartItem copy(CartItem item, int quantity) {
+        return new CartItem(item.getIdUsuario(), item.getIdVideojuego(), quantity, item.getPrecio());
+    }
+}
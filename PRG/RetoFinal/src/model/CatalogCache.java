@@ -0,0 +1,351 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria del catálogo de videojuegos.
+ * Mantiene una instantánea de la tabla VIDEOGAME_ para que abrir la tienda o el
+ * carrito no obligue a releer la tabla completa, junto con un índice de búsqueda
+ * (GameSearchIndex) construido sobre esa misma instantánea. addGame, modifyGame
+ * y deleteGame actualizan ambos de forma incremental cuando confirman su
+ * transacción.
+ *
+ * Los juegos de la instantánea son de la caché: se guardan y se devuelven
+ * copias, así que un juego que edita una ventana no cambia la caché hasta que
+ * se confirma. Otros clientes escriben en la misma base de datos, así que
+ * antes de servir la instantánea se comprueba, como mucho cada
+ * {@link #PROBE_INTERVAL_MILLIS}, que su {@link Stamp} sigue siendo el de la
+ * tabla; si no, se vuelve a cargar.
+ *
+ * @version 1.0
+ */
+public class CatalogCache {
+
+    /** Tiempo durante el que la instantánea se da por buena sin comprobarla. */
+    public static final long PROBE_INTERVAL_MILLIS = 2000;
+
+    /** Instancia única compartida por todas las implementaciones del DAO. */
+    private static final CatalogCache instance = new CatalogCache(PROBE_INTERVAL_MILLIS);
+
+    /**
+     * Resumen de la tabla VIDEOGAME_ que cambia con cualquier escritura: las
+     * altas cambian el número de juegos y el código más alto, las bajas el
+     * número, y cada UPDATE incrementa la versión de su fila, así que también
+     * la suma de las versiones.
+     */
+    public static final class Stamp {
+
+        private final long count;
+        private final long versionSum;
+        private final int maxId;
+
+        /**
+         * Creates a stamp.
+         *
+         * @param count Number of games
+         * @param versionSum Sum of the versions of the games
+         * @param maxId Highest game code, 0 if there are none
+         */
+        public Stamp(long count, long versionSum, int maxId) {
+            this.count = count;
+            this.versionSum = versionSum;
+            this.maxId = maxId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) o;
+            return count == other.count && versionSum == other.versionSum && maxId == other.maxId;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (count * 31 + versionSum) * 31 + maxId;
+        }
+
+        @Override
+        public String toString() {
+            return "Stamp{count=" + count + ", versionSum=" + versionSum + ", maxId=" + maxId + "}";
+        }
+    }
+
+    private final long probeIntervalMillis;
+
+    /** Instantánea actual del catálogo ordenada por nombre, null si hay que recargarla. */
+    private List<Videogame> snapshot;
+
+    /** Índice de búsqueda sobre la instantánea. */
+    private final GameSearchIndex index = new GameSearchIndex();
+
+    /** Se incrementa en cada escritura para descartar cargas que se han quedado obsoletas. */
+    private long generation = 0;
+
+    /** Última vez que la instantánea se comprobó contra la base de datos. */
+    private long checkedAt;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CatalogCache(long probeIntervalMillis) {
+        this.probeIntervalMillis = probeIntervalMillis;
+    }
+
+    /**
+     * Obtiene la caché compartida del catálogo.
+     *
+     * @return Instancia única de CatalogCache
+     */
+    public static CatalogCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Devuelve el catálogo desde memoria o lo carga con el loader indicado si
+     * no hay instantánea válida o ya no coincide con la base de datos. Los
+     * juegos devueltos son copias que el llamador puede modificar libremente.
+     *
+     * @param probe Consulta del Stamp de la tabla (null si falla)
+     * @param loader Consulta a la base de datos que se ejecuta en caso de fallo
+     * @return Copia de la lista de videojuegos
+     */
+    public List<Videogame> getAll(Supplier<Stamp> probe, Supplier<List<Videogame>> loader) {
+        if (isFresh(probe)) {
+            synchronized (this) {
+                if (snapshot != null) {
+                    hits.incrementAndGet();
+                    return copies(snapshot);
+                }
+            }
+        }
+        List<Videogame> loaded = load(loader);
+        return loaded != null ? copies(loaded) : new ArrayList<Videogame>();
+    }
+
+    /**
+     * Busca en el índice del catálogo, cargándolo antes si hace falta.
+     *
+     * @param probe Consulta del Stamp de la tabla (null si falla)
+     * @param loader Consulta a la base de datos que se ejecuta en caso de fallo
+     * @param text Texto contenido en el nombre o la compañía
+     * @param genre Género por el que filtrar (null o ALL para no filtrar)
+     * @param platform Plataforma por la que filtrar (null o ALL para no filtrar)
+     * @return Copias de los juegos encontrados ordenados por nombre
+     */
+    public List<Videogame> search(Supplier<Stamp> probe, Supplier<List<Videogame>> loader,
+            String text, GameGenre genre, Platform platform) {
+        if (isFresh(probe)) {
+            hits.incrementAndGet();
+        } else if (load(loader) == null) {
+            return new ArrayList<>();
+        }
+        List<Videogame> found = index.search(text, genre, platform);
+        synchronized (this) {
+            // Bajo el cerrojo: applyStockChanges cambia el stock de estos mismos juegos
+            return copies(found);
+        }
+    }
+
+    /**
+     * Registra un juego nuevo o modificado tras confirmar la transacción. Se
+     * guarda una copia: el llamador puede seguir usando el suyo.
+     *
+     * @param game Videojuego con sus valores ya guardados
+     */
+    public synchronized void put(Videogame game) {
+        generation++;
+        if (snapshot == null) {
+            return;
+        }
+        game = copy(game);
+        removeFromSnapshot(game.getIdVideogame());
+        int position = 0;
+        while (position < snapshot.size()
+                && String.CASE_INSENSITIVE_ORDER.compare(nameOf(snapshot.get(position)), nameOf(game)) <= 0) {
+            position++;
+        }
+        snapshot.add(position, game);
+        index.put(game);
+    }
+
+    /**
+     * Quita un juego borrado tras confirmar la transacción.
+     *
+     * @param idVideogame Identificador del videojuego borrado
+     */
+    public synchronized void remove(int idVideogame) {
+        generation++;
+        if (snapshot == null) {
+            return;
+        }
+        removeFromSnapshot(idVideogame);
+        index.remove(idVideogame);
+    }
+
+    /**
+     * Aplica al catálogo en memoria los cambios de stock de una transacción ya
+     * confirmada (compras y reservas). Cada juego afectado se escribió con un
+     * único UPDATE que también incrementó su versión, así que se replica aquí
+     * para que una edición posterior del admin no choque con su propia caché.
+     * El stock no está indexado, así que basta con actualizar los juegos de la
+     * instantánea, que no comparte sus juegos con nadie.
+     *
+     * @param unitsByGame Unidades retiradas del stock por identificador de
+     * videojuego (negativas si se devolvieron)
+     */
+    public synchronized void applyStockChanges(Map<Integer, Integer> unitsByGame) {
+        generation++;
+        if (snapshot == null) {
+            return;
+        }
+        for (Videogame game : snapshot) {
+            Integer units = unitsByGame.get(game.getIdVideogame());
+            if (units != null) {
+                game.setStock(game.getStock() - units);
+                game.setVersion(game.getVersion() + 1);
+            }
+        }
+    }
+
+    /**
+     * Descarta la instantánea actual. Se usa cuando no se sabe qué ha cambiado
+     * (por ejemplo, si una escritura falla después de modificar la entidad).
+     */
+    public synchronized void invalidate() {
+        generation++;
+        if (snapshot != null) {
+            snapshot = null;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Número de lecturas servidas desde memoria
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Número de lecturas que tuvieron que ir a la base de datos
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Número de instantáneas descartadas por escrituras
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Indica si hay una instantánea y sigue siendo la de la base de datos. La
+     * consulta del Stamp se hace fuera del cerrojo; si falla, se sigue usando
+     * la instantánea.
+     */
+    private boolean isFresh(Supplier<Stamp> probe) {
+        synchronized (this) {
+            if (snapshot == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - checkedAt < probeIntervalMillis) {
+                return true;
+            }
+        }
+        Stamp current = probe.get();
+        synchronized (this) {
+            if (snapshot == null) {
+                return false;
+            }
+            if (current == null || current.equals(stamp(snapshot))) {
+                checkedAt = System.currentTimeMillis();
+                return true;
+            }
+            // Otro cliente ha cambiado el catálogo
+            generation++;
+            snapshot = null;
+            evictions.incrementAndGet();
+            return false;
+        }
+    }
+
+    private List<Videogame> load(Supplier<List<Videogame>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        List<Videogame> loaded = loader.get();
+
+        synchronized (this) {
+            // Si alguien ha escrito mientras cargábamos, no guardamos datos antiguos
+            if (loaded != null && generation == loadGeneration) {
+                snapshot = copies(loaded);
+                index.rebuild(snapshot);
+                checkedAt = System.currentTimeMillis();
+            } else if (loaded != null && snapshot == null) {
+                // Sin instantánea no hay índice válido: lo montamos igualmente para esta búsqueda
+                index.rebuild(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private void removeFromSnapshot(int idVideogame) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.get(i).getIdVideogame() == idVideogame) {
+                snapshot.remove(i);
+                return;
+            }
+        }
+    }
+
+    private static Stamp stamp(List<Videogame> games) {
+        long versionSum = 0;
+        int maxId = 0;
+        for (Videogame game : games) {
+            versionSum += game.getVersion();
+            maxId = Math.max(maxId, game.getIdVideogame());
+        }
+        return new Stamp(games.size(), versionSum, maxId);
+    }
+
+    private static List<Videogame> copies(List<Videogame> games) {
+        List<Videogame> copies = new ArrayList<>(games.size());
+        for (Videogame game : games) {
+            copies.add(copy(game));
+        }
+        return copies;
+    }
+
+    /** Copia los valores de la fila; las colecciones perezosas no se copian. */
+    private static Videogame copy(Videogame game) {
+        Videogame copy = new Videogame(game.getCompanyName(), game.getGameGenre(), game.getName(),
+                game.getPlatforms(), game.getPegi(), game.getPrice(), game.getStock(),
+                game.getReleaseDate() == null ? null : (Date) game.getReleaseDate().clone());
+        copy.setIdVideogame(game.getIdVideogame());
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+
+    private static String nameOf(Videogame game) {
+        return game.getName() == null ? "" : game.getName();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogCache{" + "hits=" + hits.get() + ", misses=" + misses.get()
+                + ", evictions=" + evictions.get() + ", indexed=" + index.size() + '}';
+    }
+}
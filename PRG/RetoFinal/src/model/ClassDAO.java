@@ -1,7 +1,9 @@
 package model;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object interface for database operations. Provides methods to
@@ -32,9 +34,9 @@ public interface ClassDAO {
      * @param name User's first name
      * @param telephone User's phone number
      * @param surname User's last name
-     * @return true if registration successful, false otherwise
+     * @return CREATED, or why the user could not be registered
      */
-    public boolean signUp(String gender, String cardNumber, String username, String password,
+    public SignUpResult signUp(String gender, String cardNumber, String username, String password,
             String email, String name, String telephone, String surname);
 
     /**
@@ -59,7 +61,7 @@ public interface ClassDAO {
     /**
      * Modifies user profile information.
      *
-     * @param password New password
+     * @param password New password, or null to keep the current one
      * @param email New email
      * @param name New first name
      * @param telephone New phone number
@@ -76,7 +78,7 @@ public interface ClassDAO {
      *
      * @return List of items for combo box
      */
-    public List comboBoxInsert();
+    public List<String> comboBoxInsert();
 
     /**
      * Checks if a username already exists in the database.
@@ -144,13 +146,33 @@ public interface ClassDAO {
     /**
      * Retrieves video games filtered by criteria.
      *
-     * @param name Game name filter (partial match)
+     * @param name Game name or company filter (partial match)
      * @param genre Game genre filter
      * @param platform Platform filter
      * @return List of filtered video games
      */
     public List<Videogame> getGamesFiltered(String name, String genre, String platform);
 
+    /**
+     * Retrieves one page of the catalog ordered by name and code, using keyset
+     * pagination: the page starts right after the given game, so the database
+     * seeks to it through the index instead of counting the previous rows.
+     *
+     * @param afterName Name of the last game of the previous page, or null to start from the beginning
+     * @param afterId Code of the last game of the previous page
+     * @param skip Rows to skip after that game (0 when reading the next page)
+     * @param size Maximum number of games in the page
+     * @return Games of the page, in order, or null if the query failed
+     */
+    public List<Videogame> getGamesPage(String afterName, int afterId, int skip, int size);
+
+    /**
+     * Counts the video games in the catalog.
+     *
+     * @return Number of video games
+     */
+    public long countGames();
+
     /**
      * Creates a new administrator account.
      *
@@ -161,9 +183,9 @@ public interface ClassDAO {
      * @param telephone Admin phone number
      * @param surname Admin last name
      * @param currentAccount Account type information
-     * @return true if creation successful, false otherwise
+     * @return CREATED, or why the admin could not be created
      */
-    public boolean createAdmin(String username, String password, String email,
+    public SignUpResult createAdmin(String username, String password, String email,
             String name, String telephone, String surname, String currentAccount);
 
     // ... dentro de la interfaz ClassDAO, después de los métodos existentes:
@@ -179,9 +201,21 @@ public interface ClassDAO {
      * Creates a new review in the database.
      *
      * @param review Review object to create
-     * @return true if creation successful, false otherwise
+     * @return CREATED, ALREADY_REVIEWED or ERROR
+     */
+    public ReviewResult createReview(Review review);
+
+    /**
+     * Creates a new review of the logged-in user without reading the user or
+     * the game: their keys are enough to write the row.
+     *
+     * @param userId Code of the author
+     * @param videogameId Code of the reviewed game
+     * @param rating Rating from 0 to 5
+     * @param comment Text of the review
+     * @return CREATED, ALREADY_REVIEWED or ERROR
      */
-    public boolean createReview(Review review);
+    public ReviewResult createReview(int userId, int videogameId, double rating, String comment);
 
     /**
      * Checks if a user has already reviewed a specific video game.
@@ -191,4 +225,117 @@ public interface ClassDAO {
      * @return true if review exists, false otherwise
      */
     public boolean reviewExists(int userId, int videogameId);
+
+    /**
+     * Gets the set of games a user has reviewed. It is read from the database
+     * the first time and then kept in memory and updated by
+     * {@link #createReview(Review)}.
+     *
+     * @param userId User ID
+     * @return The reviewed games, or null on error
+     */
+    public ReviewedGames getReviewedGames(int userId);
+
+    /**
+     * Gets the rating summary of a video game by its key, without reading its
+     * reviews.
+     *
+     * @param videogameId Videogame ID
+     * @return The summary (with no reviews if the game has none), or null on error
+     */
+    public RatingSummary getRatingSummary(int videogameId);
+
+    /**
+     * Gets the rating summaries of several video games at once.
+     *
+     * @param videogameIds Videogame IDs
+     * @return Summary of each game that has reviews, by videogame ID
+     */
+    public Map<Integer, RatingSummary> getRatingSummaries(Collection<Integer> videogameIds);
+
+    /**
+     * Registers a whole purchase in a single transaction: one order per line
+     * and the stock of every game decremented. If any game does not have
+     * enough stock, nothing is saved.
+     *
+     * @param user Buyer
+     * @param orders Lines of the purchase (game, unit price and quantity)
+     * @return true if every order was saved and the stock updated, false otherwise
+     */
+    public boolean checkout(User user, List<Order> orders);
+
+    /**
+     * Sets how many units of a game a user holds in the cart. The difference
+     * with the current hold is taken from (or returned to) the stock atomically,
+     * and the hold expires if the cart is abandoned.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @param quantity Units to hold (0 releases the hold)
+     * @return true if the hold was updated, false if there is not enough stock or an error occurred
+     */
+    public boolean reserveStock(int userCode, int idVideogame, int quantity);
+
+    /**
+     * Returns to the stock every unit held by a user.
+     *
+     * @param userCode User ID
+     * @return true if the holds were released, false otherwise
+     */
+    public boolean releaseReservations(int userCode);
+
+    /**
+     * Returns to the stock the units of every expired hold.
+     *
+     * @return Number of holds released
+     */
+    public int releaseExpiredReservations();
+
+    /**
+     * Gets the shopping cart of a user. It is read from the database the
+     * first time and then kept in memory.
+     *
+     * @param userCode User ID
+     * @return Lines of the cart, in the order they were added
+     */
+    public List<CartItem> getCart(int userCode);
+
+    /**
+     * Gets one line of the shopping cart of a user.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @return The line, or null if the game is not in the cart
+     */
+    public CartItem getCartItem(int userCode, int idVideogame);
+
+    /**
+     * Sets the units of a game in the shopping cart of a user. The change is
+     * saved in the background by {@link #flushCart()}, together with the
+     * other changes made in the meantime.
+     *
+     * @param userCode User ID
+     * @param idVideogame Videogame ID
+     * @param quantity Units (0 removes the game from the cart)
+     * @param price Unit price
+     */
+    public void updateCart(int userCode, int idVideogame, int quantity, double price);
+
+    /**
+     * Saves the pending changes of every cart in one transaction.
+     *
+     * @return Number of cart lines saved, or -1 if they could not be saved
+     * and will be retried
+     */
+    public int flushCart();
+
+    /**
+     * Gets several video games by their IDs, for the cart window. Games
+     * already read by a previous call are taken from {@link GameRegistry};
+     * only the others are read, from the second-level cache when possible.
+     *
+     * @param videogameIds Videogame IDs
+     * @return Each game that exists, by videogame ID
+     */
+    public Map<Integer, Videogame> getGames(Collection<Integer> videogameIds);
 }
@@ -1,9 +1,26 @@
 package model;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.hibernate.query.Query;
 import java.util.List;
 
@@ -15,40 +32,87 @@ import java.util.List;
  */
 public class DBImplementation implements ClassDAO {
 
+    /** Caché del catálogo compartida por todas las instancias del DAO. */
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
+    private final LoginFailureCache loginFailures = LoginFailureCache.getInstance();
+    private final PasswordHasher passwords = PasswordHasher.getInstance();
+    private final ReviewIndex reviewIndex = ReviewIndex.getInstance();
+    private final GameRegistry gameRegistry = GameRegistry.getInstance();
+
+    /** Carritos de los usuarios, compartidos por todas las instancias del DAO. */
+    private static final CartService cartService = new CartService(DBImplementation::readCart, DBImplementation::writeCart);
+
+    /** Tiempo que se mantiene una reserva sin actividad en el carrito. */
+    public static final long RESERVATION_TTL_MILLIS = 15 * 60 * 1000;
+
+    /** Región de la caché de consultas para las páginas y el total del catálogo. */
+    public static final String CATALOG_REGION = "catalog";
+
+    /** Juegos por consulta al leer los resúmenes de valoraciones. */
+    private static final int RATING_BATCH = 500;
+
+    /** Restricción UNIQUE del nombre de usuario en PROFILE_ (migración V4). */
+    public static final String UK_USERNAME = "uk_profile_username";
+
+    /** Restricción UNIQUE del email en PROFILE_ (migración V4). */
+    public static final String UK_EMAIL = "uk_profile_email";
+
+    /** Restricción UNIQUE de REVIEW_: una reseña por usuario y juego. */
+    public static final String UK_REVIEW = "uk_review_user_game";
+
+    /** Máximo de reservas caducadas que se liberan en cada pasada. */
+    private static final int SWEEP_BATCH = 500;
+
+    // Consultas más usadas, compartidas con warmUp para compilarlas antes del primer uso
+    private static final String PROFILE_BY_USERNAME = "FROM Profile p WHERE p.username = :username";
+    private static final String FIRST_PAGE = "FROM Videogame v ORDER BY v.name ASC, v.idVideogame ASC";
+    private static final String NEXT_PAGE = "FROM Videogame v"
+            + " WHERE v.name >= :name AND (v.name > :name OR v.idVideogame > :id)"
+            + " ORDER BY v.name ASC, v.idVideogame ASC";
+    private static final String COUNT_GAMES = "SELECT COUNT(v) FROM Videogame v";
+    private static final String CATALOG_STAMP = "SELECT COUNT(v), COALESCE(SUM(v.version), 0),"
+            + " COALESCE(MAX(v.idVideogame), 0) FROM Videogame v";
+
     /**
-     * Logs in a user or admin from the database.
+     * Logs in a user or admin from the database. A single polymorphic query on
+     * the unique username index returns the profile whatever its subtype, and
+     * the password is checked against its PBKDF2 hash by PasswordHasher. A
+     * legacy plain-text password, or a hash with fewer iterations than the
+     * current ones, is hashed again after a successful login. Recent failures
+     * are remembered by LoginFailureCache, so repeated bad attempts do not
+     * reach the database.
      *
      * @param username
      * @param password
-     * @return
+     * @return The User or Admin, or null if the credentials are not valid
      */
     @Override
     public Profile logIn(String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+        if (loginFailures.isRejected(username, password)) {
+            // Sin mensaje: en una ráfaga de intentos solo llenaría la consola
+            return null;
+        }
+
         Session session = HibernateSession.getSessionFactory().openSession();
 
         try {
-            // Primero intentamos buscar como User
-            String hqlUser = "FROM User u WHERE u.username = :username AND u.password = :password";
-            Query<User> queryUser = session.createQuery(hqlUser, User.class);
-            queryUser.setParameter("username", username);
-            queryUser.setParameter("password", password);
-
-            User user = queryUser.uniqueResult();
-            if (user != null) {
-                return user;
-            }
-
-            // Si no es User, intentamos como Admin
-            String hqlAdmin = "FROM Admin a WHERE a.username = :username AND a.password = :password";
-            Query<Admin> queryAdmin = session.createQuery(hqlAdmin, Admin.class);
-            queryAdmin.setParameter("username", username);
-            queryAdmin.setParameter("password", password);
+            // Una sola consulta: Hibernate une PROFILE_ con USER_ y ADMIN_ y devuelve el subtipo
+            Query<Profile> query = session.createQuery(PROFILE_BY_USERNAME, Profile.class);
+            query.setParameter("username", username);
 
-            Admin admin = queryAdmin.uniqueResult();
-            if (admin != null) {
-                return admin;
+            Profile profile = query.uniqueResult();
+            if (profile != null && passwords.verify(password, profile.getPassword())) {
+                loginFailures.forget(username);
+                if (passwords.needsRehash(profile.getPassword())) {
+                    rehash(session, profile, password);
+                }
+                return profile;
             }
 
+            loginFailures.recordFailure(username, password, profile != null);
             System.out.println("Usuario no encontrado en la base de datos");
 
         } catch (Exception e) {
@@ -63,7 +127,9 @@ public class DBImplementation implements ClassDAO {
     }
 
     /**
-     * Signs up a new user in the database.
+     * Signs up a new user in the database. There is no previous check: the
+     * UNIQUE constraints of PROFILE_ reject a repeated username or email, also
+     * when two sign-ups for the same name arrive at once.
      *
      * @param gender
      * @param cardNumber
@@ -73,52 +139,58 @@ public class DBImplementation implements ClassDAO {
      * @param name
      * @param telephone
      * @param surname
-     * @return
+     * @return CREATED, USERNAME_TAKEN, EMAIL_TAKEN or ERROR
      */
     @Override
-    public boolean signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) {
+    public SignUpResult signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) {
+        // Crear y configurar el User
+        User newUser = new User();
+        newUser.setUsername(username);
+        newUser.setPassword(passwords.hash(password));
+        newUser.setEmail(email);
+        newUser.setName(name);
+        newUser.setTelephone(telephone);
+        newUser.setSurname(surname);
+        newUser.setGender(gender);
+        newUser.setCardNumber(cardNumber);
+
+        return register(newUser, "Usuario");
+    }
+
+    /**
+     * Inserta el perfil y traduce la violación de las restricciones UNIQUE
+     * de PROFILE_ en el resultado correspondiente.
+     *
+     * @param profile User o Admin nuevo, con la contraseña ya cifrada
+     * @param kind "Usuario" o "Admin", para los mensajes
+     */
+    private SignUpResult register(Profile profile, String kind) {
         Session session = HibernateSession.getSessionFactory().openSession();
         Transaction transaction = null;
 
         try {
             transaction = session.beginTransaction();
-
-            // Verificar si el username ya existe
-            String checkHql = "SELECT COUNT(u) FROM User u WHERE u.username = :username";
-            Query<Long> checkQuery = session.createQuery(checkHql, Long.class);
-            checkQuery.setParameter("username", username);
-            Long count = checkQuery.uniqueResult();
-
-            if (count > 0) {
-                System.out.println("Username ya existe");
-                return false;
-            }
-
-            // Crear y configurar el User
-            User newUser = new User();
-            newUser.setUsername(username);
-            newUser.setPassword(password);
-            newUser.setEmail(email);
-            newUser.setName(name);
-            newUser.setTelephone(telephone);
-            newUser.setSurname(surname);
-            newUser.setGender(gender);
-            newUser.setCardNumber(cardNumber);
-
-            // Guardar en la base de datos
-            session.save(newUser);
+            session.save(profile);
             transaction.commit();
+            loginFailures.forget(profile.getUsername());
 
-            System.out.println("Usuario registrado exitosamente: " + username);
-            return true;
+            System.out.println(kind + " registrado exitosamente: " + profile.getUsername());
+            return SignUpResult.CREATED;
 
         } catch (Exception e) {
-            if (transaction != null) {
+            if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
             }
-            System.out.println("Database error on signup: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            SignUpResult result = violatedConstraint(e);
+            if (result == SignUpResult.USERNAME_TAKEN) {
+                System.out.println("Username ya existe: " + profile.getUsername());
+            } else if (result == SignUpResult.EMAIL_TAKEN) {
+                System.out.println("Email ya registrado: " + profile.getEmail());
+            } else {
+                System.out.println("Database error on signup: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return result;
         } finally {
             if (session != null && session.isOpen()) {
                 session.close();
@@ -126,6 +198,38 @@ public class DBImplementation implements ClassDAO {
         }
     }
 
+    /**
+     * Busca en las causas de la excepción la restricción UNIQUE que falló.
+     * MySQL y H2 incluyen el nombre de la restricción en el mensaje.
+     */
+    static SignUpResult violatedConstraint(Throwable error) {
+        if (violates(error, UK_USERNAME)) {
+            return SignUpResult.USERNAME_TAKEN;
+        }
+        if (violates(error, UK_EMAIL)) {
+            return SignUpResult.EMAIL_TAKEN;
+        }
+        return SignUpResult.ERROR;
+    }
+
+    /**
+     * Comprueba si la excepción, o alguna de sus causas, es la violación de
+     * una restricción concreta.
+     */
+    static boolean violates(Throwable error, String constraintName) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                ConstraintViolationException violation = (ConstraintViolationException) cause;
+                String constraint = violation.getConstraintName() != null
+                        ? violation.getConstraintName() : String.valueOf(violation.getSQLException().getMessage());
+                if (constraint.toLowerCase().contains(constraintName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Deletes a standard user from the database.
      *
@@ -153,14 +257,19 @@ public class DBImplementation implements ClassDAO {
                 return false;
             }
 
-            if (!user.getPassword().equals(password)) {
+            if (!passwords.verify(password, user.getPassword())) {
                 System.out.println("Contraseña incorrecta para usuario: " + username);
                 return false;
             }
 
-            // Eliminar el usuario (se eliminarán automáticamente las relaciones por cascade)
+            // Devolver al stock lo que tuviera reservado y eliminar el usuario
+            // (se eliminarán automáticamente las relaciones por cascade)
+            Map<Integer, Integer> returned = releaseHolds(session, user.getUserCode());
+            final int userCode = user.getUserCode();
+            session.doWork(connection -> removeFromRatingSummaries(connection, userCode));
             session.delete(user);
             transaction.commit();
+            stockChanged(returned);
 
             System.out.println("Usuario eliminado exitosamente: " + username);
             return true;
@@ -207,7 +316,7 @@ public class DBImplementation implements ClassDAO {
                 return false;
             }
 
-            if (!admin.getPassword().equals(adminPassword)) {
+            if (!passwords.verify(adminPassword, admin.getPassword())) {
                 System.out.println("Contraseña incorrecta para admin: " + adminUsername);
                 return false;
             }
@@ -246,9 +355,14 @@ public class DBImplementation implements ClassDAO {
                 return false;
             }
 
-            // Eliminar el perfil
+            // Eliminar el perfil, devolviendo al stock lo que tuviera reservado
+            // y quitando sus reseñas de los resúmenes
+            Map<Integer, Integer> returned = releaseHolds(session, profileToDelete.getUserCode());
+            final int userCode = profileToDelete.getUserCode();
+            session.doWork(connection -> removeFromRatingSummaries(connection, userCode));
             session.delete(profileToDelete);
             transaction.commit();
+            stockChanged(returned);
 
             System.out.println("Usuario eliminado por admin: " + usernameToDelete);
             return true;
@@ -299,8 +413,10 @@ public class DBImplementation implements ClassDAO {
                 return false;
             }
 
-            // Actualizar los campos
-            user.setPassword(password);
+            // Actualizar los campos (la contraseña solo si se ha dado una nueva)
+            if (password != null) {
+                user.setPassword(passwords.hash(password));
+            }
             user.setEmail(email);
             user.setName(name);
             user.setTelephone(telephone);
@@ -310,6 +426,7 @@ public class DBImplementation implements ClassDAO {
             // Guardar cambios
             session.update(user);
             transaction.commit();
+            loginFailures.forget(username);
 
             System.out.println("Usuario modificado exitosamente: " + username);
             return true;
@@ -338,9 +455,9 @@ public class DBImplementation implements ClassDAO {
         Session session = HibernateSession.getSessionFactory().openSession();
 
         try {
-            // Usar SQL nativo para obtener solo los usernames
-            String sql = "SELECT DISTINCT username FROM PROFILE_";
-            Query<String> query = session.createNativeQuery(sql, String.class);
+            // Obtener solo los usernames (una consulta nativa tipada a String no es válida en Hibernate 5)
+            String hql = "SELECT DISTINCT p.username FROM Profile p";
+            Query<String> query = session.createQuery(hql, String.class);
 
             List<String> result = query.getResultList();
             System.out.println("Usernames encontrados: " + result.size());
@@ -438,6 +555,7 @@ public class DBImplementation implements ClassDAO {
             // Guardar en la base de datos
             session.save(videogame);
             transaction.commit();
+            catalogCache.put(videogame);
 
             System.out.println("Game added correctly: " + videogame);
             return true;
@@ -466,6 +584,9 @@ public class DBImplementation implements ClassDAO {
             transaction = session.beginTransaction();
             session.update(game);
             transaction.commit();
+            catalogCache.put(game);
+            // Se vuelve a leer de la caché de segundo nivel, que ya tiene el cambio
+            gameRegistry.remove(game.getIdVideogame());
 
             System.out.println("Game " + game.getName() + " modified correctly!");
             return true;
@@ -474,6 +595,11 @@ public class DBImplementation implements ClassDAO {
             if (transaction != null) {
                 transaction.rollback();
             }
+            if (RetryPolicy.isContention(e)) {
+                // Otra escritura (una compra, otro admin) cambió el juego después de cargarlo
+                System.out.println("Game " + game.getName() + " was modified concurrently, reload it and try again");
+                return false;
+            }
             System.out.println("Database error on modifying game: " + e.getMessage());
             e.printStackTrace();
             return false;
@@ -498,6 +624,11 @@ public class DBImplementation implements ClassDAO {
             if (videogameToDelete != null) {
                 session.delete(videogameToDelete);
                 transaction.commit();
+                catalogCache.remove(videogameToDelete.getIdVideogame());
+                gameRegistry.remove(videogameToDelete.getIdVideogame());
+                // Sus reseñas y las líneas de carrito se borran en cascada
+                reviewIndex.removed(videogameToDelete.getIdVideogame());
+                cartService.removed(videogameToDelete.getIdVideogame());
                 System.out.println("Game deleted successfully: " + videogameToDelete.getName());
                 return true;
             } else {
@@ -527,15 +658,47 @@ public class DBImplementation implements ClassDAO {
     }
 
     /**
-     * Retrieves all videogames from the database.
+     * Retrieves all videogames, served from the in-memory catalog cache when
+     * it still matches the database.
      *
      * @return List of all videogames
      */
     @Override
     public List<Videogame> getAllGames() {
+        return catalogCache.getAll(this::catalogStamp, this::loadAllGames);
+    }
+
+    /**
+     * Reads the stamp of VIDEOGAME_ the catalog cache compares its snapshot
+     * with. It is one aggregate over the table, much cheaper than reading the
+     * games.
+     *
+     * @return The stamp, or null if it could not be read
+     */
+    private CatalogCache.Stamp catalogStamp() {
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            Object[] row = session.createQuery(CATALOG_STAMP, Object[].class).uniqueResult();
+            return new CatalogCache.Stamp(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                    ((Number) row[2]).intValue());
+        } catch (Exception e) {
+            System.out.println("Database error on checking the catalog: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the whole VIDEOGAME_ table. Only called on a catalog cache miss.
+     *
+     * @return List of all videogames
+     */
+    private List<Videogame> loadAllGames() {
         Session session = HibernateSession.getSessionFactory().openSession();
         List<Videogame> games = new ArrayList<>();
 
+        // La lectura completa no entra en la caché de segundo nivel: la llenaría
+        // y echaría de ella los juegos que de verdad se están usando
+        session.setCacheMode(CacheMode.GET);
+
         try {
             String hql = "FROM Videogame v ORDER BY v.name ASC";
             Query<Videogame> query = session.createQuery(hql, Videogame.class);
@@ -546,6 +709,7 @@ public class DBImplementation implements ClassDAO {
         } catch (Exception e) {
             System.out.println("Database error on retrieving games: " + e.getMessage());
             e.printStackTrace();
+            return null;
         } finally {
             if (session != null && session.isOpen()) {
                 session.close();
@@ -555,77 +719,132 @@ public class DBImplementation implements ClassDAO {
     }
 
     /**
-     * Retrieves videogames filtered by criteria
+     * Retrieves videogames filtered by criteria. The search runs against the
+     * in-memory catalog index instead of a LIKE query on VIDEOGAME_.
      *
-     * @param name Game name or part of it (can be null or empty)
+     * @param name Game name or company, or part of it (can be null or empty)
      * @param genre Game genre (can be null or empty)
      * @param platform Platform (can be null or empty)
      * @return List of filtered videogames
      */
     @Override
     public List<Videogame> getGamesFiltered(String name, String genre, String platform) {
-        Session session = HibernateSession.getSessionFactory().openSession();
-        List<Videogame> games = new ArrayList<>();
-
-        try {
-            StringBuilder hql = new StringBuilder("FROM Videogame v WHERE 1=1");
-
-            // Construir la consulta dinámicamente basado en los filtros
-            if (name != null && !name.trim().isEmpty()) {
-                hql.append(" AND LOWER(v.name) LIKE LOWER(:name)");
-            }
-            if (genre != null && !genre.trim().isEmpty()) {
-                hql.append(" AND v.gameGenre = :genre");
+        GameGenre genreEnum = null;
+        Platform platformEnum = null;
+
+        if (genre != null && !genre.trim().isEmpty()) {
+            try {
+                genreEnum = GameGenre.valueOf(genre.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Género no válido: " + genre);
+                return new ArrayList<>();
             }
-            if (platform != null && !platform.trim().isEmpty()) {
-                hql.append(" AND v.platforms = :platform");
+        }
+        if (platform != null && !platform.trim().isEmpty()) {
+            try {
+                platformEnum = Platform.valueOf(platform.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Plataforma no válida: " + platform);
+                return new ArrayList<>();
             }
+        }
 
-            hql.append(" ORDER BY v.name ASC");
+        List<Videogame> games = catalogCache.search(this::catalogStamp, this::loadAllGames, name, genreEnum, platformEnum);
+        System.out.println("Juegos encontrados con filtros: " + games.size());
+        return games;
+    }
 
-            Query<Videogame> query = session.createQuery(hql.toString(), Videogame.class);
+    /**
+     * Retrieves one page of the catalog with keyset pagination on
+     * (name, videogame_code), which idx_videogame_name_code serves directly.
+     *
+     * @param afterName Name of the last game of the previous page, or null for the first page
+     * @param afterId Code of the last game of the previous page
+     * @param skip Rows to skip after that game
+     * @param size Maximum number of games in the page
+     * @return Games of the page, or null if the query failed
+     */
+    @Override
+    public List<Videogame> getGamesPage(String afterName, int afterId, int skip, int size) {
+        Session session = HibernateSession.getSessionFactory().openSession();
 
-            // Establecer parámetros si existen
-            if (name != null && !name.trim().isEmpty()) {
-                query.setParameter("name", "%" + name.trim() + "%");
-            }
-            if (genre != null && !genre.trim().isEmpty()) {
-                try {
-                    GameGenre genreEnum = GameGenre.valueOf(genre.trim().toUpperCase());
-                    query.setParameter("genre", genreEnum);
-                } catch (IllegalArgumentException e) {
-                    System.out.println("Género no válido: " + genre);
-                    // Si el género no es válido, retornar lista vacía o manejar según tu lógica
-                    return new ArrayList<>();
-                }
+        try {
+            Query<Videogame> query;
+            if (afterName == null) {
+                query = session.createQuery(FIRST_PAGE, Videogame.class);
+            } else {
+                // La condición sobre name sola permite al índice empezar en la página
+                query = session.createQuery(NEXT_PAGE, Videogame.class);
+                query.setParameter("name", afterName);
+                query.setParameter("id", afterId);
             }
-            if (platform != null && !platform.trim().isEmpty()) {
-                try {
-                    Platform platformEnum = Platform.valueOf(platform.trim().toUpperCase());
-                    query.setParameter("platform", platformEnum);
-                } catch (IllegalArgumentException e) {
-                    System.out.println("Plataforma no válida: " + platform);
-                    // Si la plataforma no es válida, retornar lista vacía o manejar según tu lógica
-                    return new ArrayList<>();
-                }
+            query.setFirstResult(skip);
+            query.setMaxResults(size);
+            query.setCacheable(true);
+            query.setCacheRegion(CATALOG_REGION);
+            return query.getResultList();
+
+        } catch (Exception e) {
+            System.out.println("Database error on retrieving games page: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
             }
+        }
+    }
 
-            games = query.getResultList();
-            System.out.println("Juegos encontrados con filtros: " + games.size());
+    /**
+     * Counts the video games in the catalog.
+     *
+     * @return Number of video games
+     */
+    @Override
+    public long countGames() {
+        Session session = HibernateSession.getSessionFactory().openSession();
 
+        try {
+            return session.createQuery(COUNT_GAMES, Long.class)
+                    .setCacheable(true)
+                    .setCacheRegion(CATALOG_REGION)
+                    .uniqueResult();
         } catch (Exception e) {
-            System.out.println("Database error on retrieving filtered games: " + e.getMessage());
-            e.printStackTrace();
+            System.out.println("Database error on counting games: " + e.getMessage());
+            return 0;
         } finally {
             if (session != null && session.isOpen()) {
                 session.close();
             }
         }
-        return games;
     }
 
     /**
-     * Creates a new admin in the database with validation.
+     * Prepares the data layer before its first use: compiles the most used
+     * HQL queries, runs the login query once, computes one password hash (the
+     * first one pays for loading the JCE provider) and fills the query cache
+     * with the first page of the catalog and its size. The whole catalog is
+     * not read here: the search index is built by the first search.
+     *
+     * @param pageSize Size of the catalog pages the shop windows ask for
+     */
+    public void warmUp(int pageSize) {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        try {
+            // Un usuario que no existe: ejecuta la consulta sin tocar LoginFailureCache
+            session.createQuery(PROFILE_BY_USERNAME, Profile.class).setParameter("username", "").uniqueResult();
+            session.createQuery(NEXT_PAGE, Videogame.class);
+        } finally {
+            session.close();
+        }
+        passwords.hash("warm-up");
+        getGamesPage(null, 0, 0, pageSize);
+        countGames();
+    }
+
+    /**
+     * Creates a new admin in the database. Like {@link #signUp}, a repeated
+     * username or email is detected by the UNIQUE constraints of PROFILE_.
      *
      * @param username
      * @param password
@@ -634,49 +853,44 @@ public class DBImplementation implements ClassDAO {
      * @param telephone
      * @param surname
      * @param currentAccount
-     * @return true if admin was created successfully, false otherwise
+     * @return CREATED, USERNAME_TAKEN, EMAIL_TAKEN or ERROR
      */
     @Override
-    public boolean createAdmin(String username, String password, String email, String name, String telephone, String surname, String currentAccount) {
+    public SignUpResult createAdmin(String username, String password, String email, String name, String telephone, String surname, String currentAccount) {
+        // Crear y configurar el Admin
+        Admin newAdmin = new Admin();
+        newAdmin.setUsername(username);
+        newAdmin.setPassword(passwords.hash(password));
+        newAdmin.setEmail(email);
+        newAdmin.setName(name);
+        newAdmin.setTelephone(telephone);
+        newAdmin.setSurname(surname);
+        newAdmin.setCurrentAccount(currentAccount);
+
+        return register(newAdmin, "Admin");
+    }
+
+    @Override
+    public boolean createOrder(Order order) {
         Session session = HibernateSession.getSessionFactory().openSession();
         Transaction transaction = null;
 
         try {
             transaction = session.beginTransaction();
 
-            // Verificar si el username ya existe
-            String checkHql = "SELECT COUNT(p) FROM Profile p WHERE p.username = :username";
-            Query<Long> checkQuery = session.createQuery(checkHql, Long.class);
-            checkQuery.setParameter("username", username);
-            Long count = checkQuery.uniqueResult();
-
-            if (count > 0) {
-                System.out.println("Username ya existe: " + username);
-                return false;
-            }
-
-            // Crear y configurar el Admin
-            Admin newAdmin = new Admin();
-            newAdmin.setUsername(username);
-            newAdmin.setPassword(password);
-            newAdmin.setEmail(email);
-            newAdmin.setName(name);
-            newAdmin.setTelephone(telephone);
-            newAdmin.setSurname(surname);
-            newAdmin.setCurrentAccount(currentAccount);
+            // Guardar el pedido en la base de datos
+            session.save(order);
 
-            // Guardar en la base de datos
-            session.save(newAdmin);
             transaction.commit();
 
-            System.out.println("Admin registrado exitosamente: " + username);
+            System.out.println("Order created successfully: OrderCode=" + order.getOrderCode());
             return true;
 
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
             }
-            System.out.println("Database error on creating admin: " + e.getMessage());
+            System.out.println("Database error on creating order: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
@@ -687,28 +901,58 @@ public class DBImplementation implements ClassDAO {
     }
 
     @Override
-    public boolean createOrder(Order order) {
+    public ReviewResult createReview(Review review) {
+        return saveReview(review.getUser().getUserCode(), review.getVideogame().getIdVideogame(), session -> review);
+    }
+
+    @Override
+    public ReviewResult createReview(int userId, int videogameId, double rating, String comment) {
+        // Referencias sin SELECT: Hibernate solo necesita las claves para el INSERT
+        return saveReview(userId, videogameId, session -> new Review(session.load(User.class, userId),
+                session.load(Videogame.class, videogameId), rating, comment));
+    }
+
+    /**
+     * Guarda una reseña y actualiza el resumen del juego en la misma
+     * transacción. Si el usuario ya tenía una reseña del juego, la
+     * restricción uk_review_user_game rechaza el INSERT.
+     *
+     * @param review Crea la reseña dentro de la sesión abierta
+     */
+    private ReviewResult saveReview(int userId, final int idVideogame, Function<Session, Review> review) {
         Session session = HibernateSession.getSessionFactory().openSession();
         Transaction transaction = null;
 
         try {
             transaction = session.beginTransaction();
 
-            // Guardar el pedido en la base de datos
-            session.save(order);
+            // Guardar la reseña en la base de datos
+            Review saved = review.apply(session);
+            session.save(saved);
+
+            // El resumen del juego se actualiza en la misma transacción
+            final double rating = saved.getRating();
+            session.doWork(connection -> addToRatingSummary(connection, idVideogame, rating));
 
             transaction.commit();
+            reviewIndex.added(userId, idVideogame);
 
-            System.out.println("Order created successfully: OrderCode=" + order.getOrderCode());
-            return true;
+            System.out.println("Review created successfully: ReviewCode=" + saved.getReviewCode());
+            return ReviewResult.CREATED;
 
         } catch (Exception e) {
-            if (transaction != null) {
+            if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
             }
-            System.out.println("Database error on creating order: " + e.getMessage());
+            if (violates(e, UK_REVIEW)) {
+                // La reseña que ya existía aún no estaba en memoria
+                reviewIndex.added(userId, idVideogame);
+                System.out.println("Review already exists: user " + userId + ", game " + idVideogame);
+                return ReviewResult.ALREADY_REVIEWED;
+            }
+            System.out.println("Database error on creating review: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return ReviewResult.ERROR;
         } finally {
             if (session != null && session.isOpen()) {
                 session.close();
@@ -716,29 +960,150 @@ public class DBImplementation implements ClassDAO {
         }
     }
 
+    /**
+     * Suma una valoración al resumen del juego. La primera reseña crea la
+     * fila; si otra transacción la crea a la vez, el INSERT falla por la
+     * clave primaria y se suma con el UPDATE, que espera a su bloqueo.
+     */
+    private static void addToRatingSummary(Connection connection, int idVideogame, double rating)
+            throws SQLException {
+        int star = RatingSummary.star(rating);
+        String column = "stars_" + star;
+        String update = "UPDATE RATING_SUMMARY_ SET review_count = review_count + 1, rating_sum = rating_sum + ?, "
+                + column + " = " + column + " + 1 WHERE id_videogame = ?";
+        try (PreparedStatement ps = connection.prepareStatement(update)) {
+            ps.setDouble(1, rating);
+            ps.setInt(2, idVideogame);
+            if (ps.executeUpdate() > 0) {
+                return;
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO RATING_SUMMARY_"
+                    + " (id_videogame, review_count, rating_sum, " + column + ") VALUES (?, 1, ?, 1)")) {
+                insert.setInt(1, idVideogame);
+                insert.setDouble(2, rating);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                // 23xxx: violación de una restricción, aquí la clave primaria
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Resta de los resúmenes las reseñas de un usuario que se va a borrar
+     * (User.reviews las borra en cascada): se agrupan por juego y se envía un
+     * UPDATE por juego en un solo lote, dentro de la transacción del borrado.
+     */
+    private static void removeFromRatingSummaries(Connection connection, int userCode) throws SQLException {
+        // Por juego: número de reseñas, suma y una columna por estrella
+        Map<Integer, double[]> byGame = new TreeMap<>();
+        String select = "SELECT id_videogame, rating FROM REVIEW_ WHERE id_user = ? AND rating IS NOT NULL";
+        try (PreparedStatement ps = connection.prepareStatement(select)) {
+            ps.setInt(1, userCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    double[] totals = byGame.computeIfAbsent(rs.getInt(1), id -> new double[2 + RatingSummary.STARS]);
+                    double rating = rs.getDouble(2);
+                    totals[0]++;
+                    totals[1] += rating;
+                    totals[2 + RatingSummary.star(rating)]++;
+                }
+            }
+        }
+        if (byGame.isEmpty()) {
+            return;
+        }
+        StringBuilder update = new StringBuilder("UPDATE RATING_SUMMARY_ SET review_count = review_count - ?, rating_sum = rating_sum - ?");
+        for (int star = 0; star < RatingSummary.STARS; star++) {
+            update.append(", stars_").append(star).append(" = stars_").append(star).append(" - ?");
+        }
+        update.append(" WHERE id_videogame = ?");
+        try (PreparedStatement ps = connection.prepareStatement(update.toString())) {
+            for (Map.Entry<Integer, double[]> game : byGame.entrySet()) {
+                double[] totals = game.getValue();
+                ps.setInt(1, (int) totals[0]);
+                ps.setDouble(2, totals[1]);
+                for (int star = 0; star < RatingSummary.STARS; star++) {
+                    ps.setInt(3 + star, (int) totals[2 + star]);
+                }
+                ps.setInt(3 + RatingSummary.STARS, game.getKey());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
     @Override
-    public boolean createReview(Review review) {
+    public ReviewedGames getReviewedGames(int userId) {
+        ReviewedGames reviewed = reviewIndex.get(userId);
+        if (reviewed != null) {
+            return reviewed;
+        }
         Session session = HibernateSession.getSessionFactory().openSession();
-        Transaction transaction = null;
 
         try {
-            transaction = session.beginTransaction();
+            // Solo los códigos, leídos del índice idx_review_user_game
+            List<Integer> ids = session.createQuery(
+                    "SELECT r.videogame.idVideogame FROM Review r WHERE r.user.userCode = :userId", Integer.class)
+                    .setParameter("userId", userId)
+                    .list();
+            return reviewIndex.put(new ReviewedGames(userId, ids));
+        } catch (Exception e) {
+            System.out.println("Error loading reviewed games: " + e.getMessage());
+            return null;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
 
-            // Guardar la reseña en la base de datos
-            session.save(review);
+    @Override
+    public RatingSummary getRatingSummary(int videogameId) {
+        Session session = HibernateSession.getSessionFactory().openSession();
 
-            transaction.commit();
+        try {
+            RatingSummary summary = session.get(RatingSummary.class, videogameId);
+            return summary != null ? summary : new RatingSummary(videogameId, 0);
+        } catch (Exception e) {
+            System.out.println("Error reading rating summary: " + e.getMessage());
+            return null;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
 
-            System.out.println("Review created successfully: ReviewCode=" + review.getReviewCode());
-            return true;
+    @Override
+    public Map<Integer, RatingSummary> getRatingSummaries(Collection<Integer> videogameIds) {
+        Map<Integer, RatingSummary> summaries = new HashMap<>();
+        if (videogameIds.isEmpty()) {
+            return summaries;
+        }
+        Session session = HibernateSession.getSessionFactory().openSession();
 
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
+        try {
+            // Una consulta por cada RATING_BATCH juegos, por la clave primaria
+            List<Integer> ids = new ArrayList<>(videogameIds);
+            for (int from = 0; from < ids.size(); from += RATING_BATCH) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + RATING_BATCH));
+                List<RatingSummary> rows = session.createQuery(
+                        "FROM RatingSummary r WHERE r.idVideogame IN (:ids)", RatingSummary.class)
+                        .setParameterList("ids", chunk)
+                        .setReadOnly(true)
+                        .list();
+                for (RatingSummary row : rows) {
+                    summaries.put(row.getIdVideogame(), row);
+                }
             }
-            System.out.println("Database error on creating review: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            return summaries;
+        } catch (Exception e) {
+            System.out.println("Error reading rating summaries: " + e.getMessage());
+            return summaries;
         } finally {
             if (session != null && session.isOpen()) {
                 session.close();
@@ -748,6 +1113,12 @@ public class DBImplementation implements ClassDAO {
 
     @Override
     public boolean reviewExists(int userId, int videogameId) {
+        // Con los juegos del usuario ya cargados no hace falta consultar
+        ReviewedGames reviewed = getReviewedGames(userId);
+        if (reviewed != null) {
+            return reviewed.contains(videogameId);
+        }
+
         Session session = HibernateSession.getSessionFactory().openSession();
 
         try {
@@ -768,4 +1139,608 @@ public class DBImplementation implements ClassDAO {
             }
         }
     }
+
+    @Override
+    public boolean checkout(User user, List<Order> orders) {
+        if (user == null || orders == null || orders.isEmpty()) {
+            System.out.println("Checkout rejected: no user or empty order list");
+            return false;
+        }
+
+        try {
+            Map<Integer, Integer> taken = RetryPolicy.onContention(() -> checkoutOnce(user, orders));
+            if (taken == null) {
+                return false;
+            }
+            stockChanged(taken);
+            cartService.clear(user.getUserCode());
+            System.out.println("Checkout completed: " + orders.size() + " orders for user " + user.getUsername());
+            return true;
+        } catch (Exception e) {
+            System.out.println("Database error on checkout: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Un intento de compra en una única transacción. Las unidades ya reservadas
+     * por el usuario se consumen; solo se descuenta del stock lo que falte (o se
+     * devuelve lo que sobre), con un UPDATE condicional por juego.
+     *
+     * @return Unidades retiradas del stock por juego, o null si no había stock suficiente
+     */
+    private Map<Integer, Integer> checkoutOnce(User user, List<Order> orders) throws Exception {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Transaction transaction = null;
+
+        try {
+            transaction = session.beginTransaction();
+
+            // Los pedidos usan IDENTITY, así que Hibernate no puede agrupar sus INSERT:
+            // se envían como lotes JDBC sobre la conexión de la sesión
+            Map<Integer, Integer> taken = session.doReturningWork(connection -> {
+                // Bloquear las reservas del usuario: el barrido de caducadas las saltará
+                Map<Integer, Integer> held = lockHolds(connection, user.getUserCode());
+
+                // Unidades que faltan por juego, ordenadas por id para bloquear las filas siempre en el mismo orden
+                Map<Integer, Integer> missing = new TreeMap<>();
+                for (Order order : orders) {
+                    missing.merge(order.getVideogame().getIdVideogame(), order.getQuantity(), Integer::sum);
+                }
+                for (Map.Entry<Integer, Integer> hold : held.entrySet()) {
+                    missing.merge(hold.getKey(), -hold.getValue(), Integer::sum);
+                }
+                missing.values().removeIf(units -> units == 0);
+
+                if (!takeStock(connection, missing)) {
+                    return null;
+                }
+
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM RESERVATION_ WHERE id_user = ?")) {
+                    delete.setInt(1, user.getUserCode());
+                    delete.executeUpdate();
+                }
+
+                // El carrito comprado se vacía en la misma transacción que los pedidos
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM CART_ WHERE id_user = ?")) {
+                    delete.setInt(1, user.getUserCode());
+                    delete.executeUpdate();
+                }
+
+                String insertSql = "INSERT INTO Order_ (id_user, id_videogame, price, quantity) VALUES (?, ?, ?, ?)";
+                try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                    for (Order order : orders) {
+                        insert.setInt(1, user.getUserCode());
+                        insert.setInt(2, order.getVideogame().getIdVideogame());
+                        insert.setDouble(3, order.getPrice());
+                        insert.setInt(4, order.getQuantity());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return missing;
+            });
+
+            if (taken == null) {
+                transaction.rollback();
+                System.out.println("Checkout rejected: not enough stock");
+                return null;
+            }
+            transaction.commit();
+            return taken;
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean reserveStock(int userCode, int idVideogame, int quantity) {
+        if (quantity < 0) {
+            return false;
+        }
+
+        try {
+            Integer delta = RetryPolicy.onContention(() -> reserveStockOnce(userCode, idVideogame, quantity));
+            if (delta == null) {
+                System.out.println("Not enough stock to reserve " + quantity + " units of game " + idVideogame);
+                return false;
+            }
+            if (delta != 0) {
+                stockChanged(Collections.singletonMap(idVideogame, delta));
+            }
+            return true;
+        } catch (Exception e) {
+            System.out.println("Database error on reserving stock: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Un intento de fijar la reserva de un usuario sobre un juego.
+     *
+     * @return Unidades retiradas del stock (negativas si se devolvieron), o null si no había stock
+     */
+    private Integer reserveStockOnce(int userCode, int idVideogame, int quantity) throws Exception {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Transaction transaction = null;
+
+        try {
+            transaction = session.beginTransaction();
+
+            Integer delta = session.doReturningWork(connection -> {
+                int held = 0;
+                String selectSql = "SELECT quantity FROM RESERVATION_ WHERE id_user = ? AND id_videogame = ? FOR UPDATE";
+                try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                    select.setInt(1, userCode);
+                    select.setInt(2, idVideogame);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (rs.next()) {
+                            held = rs.getInt(1);
+                        }
+                    }
+                }
+
+                int change = quantity - held;
+                if (change != 0 && !takeStock(connection, Collections.singletonMap(idVideogame, change))) {
+                    return null;
+                }
+
+                if (quantity == 0) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM RESERVATION_ WHERE id_user = ? AND id_videogame = ?")) {
+                        delete.setInt(1, userCode);
+                        delete.setInt(2, idVideogame);
+                        delete.executeUpdate();
+                    }
+                } else {
+                    // Cada cambio en el carrito renueva el plazo de la reserva
+                    String upsertSql = "INSERT INTO RESERVATION_ (id_user, id_videogame, quantity, expires_at) VALUES (?, ?, ?, ?) "
+                            + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), expires_at = VALUES(expires_at)";
+                    try (PreparedStatement upsert = connection.prepareStatement(upsertSql)) {
+                        upsert.setInt(1, userCode);
+                        upsert.setInt(2, idVideogame);
+                        upsert.setInt(3, quantity);
+                        upsert.setTimestamp(4, new Timestamp(System.currentTimeMillis() + RESERVATION_TTL_MILLIS));
+                        upsert.executeUpdate();
+                    }
+                }
+                return change;
+            });
+
+            if (delta == null) {
+                transaction.rollback();
+                return null;
+            }
+            transaction.commit();
+            return delta;
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean releaseReservations(int userCode) {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Transaction transaction = null;
+
+        try {
+            transaction = session.beginTransaction();
+            Map<Integer, Integer> returned = releaseHolds(session, userCode);
+            transaction.commit();
+
+            stockChanged(returned);
+            return true;
+
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.out.println("Database error on releasing reservations: " + e.getMessage());
+            return false;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public int releaseExpiredReservations() {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Transaction transaction = null;
+
+        try {
+            transaction = session.beginTransaction();
+
+            final Map<Integer, Integer> returned = new TreeMap<>();
+            // SKIP LOCKED: las reservas de una compra en curso no se tocan ni se esperan.
+            // Se pide al dialecto: las bases de datos sin SKIP LOCKED (H2) esperan a esas filas
+            final String forUpdate = session.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getForUpdateSkipLockedString();
+            int released = session.doReturningWork(connection -> {
+                String selectSql = "SELECT reservation_code, id_videogame, quantity FROM RESERVATION_ "
+                        + "WHERE expires_at < ? ORDER BY reservation_code LIMIT " + SWEEP_BATCH + forUpdate;
+                List<Integer> codes = new ArrayList<>();
+                try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                    select.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            codes.add(rs.getInt(1));
+                            returned.merge(rs.getInt(2), -rs.getInt(3), Integer::sum);
+                        }
+                    }
+                }
+                if (codes.isEmpty()) {
+                    return 0;
+                }
+
+                takeStock(connection, returned);
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM RESERVATION_ WHERE reservation_code = ?")) {
+                    for (Integer code : codes) {
+                        delete.setInt(1, code);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+                return codes.size();
+            });
+
+            transaction.commit();
+
+            if (released > 0) {
+                stockChanged(returned);
+                System.out.println("Released " + released + " expired reservations");
+            }
+            return released;
+
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            System.out.println("Database error on releasing expired reservations: " + e.getMessage());
+            return 0;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Sustituye la contraseña guardada de un perfil por un hash nuevo, tras un
+     * inicio de sesión correcto. Si falla, el inicio de sesión sigue siendo
+     * válido: se volverá a intentar la próxima vez.
+     *
+     * @param session Sesión en la que se cargó el perfil
+     * @param profile Perfil que acaba de iniciar sesión
+     * @param password Contraseña ya comprobada
+     */
+    private void rehash(Session session, Profile profile, String password) {
+        Transaction transaction = null;
+        String oldPassword = profile.getPassword();
+        try {
+            long start = System.nanoTime();
+            String hashed = passwords.hash(password);
+            transaction = session.beginTransaction();
+            profile.setPassword(hashed);
+            transaction.commit();
+            System.out.printf("Contraseña de %s actualizada a PBKDF2 en %.1f ms (%s)%n",
+                    profile.getUsername(), (System.nanoTime() - start) / 1e6, passwords);
+        } catch (RuntimeException e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            profile.setPassword(oldPassword);
+            System.out.println("Could not rehash the password of " + profile.getUsername() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<CartItem> getCart(int userCode) {
+        try {
+            return cartService.getItems(userCode);
+        } catch (RuntimeException e) {
+            System.out.println("Error loading cart: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public CartItem getCartItem(int userCode, int idVideogame) {
+        try {
+            return cartService.getItem(userCode, idVideogame);
+        } catch (RuntimeException e) {
+            System.out.println("Error loading cart: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void updateCart(int userCode, int idVideogame, int quantity, double price) {
+        cartService.update(userCode, idVideogame, quantity, price);
+    }
+
+    @Override
+    public int flushCart() {
+        try {
+            return cartService.flush();
+        } catch (RuntimeException e) {
+            System.out.println("Database error on saving carts, will retry: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Lee el carrito de un usuario de CART_, en el orden en que se añadieron
+     * los juegos. Solo se llama la primera vez que se usa su carrito.
+     */
+    private static List<CartItem> readCart(int userCode) {
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            return session.doReturningWork(connection -> {
+                List<CartItem> items = new ArrayList<>();
+                String sql = "SELECT id_videogame, quantity, price FROM CART_ WHERE id_user = ? ORDER BY added_at, id_videogame";
+                try (PreparedStatement select = connection.prepareStatement(sql)) {
+                    select.setInt(1, userCode);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            items.add(new CartItem(userCode, rs.getInt(1), rs.getInt(2), rs.getDouble(3)));
+                        }
+                    }
+                }
+                return items;
+            });
+        }
+    }
+
+    /**
+     * Escribe un lote de cambios de carrito en una transacción. Si un juego o
+     * un usuario se ha borrado entretanto, su clave ajena hace fallar el lote:
+     * entonces se escribe línea a línea y se descartan las que fallen.
+     */
+    private static void writeCart(List<CartItem> changes) {
+        try {
+            RetryPolicy.onContention(() -> writeCartOnce(changes));
+        } catch (ConstraintViolationException e) {
+            for (CartItem change : changes) {
+                try {
+                    RetryPolicy.onContention(() -> writeCartOnce(Collections.singletonList(change)));
+                } catch (ConstraintViolationException lineError) {
+                    System.out.println("Cart line of user " + change.getIdUsuario() + " and game "
+                            + change.getIdVideojuego() + " discarded: " + lineError.getMessage());
+                } catch (Exception lineError) {
+                    throw new IllegalStateException(lineError.getMessage(), lineError);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Un intento de escribir un lote: un lote JDBC de INSERT ... ON DUPLICATE
+     * KEY UPDATE para las líneas con unidades y otro de DELETE para el resto.
+     */
+    private static Void writeCartOnce(List<CartItem> changes) {
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Transaction transaction = null;
+
+        try {
+            transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                String upsertSql = "INSERT INTO CART_ (id_user, id_videogame, quantity, price, added_at) VALUES (?, ?, ?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), price = VALUES(price)";
+                try (PreparedStatement upsert = connection.prepareStatement(upsertSql);
+                        PreparedStatement delete = connection.prepareStatement(
+                                "DELETE FROM CART_ WHERE id_user = ? AND id_videogame = ?")) {
+                    boolean upserts = false;
+                    boolean deletes = false;
+                    for (CartItem change : changes) {
+                        if (change.getCantidad() == 0) {
+                            delete.setInt(1, change.getIdUsuario());
+                            delete.setInt(2, change.getIdVideojuego());
+                            delete.addBatch();
+                            deletes = true;
+                        } else {
+                            upsert.setInt(1, change.getIdUsuario());
+                            upsert.setInt(2, change.getIdVideojuego());
+                            upsert.setInt(3, change.getCantidad());
+                            upsert.setDouble(4, change.getPrecio());
+                            upsert.setTimestamp(5, now);
+                            upsert.addBatch();
+                            upserts = true;
+                        }
+                    }
+                    if (deletes) {
+                        delete.executeBatch();
+                    }
+                    if (upserts) {
+                        upsert.executeBatch();
+                    }
+                }
+            });
+            transaction.commit();
+            return null;
+
+        } catch (RuntimeException e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, Videogame> getGames(Collection<Integer> videogameIds) {
+        Map<Integer, Videogame> games = new HashMap<>();
+        // Los juegos de carritos ya leídos no se vuelven a consultar
+        List<Integer> missing = new ArrayList<>();
+        for (int idVideogame : videogameIds) {
+            Videogame game = gameRegistry.get(idVideogame);
+            if (game != null) {
+                games.put(idVideogame, game);
+            } else {
+                missing.add(idVideogame);
+            }
+        }
+        if (missing.isEmpty()) {
+            return games;
+        }
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            // multiLoad busca primero en la caché de segundo nivel y lee el resto en una consulta
+            for (Videogame game : session.byMultipleIds(Videogame.class).multiLoad(missing)) {
+                if (game != null) {
+                    gameRegistry.put(game);
+                    games.put(game.getIdVideogame(), game);
+                }
+            }
+            return games;
+        } catch (Exception e) {
+            System.out.println("Error reading games: " + e.getMessage());
+            return games;
+        }
+    }
+
+    /**
+     * Pone al día las cachés tras un cambio de stock hecho con JDBC, que
+     * Hibernate no ve: ajusta la instantánea del catálogo y saca esos juegos de
+     * la caché de segundo nivel y de GameRegistry para que se vuelvan a leer.
+     *
+     * @param unitsByGame Unidades retiradas del stock por juego
+     */
+    private void stockChanged(Map<Integer, Integer> unitsByGame) {
+        catalogCache.applyStockChanges(unitsByGame);
+        Cache cache = HibernateSession.getSessionFactory().getCache();
+        for (Integer idVideogame : unitsByGame.keySet()) {
+            cache.evictEntityData(Videogame.class, idVideogame);
+            gameRegistry.remove(idVideogame);
+        }
+    }
+
+    /**
+     * Devuelve al stock todas las reservas de un usuario y las borra, dentro de
+     * la transacción de la sesión.
+     *
+     * @return Unidades retiradas del stock por juego (negativas: se devolvieron)
+     */
+    private Map<Integer, Integer> releaseHolds(Session session, int userCode) {
+        return session.doReturningWork(connection -> {
+            Map<Integer, Integer> returned = new TreeMap<>();
+            for (Map.Entry<Integer, Integer> hold : lockHolds(connection, userCode).entrySet()) {
+                returned.put(hold.getKey(), -hold.getValue());
+            }
+            if (!returned.isEmpty()) {
+                takeStock(connection, returned);
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM RESERVATION_ WHERE id_user = ?")) {
+                    delete.setInt(1, userCode);
+                    delete.executeUpdate();
+                }
+            }
+            return returned;
+        });
+    }
+
+    /**
+     * Bloquea y lee las reservas de un usuario.
+     *
+     * @return Unidades reservadas por juego
+     */
+    private static Map<Integer, Integer> lockHolds(Connection connection, int userCode) throws SQLException {
+        Map<Integer, Integer> held = new TreeMap<>();
+        String sql = "SELECT id_videogame, quantity FROM RESERVATION_ WHERE id_user = ? ORDER BY id_videogame FOR UPDATE";
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setInt(1, userCode);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    held.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Retira unidades del stock con un UPDATE atómico por juego, enviados en un
+     * solo lote. Las cantidades negativas devuelven unidades. Cada UPDATE
+     * incrementa también la versión del juego, así que una edición del admin
+     * hecha sobre datos anteriores fallará en lugar de pisar el stock.
+     *
+     * Un UPDATE que no cambia ninguna fila es que no había stock. Si el driver
+     * no informa de las filas de algún UPDATE del lote (SUCCESS_NO_INFO, por
+     * ejemplo al reescribir los lotes con rewriteBatchedStatements), no se da
+     * por bueno: se deshace el lote y se repiten los UPDATE uno a uno.
+     *
+     * @param unitsByGame Unidades a retirar por juego
+     * @return true si había stock suficiente para todas las retiradas
+     */
+    static boolean takeStock(Connection connection, Map<Integer, Integer> unitsByGame) throws SQLException {
+        if (unitsByGame.isEmpty()) {
+            return true;
+        }
+        // Ordenadas por id para bloquear las filas siempre en el mismo orden
+        Map<Integer, Integer> ordered = new TreeMap<>(unitsByGame);
+        String updateSql = "UPDATE VIDEOGAME_ SET stock = stock - ?, version = version + 1 WHERE videogame_code = ? AND stock >= ?";
+        try (PreparedStatement update = connection.prepareStatement(updateSql)) {
+            if (ordered.size() == 1) {
+                // Un solo juego: executeUpdate siempre devuelve las filas cambiadas
+                Map.Entry<Integer, Integer> entry = ordered.entrySet().iterator().next();
+                setStockUpdate(update, entry);
+                return update.executeUpdate() > 0;
+            }
+
+            Savepoint beforeBatch = connection.setSavepoint();
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                setStockUpdate(update, entry);
+                update.addBatch();
+            }
+            boolean unknown = false;
+            for (int count : update.executeBatch()) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown = true;
+                } else if (count < 1) {
+                    return false;
+                }
+            }
+            if (!unknown) {
+                return true;
+            }
+
+            connection.rollback(beforeBatch);
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                setStockUpdate(update, entry);
+                if (update.executeUpdate() < 1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void setStockUpdate(PreparedStatement update, Map.Entry<Integer, Integer> entry) throws SQLException {
+        update.setInt(1, entry.getValue());
+        update.setInt(2, entry.getKey());
+        update.setInt(3, entry.getValue());
+    }
 }
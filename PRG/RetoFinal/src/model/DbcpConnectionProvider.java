@@ -0,0 +1,271 @@
+package model;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+/**
+ * Hibernate ConnectionProvider backed by a commons-dbcp2 pool, set as
+ * hibernate.connection.provider_class in hibernate.cfg.xml. It reads the
+ * usual hibernate.connection.* properties plus the store.pool.* ones below.
+ * Idle connections are validated on every eviction run (and, optionally,
+ * every connection when it is borrowed) and closed after a while. A
+ * connection held without any activity for longer than the leak timeout is
+ * taken back; with store.pool.log_leaks the stack trace of whoever borrowed
+ * it is logged.
+ *
+ * The time spent waiting for a connection and the number of timeouts are
+ * counted; see {@link #getPoolStatistics()} and
+ * {@link HibernateSession#getPoolStatistics()}.
+ *
+ * @version 1.0
+ */
+public class DbcpConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+
+    /** Conexiones abiertas como mínimo. */
+    public static final String MIN_IDLE = "store.pool.min_idle";
+
+    /** Conexiones abiertas como máximo. */
+    public static final String MAX_TOTAL = "store.pool.max_total";
+
+    /** Milisegundos que se espera una conexión libre antes de fallar. */
+    public static final String MAX_WAIT_MILLIS = "store.pool.max_wait_millis";
+
+    /** Segundos que una conexión puede estar libre antes de cerrarse. */
+    public static final String IDLE_TIMEOUT_SECONDS = "store.pool.idle_timeout_seconds";
+
+    /** Segundos entre dos revisiones de las conexiones libres y de las fugas. */
+    public static final String EVICTION_INTERVAL_SECONDS = "store.pool.eviction_interval_seconds";
+
+    /** Segundos sin actividad tras los que una conexión prestada se da por perdida. */
+    public static final String LEAK_TIMEOUT_SECONDS = "store.pool.leak_timeout_seconds";
+
+    /**
+     * Si es true, se valida cada conexión al prestarla (un viaje más a la base
+     * de datos); si no, solo las libres, en cada revisión.
+     */
+    public static final String TEST_ON_BORROW = "store.pool.test_on_borrow";
+
+    /**
+     * Si es true, se guarda la pila de llamadas de quien toma cada conexión,
+     * para mostrarla si se pierde. Cuesta tiempo en cada préstamo.
+     */
+    public static final String LOG_LEAKS = "store.pool.log_leaks";
+
+    /**
+     * Segundos que puede tardar cada sentencia antes de cancelarse (0 sin
+     * límite). Por debajo del tiempo de espera de las lecturas de
+     * controller.AsyncController, y el único límite de las escrituras.
+     */
+    public static final String QUERY_TIMEOUT_SECONDS = "store.pool.query_timeout_seconds";
+
+    /** Sentencias preparadas que se guardan por conexión (0 para no guardarlas). */
+    public static final String MAX_STATEMENTS = "store.pool.max_statements";
+
+    /**
+     * Estado del pool en un momento dado.
+     */
+    public static final class PoolStatistics {
+
+        private final int active;
+        private final int idle;
+        private final int maxTotal;
+        private final long borrowed;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long timeouts;
+
+        private PoolStatistics(int active, int idle, int maxTotal, long borrowed, double averageWaitMillis,
+                double maxWaitMillis, long timeouts) {
+            this.active = active;
+            this.idle = idle;
+            this.maxTotal = maxTotal;
+            this.borrowed = borrowed;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.timeouts = timeouts;
+        }
+
+        /** Conexiones prestadas ahora mismo. */
+        public int getActive() {
+            return active;
+        }
+
+        /** Conexiones abiertas y libres. */
+        public int getIdle() {
+            return idle;
+        }
+
+        /** Conexiones abiertas como máximo. */
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        /** Conexiones prestadas desde que se creó el pool. */
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        /** Espera media para obtener una conexión, en milisegundos. */
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        /** Espera más larga para obtener una conexión, en milisegundos. */
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /** Peticiones que no obtuvieron conexión a tiempo. */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStatistics{active=%d, idle=%d, max=%d, borrowed=%d, avgWait=%.2f ms, maxWait=%.2f ms, timeouts=%d}",
+                    active, idle, maxTotal, borrowed, averageWaitMillis, maxWaitMillis, timeouts);
+        }
+    }
+
+    private BasicDataSource dataSource;
+
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void configure(Map settings) {
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(ConfigurationHelper.getString(AvailableSettings.DRIVER, settings));
+        dataSource.setUrl(ConfigurationHelper.getString(AvailableSettings.URL, settings));
+        dataSource.setUsername(ConfigurationHelper.getString(AvailableSettings.USER, settings));
+        dataSource.setPassword(ConfigurationHelper.getString(AvailableSettings.PASS, settings, ""));
+
+        // Igual que el pool de Hibernate: sin autocommit salvo que se pida
+        boolean autoCommit = ConfigurationHelper.getBoolean(AvailableSettings.AUTOCOMMIT, settings, false);
+        dataSource.setDefaultAutoCommit(autoCommit);
+        // Al devolverla se deshace lo que quedara abierto, sin cambiar el autocommit
+        dataSource.setRollbackOnReturn(true);
+        dataSource.setAutoCommitOnReturn(autoCommit);
+        Integer isolation = ConfigurationHelper.getInteger(AvailableSettings.ISOLATION, settings);
+        if (isolation != null) {
+            dataSource.setDefaultTransactionIsolation(isolation);
+        }
+
+        int minIdle = ConfigurationHelper.getInt(MIN_IDLE, settings, 5);
+        int maxTotal = ConfigurationHelper.getInt(MAX_TOTAL, settings, 20);
+        dataSource.setInitialSize(minIdle);
+        dataSource.setMinIdle(minIdle);
+        dataSource.setMaxIdle(maxTotal);
+        dataSource.setMaxTotal(maxTotal);
+        dataSource.setMaxWait(Duration.ofMillis(ConfigurationHelper.getInt(MAX_WAIT_MILLIS, settings, 5000)));
+
+        // Validación con Connection.isValid: las libres en cada revisión, todas a la vez
+        dataSource.setTestOnBorrow(ConfigurationHelper.getBoolean(TEST_ON_BORROW, settings, false));
+        dataSource.setTestWhileIdle(true);
+        dataSource.setNumTestsPerEvictionRun(maxTotal);
+        dataSource.setValidationQueryTimeout(Duration.ofSeconds(2));
+        dataSource.setMinEvictableIdle(Duration.ofSeconds(ConfigurationHelper.getInt(IDLE_TIMEOUT_SECONDS, settings, 300)));
+        dataSource.setDurationBetweenEvictionRuns(Duration.ofSeconds(ConfigurationHelper.getInt(EVICTION_INTERVAL_SECONDS, settings, 60)));
+
+        // Fugas: conexiones prestadas y olvidadas
+        dataSource.setRemoveAbandonedOnMaintenance(true);
+        dataSource.setRemoveAbandonedOnBorrow(true);
+        dataSource.setRemoveAbandonedTimeout(Duration.ofSeconds(ConfigurationHelper.getInt(LEAK_TIMEOUT_SECONDS, settings, 120)));
+        dataSource.setLogAbandoned(ConfigurationHelper.getBoolean(LOG_LEAKS, settings, false));
+        dataSource.setAbandonedLogWriter(new PrintWriter(System.err, true));
+
+        // Statement.setQueryTimeout en todas las sentencias, también las de JDBC directo
+        int queryTimeout = ConfigurationHelper.getInt(QUERY_TIMEOUT_SECONDS, settings, 10);
+        if (queryTimeout > 0) {
+            dataSource.setDefaultQueryTimeout(Duration.ofSeconds(queryTimeout));
+        }
+
+        int maxStatements = ConfigurationHelper.getInt(MAX_STATEMENTS, settings, 50);
+        dataSource.setPoolPreparedStatements(maxStatements > 0);
+        dataSource.setMaxOpenPreparedStatements(maxStatements);
+
+        System.out.println("Pool de conexiones: " + minIdle + "-" + maxTotal + " conexiones a " + dataSource.getUrl());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = dataSource.getConnection();
+            long waited = System.nanoTime() - start;
+            borrowed.incrementAndGet();
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return connection;
+        } catch (SQLException e) {
+            if (e.getCause() instanceof NoSuchElementException) {
+                // Todas las conexiones ocupadas durante MAX_WAIT_MILLIS
+                timeouts.incrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    /**
+     * Gets the current state of the pool.
+     *
+     * @return Active and idle connections, waits and timeouts
+     */
+    public PoolStatistics getPoolStatistics() {
+        long n = borrowed.get();
+        return new PoolStatistics(dataSource.getNumActive(), dataSource.getNumIdle(), dataSource.getMaxTotal(), n,
+                n == 0 ? 0 : waitNanos.get() / 1e6 / n, maxWaitNanos.get() / 1e6, timeouts.get());
+    }
+
+    @Override
+    public void stop() {
+        try {
+            dataSource.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing the connection pool: " + e.getMessage());
+        }
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isAssignableFrom(getClass()) || unwrapType.isAssignableFrom(BasicDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(BasicDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+}
@@ -0,0 +1,150 @@
+package model;
+
+/**
+ * Juegos de los carritos ya leídos de la base de datos, por código,
+ * compartidos por todas las ventanas. Solo se guardan los juegos que lee
+ * {@code ClassDAO.getGames} para la ventana del carrito, no las páginas del
+ * catálogo ni las búsquedas, así que abrir otra vez el carrito no vuelve a
+ * consultarlos. Un cambio del juego, de su stock o su borrado lo olvida,
+ * para que se vuelva a leer.
+ *
+ * Como mucho guarda {@link #MAX_GAMES} juegos: al llenarse se vacía entera,
+ * y los juegos se vuelven a leer la próxima vez. Es una tabla hash de
+ * direccionamiento abierto con claves int primitivas: no crea un Integer ni
+ * una entrada por juego.
+ *
+ * @version 1.0
+ */
+public class GameRegistry {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Juegos guardados como máximo. */
+    public static final int MAX_GAMES = 1024;
+
+    /** Instancia única compartida por todas las implementaciones del DAO. */
+    private static final GameRegistry instance = new GameRegistry(MAX_GAMES);
+
+    private final int maxGames;
+
+    // Un hueco está libre si su juego es null; la capacidad es siempre potencia de 2
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private Videogame[] games = new Videogame[INITIAL_CAPACITY];
+    private int size;
+
+    GameRegistry(int maxGames) {
+        this.maxGames = maxGames;
+    }
+
+    /**
+     * Obtiene el registro compartido de juegos.
+     *
+     * @return Instancia única de GameRegistry
+     */
+    public static GameRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Juego guardado con un código.
+     *
+     * @param idVideogame Código del juego
+     * @return El juego, o null si no se ha leído
+     */
+    public synchronized Videogame get(int idVideogame) {
+        int slot = slot(idVideogame);
+        return games[slot];
+    }
+
+    /**
+     * Guarda un juego, sustituyendo al que tuviera su código.
+     *
+     * @param game Juego leído de la base de datos
+     */
+    public synchronized void put(Videogame game) {
+        int slot = slot(game.getIdVideogame());
+        if (games[slot] == null && size >= maxGames) {
+            clear();
+            slot = slot(game.getIdVideogame());
+        }
+        if (games[slot] == null) {
+            keys[slot] = game.getIdVideogame();
+            size++;
+        }
+        games[slot] = game;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Olvida un juego borrado o cambiado.
+     *
+     * @param idVideogame Código del juego
+     */
+    public synchronized void remove(int idVideogame) {
+        int slot = slot(idVideogame);
+        if (games[slot] == null) {
+            return;
+        }
+        games[slot] = null;
+        size--;
+        // Se recolocan los siguientes del mismo grupo para no cortar su secuencia de sondeo
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (games[next] != null) {
+            Videogame moved = games[next];
+            games[next] = null;
+            size--;
+            put(moved);
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Número de juegos guardados.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Olvida todos los juegos.
+     */
+    public synchronized void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        games = new Videogame[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Hueco del juego con ese código, o el hueco libre donde iría.
+     */
+    private int slot(int idVideogame) {
+        int mask = keys.length - 1;
+        int slot = hash(idVideogame) & mask;
+        while (games[slot] != null && keys[slot] != idVideogame) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Videogame[] oldGames = games;
+        keys = new int[capacity];
+        games = new Videogame[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGames[i] != null) {
+                put(oldGames[i]);
+            }
+        }
+    }
+
+    /** Mezcla los bits: los códigos son consecutivos y caerían en huecos seguidos. */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
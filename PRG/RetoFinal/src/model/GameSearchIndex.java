@@ -0,0 +1,287 @@
+package model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda en memoria sobre el catálogo de videojuegos.
+ * Indexa el nombre y la compañía de cada juego por trigramas, de forma que una
+ * búsqueda "contiene" no tenga que recorrer todo el catálogo. El género y la
+ * plataforma se guardan como listas de documentos (BitSet) que se cruzan con
+ * el resultado del texto.
+ *
+ * Las bajas son perezosas: el documento se marca como borrado y el índice se
+ * compacta cuando los huecos superan a los documentos vivos.
+ *
+ * @version 1.0
+ */
+public class GameSearchIndex {
+
+    /** Longitud de los n-gramas indexados. */
+    private static final int GRAM = 3;
+
+    /** Número mínimo de huecos antes de plantearse compactar. */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private Videogame[] docs = new Videogame[64];
+    private String[] names = new String[64];
+    private String[] companies = new String[64];
+    private int slots = 0;
+    private int liveCount = 0;
+
+    private final BitSet live = new BitSet();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final EnumMap<GameGenre, BitSet> byGenre = new EnumMap<>(GameGenre.class);
+    private final EnumMap<Platform, BitSet> byPlatform = new EnumMap<>(Platform.class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Vacía el índice y lo vuelve a construir con los juegos indicados.
+     *
+     * @param games Catálogo completo
+     */
+    public void rebuild(Collection<Videogame> games) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Videogame game : games) {
+                addInternal(game);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade un juego o reindexa uno existente con sus valores actuales.
+     *
+     * @param game Videojuego a indexar
+     */
+    public void put(Videogame game) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(game.getIdVideogame());
+            addInternal(game);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un juego del índice.
+     *
+     * @param idVideogame Identificador del videojuego
+     */
+    public void remove(int idVideogame) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(idVideogame);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca juegos cuyo nombre o compañía contenga el texto, filtrando por
+     * género y plataforma. Null o ALL en un filtro equivale a no filtrar.
+     *
+     * @param text Texto a buscar (puede ser null o vacío)
+     * @param genre Género por el que filtrar
+     * @param platform Plataforma por la que filtrar
+     * @return Juegos encontrados ordenados por nombre
+     */
+    public List<Videogame> search(String text, GameGenre genre, Platform platform) {
+        String query = normalize(text == null ? "" : text.trim());
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) live.clone();
+            if (genre != null && genre != GameGenre.ALL) {
+                candidates.and(postingsFor(byGenre, genre));
+            }
+            if (platform != null && platform != Platform.ALL) {
+                candidates.and(postingsFor(byPlatform, platform));
+            }
+
+            List<Videogame> result = new ArrayList<>();
+            if (query.length() >= GRAM) {
+                // Recorremos solo la lista del trigrama menos frecuente y verificamos el resto
+                IntList shortest = null;
+                for (String gram : grams(query)) {
+                    IntList list = postings.get(gram);
+                    if (list == null) {
+                        return result;
+                    }
+                    if (shortest == null || list.size < shortest.size) {
+                        shortest = list;
+                    }
+                }
+                for (int i = 0; i < shortest.size; i++) {
+                    int slot = shortest.values[i];
+                    if (candidates.get(slot) && matches(slot, query)) {
+                        result.add(docs[slot]);
+                    }
+                }
+            } else {
+                for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                    if (query.isEmpty() || matches(slot, query)) {
+                        result.add(docs[slot]);
+                    }
+                }
+            }
+
+            result.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(nullToEmpty(a.getName()), nullToEmpty(b.getName())));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de juegos indexados
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(int slot, String query) {
+        return names[slot].contains(query) || companies[slot].contains(query);
+    }
+
+    private void addInternal(Videogame game) {
+        if (slots == docs.length) {
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            names = Arrays.copyOf(names, capacity);
+            companies = Arrays.copyOf(companies, capacity);
+        }
+        int slot = slots++;
+        docs[slot] = game;
+        names[slot] = normalize(nullToEmpty(game.getName()));
+        companies[slot] = normalize(nullToEmpty(game.getCompanyName()));
+
+        Set<String> docGrams = grams(names[slot]);
+        docGrams.addAll(grams(companies[slot]));
+        for (String gram : docGrams) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(gram, list);
+            }
+            // Los huecos se asignan en orden creciente, así que las listas quedan ordenadas
+            list.add(slot);
+        }
+
+        if (game.getGameGenre() != null) {
+            postingsFor(byGenre, game.getGameGenre()).set(slot);
+        }
+        if (game.getPlatforms() != null) {
+            postingsFor(byPlatform, game.getPlatforms()).set(slot);
+        }
+        live.set(slot);
+        slotById.put(game.getIdVideogame(), slot);
+        liveCount++;
+    }
+
+    private void removeInternal(int idVideogame) {
+        Integer slot = slotById.remove(idVideogame);
+        if (slot != null) {
+            live.clear(slot);
+            docs[slot] = null;
+            liveCount--;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = slots - liveCount;
+        if (dead > COMPACT_THRESHOLD && dead > liveCount) {
+            List<Videogame> alive = new ArrayList<>(liveCount);
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                alive.add(docs[slot]);
+            }
+            clear();
+            for (Videogame game : alive) {
+                addInternal(game);
+            }
+        }
+    }
+
+    private void clear() {
+        docs = new Videogame[64];
+        names = new String[64];
+        companies = new String[64];
+        slots = 0;
+        liveCount = 0;
+        live.clear();
+        slotById.clear();
+        postings.clear();
+        byGenre.clear();
+        byPlatform.clear();
+    }
+
+    private static <E extends Enum<E>> BitSet postingsFor(EnumMap<E, BitSet> map, E key) {
+        BitSet bits = map.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            map.put(key, bits);
+        }
+        return bits;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    /**
+     * Pasa a minúsculas y quita los acentos, igual que hace la collation de MySQL
+     * con LIKE.
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullToEmpty(String text) {
+        return text == null ? "" : text;
+    }
+
+    /**
+     * Lista creciente de enteros sin autoboxing para las listas de trigramas.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
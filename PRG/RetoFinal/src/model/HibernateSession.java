@@ -1,42 +1,218 @@
 package model;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.hibernate.SessionFactory;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.stat.Statistics;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import org.hibernate.tool.schema.TargetType;
 
 /**
  * Clase Singleton para gestionar la SessionFactory de Hibernate.
  * Inicializa y proporciona acceso a la fábrica de sesiones de forma centralizada.
  * 
+ * La SessionFactory se construye en un hilo en segundo plano, que se lanza con
+ * {@link #start()} (o con la primera llamada a {@link #getSessionFactory()}),
+ * de modo que la ventana de login se puede mostrar sin esperar a la base de
+ * datos. Las migraciones del esquema ({@link SchemaMigrator}, o
+ * hibernate.hbm2ddl.auto si no están activadas) se ejecutan en paralelo con la
+ * construcción de la SessionFactory, y el tiempo de cada fase se muestra por
+ * consola.
+ * 
  * @author Igor
  * @version 1.0
  */
 public class HibernateSession {
     
-    /** Instancia única de SessionFactory, inicializada estáticamente. */
-    private static SessionFactory sessionFactory;
+    /**
+     * Propiedad del sistema con el recurso de configuración a usar en lugar de
+     * hibernate.cfg.xml (por ejemplo, la base de datos en memoria de los benchmarks).
+     */
+    public static final String CONFIG_PROPERTY = "store.hibernate.config";
+    
+    /** SessionFactory en construcción o ya construida; null hasta llamar a start(). */
+    private static volatile CompletableFuture<SessionFactory> sessionFactory;
     
     /**
-     * Inicializa la SessionFactory al cargar la clase.
-     * Lee la configuración desde hibernate.cfg.xml.
+     * Empieza a construir la SessionFactory en segundo plano, si no se había
+     * empezado ya. Lee la configuración desde hibernate.cfg.xml, salvo que se
+     * indique otro recurso en la propiedad {@link #CONFIG_PROPERTY}.
      * 
-     * @throws ExceptionInInitializerError si falla la creación de SessionFactory
+     * @return Futuro que se completa con la SessionFactory, o con el error si
+     * no se pudo crear
+     */
+    public static synchronized CompletableFuture<SessionFactory> start() {
+        if (sessionFactory == null) {
+            CompletableFuture<SessionFactory> future = new CompletableFuture<>();
+            Thread bootstrap = new Thread(() -> {
+                try {
+                    future.complete(build(System.getProperty(CONFIG_PROPERTY, "hibernate.cfg.xml")));
+                } catch (Throwable ex) {
+                    System.err.println("Error al intentar crear SessionFactory: " + ex);
+                    future.completeExceptionally(ex);
+                }
+            }, "hibernate-bootstrap");
+            bootstrap.setDaemon(true);
+            bootstrap.start();
+            sessionFactory = future;
+        }
+        return sessionFactory;
+    }
+    
+    /**
+     * Construye la SessionFactory. El esquema se crea, actualiza o valida
+     * aparte, a la vez que se construye la SessionFactory, en lugar de dejar
+     * que lo haga ella al final.
      */
-    static {
+    private static SessionFactory build(String resource) {
+        long start = System.currentTimeMillis();
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder().configure(resource);
+        Map<?, ?> settings = builder.getConfigLoader().loadConfigXmlResource(resource).getConfigurationValues();
+        String action = String.valueOf(settings.get(AvailableSettings.HBM2DDL_AUTO)).trim();
+        boolean migrate = ConfigurationHelper.getBoolean(SchemaMigrator.MIGRATE_PROPERTY, settings, false);
+        builder.applySetting(AvailableSettings.HBM2DDL_AUTO, "none");
+        StandardServiceRegistry registry = builder.build();
+        long registryDone = System.currentTimeMillis();
+        
         try {
-            sessionFactory = new Configuration().configure().buildSessionFactory();
-        } catch (Throwable ex) {
-            System.err.println("Error al intentar crear SessionFactory: " + ex);
-            throw new ExceptionInInitializerError(ex);
+            Metadata metadata = new MetadataSources(registry).buildMetadata();
+            long metadataDone = System.currentTimeMillis();
+            
+            CompletableFuture<Long> schema = CompletableFuture.supplyAsync(() -> {
+                long schemaStart = System.currentTimeMillis();
+                if (migrate) {
+                    migrateSchema(registry);
+                } else {
+                    updateSchema(action, metadata);
+                }
+                return System.currentTimeMillis() - schemaStart;
+            });
+            SessionFactory factory = metadata.buildSessionFactory();
+            long factoryMillis = System.currentTimeMillis() - metadataDone;
+            try {
+                long schemaMillis = schema.join();
+                System.out.println("SessionFactory creada en " + (System.currentTimeMillis() - start) + " ms (registro "
+                        + (registryDone - start) + " ms, metadatos " + (metadataDone - registryDone)
+                        + " ms, esquema '" + (migrate ? "migrate" : action) + "' " + schemaMillis + " ms, SessionFactory " + factoryMillis + " ms)");
+                return factory;
+            } catch (CompletionException ex) {
+                factory.close();
+                throw ex;
+            }
+        } catch (RuntimeException ex) {
+            StandardServiceRegistryBuilder.destroy(registry);
+            throw ex;
         }
     }
     
     /**
-     * Obtiene la SessionFactory configurada.
+     * Aplica los scripts de migración pendientes con una conexión del pool.
+     */
+    private static void migrateSchema(StandardServiceRegistry registry) {
+        ConnectionProvider provider = registry.getService(ConnectionProvider.class);
+        try {
+            Connection connection = provider.getConnection();
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    new SchemaMigrator().migrate(connection);
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                provider.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not connect to migrate the schema: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Aplica a la base de datos la acción de hibernate.hbm2ddl.auto.
+     * create-drop se trata como create: el esquema no se borra al cerrar.
+     */
+    private static void updateSchema(String action, Metadata metadata) {
+        switch (action) {
+            case "update":
+                new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadata);
+                break;
+            case "create":
+            case "create-drop":
+                new SchemaExport().create(EnumSet.of(TargetType.DATABASE), metadata);
+                break;
+            case "validate":
+                new SchemaValidator().validate(metadata);
+                break;
+            default:
+                // none o sin configurar
+                break;
+        }
+    }
+    
+    /**
+     * Obtiene la SessionFactory configurada, esperando a que termine de
+     * construirse si hace falta.
      * 
      * @return Instancia única de SessionFactory (thread-safe)
+     * @throws CompletionException si falla la creación de SessionFactory
      */
     public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+        CompletableFuture<SessionFactory> future = sessionFactory;
+        if (future == null) {
+            future = start();
+        }
+        return future.join();
+    }
+    
+    /**
+     * Indica si la SessionFactory ya está construida.
+     * 
+     * @return true si se puede usar sin esperar
+     */
+    public static boolean isReady() {
+        CompletableFuture<SessionFactory> future = sessionFactory;
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+   
+    /**
+     * Obtiene las estadísticas de Hibernate: aciertos y fallos de la caché de
+     * segundo nivel y de la caché de consultas, consultas ejecutadas, etc.
+     * 
+     * @return Estadísticas de la SessionFactory
+     */
+    public static Statistics getStatistics() {
+        return getSessionFactory().getStatistics();
+    }
+   
+    /**
+     * Obtiene el estado del pool de conexiones: conexiones activas y libres,
+     * tiempo de espera para obtener una y esperas agotadas.
+     * 
+     * @return Estadísticas del pool, o null si la configuración no usa
+     * DbcpConnectionProvider
+     */
+    public static DbcpConnectionProvider.PoolStatistics getPoolStatistics() {
+        ConnectionProvider provider = getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        if (provider instanceof DbcpConnectionProvider) {
+            return ((DbcpConnectionProvider) provider).getPoolStatistics();
+        }
+        return null;
     }
    
     /**
@@ -44,7 +220,7 @@ public class HibernateSession {
      * Debe llamarse al finalizar la aplicación.
      */
     public static void close() {
-        if (sessionFactory != null && !sessionFactory.isClosed()) {
+        if (isReady() && !getSessionFactory().isClosed()) {
             getSessionFactory().close();
         }
     }
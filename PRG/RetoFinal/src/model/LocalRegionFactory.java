@@ -0,0 +1,69 @@
+package model;
+
+import java.util.Map;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+/**
+ * In-process second-level cache for Hibernate, set as
+ * hibernate.cache.region.factory_class in hibernate.cfg.xml. Entity regions
+ * and query result regions are bounded in size and time to live (see the
+ * store.cache.* properties); the update timestamps region is never trimmed,
+ * because losing a timestamp would let the query cache return stale results.
+ *
+ * @version 1.0
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    /** Máximo de entradas por región de entidad. */
+    public static final String MAX_ENTRIES = "store.cache.max_entries";
+
+    /** Segundos que vive una entidad en caché. */
+    public static final String TTL_SECONDS = "store.cache.ttl_seconds";
+
+    /** Máximo de resultados guardados por región de consultas. */
+    public static final String QUERY_MAX_ENTRIES = "store.cache.query.max_entries";
+
+    /** Segundos que vive el resultado de una consulta en caché. */
+    public static final String QUERY_TTL_SECONDS = "store.cache.query.ttl_seconds";
+
+    private int maxEntries;
+    private long ttlMillis;
+    private int queryMaxEntries;
+    private long queryTtlMillis;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        maxEntries = ConfigurationHelper.getInt(MAX_ENTRIES, configValues, 10000);
+        ttlMillis = ConfigurationHelper.getInt(TTL_SECONDS, configValues, 600) * 1000L;
+        queryMaxEntries = ConfigurationHelper.getInt(QUERY_MAX_ENTRIES, configValues, 500);
+        queryTtlMillis = ConfigurationHelper.getInt(QUERY_TTL_SECONDS, configValues, 120) * 1000L;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // Las regiones viven en memoria: se liberan al liberar cada región
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+            DomainDataRegionBuildingContext buildingContext) {
+        return new BoundedStorageAccess(maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(queryMaxEntries, queryTtlMillis);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(0, 0);
+    }
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché negativa de inicios de sesión fallidos.
+ * Durante unos segundos recuerda los usuarios que no existen y las parejas
+ * usuario/contraseña que ya fallaron, de modo que una ráfaga de intentos
+ * repetidos (por ejemplo, un ataque de fuerza bruta) se rechaza en memoria
+ * sin llegar a la base de datos. No bloquea cuentas: una contraseña que no
+ * ha fallado siempre se comprueba, así que los fallos de otro no impiden
+ * entrar al usuario real. De las contraseñas solo se guarda un resumen
+ * SHA-256.
+ *
+ * @version 1.0
+ */
+public class LoginFailureCache {
+
+    /** Tiempo que se recuerda un fallo. */
+    public static final long TTL_MILLIS = 30 * 1000;
+
+    /** Contraseñas fallidas recordadas como máximo por usuario (las más recientes). */
+    public static final int MAX_PASSWORDS = 5;
+
+    /** Usuarios recordados como máximo. */
+    private static final int MAX_ENTRIES = 10000;
+
+    /** Instancia única compartida por todas las implementaciones del DAO. */
+    private static final LoginFailureCache instance = new LoginFailureCache(TTL_MILLIS, MAX_PASSWORDS, MAX_ENTRIES);
+
+    /** Fallos recientes de un usuario. */
+    private static final class Failures {
+
+        private final boolean unknownUser;
+        private final Set<String> passwords = new LinkedHashSet<>();
+        private long expiresAt;
+
+        private Failures(boolean unknownUser) {
+            this.unknownUser = unknownUser;
+        }
+    }
+
+    private final long ttlMillis;
+    private final int maxPasswords;
+    private final Map<String, Failures> failures;
+    private final AtomicLong rejected = new AtomicLong();
+
+    LoginFailureCache(long ttlMillis, int maxPasswords, final int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxPasswords = maxPasswords;
+        this.failures = new LinkedHashMap<String, Failures>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Failures> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Obtiene la caché compartida de fallos de inicio de sesión.
+     *
+     * @return Instancia única de LoginFailureCache
+     */
+    public static LoginFailureCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Indica si el intento se puede rechazar sin consultar la base de datos.
+     *
+     * @param username Usuario introducido
+     * @param password Contraseña introducida
+     * @return true si el usuario no existe o si esa contraseña ya falló
+     */
+    public synchronized boolean isRejected(String username, String password) {
+        Failures entry = current(username);
+        if (entry == null) {
+            return false;
+        }
+        boolean reject = entry.unknownUser || entry.passwords.contains(digest(password));
+        if (reject) {
+            rejected.incrementAndGet();
+        }
+        return reject;
+    }
+
+    /**
+     * Registra un intento fallido.
+     *
+     * @param username Usuario introducido
+     * @param password Contraseña introducida
+     * @param userExists false si el usuario no existe en la base de datos
+     */
+    public synchronized void recordFailure(String username, String password, boolean userExists) {
+        Failures entry = current(username);
+        if (entry == null || entry.unknownUser != !userExists) {
+            entry = new Failures(!userExists);
+            failures.put(username, entry);
+        }
+        entry.expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (userExists) {
+            String failed = digest(password);
+            entry.passwords.remove(failed);
+            entry.passwords.add(failed);
+            if (entry.passwords.size() > maxPasswords) {
+                // Se olvida la más antigua
+                entry.passwords.remove(entry.passwords.iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Olvida los fallos de un usuario. Se llama al iniciar sesión con éxito y
+     * cuando el usuario se crea o cambia de contraseña.
+     *
+     * @param username Usuario
+     */
+    public synchronized void forget(String username) {
+        failures.remove(username);
+    }
+
+    /**
+     * Número de intentos rechazados sin consultar la base de datos.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private Failures current(String username) {
+        Failures entry = failures.get(username);
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            failures.remove(username);
+            return null;
+        }
+        return entry;
+    }
+
+    private static String digest(String password) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
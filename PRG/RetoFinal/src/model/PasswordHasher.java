@@ -0,0 +1,321 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Salted, deliberately slow password hashing with PBKDF2-HMAC-SHA256.
+ * Stored values have the form {@code pbkdf2$iterations$salt$hash}, so the
+ * cost can be raised later and old hashes recognised by
+ * {@link #needsRehash(String)}. Values without that prefix are legacy
+ * plain-text passwords; they are still accepted so that they can be upgraded
+ * on the next login or by {@code threads.PasswordMigration}.
+ *
+ * Hashing and verifying run on a small pool of daemon threads with a bounded
+ * queue: a burst of logins uses at most {@link #THREADS} cores, and once the
+ * queue is full new attempts fail at once instead of piling up. A password
+ * that has just been verified is remembered for a few minutes as an HMAC
+ * under a key that never leaves the process, so repeated checks of the same
+ * credentials skip the slow hash.
+ *
+ * @version 1.0
+ */
+public class PasswordHasher {
+
+    /** Vueltas de PBKDF2 de los hashes nuevos. */
+    public static final int ITERATIONS = 120000;
+
+    /** Hilos que calculan hashes a la vez. */
+    public static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /** Peticiones que pueden esperar turno antes de rechazar las siguientes. */
+    public static final int QUEUE_SIZE = 64;
+
+    /** Tiempo que se recuerda una contraseña ya comprobada. */
+    public static final long VERIFIED_TTL_MILLIS = 5 * 60 * 1000;
+
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MAX_VERIFIED = 1000;
+
+    private static final PasswordHasher instance = new PasswordHasher(ITERATIONS, THREADS, QUEUE_SIZE, VERIFIED_TTL_MILLIS);
+
+    /** Contraseña comprobada hace poco: su HMAC y el momento en que caduca. */
+    private static final class Verified {
+
+        private final byte[] mac;
+        private final long expiresAt;
+
+        private Verified(byte[] mac, long expiresAt) {
+            this.mac = mac;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int iterations;
+    private final long verifiedTtlMillis;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec macKey;
+    private final ThreadLocal<Mac> macs;
+
+    /** Hashes recién comprobados, indexados por el valor guardado en la base de datos. */
+    private final Map<String, Verified> verified;
+
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    PasswordHasher(int iterations, int threads, int queueSize, long verifiedTtlMillis) {
+        this.iterations = iterations;
+        this.verifiedTtlMillis = verifiedTtlMillis;
+
+        final AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        this.macKey = new SecretKeySpec(key, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(macKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        this.verified = new LinkedHashMap<String, Verified>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+                return size() > MAX_VERIFIED;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el hasher compartido por todas las implementaciones del DAO.
+     *
+     * @return Instancia única de PasswordHasher
+     */
+    public static PasswordHasher getInstance() {
+        return instance;
+    }
+
+    /**
+     * Hashes a password on the hasher threads.
+     *
+     * @param password Plain-text password
+     * @return Value to store in PROFILE_.password
+     * @throws RejectedExecutionException if too many hashes are already waiting
+     */
+    public String hash(final String password) {
+        return await(() -> encode(password));
+    }
+
+    /**
+     * Hashes a password on the calling thread. Meant for tools that manage
+     * their own threads, such as the bulk migration.
+     *
+     * @param password Plain-text password
+     * @return Value to store in PROFILE_.password
+     */
+    public String encode(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against the stored value, which may be a hash or a
+     * legacy plain-text password. Hashes are checked on the hasher threads.
+     *
+     * @param password Password entered by the user
+     * @param stored Value of PROFILE_.password
+     * @return true if they match
+     * @throws RejectedExecutionException if too many checks are already waiting
+     */
+    public boolean verify(final String password, final String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX + "$")) {
+            return constantTimeEquals(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final byte[] mac = macs.get().doFinal(password.getBytes(StandardCharsets.UTF_8));
+        if (isVerified(stored, mac)) {
+            cacheHits.incrementAndGet();
+            return true;
+        }
+
+        boolean matches = await(() -> matchesHash(password, stored));
+        if (matches) {
+            synchronized (verified) {
+                verified.put(stored, new Verified(mac, System.currentTimeMillis() + verifiedTtlMillis));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Indicates whether a stored value should be replaced by a new hash:
+     * it is a legacy plain-text password or was hashed with fewer iterations.
+     *
+     * @param stored Value of PROFILE_.password
+     * @return true if it should be hashed again
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Indicates whether a stored value is a legacy plain-text password.
+     *
+     * @param stored Value of PROFILE_.password
+     * @return true if it is not a hash
+     */
+    public static boolean isLegacy(String stored) {
+        return stored != null && !stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Number of PBKDF2 hashes computed (hashing and verifying).
+     */
+    public long getHashes() {
+        return hashes.get();
+    }
+
+    /**
+     * Average time of a PBKDF2 hash in milliseconds.
+     */
+    public double getAverageHashMillis() {
+        long n = hashes.get();
+        return n == 0 ? 0 : hashNanos.get() / 1e6 / n;
+    }
+
+    /**
+     * Number of checks answered from the recently verified passwords.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Number of requests refused because the queue was full.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PasswordHasher{hashes=%d, avg=%.1f ms, cacheHits=%d, rejected=%d, queued=%d}",
+                getHashes(), getAverageHashMillis(), getCacheHits(), getRejected(), executor.getQueue().size());
+    }
+
+    private boolean isVerified(String stored, byte[] mac) {
+        synchronized (verified) {
+            Verified entry = verified.get(stored);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                verified.remove(stored);
+                return false;
+            }
+            return constantTimeEquals(mac, entry.mac);
+        }
+    }
+
+    private boolean matchesHash(String password, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder base64 = Base64.getDecoder();
+            byte[] expected = base64.decode(parts[3]);
+            byte[] actual = pbkdf2(password, base64.decode(parts[2]), Integer.parseInt(parts[1]));
+            return constantTimeEquals(actual, expected);
+        } catch (IllegalArgumentException e) {
+            // Valor mal formado: número de vueltas o Base64 no válidos
+            return false;
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int rounds) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+            hashes.incrementAndGet();
+            hashNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T await(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Compara en tiempo constante, para no revelar por el tiempo de respuesta
+     * cuántos bytes coinciden.
+     */
+    private static boolean constantTimeEquals(byte[] a, byte[] b) {
+        return MessageDigest.isEqual(a, b);
+    }
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.io.Serializable;
 import javax.persistence.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Abstract class representing a general profile in the system. 
@@ -9,8 +10,13 @@ import javax.persistence.*;
  * All profile types (User, Admin) extend this class.
  */
 @Entity
+@Cacheable  // User y Admin comparten la región de caché de Profile
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.JOINED)  // Herencia con JOINED
-@Table(name = "PROFILE_")
+@Table(name = "PROFILE_", uniqueConstraints = {
+    @UniqueConstraint(name = DBImplementation.UK_USERNAME, columnNames = "username"),
+    @UniqueConstraint(name = DBImplementation.UK_EMAIL, columnNames = "email")
+})
 public abstract class Profile implements Serializable {
    
     @Id
@@ -18,13 +24,13 @@ public abstract class Profile implements Serializable {
     @Column(name = "user_code")
     private int userCode;  // PK autoincremental
    
-    @Column(name = "username", nullable = false, unique = true, length = 50)
+    @Column(name = "username", nullable = false, length = 50)
     private String username;  // Único, no PK
    
-    @Column(name = "password", nullable = false, length = 50)
+    @Column(name = "password", nullable = false, length = 255)
     private String password;
    
-    @Column(name = "email", nullable = false, unique = true, length = 50)
+    @Column(name = "email", nullable = false, length = 50)
     private String email;
     
     @Column(name = "name", length = 50)
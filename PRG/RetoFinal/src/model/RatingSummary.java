@@ -0,0 +1,135 @@
+package model;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Aggregate of the reviews of a video game: how many there are, their
+ * average and how many of each star. Maps to the "RATING_SUMMARY_" table,
+ * which {@link DBImplementation#createReview} updates in the same transaction
+ * as every new review, so the rating of a game is read from one row by its
+ * key instead of loading its reviews. The application never writes it
+ * through Hibernate.
+ *
+ * @version 1.0
+ */
+@Entity
+@Immutable
+@Table(name = "RATING_SUMMARY_")
+public class RatingSummary implements Serializable {
+
+    /** Estrellas del histograma: de 0 a 5. */
+    public static final int STARS = 6;
+
+    @Id
+    @Column(name = "id_videogame")
+    private int idVideogame;
+
+    @Column(name = "review_count")
+    private int reviewCount;
+
+    @Column(name = "rating_sum")
+    private double ratingSum;
+
+    @Column(name = "stars_0")
+    private int stars0;
+
+    @Column(name = "stars_1")
+    private int stars1;
+
+    @Column(name = "stars_2")
+    private int stars2;
+
+    @Column(name = "stars_3")
+    private int stars3;
+
+    @Column(name = "stars_4")
+    private int stars4;
+
+    @Column(name = "stars_5")
+    private int stars5;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public RatingSummary() {
+    }
+
+    /**
+     * Creates the summary of a game from its totals.
+     *
+     * @param idVideogame Code of the game
+     * @param ratingSum Sum of the ratings
+     * @param histogram Reviews of each star, from 0 to 5
+     */
+    public RatingSummary(int idVideogame, double ratingSum, int... histogram) {
+        this.idVideogame = idVideogame;
+        this.ratingSum = ratingSum;
+        int[] stars = new int[STARS];
+        System.arraycopy(histogram, 0, stars, 0, Math.min(histogram.length, STARS));
+        stars0 = stars[0];
+        stars1 = stars[1];
+        stars2 = stars[2];
+        stars3 = stars[3];
+        stars4 = stars[4];
+        stars5 = stars[5];
+        for (int count : stars) {
+            reviewCount += count;
+        }
+    }
+
+    /**
+     * Star of the histogram that a rating counts in: its whole part, so 4.5
+     * is a 4.
+     *
+     * @param rating Rating from 0 to 5
+     * @return Star from 0 to 5
+     */
+    public static int star(double rating) {
+        return Math.max(0, Math.min(STARS - 1, (int) Math.floor(rating)));
+    }
+
+    /**
+     * Gets the code of the game.
+     */
+    public int getIdVideogame() {
+        return idVideogame;
+    }
+
+    /**
+     * Gets the number of reviews.
+     */
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * Gets the sum of all the ratings.
+     */
+    public double getRatingSum() {
+        return ratingSum;
+    }
+
+    /**
+     * Gets the average rating, or 0 if the game has no reviews.
+     */
+    public double getAverage() {
+        return reviewCount == 0 ? 0 : ratingSum / reviewCount;
+    }
+
+    /**
+     * Gets the number of reviews of each star.
+     *
+     * @return Array of {@link #STARS} counts, from 0 to 5 stars
+     */
+    public int[] getHistogram() {
+        return new int[]{stars0, stars1, stars2, stars3, stars4, stars5};
+    }
+
+    @Override
+    public String toString() {
+        return "RatingSummary{idVideogame=" + idVideogame + ", reviews=" + reviewCount
+                + ", average=" + String.format("%.2f", getAverage()) + "}";
+    }
+}
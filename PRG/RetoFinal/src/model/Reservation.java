@@ -0,0 +1,81 @@
+package model;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.*;
+
+/**
+ * Represents units of a video game held for a user while the game is in the
+ * cart. The units are taken from the stock when the hold is created and are
+ * returned if the hold expires before checkout.
+ * Maps to the "RESERVATION_" table in the database.
+ *
+ * @version 1.0
+ */
+@Entity
+@Table(name = "RESERVATION_",
+        uniqueConstraints = @UniqueConstraint(name = "uk_reservation_user_game", columnNames = {"id_user", "id_videogame"}),
+        indexes = @Index(name = "idx_reservation_expires", columnList = "expires_at"))
+public class Reservation implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reservation_code")
+    private int reservationCode;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_user", nullable = false, referencedColumnName = "user_code")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_videogame", nullable = false)
+    private Videogame videogame;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public Reservation() {
+    }
+
+    /**
+     * Gets the reservation code (primary key).
+     */
+    public int getReservationCode() {
+        return reservationCode;
+    }
+
+    /**
+     * Gets the user who holds the units.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the held video game.
+     */
+    public Videogame getVideogame() {
+        return videogame;
+    }
+
+    /**
+     * Gets the number of held units.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the moment the hold expires.
+     */
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.hibernate.exception.LockTimeoutException;
+
+/**
+ * Reintenta una operación de base de datos cuando falla por contención
+ * (interbloqueo, espera de bloqueo agotada o conflicto de versión), esperando
+ * entre intentos un tiempo aleatorio que crece exponencialmente. Así, cuando
+ * muchos clientes compran el mismo juego a la vez, no vuelven a chocar todos
+ * en el mismo instante.
+ *
+ * @version 1.0
+ */
+public final class RetryPolicy {
+
+    /** Número máximo de intentos, incluido el primero. */
+    public static final int MAX_ATTEMPTS = 5;
+
+    private static final long BASE_DELAY_MILLIS = 10;
+    private static final long MAX_DELAY_MILLIS = 200;
+
+    /** Deadlock found when trying to get lock (MySQL). */
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    /** Lock wait timeout exceeded (MySQL). */
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private RetryPolicy() {
+    }
+
+    /**
+     * Ejecuta la operación reintentándola mientras falle por contención.
+     *
+     * @param <T> Tipo del resultado
+     * @param operation Operación completa (debe abrir y cerrar su propia transacción)
+     * @return Resultado de la operación
+     * @throws Exception El error del último intento, o el primero que no sea de contención
+     */
+    public static <T> T onContention(Callable<T> operation) throws Exception {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return operation.call();
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS || !isContention(e)) {
+                    throw e;
+                }
+                long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << (attempt - 1));
+                long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                System.out.println("Contention detected (attempt " + attempt + "), retrying in " + delay + " ms");
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Indica si el error se debe a contención y merece la pena reintentar.
+     *
+     * @param error Error lanzado por la operación
+     * @return true si es un error transitorio de bloqueo o de versión
+     */
+    static boolean isContention(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LockAcquisitionException
+                    || cause instanceof LockTimeoutException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof SQLTransientException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException sql = (SQLException) cause;
+                if (sql.getErrorCode() == ER_LOCK_DEADLOCK || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                        || "40001".equals(sql.getSQLState())) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
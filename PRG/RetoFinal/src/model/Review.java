@@ -11,7 +11,8 @@ import javax.persistence.*;
  * @version 1.0
  */
 @Entity
-@Table(name = "REVIEW_")
+@Table(name = "REVIEW_", uniqueConstraints = @UniqueConstraint(name = DBImplementation.UK_REVIEW,
+        columnNames = {"id_user", "id_videogame"}))
 public class Review implements Serializable {
 
     @Id
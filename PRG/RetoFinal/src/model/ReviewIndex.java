@@ -0,0 +1,127 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Juegos reseñados por cada usuario que ha iniciado sesión.
+ * Guarda un {@link ReviewedGames} por usuario, de modo que comprobar si un
+ * usuario ya ha reseñado un juego se resuelve en memoria en lugar de con un
+ * COUNT sobre REVIEW_. Se recuerdan como mucho {@link #MAX_USERS} usuarios, los
+ * usados más recientemente.
+ *
+ * Una reseña guardada mientras se leen los juegos de su usuario puede no
+ * salir en lo leído: por eso las reseñas de usuarios sin cargar también se
+ * anotan, y {@link #put} las añade a lo leído.
+ *
+ * @version 1.0
+ */
+public class ReviewIndex {
+
+    /** Usuarios recordados como máximo. */
+    public static final int MAX_USERS = 1000;
+
+    /** Instancia única compartida por todas las implementaciones del DAO. */
+    private static final ReviewIndex instance = new ReviewIndex(MAX_USERS);
+
+    private final Map<Integer, ReviewedGames> users;
+    // Reseñas nuevas de usuarios sin cargar: solo esas, no todas las del usuario
+    private final Map<Integer, ReviewedGames> unloaded;
+
+    ReviewIndex(int maxUsers) {
+        this.users = lru(maxUsers);
+        this.unloaded = lru(maxUsers);
+    }
+
+    private static Map<Integer, ReviewedGames> lru(final int maxUsers) {
+        return new LinkedHashMap<Integer, ReviewedGames>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ReviewedGames> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el índice compartido de reseñas.
+     *
+     * @return Instancia única de ReviewIndex
+     */
+    public static ReviewIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Juegos reseñados por un usuario, si ya están cargados.
+     *
+     * @param userCode Código del usuario
+     * @return Sus juegos, o null si hay que leerlos de la base de datos
+     */
+    public synchronized ReviewedGames get(int userCode) {
+        return users.get(userCode);
+    }
+
+    /**
+     * Guarda los juegos recién leídos de un usuario, junto con las reseñas
+     * anotadas mientras se leían. Si otro hilo los guardó antes, se queda con
+     * aquellos, que ya pueden tener reseñas nuevas, y les añade lo leído.
+     *
+     * @param games Juegos leídos de la base de datos
+     * @return Los juegos que quedan en el índice
+     */
+    public synchronized ReviewedGames put(ReviewedGames games) {
+        ReviewedGames current = users.get(games.getUserCode());
+        if (current != null) {
+            current.addAll(games);
+            return current;
+        }
+        ReviewedGames added = unloaded.remove(games.getUserCode());
+        if (added != null) {
+            games.addAll(added);
+        }
+        users.put(games.getUserCode(), games);
+        return games;
+    }
+
+    /**
+     * Anota una reseña nueva. Si el usuario no está cargado se guarda aparte
+     * hasta que se carguen sus juegos.
+     *
+     * @param userCode Código del usuario
+     * @param videogameId Código del juego
+     */
+    public synchronized void added(int userCode, int videogameId) {
+        ReviewedGames games = users.get(userCode);
+        if (games == null) {
+            games = unloaded.computeIfAbsent(userCode, code -> new ReviewedGames(code, Collections.<Integer>emptyList()));
+        }
+        games.add(videogameId);
+    }
+
+    /**
+     * Quita un juego borrado de todos los usuarios cargados.
+     *
+     * @param videogameId Código del juego
+     */
+    public void removed(int videogameId) {
+        List<ReviewedGames> loaded;
+        synchronized (this) {
+            loaded = new ArrayList<>(users.values());
+            loaded.addAll(unloaded.values());
+        }
+        for (ReviewedGames games : loaded) {
+            games.remove(videogameId);
+        }
+    }
+
+    /**
+     * Olvida todos los usuarios.
+     */
+    public synchronized void clear() {
+        users.clear();
+        unloaded.clear();
+    }
+}
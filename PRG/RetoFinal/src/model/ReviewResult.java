@@ -0,0 +1,28 @@
+package model;
+
+/**
+ * Result of saving a review (see ClassDAO#createReview). A user can review a
+ * game only once: the pair is unique in REVIEW_, and when the insert breaks
+ * that constraint the result says so.
+ *
+ * @version 1.0
+ */
+public enum ReviewResult {
+
+    /** Reseña guardada. */
+    CREATED,
+
+    /** El usuario ya había reseñado el juego. */
+    ALREADY_REVIEWED,
+
+    /** No se pudo guardar por otro motivo (por ejemplo, sin conexión). */
+    ERROR;
+
+    /**
+     * Returns true if the review was saved.
+     * @return
+     */
+    public boolean isCreated() {
+        return this == CREATED;
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import java.util.BitSet;
+
+/**
+ * Set of the video games a user has reviewed, as a bitmap indexed by the
+ * code of the game: one bit per game of the catalog, so asking whether the
+ * user reviewed a game takes constant time and no database access. It is
+ * loaded once per user by {@link DBImplementation#getReviewedGames(int)} and
+ * kept up to date by {@link DBImplementation#createReview(Review)}; the
+ * windows hold the same instance, so they see the new reviews.
+ *
+ * @version 1.0
+ */
+public final class ReviewedGames {
+
+    private final int userCode;
+    private final BitSet games = new BitSet();
+
+    /**
+     * Creates the set of a user from the codes of the games they reviewed.
+     *
+     * @param userCode Code of the user
+     * @param videogameIds Codes of the reviewed games
+     */
+    public ReviewedGames(int userCode, Iterable<Integer> videogameIds) {
+        this.userCode = userCode;
+        for (Integer id : videogameIds) {
+            if (id != null && id >= 0) {
+                games.set(id);
+            }
+        }
+    }
+
+    /**
+     * Gets the code of the user.
+     */
+    public int getUserCode() {
+        return userCode;
+    }
+
+    /**
+     * Checks whether the user reviewed a game.
+     *
+     * @param videogameId Code of the game
+     * @return true if the user has a review of the game
+     */
+    public synchronized boolean contains(int videogameId) {
+        return videogameId >= 0 && games.get(videogameId);
+    }
+
+    /**
+     * Gets the number of games the user reviewed.
+     */
+    public synchronized int size() {
+        return games.cardinality();
+    }
+
+    synchronized void add(int videogameId) {
+        if (videogameId >= 0) {
+            games.set(videogameId);
+        }
+    }
+
+    void addAll(ReviewedGames other) {
+        BitSet added;
+        synchronized (other) {
+            added = (BitSet) other.games.clone();
+        }
+        synchronized (this) {
+            games.or(added);
+        }
+    }
+
+    synchronized void remove(int videogameId) {
+        if (videogameId >= 0) {
+            games.clear(videogameId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewedGames{userCode=" + userCode + ", games=" + size() + "}";
+    }
+}
@@ -0,0 +1,387 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts of the classpath folder migrations/ to
+ * the database, in order and only once, and records each of them in the
+ * SCHEMA_HISTORY_ table. Replaces hibernate.hbm2ddl.auto=update: when the
+ * schema is up to date, startup only reads the history table.
+ *
+ * The scripts are listed, one per line, in migrations/index.txt and are
+ * named V&lt;version&gt;__&lt;description&gt;.sql. A script must never be
+ * changed once applied: its checksum is stored and checked on every start.
+ * Add a new script with the next version instead.
+ *
+ * A database created by hbm2ddl before this class existed has tables but no
+ * history. Its schema is the one of the first version of the application,
+ * which is exactly V1, so the database is marked as being at the first
+ * version and only the later scripts are applied. Anything added to the
+ * mapping after that version goes in a later script, never in V1.
+ *
+ * Several clients share the MySQL database and may start the new version at
+ * the same time. When something is pending, the migrator takes the MySQL
+ * named lock {@code GET_LOCK('schema_migrate.<database>')} and reads the
+ * history again before applying anything, so only one client migrates and
+ * the others wait for it and find the schema up to date. Other databases
+ * (H2 in the tests) are not locked.
+ *
+ * Each script is committed together with its history row, but MySQL commits
+ * every DDL statement on its own. If a statement fails, the statements of the
+ * script before it stay applied and the script is not recorded, so the next
+ * start would fail on them again. The error names the failed statement; to
+ * recover, undo the earlier statements of that script by hand (or finish the
+ * script by hand and insert its history row) and start again.
+ *
+ * @version 1.0
+ */
+public class SchemaMigrator {
+
+    /** Propiedad de hibernate.cfg.xml que activa las migraciones al arrancar. */
+    public static final String MIGRATE_PROPERTY = "store.schema.migrate";
+
+    /** Carpeta del classpath con los scripts. */
+    public static final String LOCATION = "migrations";
+
+    /** Tabla con los scripts ya aplicados. */
+    public static final String HISTORY_TABLE = "SCHEMA_HISTORY_";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /** Segundos que se espera a que otro cliente termine de migrar. */
+    private static final int LOCK_TIMEOUT_SECONDS = 600;
+
+    /**
+     * Script de migración leído del classpath.
+     */
+    static final class Migration {
+
+        final int version;
+        final String description;
+        final String sql;
+        final long checksum;
+
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+            CRC32 crc = new CRC32();
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+
+    private final String location;
+
+    /**
+     * Creates a migrator for the scripts of {@link #LOCATION}.
+     */
+    public SchemaMigrator() {
+        this(LOCATION);
+    }
+
+    SchemaMigrator(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Brings the schema up to the latest script.
+     *
+     * @param connection Connection to the database, without autocommit; it is
+     * committed after every script
+     * @return Number of scripts applied (0 if the schema was up to date)
+     * @throws IllegalStateException if a script fails or an applied script
+     * was changed
+     */
+    public int migrate(Connection connection) {
+        List<Migration> migrations = load();
+        try {
+            int count = 0;
+            // Sin cerrojo: lo normal es que el esquema ya esté al día
+            Map<Integer, Long> applied = readHistory(connection);
+            if (applied == null || pending(migrations, applied)) {
+                boolean locked = lock(connection);
+                try {
+                    // Otro cliente puede haber migrado mientras esperábamos el cerrojo
+                    applied = readHistory(connection);
+                    if (applied == null) {
+                        applied = createHistory(connection, migrations);
+                    }
+                    validate(migrations, applied);
+                    for (Migration migration : migrations) {
+                        if (!applied.containsKey(migration.version)) {
+                            apply(connection, migration);
+                            count++;
+                        }
+                    }
+                } finally {
+                    if (locked) {
+                        unlock(connection);
+                    }
+                }
+            } else {
+                validate(migrations, applied);
+            }
+            int version = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+            if (count == 0) {
+                System.out.println("Esquema en la versión " + version + ", sin cambios");
+            } else {
+                System.out.println("Esquema actualizado a la versión " + version + " (" + count + " scripts)");
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not migrate the schema: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lee el índice y los scripts. Las versiones deben ir en orden creciente.
+     */
+    List<Migration> load() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : read(location + "/index.txt").split("\n")) {
+            String name = line.trim();
+            if (name.isEmpty() || name.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = SCRIPT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration name: " + name);
+            }
+            Migration migration = new Migration(Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '), read(location + "/" + name));
+            if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= migration.version) {
+                throw new IllegalStateException("Migration " + name + " is out of order");
+            }
+            migrations.add(migration);
+        }
+        return migrations;
+    }
+
+    /**
+     * Divide un script en sentencias separadas por ';', sin los comentarios
+     * de línea (--).
+     *
+     * @param sql Script completo
+     * @return Sentencias sin el ';' final
+     */
+    static List<String> parse(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (line.trim().startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+        }
+        for (String statement : current.toString().split(";")) {
+            if (!statement.trim().isEmpty()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * La única consulta cuando el esquema está al día.
+     *
+     * @return Versión y checksum de los scripts aplicados, o null si la tabla
+     * de historial no existe
+     */
+    private Map<Integer, Long> readHistory(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new LinkedHashMap<>();
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE + " ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            if (tableExists(connection, HISTORY_TABLE)) {
+                throw e;
+            }
+            return null;
+        }
+        connection.commit();
+        return applied;
+    }
+
+    private Map<Integer, Long> createHistory(Connection connection, List<Migration> migrations) throws SQLException {
+        boolean legacy = tableExists(connection, "PROFILE_");
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                    + "version INT NOT NULL PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "checksum BIGINT NOT NULL, "
+                    + "installed_on TIMESTAMP NOT NULL, "
+                    + "execution_millis INT NOT NULL)");
+        }
+        connection.commit();
+
+        Map<Integer, Long> applied = new LinkedHashMap<>();
+        if (legacy && !migrations.isEmpty()) {
+            // Base de datos creada por hbm2ddl: ya tiene el esquema de V1
+            Migration first = migrations.get(0);
+            record(connection, first, first.description + " (existing schema)", 0);
+            connection.commit();
+            applied.put(first.version, first.checksum);
+            System.out.println("Esquema existente marcado como versión " + first.version);
+        }
+        return applied;
+    }
+
+    private static boolean pending(List<Migration> migrations, Map<Integer, Long> applied) {
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Toma el cerrojo de las migraciones de esta base de datos, esperando a
+     * que lo suelte otro cliente. Es un cerrojo de la conexión, no de la
+     * transacción: los commits de los scripts no lo sueltan.
+     *
+     * @return false si la base de datos no es MySQL y no se ha tomado
+     */
+    private static boolean lock(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (!product.contains("MySQL") && !product.contains("MariaDB")) {
+            return false;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setQueryTimeout(0);
+            ps.setString(1, lockName(connection));
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another client to migrate the schema");
+                }
+            }
+        }
+        connection.commit();
+        return true;
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, lockName(connection));
+            ps.executeQuery().close();
+        }
+        connection.commit();
+    }
+
+    /** Los cerrojos con nombre son de todo el servidor: se distinguen por base de datos. */
+    private static String lockName(Connection connection) throws SQLException {
+        String name = "schema_migrate." + connection.getCatalog();
+        // MySQL no admite nombres de más de 64 caracteres
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    private static void validate(List<Migration> migrations, Map<Integer, Long> applied) {
+        Map<Integer, Migration> byVersion = new LinkedHashMap<>();
+        for (Migration migration : migrations) {
+            byVersion.put(migration.version, migration);
+        }
+        for (Map.Entry<Integer, Long> entry : applied.entrySet()) {
+            Migration migration = byVersion.get(entry.getKey());
+            if (migration == null) {
+                System.out.println("La base de datos tiene la migración " + entry.getKey()
+                        + ", que esta versión de la aplicación no conoce");
+            } else if (migration.checksum != entry.getValue()) {
+                throw new IllegalStateException("Migration V" + migration.version + " (" + migration.description
+                        + ") was changed after being applied");
+            }
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        List<String> statements = parse(migration.sql);
+        int done = 0;
+        try (Statement st = connection.createStatement()) {
+            // Un script puede tardar mucho más que el límite de las consultas del pool
+            st.setQueryTimeout(0);
+            for (String statement : statements) {
+                st.execute(statement);
+                done++;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            record(connection, migration, migration.description, elapsed);
+            connection.commit();
+            System.out.println("Migración V" + migration.version + " (" + migration.description
+                    + ") aplicada en " + elapsed + " ms");
+        } catch (SQLException e) {
+            connection.rollback();
+            if (done == statements.size()) {
+                throw new SQLException("V" + migration.version + " failed: " + e.getMessage(), e);
+            }
+            // En MySQL las sentencias DDL anteriores ya se confirmaron solas (ver la clase)
+            throw new SQLException("V" + migration.version + " failed at statement " + (done + 1) + " of "
+                    + statements.size() + " (" + statements.get(done) + "): " + e.getMessage()
+                    + (done > 0 ? "; the statements before it may already be applied" : ""), e);
+        }
+    }
+
+    private static void record(Connection connection, Migration migration, String description, long millis)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                + " (version, description, checksum, installed_on, execution_millis) VALUES (?, ?, ?, ?, ?)")) {
+            ps.setInt(1, migration.version);
+            ps.setString(2, description);
+            ps.setLong(3, migration.checksum);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(5, (int) millis);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table, table.toLowerCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String read(String resource) {
+        InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Migration resource not found: " + resource);
+        }
+        StringBuilder text = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                text.append(line).append('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + resource, e);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package model;
+
+/**
+ * Result of registering a user or an admin (see ClassDAO#signUp and
+ * ClassDAO#createAdmin). The username and email are unique in PROFILE_; when
+ * the insert breaks one of those constraints the result says which one.
+ *
+ * @version 1.0
+ */
+public enum SignUpResult {
+
+    /** Perfil creado. */
+    CREATED,
+
+    /** Ya hay un perfil con ese nombre de usuario. */
+    USERNAME_TAKEN,
+
+    /** Ya hay un perfil con ese email. */
+    EMAIL_TAKEN,
+
+    /** No se pudo guardar por otro motivo (por ejemplo, sin conexión). */
+    ERROR;
+
+    /**
+     * Returns true if the profile was created.
+     * @return
+     */
+    public boolean isCreated() {
+        return this == CREATED;
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+/**
+ * Identity of the profile logged in to the application. It keeps only the
+ * code and the name of the profile, which are enough to write the rows that
+ * belong to it: the windows pass the code (or a detached user that only
+ * carries it, see {@link #reference()}) and the DAO writes it as the foreign
+ * key of the order or the review, so the user is never read again from the
+ * database after the login.
+ *
+ * The application has one logged-in profile at a time; the session starts
+ * when {@code Controller.logIn} succeeds and ends when the user logs out.
+ *
+ * @version 1.0
+ */
+public final class UserSession {
+
+    private static volatile UserSession current;
+
+    private final int userCode;
+    private final String username;
+    private final boolean admin;
+
+    private UserSession(Profile profile) {
+        this.userCode = profile.getUserCode();
+        this.username = profile.getUsername();
+        this.admin = profile instanceof Admin;
+    }
+
+    /**
+     * Starts the session of a profile that has just logged in, replacing any
+     * previous one.
+     *
+     * @param profile Authenticated profile
+     * @return The new session
+     */
+    public static UserSession start(Profile profile) {
+        UserSession session = new UserSession(profile);
+        current = session;
+        return session;
+    }
+
+    /**
+     * Gets the session of the logged-in profile.
+     *
+     * @return The session, or null if nobody is logged in
+     */
+    public static UserSession current() {
+        return current;
+    }
+
+    /**
+     * Gets the session of a profile: the current one if it belongs to the
+     * profile, or a new one that is not registered as current (for windows
+     * opened without a login, as in the tests).
+     *
+     * @param profile Profile shown by the window
+     * @return Session of the profile
+     */
+    public static UserSession of(Profile profile) {
+        UserSession session = current;
+        return session != null && session.userCode == profile.getUserCode() ? session : new UserSession(profile);
+    }
+
+    /**
+     * Ends the current session (logout).
+     */
+    public static void end() {
+        current = null;
+    }
+
+    /**
+     * Gets the code of the logged-in profile.
+     */
+    public int getUserCode() {
+        return userCode;
+    }
+
+    /**
+     * Gets the username of the logged-in profile.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Checks whether the logged-in profile is an administrator.
+     */
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    /**
+     * Gets a detached user with only the code and the username, for the
+     * objects that are built outside a Hibernate session (such as the orders
+     * of a purchase). The checkout writes its code as the foreign key of
+     * the orders without reading the user.
+     *
+     * @return New detached user
+     */
+    public User reference() {
+        User user = new User();
+        user.setUserCode(userCode);
+        user.setUsername(username);
+        return user;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSession{userCode=" + userCode + ", username=" + username + (admin ? ", admin" : "") + "}";
+    }
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.io.Serializable;
 import javax.persistence.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -15,7 +16,10 @@ import java.util.List;
  * @version 1.0
  */
 @Entity
-@Table(name = "VIDEOGAME_")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "VIDEOGAME_",
+        indexes = @Index(name = "idx_videogame_name_code", columnList = "name, videogame_code"))
 public class Videogame implements Serializable {
 
     @Id
@@ -30,7 +34,7 @@ public class Videogame implements Serializable {
     @Column(name = "genre")
     private GameGenre gameGenre;
 
-    @Column(name = "name")
+    @Column(name = "name", nullable = false)
     private String name;
 
     @Enumerated(EnumType.STRING)
@@ -47,6 +51,11 @@ public class Videogame implements Serializable {
     @Column(name = "stock")
     private int stock;
 
+    /** Versión para el bloqueo optimista: cada escritura de la fila la incrementa. */
+    @Version
+    @Column(name = "version", columnDefinition = "INT DEFAULT 0 NOT NULL")
+    private int version;
+
     @Temporal(TemporalType.DATE)
     @Column(name = "release_date")
     private Date releaseDate;
@@ -57,6 +66,9 @@ public class Videogame implements Serializable {
     @OneToMany(mappedBy = "videogame", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews = new ArrayList<>();
 
+    @OneToMany(mappedBy = "videogame", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    private List<Reservation> reservations = new ArrayList<>();
+
     /**
      * Default constructor required by JPA.
      */
@@ -190,6 +202,20 @@ public class Videogame implements Serializable {
         this.stock = stock;
     }
 
+    /**
+     * Gets the optimistic locking version of the row.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic locking version of the row.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Gets the release date.
      */
@@ -0,0 +1,335 @@
+package threads;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * java.util.logging handler that writes to a log file without blocking the
+ * thread that logs. Records of every handler go into one fixed-size ring
+ * buffer and a single background thread writes them in batches, flushing each
+ * file once per batch. When the buffer is full new records are dropped and
+ * counted instead of making the JavaFX thread wait; the number of dropped
+ * records is written to the log afterwards. A file that grows beyond its
+ * limit is rotated to name.log.1, name.log.2, ...
+ *
+ * Controllers get their logger with {@link #getLogger(Class, String)} and
+ * should pass messages as suppliers, so that disabled levels cost nothing:
+ * {@code logger.fine(() -> "Total: " + total)}.
+ *
+ * @version 1.0
+ */
+public class AsyncLogHandler extends Handler {
+
+    /** Propiedad del sistema con el nivel mínimo de los logs (INFO por defecto). */
+    public static final String LEVEL_PROPERTY = "store.log.level";
+
+    /** Carpeta de los ficheros de log. */
+    public static final String LOG_DIR = "logs";
+
+    /** Tamaño a partir del cual se rota un fichero. */
+    public static final long LIMIT_BYTES = 1024 * 1024;
+
+    /** Ficheros antiguos que se conservan al rotar. */
+    public static final int FILE_COUNT = 5;
+
+    /** Registros que caben en el buffer; debe ser potencia de dos. */
+    static final int CAPACITY = 8192;
+
+    /** Registros escritos como máximo antes de volcar los ficheros. */
+    private static final int BATCH_SIZE = 512;
+
+    /** Manejadores ya creados, uno por fichero. */
+    private static final Map<String, AsyncLogHandler> handlers = new HashMap<>();
+
+    private static final LogWriter writer = new LogWriter();
+
+    private final File file;
+    private final long limitBytes;
+    private final int fileCount;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private OutputStream out;
+    private long written;
+
+    AsyncLogHandler(File file, long limitBytes, int fileCount) {
+        this.file = file;
+        this.limitBytes = limitBytes;
+        this.fileCount = fileCount;
+        setLevel(Level.ALL);
+    }
+
+    /**
+     * Gets the logger of a class, writing to logs/&lt;fileName&gt;.log through
+     * an AsyncLogHandler. Classes that pass the same file name share the file.
+     *
+     * @param owner Class that logs; the logger is named after it
+     * @param fileName Name of the log file, without extension
+     * @return Configured logger
+     */
+    public static Logger getLogger(Class<?> owner, String fileName) {
+        Logger logger = Logger.getLogger(owner.getName());
+        synchronized (handlers) {
+            AsyncLogHandler handler = handlers.get(fileName);
+            if (handler == null) {
+                handler = new AsyncLogHandler(new File(LOG_DIR, fileName + ".log"), LIMIT_BYTES, FILE_COUNT);
+                handlers.put(fileName, handler);
+            }
+            for (Handler h : logger.getHandlers()) {
+                if (h == handler) {
+                    return logger;
+                }
+            }
+            logger.addHandler(handler);
+            logger.setLevel(Level.parse(System.getProperty(LEVEL_PROPERTY, "INFO")));
+            logger.setUseParentHandlers(false);
+        }
+        return logger;
+    }
+
+    /**
+     * Queues the record; it is formatted and written by the background thread.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (isLoggable(record)) {
+            writer.offer(this, record);
+        }
+    }
+
+    /**
+     * Writes every queued record and flushes the files. Blocks until done.
+     */
+    @Override
+    public void flush() {
+        writer.drain();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        synchronized (writer.writeLock) {
+            closeFile();
+        }
+    }
+
+    /**
+     * Number of records dropped because the buffer was full.
+     */
+    public static long getDropped() {
+        return writer.dropped;
+    }
+
+    // Los métodos siguientes solo se llaman desde el hilo que escribe, con writeLock
+
+    private void write(LogRecord record) throws IOException {
+        write(format(record));
+    }
+
+    private void write(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        if (out == null) {
+            openFile();
+        } else if (written > 0 && written + bytes.length > limitBytes) {
+            rotate();
+        }
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    private String format(LogRecord record) {
+        StringBuilder line = new StringBuilder(128);
+        line.append('[').append(dateFormat.format(new Date(record.getMillis()))).append("] [")
+                .append(record.getLevel()).append("] ").append(record.getMessage())
+                .append(System.lineSeparator());
+        if (record.getThrown() != null) {
+            StringWriter trace = new StringWriter();
+            record.getThrown().printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        return line.toString();
+    }
+
+    private void openFile() throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        written = file.length();
+        out = new BufferedOutputStream(new FileOutputStream(file, true), 16 * 1024);
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        // name.log.(n-1) se pierde; el resto se desplaza una posición
+        for (int i = fileCount - 1; i >= 1; i--) {
+            File older = new File(file.getPath() + "." + i);
+            File previous = i == 1 ? file : new File(file.getPath() + "." + (i - 1));
+            if (previous.exists()) {
+                older.delete();
+                previous.renameTo(older);
+            }
+        }
+        openFile();
+    }
+
+    private void flushFile() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.CLOSE_FAILURE);
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Ring buffer shared by every handler and the thread that empties it.
+     */
+    private static final class LogWriter extends Thread {
+
+        private final AsyncLogHandler[] targets = new AsyncLogHandler[CAPACITY];
+        private final LogRecord[] records = new LogRecord[CAPACITY];
+        private int head;
+        private int count;
+        private volatile long dropped;
+        private long droppedReported;
+
+        /** Protege los ficheros: solo un hilo escribe a la vez. */
+        private final Object writeLock = new Object();
+
+        private LogWriter() {
+            super("async-log-writer");
+            setDaemon(true);
+            start();
+            // Al cerrar la aplicación se escribe lo que quede en el buffer
+            Runtime.getRuntime().addShutdownHook(new Thread(this::drain, "async-log-shutdown"));
+        }
+
+        private synchronized void offer(AsyncLogHandler target, LogRecord record) {
+            if (count == CAPACITY) {
+                dropped++;
+                return;
+            }
+            int tail = (head + count) & (CAPACITY - 1);
+            targets[tail] = target;
+            records[tail] = record;
+            if (count++ == 0) {
+                notify();
+            }
+        }
+
+        /**
+         * Saca del buffer hasta max registros.
+         *
+         * @return Registros sacados (0 si el buffer estaba vacío)
+         */
+        private synchronized int take(AsyncLogHandler[] toTargets, LogRecord[] toRecords, int max, boolean wait)
+                throws InterruptedException {
+            while (wait && count == 0) {
+                wait();
+            }
+            int n = Math.min(count, max);
+            for (int i = 0; i < n; i++) {
+                toTargets[i] = targets[head];
+                toRecords[i] = records[head];
+                targets[head] = null;
+                records[head] = null;
+                head = (head + 1) & (CAPACITY - 1);
+            }
+            count -= n;
+            return n;
+        }
+
+        @Override
+        public void run() {
+            AsyncLogHandler[] batchTargets = new AsyncLogHandler[BATCH_SIZE];
+            LogRecord[] batchRecords = new LogRecord[BATCH_SIZE];
+            while (true) {
+                try {
+                    int n = take(batchTargets, batchRecords, BATCH_SIZE, true);
+                    synchronized (writeLock) {
+                        writeBatch(batchTargets, batchRecords, n);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Escribe en el hilo actual todo lo que haya en el buffer.
+         */
+        private void drain() {
+            AsyncLogHandler[] batchTargets = new AsyncLogHandler[BATCH_SIZE];
+            LogRecord[] batchRecords = new LogRecord[BATCH_SIZE];
+            synchronized (writeLock) {
+                try {
+                    int n;
+                    do {
+                        n = take(batchTargets, batchRecords, BATCH_SIZE, false);
+                        writeBatch(batchTargets, batchRecords, n);
+                    } while (n > 0);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void writeBatch(AsyncLogHandler[] batchTargets, LogRecord[] batchRecords, int n) {
+            Map<AsyncLogHandler, Boolean> touched = new IdentityHashMap<>();
+            for (int i = 0; i < n; i++) {
+                AsyncLogHandler target = batchTargets[i];
+                try {
+                    target.write(batchRecords[i]);
+                    touched.put(target, Boolean.TRUE);
+                } catch (IOException | RuntimeException e) {
+                    target.reportError(null, e, ErrorManager.WRITE_FAILURE);
+                }
+                batchTargets[i] = null;
+                batchRecords[i] = null;
+            }
+
+            long lost = dropped - droppedReported;
+            if (lost > 0 && !touched.isEmpty()) {
+                droppedReported += lost;
+                for (AsyncLogHandler target : touched.keySet()) {
+                    try {
+                        target.write("[WARNING] " + lost + " log records dropped: the log buffer was full" + System.lineSeparator());
+                    } catch (IOException e) {
+                        target.reportError(null, e, ErrorManager.WRITE_FAILURE);
+                    }
+                }
+            }
+
+            for (AsyncLogHandler target : touched.keySet()) {
+                try {
+                    target.flushFile();
+                } catch (IOException e) {
+                    target.reportError(null, e, ErrorManager.FLUSH_FAILURE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package threads;
+
+import model.ClassDAO;
+
+/**
+ * Background thread that periodically saves the pending changes of the
+ * shopping carts, so that changing a quantity in the cart window does not
+ * write to the database on every click. The changes made between two passes
+ * are saved in a single transaction.
+ *
+ * @version 1.0
+ */
+public class CartFlusher extends Thread {
+
+    private final ClassDAO dao;
+    private final long intervalMillis;
+    private volatile boolean end = false;
+
+    /**
+     * Creates the flusher.
+     *
+     * @param dao DAO used to save the carts
+     * @param intervalMillis Time between two passes in milliseconds
+     */
+    public CartFlusher(ClassDAO dao, long intervalMillis) {
+        super("cart-flusher");
+        this.dao = dao;
+        this.intervalMillis = intervalMillis;
+        setDaemon(true);
+    }
+
+    /**
+     * Signals the thread to stop. The changes still pending are saved before
+     * it ends.
+     */
+    public void shutdown() {
+        this.end = true;
+        this.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (!end) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                if (!end) {
+                    continue;
+                }
+            }
+            // Si falla, los cambios se quedan pendientes para la siguiente pasada
+            dao.flushCart();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package threads;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import model.CatalogCache;
+import model.DBImplementation;
+import model.GameGenre;
+import model.HibernateSession;
+import model.PEGI;
+import model.Platform;
+import model.Videogame;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import threads.ProfileFormat.PushbackSource;
+
+/**
+ * Loads a catalog of videogames from a CSV file, such as the price list of a
+ * publisher, with the header line
+ * {@code company,genre,name,platform,pegi,price,stock,release_date}.
+ *
+ * The file is read one line at a time. The names already in VIDEOGAME_ are
+ * read once at the start with a single query; a game whose name is there, or
+ * earlier in the same file, is skipped, as {@link DBImplementation#addGame}
+ * does for a single game. Invalid lines are rejected with their line number
+ * and the rest of the file is still loaded. The new games are written in JDBC
+ * batches of {@link #BATCH_SIZE}, each one in its own transaction, so an
+ * error or a cancellation keeps the batches already written.
+ *
+ * The admin window runs it in the background and shows the progress; it can
+ * also be run with {@code ant load-catalog} or
+ * {@code java threads.CatalogLoader file.csv}.
+ *
+ * @version 1.0
+ */
+public class CatalogLoader {
+
+    /** Columnas del fichero, en orden. */
+    static final String[] COLUMNS = {"company", "genre", "name", "platform", "pegi", "price", "stock",
+        "release_date"};
+
+    /** Juegos escritos en cada transacción. */
+    public static final int BATCH_SIZE = 1000;
+
+    /** Errores que se guardan para mostrarlos; el resto solo se cuentan. */
+    private static final int MAX_PROBLEMS = 20;
+
+    private static final int MAX_LENGTH = 255;
+
+    private static final String INSERT = "INSERT INTO VIDEOGAME_ (company_name, genre, name, platform, pegi,"
+            + " price, stock, release_date, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    /**
+     * Receives the progress of a load, after every batch.
+     */
+    public interface Progress {
+
+        /**
+         * @param bytesRead Bytes of the file read so far
+         * @param totalBytes Size of the file
+         * @param summary Totals so far
+         */
+        void update(long bytesRead, long totalBytes, Summary summary);
+    }
+
+    /**
+     * Totales de una carga.
+     */
+    public static final class Summary {
+
+        private int loaded;
+        private int duplicates;
+        private int rejected;
+        private boolean cancelled;
+        private final List<String> problems = new ArrayList<>();
+
+        /**
+         * @return New games stored
+         */
+        public int getLoaded() {
+            return loaded;
+        }
+
+        /**
+         * @return Games skipped because the name already existed
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return Invalid lines
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return true if the load was stopped before the end of the file
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return The first invalid lines, with their line number and reason
+         */
+        public List<String> getProblems() {
+            return problems;
+        }
+
+        private void reject(int line, String problem) {
+            rejected++;
+            if (problems.size() < MAX_PROBLEMS) {
+                problems.add("Line " + line + ": " + problem);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return loaded + " loaded, " + duplicates + " duplicates, " + rejected + " rejected"
+                    + (cancelled ? " (cancelled)" : "");
+        }
+    }
+
+    /**
+     * Loads the games of a CSV file that are not in the database yet. The
+     * thread can be interrupted to stop after the current batch.
+     *
+     * @param file CSV file
+     * @param progress Receives the progress after every batch, or null
+     * @return Loaded, duplicate and rejected games
+     * @throws IOException if the file cannot be read or its header is wrong
+     */
+    public Summary load(Path file, Progress progress) throws IOException {
+        long totalBytes = Files.size(file);
+        long start = System.nanoTime();
+        SessionFactory factory = HibernateSession.getSessionFactory();
+        Summary summary = new Summary();
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+                Reader in = new BufferedReader(new InputStreamReader(counter, StandardCharsets.UTF_8));
+                Session session = factory.openSession()) {
+            PushbackSource source = new PushbackSource(in);
+            String[] header = ProfileFormat.Csv.readLine(source);
+            if (header == null || !Arrays.equals(normalize(header), COLUMNS)) {
+                throw new IOException("The CSV header must be: " + String.join(",", COLUMNS));
+            }
+
+            Set<String> names = session.doReturningWork(CatalogLoader::existingNames);
+            List<Videogame> batch = new ArrayList<>(BATCH_SIZE);
+            String[] record;
+            while ((record = ProfileFormat.Csv.readLine(source)) != null) {
+                // readLine ya ha pasado a la línea siguiente
+                int line = source.line() - 1;
+                if (record.length == 1 && record[0] == null) {
+                    continue;
+                }
+                Videogame game;
+                try {
+                    game = parse(record);
+                } catch (IllegalArgumentException e) {
+                    summary.reject(line, e.getMessage());
+                    continue;
+                }
+                // También se salta si se repite dentro del mismo fichero
+                if (!names.add(key(game.getName()))) {
+                    summary.duplicates++;
+                    continue;
+                }
+                batch.add(game);
+                if (batch.size() == BATCH_SIZE) {
+                    write(session, batch);
+                    summary.loaded += batch.size();
+                    batch.clear();
+                    if (progress != null) {
+                        progress.update(counter.count, totalBytes, summary);
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        summary.cancelled = true;
+                        break;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(session, batch);
+                summary.loaded += batch.size();
+            }
+            if (progress != null) {
+                progress.update(summary.cancelled ? counter.count : totalBytes, totalBytes, summary);
+            }
+        } finally {
+            if (summary.loaded > 0) {
+                // Las filas se escriben con JDBC, sin pasar por las cachés
+                factory.getCache().evictEntityData(Videogame.class);
+                factory.getCache().evictQueryRegion(DBImplementation.CATALOG_REGION);
+                CatalogCache.getInstance().invalidate();
+            }
+        }
+        System.out.printf("Cargado %s en %.1f s: %s%n", file, (System.nanoTime() - start) / 1e9, summary);
+        return summary;
+    }
+
+    /**
+     * Converts a line of the file into a game, checking every field.
+     *
+     * @param record Fields in the order of {@link #COLUMNS}
+     * @return The game, without id
+     * @throws IllegalArgumentException with the reason if a field is invalid
+     */
+    static Videogame parse(String[] record) {
+        if (record.length != COLUMNS.length) {
+            throw new IllegalArgumentException("expected " + COLUMNS.length + " fields, found " + record.length);
+        }
+        String company = text(record[0], "company");
+        GameGenre genre = option(GameGenre.class, record[1], "genre");
+        String name = text(record[2], "name");
+        Platform platform = option(Platform.class, record[3], "platform");
+        // Se acepta "PEGI12" o solo "12"
+        String pegiText = record[4] == null ? null : record[4].trim();
+        if (pegiText != null && !pegiText.isEmpty() && Character.isDigit(pegiText.charAt(0))) {
+            pegiText = "PEGI" + pegiText;
+        }
+        PEGI pegi = option(PEGI.class, pegiText, "pegi");
+
+        double price;
+        int stock;
+        LocalDate releaseDate;
+        try {
+            price = Double.parseDouble(text(record[5], "price"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid price: " + record[5]);
+        }
+        if (!(price >= 0)) {
+            throw new IllegalArgumentException("invalid price: " + record[5]);
+        }
+        try {
+            stock = Integer.parseInt(text(record[6], "stock"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid stock: " + record[6]);
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("invalid stock: " + record[6]);
+        }
+        try {
+            releaseDate = LocalDate.parse(text(record[7], "release_date"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid release_date (use yyyy-mm-dd): " + record[7]);
+        }
+        return new Videogame(company, genre, name, platform, pegi, price, stock, java.sql.Date.valueOf(releaseDate));
+    }
+
+    private static String text(String value, String column) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(column + " is empty");
+        }
+        if (value.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_LENGTH + " characters");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Valor de un enum por su nombre, sin distinguir mayúsculas. ALL es solo
+     * un filtro de búsqueda y no vale para un juego.
+     */
+    private static <E extends Enum<E>> E option(Class<E> type, String value, String column) {
+        String name = text(value, column).toUpperCase().replace(' ', '_');
+        if (!name.equals("ALL")) {
+            for (E constant : type.getEnumConstants()) {
+                if (constant.name().equals(name)) {
+                    return constant;
+                }
+            }
+        }
+        throw new IllegalArgumentException("invalid " + column + ": " + value);
+    }
+
+    private static String[] normalize(String[] header) {
+        String[] names = new String[header.length];
+        for (int i = 0; i < header.length; i++) {
+            names[i] = header[i] == null ? null : header[i].trim().toLowerCase();
+        }
+        // Marca de orden de bytes que dejan algunas hojas de cálculo
+        if (names.length > 0 && names[0] != null && names[0].startsWith("\uFEFF")) {
+            names[0] = names[0].substring(1);
+        }
+        return names;
+    }
+
+    /** Los nombres se comparan sin mayúsculas, como hace MySQL. */
+    private static String key(String name) {
+        return name.toLowerCase();
+    }
+
+    /**
+     * La única consulta de nombres: todos los del catálogo, leídos del índice
+     * idx_videogame_name_code.
+     */
+    private static Set<String> existingNames(Connection connection) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery("SELECT name FROM VIDEOGAME_")) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (name != null) {
+                    names.add(key(name.trim()));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void write(Session session, List<Videogame> batch) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            session.doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+                    for (Videogame game : batch) {
+                        ps.setString(1, game.getCompanyName());
+                        ps.setString(2, game.getGameGenre().name());
+                        ps.setString(3, game.getName());
+                        ps.setString(4, game.getPlatforms().name());
+                        ps.setString(5, game.getPegi().name());
+                        ps.setDouble(6, game.getPrice());
+                        ps.setInt(7, game.getStock());
+                        ps.setDate(8, new java.sql.Date(game.getReleaseDate().getTime()));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            });
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Cuenta los bytes leídos del fichero para calcular el progreso.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Loads a catalog file into the database of hibernate.cfg.xml.
+     *
+     * @param args The CSV file
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: CatalogLoader <file.csv>");
+            return;
+        }
+        try {
+            Summary summary = new CatalogLoader().load(Paths.get(args[0]), (read, total, totals) ->
+                    System.out.printf("  %d%%: %s%n", total == 0 ? 100 : read * 100 / total, totals));
+            for (String problem : summary.getProblems()) {
+                System.out.println("  " + problem);
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading " + args[0] + ": " + e.getMessage());
+        } finally {
+            HibernateSession.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package threads;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.HibernateSession;
+import model.PasswordHasher;
+import model.Profile;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * One-off tool that replaces every legacy plain-text password of PROFILE_ by
+ * its PBKDF2 hash. Rows are read in batches by user code; the passwords of a
+ * batch are hashed in parallel on a fixed pool of worker threads and written
+ * back in a single JDBC batch, one transaction per batch. A row whose
+ * password changed meanwhile (for example, rehashed by a login) is left
+ * alone. It widens the password column first if it is still too short for a
+ * hash, so it can be run against an old database.
+ *
+ * Run it with {@code ant migrate-passwords}, or directly with
+ * {@code java threads.PasswordMigration [threads]}.
+ *
+ * @version 1.0
+ */
+public class PasswordMigration {
+
+    /** Filas leídas y actualizadas en cada transacción. */
+    public static final int BATCH_SIZE = 200;
+
+    /** Longitud que necesita la columna para guardar un hash. */
+    public static final int PASSWORD_LENGTH = 255;
+
+    private static final String LEGACY = "password NOT LIKE 'pbkdf2$%'";
+
+    private final PasswordHasher hasher = PasswordHasher.getInstance();
+    private final int threads;
+
+    /**
+     * Creates the migration.
+     *
+     * @param threads Number of threads that hash passwords at the same time
+     */
+    public PasswordMigration(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Hashes every legacy password and prints the progress and the
+     * throughput.
+     *
+     * @return Number of passwords migrated
+     */
+    public int migrate() {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Session session = HibernateSession.getSessionFactory().openSession();
+        try {
+            session.doWork(this::widenColumn);
+            int pending = session.doReturningWork(PasswordMigration::countLegacy);
+            System.out.println("Contraseñas en texto plano: " + pending + " (" + threads + " hilos)");
+
+            long start = System.nanoTime();
+            int migrated = 0;
+            int lastCode = 0;
+            while (true) {
+                final int after = lastCode;
+                Transaction transaction = session.beginTransaction();
+                Batch batch;
+                try {
+                    batch = session.doReturningWork(connection -> migrateBatch(connection, after, workers));
+                    transaction.commit();
+                } catch (RuntimeException e) {
+                    transaction.rollback();
+                    throw e;
+                }
+                if (batch.read == 0) {
+                    break;
+                }
+                lastCode = batch.lastCode;
+                migrated += batch.updated;
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("  %d/%d contraseñas, %.0f por segundo%n", migrated, pending, migrated / seconds);
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Migradas %d contraseñas en %.1f s: %.0f por segundo, %.1f ms por hash con %d hilos%n",
+                    migrated, seconds, seconds > 0 ? migrated / seconds : 0, hasher.getAverageHashMillis(), threads);
+
+            // Los perfiles en la caché de segundo nivel aún tienen la contraseña antigua
+            HibernateSession.getSessionFactory().getCache().evictEntityData(Profile.class);
+            return migrated;
+        } finally {
+            session.close();
+            workers.shutdown();
+        }
+    }
+
+    /** Filas leídas y actualizadas en un lote, y el último código leído. */
+    private static final class Batch {
+
+        private final int read;
+        private final int updated;
+        private final int lastCode;
+
+        private Batch(int read, int updated, int lastCode) {
+            this.read = read;
+            this.updated = updated;
+            this.lastCode = lastCode;
+        }
+    }
+
+    private Batch migrateBatch(Connection connection, int afterCode, ExecutorService workers) throws SQLException {
+        List<Integer> codes = new ArrayList<>();
+        List<String> oldPasswords = new ArrayList<>();
+        List<Future<String>> hashes = new ArrayList<>();
+
+        String select = "SELECT user_code, password FROM PROFILE_ WHERE user_code > ? AND " + LEGACY + " ORDER BY user_code";
+        try (PreparedStatement ps = connection.prepareStatement(select)) {
+            ps.setInt(1, afterCode);
+            ps.setMaxRows(BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    final String password = rs.getString(2);
+                    codes.add(rs.getInt(1));
+                    oldPasswords.add(password);
+                    hashes.add(workers.submit(() -> hasher.encode(password)));
+                }
+            }
+        }
+        if (codes.isEmpty()) {
+            return new Batch(0, 0, afterCode);
+        }
+
+        String update = "UPDATE PROFILE_ SET password = ? WHERE user_code = ? AND password = ?";
+        int updated = 0;
+        try (PreparedStatement ps = connection.prepareStatement(update)) {
+            for (int i = 0; i < codes.size(); i++) {
+                ps.setString(1, result(hashes.get(i)));
+                ps.setInt(2, codes.get(i));
+                ps.setString(3, oldPasswords.get(i));
+                ps.addBatch();
+            }
+            for (int count : ps.executeBatch()) {
+                // SUCCESS_NO_INFO (-2): el driver no sabe cuántas filas cambió
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return new Batch(codes.size(), updated, codes.get(codes.size() - 1));
+    }
+
+    /**
+     * Amplía la columna de la contraseña si todavía tiene la longitud antigua:
+     * hbm2ddl update crea columnas, pero no cambia las que ya existen.
+     */
+    private void widenColumn(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "PROFILE_", null)) {
+            while (columns.next()) {
+                if ("password".equalsIgnoreCase(columns.getString("COLUMN_NAME"))
+                        && columns.getInt("COLUMN_SIZE") < PASSWORD_LENGTH) {
+                    try (Statement st = connection.createStatement()) {
+                        // Reescribe la tabla entera: sin el límite de las consultas del pool
+                        st.setQueryTimeout(0);
+                        st.executeUpdate("ALTER TABLE PROFILE_ MODIFY password VARCHAR(" + PASSWORD_LENGTH + ") NOT NULL");
+                    }
+                    System.out.println("Columna PROFILE_.password ampliada a " + PASSWORD_LENGTH + " caracteres");
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int countLegacy(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM PROFILE_ WHERE " + LEGACY)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static String result(Future<String> hash) throws SQLException {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Password migration interrupted", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Could not hash a password", e.getCause());
+        }
+    }
+
+    /**
+     * Runs the migration against the database of hibernate.cfg.xml.
+     *
+     * @param args Optional number of threads (all the processors by default)
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        try {
+            new PasswordMigration(threads).migrate();
+        } finally {
+            HibernateSession.close();
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package threads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File formats of {@link ProfileTransfer}: CSV with a header line, or a JSON
+ * array with one object per line. Both are read and written one record at a
+ * time, so a file of any size needs the same memory. A record is an array of
+ * strings in the order of {@link #COLUMNS}; a null field is an empty CSV
+ * field or a JSON null.
+ *
+ * @version 1.0
+ */
+abstract class ProfileFormat {
+
+    /** Campos de cada perfil, en el orden de los registros. */
+    static final String[] COLUMNS = {"type", "username", "password", "email", "name", "telephone",
+        "surname", "gender", "card_number", "current_account"};
+
+    /** Valores de la columna type. */
+    static final String USER = "USER";
+    static final String ADMIN = "ADMIN";
+
+    /**
+     * Chooses the format by the extension of the file.
+     *
+     * @param fileName Name ending in .csv or .json
+     * @return The format
+     * @throws IllegalArgumentException for any other extension
+     */
+    static ProfileFormat forFile(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".csv")) {
+            return new Csv();
+        }
+        if (lower.endsWith(".json")) {
+            return new Json();
+        }
+        throw new IllegalArgumentException("Unknown format (use .csv or .json): " + fileName);
+    }
+
+    abstract RecordWriter writer(Writer out) throws IOException;
+
+    abstract RecordReader reader(Reader in) throws IOException;
+
+    /** Escribe registros uno a uno. */
+    interface RecordWriter extends Closeable {
+
+        void write(String[] record) throws IOException;
+    }
+
+    /** Lee registros uno a uno. */
+    interface RecordReader extends Closeable {
+
+        /**
+         * @return El siguiente registro, o null al final del fichero
+         */
+        String[] read() throws IOException;
+    }
+
+    /**
+     * CSV (RFC 4180): campos separados por comas, entre comillas si contienen
+     * comas, comillas o saltos de línea.
+     */
+    static final class Csv extends ProfileFormat {
+
+        @Override
+        RecordWriter writer(final Writer out) throws IOException {
+            writeLine(out, COLUMNS);
+            return new RecordWriter() {
+                @Override
+                public void write(String[] record) throws IOException {
+                    writeLine(out, record);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+
+        private static void writeLine(Writer out, String[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                String field = fields[i];
+                if (field == null) {
+                    continue;
+                }
+                if (field.isEmpty() || field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                        || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                    // Una cadena vacía va entre comillas para no confundirla con null
+                    out.write('"');
+                    out.write(field.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(field);
+                }
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        RecordReader reader(final Reader in) throws IOException {
+            final PushbackSource source = new PushbackSource(in);
+            String[] header = readLine(source);
+            if (header == null || !Arrays.equals(header, COLUMNS)) {
+                throw new IOException("The CSV header must be: " + String.join(",", COLUMNS));
+            }
+            return new RecordReader() {
+                @Override
+                public String[] read() throws IOException {
+                    String[] record = readLine(source);
+                    // Las líneas en blanco se saltan
+                    while (record != null && record.length == 1 && record[0] == null) {
+                        record = readLine(source);
+                    }
+                    if (record != null && record.length != COLUMNS.length) {
+                        throw new IOException("Line " + source.line + ": expected " + COLUMNS.length
+                                + " fields, found " + record.length);
+                    }
+                    return record;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+
+        /**
+         * Lee una línea del fichero, que puede ocupar varias si un campo entre
+         * comillas tiene saltos de línea. También la usa {@link CatalogLoader}.
+         *
+         * @return Los campos (null si están vacíos y sin comillas), o null al
+         * final del fichero
+         */
+        static String[] readLine(PushbackSource source) throws IOException {
+            int c = source.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>(COLUMNS.length);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (c == '"' && field.length() == 0 && !quoted) {
+                    quoted = true;
+                    // Campo entre comillas: hasta la comilla que no va doblada
+                    while (true) {
+                        c = source.read();
+                        if (c < 0) {
+                            throw new IOException("Line " + source.line + ": unterminated quoted field");
+                        }
+                        if (c == '"') {
+                            c = source.read();
+                            if (c != '"') {
+                                break;
+                            }
+                        }
+                        field.append((char) c);
+                    }
+                    continue;
+                }
+                if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                    field.setLength(0);
+                    quoted = false;
+                    if (c != ',') {
+                        if (c == '\r') {
+                            int next = source.read();
+                            if (next != '\n') {
+                                source.unread(next);
+                            }
+                        }
+                        source.line++;
+                        return fields.toArray(new String[0]);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                c = source.read();
+            }
+        }
+    }
+
+    /**
+     * JSON: un array de objetos planos, uno por línea. Al leer se aceptan
+     * también objetos sueltos uno tras otro (JSON Lines).
+     */
+    static final class Json extends ProfileFormat {
+
+        @Override
+        RecordWriter writer(final Writer out) throws IOException {
+            out.write("[");
+            return new RecordWriter() {
+                private boolean first = true;
+
+                @Override
+                public void write(String[] record) throws IOException {
+                    out.write(first ? "\n{" : ",\n{");
+                    first = false;
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        if (i > 0) {
+                            out.write(", ");
+                        }
+                        writeString(out, COLUMNS[i]);
+                        out.write(": ");
+                        if (record[i] == null) {
+                            out.write("null");
+                        } else {
+                            writeString(out, record[i]);
+                        }
+                    }
+                    out.write('}');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.write("\n]\n");
+                    out.close();
+                }
+            };
+        }
+
+        private static void writeString(Writer out, String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+
+        @Override
+        RecordReader reader(final Reader in) {
+            final PushbackSource source = new PushbackSource(in);
+            return new RecordReader() {
+                @Override
+                public String[] read() throws IOException {
+                    // Entre objetos solo puede haber espacios, '[', ',' y ']'
+                    int c;
+                    do {
+                        c = source.readSkippingSpaces();
+                    } while (c == '[' || c == ',' || c == ']');
+                    if (c < 0) {
+                        return null;
+                    }
+                    if (c != '{') {
+                        throw source.error("expected '{'");
+                    }
+                    return readObject(source);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+
+        private static String[] readObject(PushbackSource source) throws IOException {
+            String[] record = new String[COLUMNS.length];
+            int c = source.readSkippingSpaces();
+            if (c == '}') {
+                return record;
+            }
+            while (true) {
+                if (c != '"') {
+                    throw source.error("expected a field name");
+                }
+                String key = readString(source);
+                if (source.readSkippingSpaces() != ':') {
+                    throw source.error("expected ':'");
+                }
+                String value = readValue(source);
+                int column = Arrays.asList(COLUMNS).indexOf(key);
+                if (column >= 0) {
+                    record[column] = value;
+                }
+                c = source.readSkippingSpaces();
+                if (c == '}') {
+                    return record;
+                }
+                if (c != ',') {
+                    throw source.error("expected ',' or '}'");
+                }
+                c = source.readSkippingSpaces();
+            }
+        }
+
+        /** Cadena, null, o un número o booleano, que se devuelve como texto. */
+        private static String readValue(PushbackSource source) throws IOException {
+            int c = source.readSkippingSpaces();
+            if (c == '"') {
+                return readString(source);
+            }
+            StringBuilder token = new StringBuilder();
+            while (c >= 0 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+                token.append((char) c);
+                c = source.read();
+            }
+            source.unread(c);
+            if (token.length() == 0 || token.charAt(0) == '{' || token.charAt(0) == '[') {
+                throw source.error("expected a string, number, boolean or null");
+            }
+            return "null".contentEquals(token) ? null : token.toString();
+        }
+
+        private static String readString(PushbackSource source) throws IOException {
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                int c = source.read();
+                if (c < 0) {
+                    throw source.error("unterminated string");
+                }
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    c = source.read();
+                    switch (c) {
+                        case 'n':
+                            value.append('\n');
+                            break;
+                        case 'r':
+                            value.append('\r');
+                            break;
+                        case 't':
+                            value.append('\t');
+                            break;
+                        case 'b':
+                            value.append('\b');
+                            break;
+                        case 'f':
+                            value.append('\f');
+                            break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                hex[i] = (char) source.read();
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException e) {
+                                throw source.error("invalid \\u escape");
+                            }
+                            break;
+                        case '"':
+                        case '\\':
+                        case '/':
+                            value.append((char) c);
+                            break;
+                        default:
+                            throw source.error("invalid escape");
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lector de caracteres que permite devolver uno y lleva la cuenta de las
+     * líneas para los mensajes de error. El Reader debe tener su propio buffer.
+     */
+    static final class PushbackSource {
+
+        private final Reader in;
+        private int pushed = -2;
+        private int line = 1;
+
+        PushbackSource(Reader in) {
+            this.in = in;
+        }
+
+        int read() throws IOException {
+            if (pushed != -2) {
+                int c = pushed;
+                pushed = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        void unread(int c) {
+            pushed = c;
+        }
+
+        int readSkippingSpaces() throws IOException {
+            int c = read();
+            while (c >= 0 && Character.isWhitespace(c)) {
+                if (c == '\n') {
+                    line++;
+                }
+                c = read();
+            }
+            return c;
+        }
+
+        /** Línea que se está leyendo, empezando en 1. */
+        int line() {
+            return line;
+        }
+
+        IOException error(String message) {
+            return new IOException("Line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package threads;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.Admin;
+import model.HibernateSession;
+import model.PasswordHasher;
+import model.Profile;
+import model.User;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
+import threads.ProfileFormat.RecordReader;
+import threads.ProfileFormat.RecordWriter;
+
+/**
+ * Tool that exports every profile (users and admins) to a CSV or JSON file
+ * and imports such a file into another database. See {@link ProfileFormat}
+ * for the columns.
+ *
+ * The export reads the profiles through a StatelessSession with a forward-only
+ * cursor, so they are neither kept in a persistence context nor loaded at
+ * once. The import reads the file one record at a time and writes batches of
+ * {@link #BATCH_SIZE} profiles, each one in its own transaction: one query
+ * finds the usernames and emails that already exist (those rows are skipped),
+ * and the new rows of PROFILE_, USER_ and ADMIN_ go in JDBC batches.
+ * Passwords that are not yet a hash are hashed in parallel on a fixed pool
+ * of worker threads; exported hashes are kept as they are. Both print the
+ * number of rows per second.
+ *
+ * Run it with {@code ant export-profiles} / {@code ant import-profiles}, or
+ * directly with {@code java threads.ProfileTransfer export|import file [threads]}.
+ *
+ * @version 1.0
+ */
+public class ProfileTransfer {
+
+    /** Perfiles escritos en cada transacción al importar. */
+    public static final int BATCH_SIZE = 500;
+
+    /** Filas que se piden a la vez a la base de datos al exportar (salvo MySQL). */
+    public static final int FETCH_SIZE = 1000;
+
+    /** Cada cuántas filas se muestra el progreso de la exportación. */
+    private static final int REPORT_EVERY = 10000;
+
+    private static final int MAX_LENGTH = 50;
+
+    private final PasswordHasher hasher = PasswordHasher.getInstance();
+    private final int threads;
+
+    /**
+     * Totales de una importación.
+     */
+    public static final class Summary {
+
+        private int imported;
+        private int skipped;
+        private int rejected;
+
+        /** Perfiles creados. */
+        public int getImported() {
+            return imported;
+        }
+
+        /** Perfiles que ya existían (mismo usuario o email) y no se han tocado. */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /** Registros del fichero sin los datos obligatorios. */
+        public int getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return imported + " importados, " + skipped + " ya existían, " + rejected + " no válidos";
+        }
+    }
+
+    /**
+     * Creates the tool.
+     *
+     * @param threads Number of threads that hash passwords at the same time
+     */
+    public ProfileTransfer(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Writes every profile to the file, ordered by user code.
+     *
+     * @param file Destination, ending in .csv or .json
+     * @return Number of profiles written
+     * @throws IOException if the file cannot be written
+     */
+    public int exportTo(Path file) throws IOException {
+        ProfileFormat format = ProfileFormat.forFile(file.toString());
+        StatelessSession session = HibernateSession.getSessionFactory().openStatelessSession();
+        long start = System.nanoTime();
+        int exported = 0;
+        try (RecordWriter out = format.writer(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            Query<Profile> query = session.createQuery("FROM Profile p ORDER BY p.userCode", Profile.class);
+            query.setFetchSize(fetchSize());
+            query.setReadOnly(true);
+            try (ScrollableResults rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    out.write(toRecord((Profile) rows.get(0)));
+                    exported++;
+                    if (exported % REPORT_EVERY == 0) {
+                        System.out.printf("  %d perfiles, %.0f por segundo%n", exported, perSecond(exported, start));
+                    }
+                }
+            }
+        } finally {
+            session.close();
+        }
+        System.out.printf("Exportados %d perfiles a %s en %.1f s: %.0f por segundo%n",
+                exported, file, (System.nanoTime() - start) / 1e9, perSecond(exported, start));
+        return exported;
+    }
+
+    /**
+     * Reads the file and creates the profiles that do not exist yet.
+     *
+     * @param file Source, ending in .csv or .json
+     * @return Imported, skipped and rejected records
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public Summary importFrom(Path file) throws IOException {
+        ProfileFormat format = ProfileFormat.forFile(file.toString());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Session session = HibernateSession.getSessionFactory().openSession();
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        try (RecordReader in = format.reader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            List<String[]> batch = new ArrayList<>(BATCH_SIZE);
+            String[] record;
+            while ((record = in.read()) != null) {
+                String problem = validate(record);
+                if (problem != null) {
+                    summary.rejected++;
+                    System.out.println("  Registro no válido (" + record[1] + "): " + problem);
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    write(session, batch, workers, summary);
+                    batch.clear();
+                    int done = summary.imported + summary.skipped;
+                    System.out.printf("  %d perfiles, %.0f por segundo%n", done, perSecond(done, start));
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(session, batch, workers, summary);
+            }
+
+            int read = summary.imported + summary.skipped + summary.rejected;
+            System.out.printf("Importado %s en %.1f s: %s (%.0f registros por segundo)%n",
+                    file, (System.nanoTime() - start) / 1e9, summary, perSecond(read, start));
+
+            // Las filas se escriben con JDBC, sin pasar por la caché de segundo nivel
+            HibernateSession.getSessionFactory().getCache().evictEntityData(Profile.class);
+            return summary;
+        } finally {
+            session.close();
+            workers.shutdown();
+        }
+    }
+
+    private void write(Session session, List<String[]> batch, ExecutorService workers, Summary summary) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            int inserted = session.doReturningWork(connection -> insertBatch(connection, batch, workers));
+            transaction.commit();
+            summary.imported += inserted;
+            summary.skipped += batch.size() - inserted;
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta los perfiles del lote que no existen todavía.
+     *
+     * @return Perfiles insertados
+     */
+    private int insertBatch(Connection connection, List<String[]> batch, ExecutorService workers) throws SQLException {
+        // Las contraseñas se cifran mientras se consulta qué perfiles existen
+        List<Future<String>> passwords = new ArrayList<>(batch.size());
+        for (String[] record : batch) {
+            final String password = record[2];
+            passwords.add(PasswordHasher.isLegacy(password)
+                    ? workers.submit(() -> hasher.encode(password))
+                    : CompletableFuture.completedFuture(password));
+        }
+
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        findExisting(connection, batch, usernames, emails);
+
+        List<String[]> users = new ArrayList<>();
+        List<String[]> admins = new ArrayList<>();
+        int inserted = 0;
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO PROFILE_"
+                + " (username, password, email, name, telephone, surname) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < batch.size(); i++) {
+                String[] record = batch.get(i);
+                // También se salta si se repite dentro del mismo lote del fichero
+                String username = record[1].toLowerCase();
+                String email = record[3].toLowerCase();
+                if (usernames.contains(username) || emails.contains(email)) {
+                    continue;
+                }
+                usernames.add(username);
+                emails.add(email);
+                ps.setString(1, record[1]);
+                ps.setString(2, result(passwords.get(i)));
+                ps.setString(3, record[3]);
+                ps.setString(4, record[4]);
+                ps.setString(5, record[5]);
+                ps.setString(6, record[6]);
+                ps.addBatch();
+                (ProfileFormat.ADMIN.equals(record[0]) ? admins : users).add(record);
+                inserted++;
+            }
+            if (inserted > 0) {
+                ps.executeBatch();
+            }
+        }
+
+        // El user_code lo genera PROFILE_; se busca por el nombre de usuario, que es único
+        insertSubtype(connection, "INSERT INTO USER_ (user_code, gender, card_number)"
+                + " SELECT user_code, ?, ? FROM PROFILE_ WHERE username = ?", users, 7, 8);
+        insertSubtype(connection, "INSERT INTO ADMIN_ (user_code, current_account)"
+                + " SELECT user_code, ? FROM PROFILE_ WHERE username = ?", admins, 9);
+        return inserted;
+    }
+
+    /**
+     * Una sola consulta por lote: los usuarios y emails del lote que ya están
+     * en PROFILE_. Con UNION cada mitad usa su índice único; con OR la base
+     * de datos puede acabar recorriendo la tabla entera. Se guardan en
+     * minúsculas, porque MySQL los compara sin distinguir mayúsculas.
+     */
+    private static void findExisting(Connection connection, List<String[]> batch, Set<String> usernames,
+            Set<String> emails) throws SQLException {
+        StringBuilder marks = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            marks.append(i == 0 ? "?" : ", ?");
+        }
+        String select = "SELECT username, email FROM PROFILE_ WHERE username IN (" + marks + ")"
+                + " UNION SELECT username, email FROM PROFILE_ WHERE email IN (" + marks + ")";
+        try (PreparedStatement ps = connection.prepareStatement(select)) {
+            for (int i = 0; i < batch.size(); i++) {
+                ps.setString(i + 1, batch.get(i)[1]);
+                ps.setString(batch.size() + i + 1, batch.get(i)[3]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    usernames.add(rs.getString(1).toLowerCase());
+                    emails.add(rs.getString(2).toLowerCase());
+                }
+            }
+        }
+    }
+
+    private static void insertSubtype(Connection connection, String insert, List<String[]> records, int... columns)
+            throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(insert)) {
+            for (String[] record : records) {
+                for (int i = 0; i < columns.length; i++) {
+                    ps.setString(i + 1, record[columns[i]]);
+                }
+                ps.setString(columns.length + 1, record[1]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Comprueba los campos obligatorios y su longitud.
+     *
+     * @return El problema, o null si el registro es válido
+     */
+    static String validate(String[] record) {
+        if (!ProfileFormat.USER.equals(record[0]) && !ProfileFormat.ADMIN.equals(record[0])) {
+            return "type must be " + ProfileFormat.USER + " or " + ProfileFormat.ADMIN;
+        }
+        for (int column : new int[]{1, 2, 3, 5, 6}) {
+            if (record[column] == null || record[column].trim().isEmpty()) {
+                return ProfileFormat.COLUMNS[column] + " is required";
+            }
+        }
+        for (int column : new int[]{1, 3, 4, 5, 6, 7}) {
+            if (record[column] != null && record[column].length() > MAX_LENGTH) {
+                return ProfileFormat.COLUMNS[column] + " is longer than " + MAX_LENGTH + " characters";
+            }
+        }
+        if (record[8] != null && record[8].length() > 24) {
+            return "card_number is longer than 24 characters";
+        }
+        if (record[9] != null && record[9].length() > 40) {
+            return "current_account is longer than 40 characters";
+        }
+        return null;
+    }
+
+    private static String[] toRecord(Profile profile) {
+        String[] record = new String[ProfileFormat.COLUMNS.length];
+        record[1] = profile.getUsername();
+        record[2] = profile.getPassword();
+        record[3] = profile.getEmail();
+        record[4] = profile.getName();
+        record[5] = profile.getTelephone();
+        record[6] = profile.getSurname();
+        if (profile instanceof Admin) {
+            record[0] = ProfileFormat.ADMIN;
+            record[9] = ((Admin) profile).getCurrentAccount();
+        } else {
+            record[0] = ProfileFormat.USER;
+            record[7] = ((User) profile).getGender();
+            record[8] = ((User) profile).getCardNumber();
+        }
+        return record;
+    }
+
+    /**
+     * MySQL solo devuelve las filas según se leen si el tamaño es
+     * Integer.MIN_VALUE; si no, carga el resultado entero en memoria.
+     */
+    private static int fetchSize() {
+        SessionFactoryImplementor factory = HibernateSession.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        return factory.getJdbcServices().getDialect() instanceof MySQLDialect ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+
+    private static double perSecond(int rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    private static String result(Future<String> hash) throws SQLException {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Profile import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Could not hash a password", e.getCause());
+        }
+    }
+
+    /**
+     * Exports or imports the profiles of the database of hibernate.cfg.xml.
+     *
+     * @param args export|import, the file, and optionally the number of
+     * threads that hash passwords (all the processors by default)
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("export") || args[0].equals("import"))) {
+            System.out.println("Usage: ProfileTransfer export|import <file.csv|file.json> [threads]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ProfileTransfer transfer = new ProfileTransfer(threads);
+        try {
+            if (args[0].equals("export")) {
+                transfer.exportTo(Paths.get(args[1]));
+            } else {
+                transfer.importFrom(Paths.get(args[1]));
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading or writing " + args[1] + ": " + e.getMessage());
+        } finally {
+            HibernateSession.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package threads;
+
+import model.ClassDAO;
+
+/**
+ * Background thread that periodically returns to the stock the units of
+ * expired cart reservations, so that abandoned carts do not keep games out of
+ * stock.
+ *
+ * @version 1.0
+ */
+public class ReservationSweeper extends Thread {
+
+    private final ClassDAO dao;
+    private final long intervalMillis;
+    private volatile boolean end = false;
+
+    /**
+     * Creates the sweeper.
+     *
+     * @param dao DAO used to release the expired reservations
+     * @param intervalMillis Time between two passes in milliseconds
+     */
+    public ReservationSweeper(ClassDAO dao, long intervalMillis) {
+        super("reservation-sweeper");
+        this.dao = dao;
+        this.intervalMillis = intervalMillis;
+        setDaemon(true);
+    }
+
+    /**
+     * Signals the thread to stop after the current pass.
+     */
+    public void shutdown() {
+        this.end = true;
+        this.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (!end) {
+            try {
+                // Una pasada libera como mucho un lote; si estaba lleno, seguimos sin esperar
+                int released;
+                do {
+                    released = dao.releaseExpiredReservations();
+                } while (released > 0 && !end);
+            } catch (RuntimeException e) {
+                System.out.println("Error releasing expired reservations: " + e.getMessage());
+            }
+
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                if (end) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -2,83 +2,99 @@ package threads;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.persistence.metamodel.EntityType;
+import model.DBImplementation;
+import model.HibernateSession;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 /**
- * Thread class to obtain a database connection asynchronously. Useful to avoid blocking the main GUI thread.
+ * Background thread that warms up the data layer while the login window is
+ * shown, so that the first login and the first catalog page do not pay for
+ * cold connections and query compilation. It opens a number of pooled
+ * connections at once and gives them back to the pool, touches the metadata
+ * of every entity, and asks the DAO to compile and run its most used queries
+ * (see {@link DBImplementation#warmUp(int)}).
  *
  * Author: acer
  */
 public class ThreadConnection extends Thread {
 
-    private int delay = 30;
-    private boolean end = false;
-    private boolean ready = false;
-    private Connection con;
-
-    public ThreadConnection(int delay) {
-        this.delay = delay;
-    }
+    private final DBImplementation dao;
+    private final int connections;
+    private final int pageSize;
+    private final CompletableFuture<Long> warm = new CompletableFuture<>();
+    private volatile boolean ready = false;
 
     /**
-     * Returns the connection obtained by the thread.
-     * @return 
+     * Creates the warm-up thread; call start() to run it.
+     *
+     * @param dao DAO whose queries are warmed up
+     * @param connections Connections to open in the pool
+     * @param pageSize Size of the catalog pages the shop windows ask for
      */
-    public Connection getConnection() {
-        return con;
+    public ThreadConnection(DBImplementation dao, int connections, int pageSize) {
+        super("connection-warmup");
+        this.dao = dao;
+        this.connections = connections;
+        this.pageSize = pageSize;
+        setDaemon(true);
     }
 
     /**
-     * Returns true if the connection is ready.
-     * @return 
+     * Returns true once the data layer is warm.
+     * @return
      */
     public boolean isReady() {
         return ready;
     }
 
     /**
-     * Signals the thread to release the connection and stop running.
+     * Completes with the milliseconds the warm-up took, or exceptionally if
+     * the database could not be reached.
+     * @return
      */
-    public void releaseConnection() {
-        this.end = true;
-        this.interrupt();
+    public CompletableFuture<Long> whenReady() {
+        return warm;
     }
 
-    /*@Override
+    @Override
     public void run() {
+        long start = System.currentTimeMillis();
         try {
-            try {
-                con = ConnectionPool.getConnection();
-            } catch (SQLException ex) {
-                Logger.getLogger(ThreadConnection.class.getName()).log(Level.SEVERE, null, ex);
-            }
-            ready = true;
+            SessionFactoryImplementor sessionFactory = HibernateSession.getSessionFactory().unwrap(SessionFactoryImplementor.class);
 
-            while (!end) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    if (end) {
-                        break;
-                    }
-                    Thread.currentThread().interrupt();
+            // Pedir todas las conexiones a la vez obliga al pool a abrirlas
+            ConnectionProvider provider = sessionFactory.getServiceRegistry().getService(ConnectionProvider.class);
+            List<Connection> opened = new ArrayList<>();
+            try {
+                for (int i = 0; i < connections; i++) {
+                    opened.add(provider.getConnection());
+                }
+            } finally {
+                for (Connection connection : opened) {
+                    provider.closeConnection(connection);
                 }
             }
 
-            try {
-                Thread.sleep(delay * 1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        } finally {
-            if (con != null) {
-                try {
-                    con.close();
-                } catch (SQLException ex) {
-                    Logger.getLogger(ThreadConnection.class.getName()).log(Level.SEVERE, null, ex);
-                }
+            for (EntityType<?> entity : sessionFactory.getMetamodel().getEntities()) {
+                sessionFactory.getMetamodel().entityPersister(entity.getJavaType());
             }
+
+            dao.warmUp(pageSize);
+
+            long elapsed = System.currentTimeMillis() - start;
+            ready = true;
+            System.out.println("Capa de datos preparada en " + elapsed + " ms: " + opened.size()
+                    + " conexiones, " + HibernateSession.getPoolStatistics());
+            warm.complete(elapsed);
+
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Error warming up the data layer: " + e.getMessage());
+            warm.completeExceptionally(e);
         }
-    }*/
+    }
 }
@@ -0,0 +1,116 @@
+package controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test para AsyncController.
+ * Solo prueba la ejecución en segundo plano, no necesita JavaFX ni base de datos.
+ */
+public class AsyncControllerTest {
+
+    private final AsyncController async = new AsyncController(null, 200);
+
+    @Test
+    public void testDevuelveResultadoEnOtroHilo() throws Exception {
+        String hilo = async.run(() -> Thread.currentThread().getName()).get(1, TimeUnit.SECONDS);
+        assertTrue(hilo.startsWith("dao-"));
+    }
+
+    @Test
+    public void testTimeoutInterrumpeLaOperacion() throws Exception {
+        CountDownLatch interrumpido = new CountDownLatch(1);
+        CompletableFuture<Void> future = async.run(() -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrumpido.countDown();
+            }
+            return null;
+        });
+
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail("Debería haber expirado");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(interrumpido.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelarInterrumpeLaOperacion() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        CountDownLatch interrumpido = new CountDownLatch(1);
+        CompletableFuture<Void> future = new AsyncController(null, 5000).run(() -> {
+            empezado.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrumpido.countDown();
+            }
+            return null;
+        });
+
+        assertTrue(empezado.await(1, TimeUnit.SECONDS));
+        future.cancel(true);
+        assertTrue(interrumpido.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEscrituraSinTimeoutNiInterrupcion() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        AtomicBoolean interrumpido = new AtomicBoolean();
+        CompletableFuture<String> future = async.runWrite(() -> {
+            empezado.countDown();
+            try {
+                Thread.sleep(600);
+            } catch (InterruptedException e) {
+                interrumpido.set(true);
+            }
+            return "guardado";
+        });
+
+        assertTrue(empezado.await(1, TimeUnit.SECONDS));
+        // Más que el timeout de 200 ms de las lecturas: la escritura termina igual
+        assertEquals("guardado", future.get(2, TimeUnit.SECONDS));
+        assertFalse(interrumpido.get());
+
+        CountDownLatch terminado = new CountDownLatch(1);
+        CompletableFuture<Void> cancelada = async.runWrite(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                interrumpido.set(true);
+            }
+            terminado.countDown();
+            return null;
+        });
+        cancelada.cancel(true);
+        assertTrue(terminado.await(2, TimeUnit.SECONDS));
+        assertFalse(interrumpido.get());
+    }
+
+    @Test
+    public void testUnwrapDevuelveLaCausaReal() {
+        IllegalStateException causa = new IllegalStateException("sin conexión");
+        CompletableFuture<Object> future = async.run(() -> {
+            throw causa;
+        });
+        try {
+            future.join();
+            fail("Debería haber fallado");
+        } catch (RuntimeException e) {
+            assertEquals(causa, AsyncController.unwrap(e));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import model.Videogame;
+import org.junit.Test;
+
+/**
+ * Test para CartModel.
+ * Comprueba que un juego repetido suma unidades a su entrada, que los totales
+ * se mantienen con cada cambio y que cambiar una cantidad avisa a la lista
+ * como una actualización de esa entrada.
+ */
+public class CartModelTest {
+
+    private final CartModel carrito = new CartModel();
+
+    private static Videogame juego(int id) {
+        Videogame game = new Videogame();
+        game.setIdVideogame(id);
+        game.setName("Juego " + id);
+        return game;
+    }
+
+    @Test
+    public void testJuegoRepetidoSumaUnidades() {
+        CartModel.Entry entrada = carrito.add(juego(1), 1, 10.0);
+        assertSame(entrada, carrito.add(juego(1), 2, 99.0));
+        assertEquals(3, entrada.getQuantity());
+        // Conserva el precio con el que se añadió
+        assertEquals(30.0, entrada.getSubtotal(), 0.0);
+        assertEquals(1, carrito.size());
+        assertEquals(1, carrito.getEntries().size());
+    }
+
+    @Test
+    public void testTotalesIncrementales() {
+        carrito.add(juego(1), 1, 0.1);
+        CartModel.Entry segunda = carrito.add(juego(2), 2, 0.2);
+        assertEquals(3, carrito.getTotalUnits());
+        assertEquals(0.5, carrito.getTotal(), 0.0);
+
+        for (int i = 0; i < 1000; i++) {
+            carrito.setQuantity(segunda, 3);
+            carrito.setQuantity(segunda, 2);
+        }
+        // En céntimos no se acumulan errores de redondeo
+        assertEquals(0.5, carrito.getTotal(), 0.0);
+
+        carrito.remove(1);
+        assertEquals(2, carrito.getTotalUnits());
+        assertEquals(0.4, carrito.getTotal(), 0.0);
+        assertNull(carrito.remove(1));
+
+        carrito.clear();
+        assertTrue(carrito.isEmpty());
+        assertEquals(0, carrito.getTotalUnits());
+        assertEquals(0.0, carrito.getTotal(), 0.0);
+    }
+
+    @Test
+    public void testCambioDeCantidadActualizaSoloSuEntrada() {
+        carrito.add(juego(1), 1, 5.0);
+        CartModel.Entry segunda = carrito.add(juego(2), 1, 5.0);
+        List<Integer> actualizadas = new ArrayList<>();
+        carrito.getEntries().addListener((ListChangeListener<CartModel.Entry>) change -> {
+            while (change.next()) {
+                if (change.wasUpdated()) {
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        actualizadas.add(i);
+                    }
+                }
+            }
+        });
+
+        carrito.setQuantity(segunda, 4);
+        assertEquals(1, actualizadas.size());
+        assertEquals(1, (int) actualizadas.get(0));
+        assertSame(segunda, carrito.get(2));
+    }
+}
@@ -0,0 +1,106 @@
+package controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import model.Videogame;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test para PagedGameList.
+ * El catálogo es una lista en memoria y las respuestas se entregan a mano,
+ * así que no necesita JavaFX ni base de datos.
+ */
+public class PagedGameListTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGES = 3;
+
+    private final List<Videogame> catalogo = new ArrayList<>();
+    private final List<String> consultas = new ArrayList<>();
+    private final Queue<Runnable> pendientes = new ArrayDeque<>();
+    private PagedGameList lista;
+
+    @Before
+    public void setUp() {
+        for (int i = 1; i <= 95; i++) {
+            Videogame juego = new Videogame();
+            juego.setIdVideogame(i);
+            juego.setName(String.format("Juego %03d", i));
+            catalogo.add(juego);
+        }
+        lista = new PagedGameList(() -> CompletableFuture.completedFuture((long) catalogo.size()), this::leerPagina,
+                error -> {
+                    throw new AssertionError(error);
+                }, pendientes::add, PAGE_SIZE, MAX_PAGES);
+        lista.reload();
+        entregar();
+    }
+
+    /** Simula la consulta por clave: juegos posteriores a (nombre, código), saltando skip. */
+    private CompletableFuture<List<Videogame>> leerPagina(String afterName, int afterId, int skip, int size) {
+        consultas.add(afterName + "/" + afterId + "/" + skip);
+        int inicio = 0;
+        if (afterName != null) {
+            while (inicio < catalogo.size() && catalogo.get(inicio).getIdVideogame() <= afterId) {
+                inicio++;
+            }
+        }
+        inicio = Math.min(catalogo.size(), inicio + skip);
+        return CompletableFuture.completedFuture(new ArrayList<>(catalogo.subList(inicio, Math.min(catalogo.size(), inicio + size))));
+    }
+
+    private void entregar() {
+        while (!pendientes.isEmpty()) {
+            pendientes.poll().run();
+        }
+    }
+
+    @Test
+    public void testCargaLasFilasBajoDemanda() {
+        assertEquals(95, lista.size());
+        assertNull(lista.get(15));
+        entregar();
+        assertEquals("Juego 016", lista.get(15).getName());
+        lista.get(94);
+        entregar();
+        assertEquals("Juego 095", lista.get(94).getName());
+    }
+
+    @Test
+    public void testLaSiguientePaginaParteDeLaUltimaClave() {
+        lista.get(0);
+        entregar();
+        lista.get(PAGE_SIZE);
+        entregar();
+        assertEquals("null/0/0", consultas.get(0));
+        assertEquals("Juego 010/10/0", consultas.get(1));
+    }
+
+    @Test
+    public void testUnSaltoUsaLaPaginaConocidaMasCercana() {
+        lista.get(0);
+        entregar();
+        lista.get(5 * PAGE_SIZE);
+        entregar();
+        assertEquals("Juego 010/10/40", consultas.get(1));
+        assertEquals("Juego 051", lista.get(5 * PAGE_SIZE).getName());
+    }
+
+    @Test
+    public void testMantieneUnNumeroLimitadoDePaginas() {
+        for (int i = 0; i < lista.size(); i += PAGE_SIZE) {
+            lista.get(i);
+            entregar();
+        }
+        assertTrue(lista.loadedPages() <= MAX_PAGES);
+        assertEquals(-1, lista.indexOf(catalogo.get(0)));
+        assertEquals(90, lista.indexOf(catalogo.get(90)));
+    }
+}
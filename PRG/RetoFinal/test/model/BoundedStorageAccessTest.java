@@ -0,0 +1,51 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test para BoundedStorageAccess, la región de caché de LocalRegionFactory.
+ */
+public class BoundedStorageAccessTest {
+
+    @Test
+    public void testDescartaLaEntradaMenosUsada() {
+        BoundedStorageAccess region = new BoundedStorageAccess(2, 0);
+        region.putIntoCache(1, "uno", null);
+        region.putIntoCache(2, "dos", null);
+        region.getFromCache(1, null);
+        region.putIntoCache(3, "tres", null);
+
+        assertEquals(2, region.size());
+        assertEquals("uno", region.getFromCache(1, null));
+        assertNull(region.getFromCache(2, null));
+        assertTrue(region.contains(3));
+    }
+
+    @Test
+    public void testLasEntradasCaducan() throws Exception {
+        BoundedStorageAccess region = new BoundedStorageAccess(10, 50);
+        region.putIntoCache("juego", "Zelda", null);
+        assertEquals("Zelda", region.getFromCache("juego", null));
+
+        Thread.sleep(120);
+        assertFalse(region.contains("juego"));
+        assertEquals(0, region.size());
+    }
+
+    @Test
+    public void testSinLimiteNiCaducidad() {
+        BoundedStorageAccess region = new BoundedStorageAccess(0, 0);
+        for (int i = 0; i < 1000; i++) {
+            region.putIntoCache(i, i, null);
+        }
+        assertEquals(1000, region.size());
+        region.evictData(5);
+        assertFalse(region.contains(5));
+        region.evictData();
+        assertEquals(0, region.size());
+    }
+}
@@ -0,0 +1,107 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test para CartService.
+ * Comprueba que el carrito se lee una sola vez, que los cambios de una misma
+ * línea se agrupan en una única escritura y que un lote que falla se vuelve
+ * a escribir sin pisar los cambios más recientes.
+ */
+public class CartServiceTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<List<CartItem>> batches = new ArrayList<>();
+    private boolean failing = false;
+
+    private final CartService service = new CartService(userCode -> {
+        loads.incrementAndGet();
+        return new ArrayList<>(Arrays.asList(new CartItem(userCode, 7, 2, 10.0)));
+    }, changes -> {
+        if (failing) {
+            throw new IllegalStateException("database down");
+        }
+        batches.add(changes);
+    });
+
+    @Test
+    public void testSeLeeUnaSolaVez() {
+        assertEquals(1, service.getItems(1).size());
+        assertEquals(2, service.getItem(1, 7).getCantidad());
+        assertNull(service.getItem(1, 8));
+        assertEquals(1, loads.get());
+
+        service.update(1, 8, 1, 5.0);
+        List<CartItem> items = service.getItems(1);
+        assertEquals(7, items.get(0).getIdVideojuego());
+        assertEquals(8, items.get(1).getIdVideojuego());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testCambiosAgrupados() {
+        for (int quantity = 1; quantity <= 10; quantity++) {
+            service.update(1, 8, quantity, 5.0);
+        }
+        service.update(1, 7, 0, 10.0);
+        assertEquals(2, service.getPendingCount());
+
+        assertEquals(2, service.flush());
+        assertEquals(1, batches.size());
+        List<CartItem> batch = batches.get(0);
+        assertEquals(10, batch.get(0).getCantidad());
+        // Cantidad 0: la línea se borra
+        assertEquals(0, batch.get(1).getCantidad());
+
+        assertEquals(0, service.flush());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testLoteFallidoSeReintenta() {
+        service.update(1, 8, 1, 5.0);
+        service.update(1, 9, 1, 3.0);
+        failing = true;
+        try {
+            service.flush();
+            fail("The write error must be thrown");
+        } catch (IllegalStateException e) {
+            // Esperado
+        }
+
+        // Un cambio posterior al lote fallido gana
+        service.update(1, 8, 4, 5.0);
+        failing = false;
+        assertEquals(2, service.flush());
+        List<CartItem> batch = batches.get(0);
+        assertEquals(8, batch.get(0).getIdVideojuego());
+        assertEquals(4, batch.get(0).getCantidad());
+        assertEquals(9, batch.get(1).getIdVideojuego());
+    }
+
+    @Test
+    public void testVaciarYJuegoBorrado() {
+        service.update(1, 8, 1, 5.0);
+        service.update(2, 8, 3, 5.0);
+
+        service.removed(8);
+        assertEquals(1, service.getItems(2).size());
+        assertEquals(0, service.getPendingCount());
+
+        // Tras una compra se borran las líneas que quedaban
+        service.clear(1);
+        assertTrue(service.getItems(1).isEmpty());
+        service.flush();
+        assertEquals(1, batches.get(0).size());
+        assertEquals(7, batches.get(0).get(0).getIdVideojuego());
+        assertEquals(0, batches.get(0).get(0).getCantidad());
+    }
+}
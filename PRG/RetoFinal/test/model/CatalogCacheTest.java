@@ -0,0 +1,126 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import org.junit.Test;
+
+/**
+ * Test para CatalogCache.
+ * No necesita base de datos: la tabla es una lista en memoria y su Stamp se
+ * cambia a mano, como lo haría otro cliente al escribir.
+ */
+public class CatalogCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Videogame> table = new ArrayList<>();
+    private final AtomicReference<CatalogCache.Stamp> stamp = new AtomicReference<>();
+
+    // Intervalo 0: se comprueba el Stamp en cada lectura
+    private final CatalogCache cache = new CatalogCache(0);
+
+    private static Videogame juego(int id, String name, int stock) {
+        Videogame game = new Videogame("Nintendo", GameGenre.ADVENTURE, name, Platform.SWITCH, PEGI.PEGI7, 59.99, stock, new Date());
+        game.setIdVideogame(id);
+        return game;
+    }
+
+    /** Como la consulta real, devuelve la tabla ordenada por nombre. */
+    private List<Videogame> load() {
+        loads.incrementAndGet();
+        List<Videogame> copy = new ArrayList<>();
+        for (Videogame game : table) {
+            Videogame row = juego(game.getIdVideogame(), game.getName(), game.getStock());
+            row.setVersion(game.getVersion());
+            copy.add(row);
+        }
+        return copy;
+    }
+
+    private List<Videogame> getAll() {
+        return cache.getAll(stamp::get, this::load);
+    }
+
+    @Test
+    public void testDevuelveCopias() {
+        table.addAll(Arrays.asList(juego(2, "Mario", 5), juego(1, "Zelda", 10)));
+        stamp.set(new CatalogCache.Stamp(2, 0, 2));
+
+        Videogame zelda = getAll().get(1);
+        zelda.setStock(0);
+        zelda.setName("Cambiado");
+        assertEquals(10, getAll().get(1).getStock());
+        assertEquals("Zelda", getAll().get(1).getName());
+
+        Videogame found = cache.search(stamp::get, this::load, "zel", null, null).get(0);
+        found.setStock(0);
+        assertEquals(10, cache.search(stamp::get, this::load, "zel", null, null).get(0).getStock());
+
+        // put guarda su propia copia
+        Videogame modified = juego(2, "Mario", 4);
+        modified.setVersion(1);
+        cache.put(modified);
+        stamp.set(new CatalogCache.Stamp(2, 1, 2));
+        modified.setStock(99);
+        assertEquals(4, getAll().get(0).getStock());
+        assertNotSame(modified, getAll().get(0));
+    }
+
+    @Test
+    public void testRecargaSiOtroClienteCambiaLaTabla() {
+        table.add(juego(1, "Zelda", 10));
+        stamp.set(new CatalogCache.Stamp(1, 0, 1));
+        getAll();
+        getAll();
+        assertEquals(1, loads.get());
+
+        // Otro cliente compra: su UPDATE incrementa la versión
+        table.get(0).setStock(7);
+        table.get(0).setVersion(1);
+        stamp.set(new CatalogCache.Stamp(1, 1, 1));
+        assertEquals(7, getAll().get(0).getStock());
+        assertEquals(2, loads.get());
+
+        // Otro cliente da de alta un juego
+        table.add(juego(2, "Mario", 5));
+        stamp.set(new CatalogCache.Stamp(2, 1, 2));
+        assertEquals(1, cache.search(stamp::get, this::load, "mario", null, null).size());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testSusPropiasEscriturasNoObliganARecargar() {
+        table.addAll(Arrays.asList(juego(2, "Mario", 5), juego(1, "Zelda", 10)));
+        stamp.set(new CatalogCache.Stamp(2, 0, 2));
+        getAll();
+
+        // Una compra confirmada: stock y versión, como hizo su UPDATE
+        cache.applyStockChanges(Collections.singletonMap(1, 3));
+        stamp.set(new CatalogCache.Stamp(2, 1, 2));
+        assertEquals(7, getAll().get(1).getStock());
+
+        cache.put(juego(3, "Metroid", 2));
+        stamp.set(new CatalogCache.Stamp(3, 1, 3));
+        cache.remove(2);
+        stamp.set(new CatalogCache.Stamp(2, 1, 3));
+        assertEquals(2, getAll().size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testSiNoSePuedeComprobarSigueConLaInstantanea() {
+        table.add(juego(1, "Zelda", 10));
+        stamp.set(new CatalogCache.Stamp(1, 0, 1));
+        getAll();
+
+        stamp.set(null);
+        assertEquals(1, getAll().size());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,369 @@
+package model;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test para DBImplementation sobre una base de datos real: H2 en memoria en
+ * modo MySQL, con la misma configuración que los benchmarks
+ * (hibernate-test.cfg.xml). Se salta si H2 no está en el classpath.
+ *
+ * Todos los tests comparten la base de datos; cada uno crea sus propios
+ * usuarios y juegos.
+ */
+public class DBImplementationH2Test {
+
+    private static final AtomicInteger names = new AtomicInteger();
+    private static final String PASSWORD = "secret123";
+
+    private final DBImplementation dao = new DBImplementation();
+
+    @BeforeClass
+    public static void setUpClass() {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            Assume.assumeNoException("H2 is not in the classpath", e);
+        }
+        System.setProperty(HibernateSession.CONFIG_PROPERTY, "hibernate-test.cfg.xml");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        HibernateSession.close();
+        System.clearProperty(HibernateSession.CONFIG_PROPERTY);
+    }
+
+    private User newUser() {
+        String username = "user" + names.incrementAndGet();
+        assertEquals(SignUpResult.CREATED, dao.signUp("other", "ES00", username, PASSWORD,
+                username + "@example.com", "Test", "600000000", "User"));
+        return dao.getUserByUsername(username);
+    }
+
+    private int newGame(double price, int stock) {
+        String name = "Game " + names.incrementAndGet();
+        assertTrue(dao.addGame("Studio", GameGenre.ACTION, name, Platform.PC, PEGI.PEGI7, price, stock, new Date()));
+        return scalar("SELECT videogame_code FROM VIDEOGAME_ WHERE name = ?", name);
+    }
+
+    /**
+     * Primer valor entero de una consulta, leído de la base de datos y no de
+     * las cachés.
+     */
+    private static int scalar(String sql, Object... parameters) {
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        ps.setObject(i + 1, parameters[i]);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : -1;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Escribe directamente en la base de datos, como otro cliente.
+     */
+    private static void execute(String sql, Object... parameters) {
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        ps.setObject(i + 1, parameters[i]);
+                    }
+                    ps.executeUpdate();
+                }
+            });
+            transaction.commit();
+        }
+    }
+
+    private static Videogame find(Iterable<Videogame> games, int idVideogame) {
+        for (Videogame game : games) {
+            if (game.getIdVideogame() == idVideogame) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    private static Videogame game(int idVideogame) {
+        Videogame game = new Videogame();
+        game.setIdVideogame(idVideogame);
+        return game;
+    }
+
+    private static int stock(int idVideogame) {
+        return scalar("SELECT stock FROM VIDEOGAME_ WHERE videogame_code = ?", idVideogame);
+    }
+
+    private static int orders(User user) {
+        return scalar("SELECT COUNT(*) FROM Order_ WHERE id_user = ?", user.getUserCode());
+    }
+
+    /**
+     * Conexión cuyos lotes no informan de las filas cambiadas, como MySQL al
+     * reescribir algunos lotes.
+     */
+    private static Connection withoutBatchCounts(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (!(result instanceof PreparedStatement)) {
+                        return result;
+                    }
+                    PreparedStatement statement = (PreparedStatement) result;
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                            (statementProxy, statementMethod, statementArgs) -> {
+                                Object value = invoke(statement, statementMethod, statementArgs);
+                                if (statementMethod.getName().equals("executeBatch")) {
+                                    int[] counts = new int[((int[]) value).length];
+                                    Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                                    return counts;
+                                }
+                                return value;
+                            });
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void testCompraCompleta() {
+        int zelda = newGame(59.99, 10);
+        int mario = newGame(49.99, 3);
+        User buyer = newUser();
+
+        assertTrue(dao.checkout(buyer, Arrays.asList(new Order(buyer, game(zelda), 59.99, 2),
+                new Order(buyer, game(mario), 49.99, 3))));
+
+        assertEquals(8, stock(zelda));
+        assertEquals(0, stock(mario));
+        assertEquals(2, orders(buyer));
+    }
+
+    @Test
+    public void testElCarritoVeElStockDespuesDeUnaCompra() {
+        int zelda = newGame(59.99, 10);
+        User buyer = newUser();
+        assertEquals(10, dao.getGames(Arrays.asList(zelda)).get(zelda).getStock());
+
+        assertTrue(dao.checkout(buyer, Arrays.asList(new Order(buyer, game(zelda), 59.99, 2))));
+
+        // El juego leído antes de la compra no se sirve con el stock viejo
+        Videogame reread = dao.getGames(Arrays.asList(zelda)).get(zelda);
+        assertEquals(8, reread.getStock());
+        assertEquals(scalar("SELECT version FROM VIDEOGAME_ WHERE videogame_code = ?", zelda), reread.getVersion());
+    }
+
+    @Test
+    public void testElCatalogoVeLosCambiosDeOtroCliente() throws InterruptedException {
+        int zelda = newGame(59.99, 10);
+        Videogame mine = find(dao.getAllGames(), zelda);
+        // Cambiar el juego devuelto no cambia la caché
+        mine.setStock(0);
+        assertEquals(10, find(dao.getAllGames(), zelda).getStock());
+
+        // Otro cliente compra y da de alta un juego sin pasar por esta caché
+        execute("UPDATE VIDEOGAME_ SET stock = stock - 3, version = version + 1 WHERE videogame_code = ?", zelda);
+        execute("INSERT INTO VIDEOGAME_ (name, stock, price, version) VALUES ('Ajeno', 1, 9.99, 0)");
+        Thread.sleep(CatalogCache.PROBE_INTERVAL_MILLIS + 100);
+
+        assertEquals(7, find(dao.getAllGames(), zelda).getStock());
+        assertEquals(1, dao.getGamesFiltered("ajeno", null, null).size());
+    }
+
+    @Test
+    public void testCompraSinStockSeDeshaceEntera() {
+        int zelda = newGame(59.99, 10);
+        int mario = newGame(49.99, 1);
+        User buyer = newUser();
+
+        // El primer UPDATE del lote sí tiene stock; el segundo no
+        assertFalse(dao.checkout(buyer, Arrays.asList(new Order(buyer, game(zelda), 59.99, 2),
+                new Order(buyer, game(mario), 49.99, 5))));
+
+        assertEquals(10, stock(zelda));
+        assertEquals(1, stock(mario));
+        assertEquals(0, orders(buyer));
+    }
+
+    @Test
+    public void testLoteSinFilasCambiadasNoSeDaPorBueno() {
+        int zelda = newGame(59.99, 10);
+        int mario = newGame(49.99, 1);
+        Map<Integer, Integer> tooMany = new TreeMap<>();
+        tooMany.put(zelda, 2);
+        tooMany.put(mario, 5);
+        Map<Integer, Integer> enough = new TreeMap<>();
+        enough.put(zelda, 2);
+        enough.put(mario, 1);
+
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            assertFalse(session.doReturningWork(connection -> DBImplementation.takeStock(withoutBatchCounts(connection), tooMany)));
+            transaction.rollback();
+
+            transaction = session.beginTransaction();
+            assertTrue(session.doReturningWork(connection -> DBImplementation.takeStock(withoutBatchCounts(connection), enough)));
+            transaction.commit();
+        }
+        // El lote se deshizo antes de repetir los UPDATE: cada juego se descuenta una sola vez
+        assertEquals(8, stock(zelda));
+        assertEquals(0, stock(mario));
+    }
+
+    private static int held(User user, int idVideogame) {
+        return scalar("SELECT quantity FROM RESERVATION_ WHERE id_user = ? AND id_videogame = ?",
+                user.getUserCode(), idVideogame);
+    }
+
+    @Test
+    public void testReservarStock() {
+        int game = newGame(39.99, 5);
+        User buyer = newUser();
+
+        assertTrue(dao.reserveStock(buyer.getUserCode(), game, 3));
+        assertEquals(2, stock(game));
+        assertEquals(3, held(buyer, game));
+
+        // Cambiar la cantidad solo mueve la diferencia
+        assertTrue(dao.reserveStock(buyer.getUserCode(), game, 1));
+        assertEquals(4, stock(game));
+        assertFalse(dao.reserveStock(buyer.getUserCode(), game, 6));
+        assertEquals(4, stock(game));
+        assertEquals(1, held(buyer, game));
+
+        assertTrue(dao.reserveStock(buyer.getUserCode(), game, 0));
+        assertEquals(5, stock(game));
+        assertEquals(-1, held(buyer, game));
+    }
+
+    @Test
+    public void testLasReservasCaducadasVuelvenAlStock() {
+        int game = newGame(39.99, 5);
+        User buyer = newUser();
+        User other = newUser();
+        assertTrue(dao.reserveStock(buyer.getUserCode(), game, 2));
+        assertTrue(dao.reserveStock(other.getUserCode(), game, 1));
+        assertEquals(2, stock(game));
+
+        try (Session session = HibernateSession.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.createNativeQuery("UPDATE RESERVATION_ SET expires_at = ? WHERE id_user = ?")
+                    .setParameter(1, new java.sql.Timestamp(System.currentTimeMillis() - 60000))
+                    .setParameter(2, buyer.getUserCode())
+                    .executeUpdate();
+            transaction.commit();
+        }
+
+        assertEquals(1, dao.releaseExpiredReservations());
+        assertEquals(4, stock(game));
+        assertEquals(-1, held(buyer, game));
+        assertEquals(1, held(other, game));
+        assertEquals(0, dao.releaseExpiredReservations());
+    }
+
+    @Test
+    public void testLaCompraConsumeLasReservas() {
+        int zelda = newGame(59.99, 10);
+        int mario = newGame(49.99, 4);
+        User buyer = newUser();
+        assertTrue(dao.reserveStock(buyer.getUserCode(), zelda, 3));
+        assertTrue(dao.reserveStock(buyer.getUserCode(), mario, 4));
+        assertEquals(7, stock(zelda));
+        assertEquals(0, stock(mario));
+
+        // Lo reservado no se descuenta otra vez; solo lo que falta (o sobra)
+        assertTrue(dao.checkout(buyer, Arrays.asList(new Order(buyer, game(zelda), 59.99, 5),
+                new Order(buyer, game(mario), 49.99, 2))));
+
+        assertEquals(5, stock(zelda));
+        assertEquals(2, stock(mario));
+        assertEquals(-1, held(buyer, zelda));
+        assertEquals(-1, held(buyer, mario));
+        assertEquals(2, orders(buyer));
+    }
+
+    @Test
+    public void testSegundaReseñaDelMismoJuego() {
+        int game = newGame(29.99, 10);
+        User reviewer = newUser();
+        assertEquals(ReviewResult.CREATED, dao.createReview(reviewer.getUserCode(), game, 4.0, "Primera"));
+
+        // Sin pasar por reviewExists, como dos envíos que se cruzan
+        assertEquals(ReviewResult.ALREADY_REVIEWED, dao.createReview(reviewer.getUserCode(), game, 1.0, "Segunda"));
+
+        assertEquals(1, scalar("SELECT COUNT(*) FROM REVIEW_ WHERE id_user = ?", reviewer.getUserCode()));
+        assertEquals(1, dao.getRatingSummary(game).getReviewCount());
+        assertTrue(dao.reviewExists(reviewer.getUserCode(), game));
+    }
+
+    @Test
+    public void testBorrarUnUsuarioQuitaSusReseñasDelResumen() {
+        int zelda = newGame(59.99, 10);
+        int mario = newGame(49.99, 10);
+        User reviewer = newUser();
+        User other = newUser();
+        assertEquals(ReviewResult.CREATED, dao.createReview(reviewer.getUserCode(), zelda, 4.5, "Bien"));
+        assertEquals(ReviewResult.CREATED, dao.createReview(reviewer.getUserCode(), mario, 2.0, "Regular"));
+        assertEquals(ReviewResult.CREATED, dao.createReview(other.getUserCode(), zelda, 5.0, "Muy bien"));
+
+        assertTrue(dao.dropOutUser(reviewer.getUsername(), PASSWORD));
+
+        RatingSummary summary = dao.getRatingSummary(zelda);
+        assertEquals(1, summary.getReviewCount());
+        assertEquals(5.0, summary.getRatingSum(), 0.001);
+        assertEquals(0, summary.getHistogram()[4]);
+        assertEquals(1, summary.getHistogram()[5]);
+        assertEquals(0, dao.getRatingSummary(mario).getReviewCount());
+        assertEquals(0, scalar("SELECT COUNT(*) FROM REVIEW_ WHERE id_user = ?", reviewer.getUserCode()));
+    }
+
+    @Test
+    public void testElAdminBorraUnUsuarioYSeQuitanSusReseñas() {
+        int game = newGame(19.99, 10);
+        User reviewer = newUser();
+        assertEquals(ReviewResult.CREATED, dao.createReview(reviewer.getUserCode(), game, 3.0, "Normal"));
+        String admin = "admin" + names.incrementAndGet();
+        assertEquals(SignUpResult.CREATED, dao.createAdmin(admin, PASSWORD, admin + "@example.com",
+                "Admin", "600000001", "System", "ES11"));
+
+        assertTrue(dao.dropOutAdmin(reviewer.getUsername(), admin, PASSWORD));
+
+        RatingSummary summary = dao.getRatingSummary(game);
+        assertEquals(0, summary.getReviewCount());
+        assertEquals(0, summary.getHistogram()[3]);
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import java.sql.SQLException;
+import javax.persistence.PersistenceException;
+import static org.junit.Assert.assertEquals;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.Test;
+
+/**
+ * Test para DBImplementation.
+ * Solo lo que no necesita base de datos: la traducción de las restricciones
+ * UNIQUE de PROFILE_ en el resultado del registro.
+ */
+public class DBImplementationTest {
+
+    private static ConstraintViolationException violacion(String mensaje, String restriccion) {
+        return new ConstraintViolationException("could not execute statement", new SQLException(mensaje, "23000"), restriccion);
+    }
+
+    @Test
+    public void testReconoceElUsuarioRepetido() {
+        assertEquals(SignUpResult.USERNAME_TAKEN, DBImplementation.violatedConstraint(
+                violacion("Duplicate entry 'bob' for key 'PROFILE_.uk_profile_username'", "PROFILE_.uk_profile_username")));
+    }
+
+    @Test
+    public void testReconoceElEmailRepetidoDentroDeOtraExcepcion() {
+        assertEquals(SignUpResult.EMAIL_TAKEN, DBImplementation.violatedConstraint(new PersistenceException(
+                violacion("Unique index or primary key violation: \"PUBLIC.UK_PROFILE_EMAIL_INDEX_5\"", null))));
+    }
+
+    @Test
+    public void testOtrosErroresNoSonDuplicados() {
+        assertEquals(SignUpResult.ERROR, DBImplementation.violatedConstraint(
+                violacion("Column 'telephone' cannot be null", null)));
+        assertEquals(SignUpResult.ERROR, DBImplementation.violatedConstraint(new IllegalStateException("sin conexión")));
+    }
+}
@@ -0,0 +1,90 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Test para GameRegistry.
+ * Compara la tabla con un HashMap tras muchas altas y bajas, que obligan a
+ * crecer y a recolocar las secuencias de sondeo al borrar, y comprueba que
+ * no pasa del máximo de juegos.
+ */
+public class GameRegistryTest {
+
+    private static Videogame juego(int id) {
+        Videogame game = new Videogame();
+        game.setIdVideogame(id);
+        game.setName("Juego " + id);
+        return game;
+    }
+
+    @Test
+    public void testGuardarSustituirYOlvidar() {
+        GameRegistry registry = new GameRegistry(100);
+        Videogame primero = juego(1);
+        registry.put(primero);
+        registry.put(juego(2));
+        assertSame(primero, registry.get(1));
+        assertNull(registry.get(3));
+
+        // Un juego cambiado sustituye al anterior
+        Videogame cambiado = juego(1);
+        registry.put(cambiado);
+        assertSame(cambiado, registry.get(1));
+        assertEquals(2, registry.size());
+
+        registry.remove(1);
+        registry.remove(1);
+        assertNull(registry.get(1));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testIgualQueUnHashMap() {
+        GameRegistry registry = new GameRegistry(4096);
+        Map<Integer, Videogame> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                registry.remove(id);
+                esperado.remove(id);
+            } else {
+                Videogame game = juego(id);
+                registry.put(game);
+                esperado.put(id, game);
+            }
+        }
+        assertEquals(esperado.size(), registry.size());
+        for (int id = 0; id < 3000; id++) {
+            assertSame(esperado.get(id), registry.get(id));
+        }
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertNull(registry.get(esperado.keySet().iterator().next()));
+    }
+
+    @Test
+    public void testNoPasaDelMaximo() {
+        GameRegistry registry = new GameRegistry(3);
+        registry.put(juego(1));
+        registry.put(juego(2));
+        registry.put(juego(3));
+        // Sustituir uno guardado no cuenta como otro más
+        registry.put(juego(3));
+        assertEquals(3, registry.size());
+
+        // Lleno: se vacía y se guarda el nuevo
+        Videogame cuarto = juego(4);
+        registry.put(cuarto);
+        assertEquals(1, registry.size());
+        assertSame(cuarto, registry.get(4));
+        assertNull(registry.get(1));
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test para GameSearchIndex.
+ * No necesita base de datos: se indexan juegos creados en memoria.
+ */
+public class GameSearchIndexTest {
+
+    private GameSearchIndex index;
+    private Videogame zelda;
+    private Videogame eldenRing;
+    private Videogame pokemon;
+
+    @Before
+    public void prepararIndice() {
+        zelda = juego(1, "Nintendo", GameGenre.ADVENTURE, "The Legend of Zelda", Platform.SWITCH);
+        eldenRing = juego(2, "FromSoftware", GameGenre.RPG, "Elden Ring", Platform.PS5);
+        pokemon = juego(3, "Game Freak", GameGenre.RPG, "Pokémon Escarlata", Platform.SWITCH);
+
+        index = new GameSearchIndex();
+        index.rebuild(Arrays.asList(zelda, eldenRing, pokemon));
+    }
+
+    @Test
+    public void testBusquedaPorNombreYCompania() {
+        assertEquals(Arrays.asList(zelda), index.search("zeld", null, null));
+        assertEquals(Arrays.asList(eldenRing), index.search("SOFTWARE", null, null));
+        // "el" tiene menos de tres letras: se resuelve recorriendo los candidatos
+        assertEquals(Arrays.asList(eldenRing, zelda), index.search("el", GameGenre.ALL, Platform.ALL));
+    }
+
+    @Test
+    public void testBusquedaSinAcentos() {
+        assertEquals(Arrays.asList(pokemon), index.search("pokemon", null, null));
+    }
+
+    @Test
+    public void testFiltrosDeGeneroYPlataforma() {
+        assertEquals(Arrays.asList(eldenRing, pokemon), index.search("", GameGenre.RPG, null));
+        assertEquals(Arrays.asList(pokemon), index.search(null, GameGenre.RPG, Platform.SWITCH));
+        assertTrue(index.search("zelda", GameGenre.RPG, null).isEmpty());
+    }
+
+    @Test
+    public void testActualizacionIncremental() {
+        zelda.setName("Breath of the Wild");
+        index.put(zelda);
+        assertTrue(index.search("zelda", null, null).isEmpty());
+        assertEquals(Arrays.asList(zelda), index.search("breath", null, null));
+
+        index.remove(eldenRing.getIdVideogame());
+        List<Videogame> rpg = index.search("", GameGenre.RPG, null);
+        assertEquals(Arrays.asList(pokemon), rpg);
+        assertEquals(2, index.size());
+    }
+
+    private static Videogame juego(int id, String compania, GameGenre genero, String nombre, Platform plataforma) {
+        Videogame game = new Videogame(compania, genero, nombre, plataforma, PEGI.PEGI12, 49.99, 10, new Date());
+        game.setIdVideogame(id);
+        return game;
+    }
+}
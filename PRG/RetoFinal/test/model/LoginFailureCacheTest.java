@@ -0,0 +1,52 @@
+package model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test para LoginFailureCache.
+ */
+public class LoginFailureCacheTest {
+
+    private final LoginFailureCache cache = new LoginFailureCache(200, 3, 100);
+
+    @Test
+    public void testRechazaUsuarioInexistente() {
+        cache.recordFailure("nadie", "1234", false);
+        assertTrue(cache.isRejected("nadie", "otra"));
+        assertFalse(cache.isRejected("user1", "1234"));
+    }
+
+    @Test
+    public void testSoloRechazaLaContrasenaQueYaFallo() {
+        cache.recordFailure("user1", "mala", true);
+        assertTrue(cache.isRejected("user1", "mala"));
+        assertFalse(cache.isRejected("user1", "1234"));
+    }
+
+    @Test
+    public void testNoBloqueaLaContrasenaCorrecta() {
+        cache.recordFailure("user1", "a", true);
+        cache.recordFailure("user1", "b", true);
+        cache.recordFailure("user1", "c", true);
+        cache.recordFailure("user1", "d", true);
+        // Muchos fallos de otro no impiden entrar al usuario real
+        assertFalse(cache.isRejected("user1", "1234"));
+
+        // Solo se recuerdan las tres contraseñas más recientes
+        assertFalse(cache.isRejected("user1", "a"));
+        assertTrue(cache.isRejected("user1", "b"));
+        assertTrue(cache.isRejected("user1", "d"));
+
+        cache.forget("user1");
+        assertFalse(cache.isRejected("user1", "d"));
+    }
+
+    @Test
+    public void testLosFallosCaducan() throws Exception {
+        cache.recordFailure("nadie", "1234", false);
+        Thread.sleep(300);
+        assertFalse(cache.isRejected("nadie", "1234"));
+    }
+}
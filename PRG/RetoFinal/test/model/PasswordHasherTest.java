@@ -0,0 +1,50 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test para PasswordHasher.
+ * Usa pocas vueltas de PBKDF2 para que el test sea rápido.
+ */
+public class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(1000, 2, 8, 60 * 1000);
+
+    @Test
+    public void testElHashSeComprueba() {
+        String hash = hasher.hash("1234");
+        assertTrue(hash.startsWith("pbkdf2$1000$"));
+        assertTrue(hasher.verify("1234", hash));
+        assertFalse(hasher.verify("12345", hash));
+    }
+
+    @Test
+    public void testCadaHashTieneSuSal() {
+        assertNotEquals(hasher.hash("1234"), hasher.hash("1234"));
+    }
+
+    @Test
+    public void testAceptaLasContrasenasAntiguasYPideRehacerlas() {
+        assertTrue(hasher.verify("1234", "1234"));
+        assertFalse(hasher.verify("1235", "1234"));
+        assertTrue(hasher.needsRehash("1234"));
+        assertFalse(hasher.needsRehash(hasher.hash("1234")));
+        assertTrue(new PasswordHasher(2000, 1, 1, 0).needsRehash(hasher.hash("1234")));
+    }
+
+    @Test
+    public void testRecuerdaLasContrasenasComprobadas() {
+        String hash = hasher.encode("admin");
+        assertTrue(hasher.verify("admin", hash));
+        long hashes = hasher.getHashes();
+
+        assertTrue(hasher.verify("admin", hash));
+        assertFalse(hasher.verify("otra", hash));
+        assertEquals(1, hasher.getCacheHits());
+        assertEquals(hashes + 1, hasher.getHashes());
+    }
+}
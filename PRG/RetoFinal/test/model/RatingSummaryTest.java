@@ -0,0 +1,41 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Test para RatingSummary.
+ * Comprueba en qué estrella cuenta cada puntuación y la media del resumen.
+ */
+public class RatingSummaryTest {
+
+    @Test
+    public void testEstrellaDeCadaPuntuacion() {
+        assertEquals(0, RatingSummary.star(0));
+        assertEquals(0, RatingSummary.star(0.5));
+        assertEquals(2, RatingSummary.star(2.5));
+        assertEquals(4, RatingSummary.star(4.5));
+        assertEquals(5, RatingSummary.star(5));
+        // Fuera del rango del slider se queda en los extremos
+        assertEquals(0, RatingSummary.star(-1));
+        assertEquals(5, RatingSummary.star(7));
+    }
+
+    @Test
+    public void testMediaEHistograma() {
+        RatingSummary summary = new RatingSummary(7, 3 + 4.5 + 5, 0, 0, 0, 1, 1, 1);
+        assertEquals(7, summary.getIdVideogame());
+        assertEquals(3, summary.getReviewCount());
+        assertEquals(12.5 / 3, summary.getAverage(), 1e-9);
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1, 1}, summary.getHistogram());
+    }
+
+    @Test
+    public void testSinResenas() {
+        RatingSummary summary = new RatingSummary(1, 0);
+        assertEquals(0, summary.getReviewCount());
+        assertEquals(0, summary.getAverage(), 0);
+        assertArrayEquals(new int[RatingSummary.STARS], summary.getHistogram());
+    }
+}
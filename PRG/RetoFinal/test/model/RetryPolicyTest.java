@@ -0,0 +1,64 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.hibernate.exception.LockAcquisitionException;
+import org.junit.Test;
+
+/**
+ * Test para RetryPolicy.
+ * No necesita base de datos: las operaciones simulan los errores de MySQL.
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void testReintentaInterbloqueos() throws Exception {
+        AtomicInteger intentos = new AtomicInteger();
+        String resultado = RetryPolicy.onContention(() -> {
+            if (intentos.incrementAndGet() < 3) {
+                throw new LockAcquisitionException("deadlock", new SQLException("Deadlock found", "40001", 1213));
+            }
+            return "ok";
+        });
+        assertEquals("ok", resultado);
+        assertEquals(3, intentos.get());
+    }
+
+    @Test
+    public void testNoReintentaOtrosErrores() {
+        AtomicInteger intentos = new AtomicInteger();
+        try {
+            RetryPolicy.onContention(() -> {
+                intentos.incrementAndGet();
+                throw new SQLException("Unknown column", "42S22", 1054);
+            });
+            fail("Debería haber lanzado la excepción");
+        } catch (Exception e) {
+            assertEquals(1, intentos.get());
+        }
+    }
+
+    @Test
+    public void testSeRindeTrasElMaximoDeIntentos() {
+        AtomicInteger intentos = new AtomicInteger();
+        try {
+            RetryPolicy.onContention(() -> {
+                intentos.incrementAndGet();
+                throw new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+            });
+            fail("Debería haber lanzado la excepción");
+        } catch (Exception e) {
+            assertEquals(RetryPolicy.MAX_ATTEMPTS, intentos.get());
+        }
+    }
+
+    @Test
+    public void testDetectaContencionEnLaCausa() {
+        assertTrue(RetryPolicy.isContention(new RuntimeException(new SQLException("Deadlock found", "40001", 1213))));
+        assertFalse(RetryPolicy.isContention(new RuntimeException("sin conexión")));
+    }
+}
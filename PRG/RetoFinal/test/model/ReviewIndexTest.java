@@ -0,0 +1,84 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test para ReviewIndex y ReviewedGames.
+ * Comprueba que las reseñas nuevas y los juegos borrados se reflejan en los
+ * usuarios cargados y que solo se recuerdan los usuarios más recientes.
+ */
+public class ReviewIndexTest {
+
+    @Test
+    public void testJuegosReseñados() {
+        ReviewedGames games = new ReviewedGames(1, Arrays.asList(3, 70000, null));
+        assertTrue(games.contains(3));
+        assertTrue(games.contains(70000));
+        assertFalse(games.contains(4));
+        assertFalse(games.contains(-1));
+        assertEquals(2, games.size());
+    }
+
+    @Test
+    public void testReseñaNuevaYJuegoBorrado() {
+        ReviewIndex index = new ReviewIndex(10);
+        ReviewedGames games = index.put(new ReviewedGames(1, Collections.singletonList(5)));
+
+        index.added(1, 8);
+        assertTrue(games.contains(8));
+
+        // Un usuario sin cargar se leerá entero de la base de datos
+        index.added(2, 8);
+        assertNull(index.get(2));
+        index.removed(8);
+        assertFalse(index.put(new ReviewedGames(2, Collections.<Integer>emptyList())).contains(8));
+
+        index.removed(5);
+        assertFalse(games.contains(5));
+    }
+
+    @Test
+    public void testSeQuedaConLosPrimerosCargados() {
+        ReviewIndex index = new ReviewIndex(10);
+        ReviewedGames first = index.put(new ReviewedGames(1, Collections.<Integer>emptyList()));
+        index.added(1, 9);
+
+        // Otro hilo termina de leer después: se sigue usando la instancia con la reseña nueva
+        assertSame(first, index.put(new ReviewedGames(1, Collections.<Integer>emptyList())));
+        assertTrue(index.get(1).contains(9));
+    }
+
+    @Test
+    public void testReseñaGuardadaMientrasSeLeen() {
+        ReviewIndex index = new ReviewIndex(10);
+        // La reseña se guarda después de la consulta y antes de put: lo leído no la tiene
+        index.added(1, 9);
+        ReviewedGames games = index.put(new ReviewedGames(1, Collections.singletonList(3)));
+        assertTrue(games.contains(3));
+        assertTrue(games.contains(9));
+
+        // Otro hilo leyó antes de una reseña que ya está en el índice: se añade lo suyo
+        index.added(1, 12);
+        assertSame(games, index.put(new ReviewedGames(1, Arrays.asList(3, 4))));
+        assertTrue(games.contains(4));
+        assertTrue(games.contains(12));
+    }
+
+    @Test
+    public void testOlvidaLosUsuariosMenosRecientes() {
+        ReviewIndex index = new ReviewIndex(2);
+        index.put(new ReviewedGames(1, Collections.<Integer>emptyList()));
+        index.put(new ReviewedGames(2, Collections.<Integer>emptyList()));
+        index.get(1);
+        index.put(new ReviewedGames(3, Collections.<Integer>emptyList()));
+        assertNull(index.get(2));
+        assertEquals(1, index.get(1).getUserCode());
+    }
+}
@@ -0,0 +1,195 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Test para SchemaMigrator.
+ * La lectura de los scripts, y su aplicación sobre H2 en modo MySQL (si está
+ * en el classpath): una base de datos vacía y una con el esquema inicial sin
+ * historial deben acabar con el mismo esquema, el del mapeo de las entidades.
+ */
+public class SchemaMigratorTest {
+
+    private static final String H2_URL = "jdbc:h2:mem:%s;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static Connection open(String database) throws SQLException {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            Assume.assumeNoException("H2 is not in the classpath", e);
+        }
+        Connection connection = DriverManager.getConnection(String.format(H2_URL, database), "sa", "");
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    /**
+     * Tablas del esquema con sus columnas (nombre, tipo y tamaño) y sus índices.
+     */
+    private static Map<String, Set<String>> schema(Connection connection) throws SQLException {
+        Map<String, Set<String>> tables = new TreeMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(null, "PUBLIC", "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                tables.put(rs.getString("TABLE_NAME"), new TreeSet<>());
+            }
+        }
+        tables.remove(SchemaMigrator.HISTORY_TABLE);
+        for (Map.Entry<String, Set<String>> table : tables.entrySet()) {
+            try (ResultSet rs = metaData.getColumns(null, "PUBLIC", table.getKey(), "%")) {
+                while (rs.next()) {
+                    table.getValue().add(rs.getString("COLUMN_NAME") + " " + rs.getString("TYPE_NAME")
+                            + "(" + rs.getInt("COLUMN_SIZE") + ")" + (rs.getInt("NULLABLE") == 0 ? " not null" : ""));
+                }
+            }
+            try (ResultSet rs = metaData.getIndexInfo(null, "PUBLIC", table.getKey(), false, false)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    // Los índices que H2 crea para las claves ajenas no tienen un nombre fijo,
+                    // y a los de las restricciones UNIQUE les añade un sufijo
+                    if (index != null && !index.startsWith("FK") && !index.startsWith("PRIMARY_KEY")) {
+                        table.getValue().add("index " + index.replaceAll("_INDEX_\\w+$", "")
+                                + (rs.getBoolean("NON_UNIQUE") ? "" : " unique"));
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    @Test
+    public void testBaseDeDatosInicialSinHistorial() throws SQLException {
+        List<SchemaMigrator.Migration> scripts = new SchemaMigrator().load();
+        try (Connection legacy = open("migrator_legacy"); Connection fresh = open("migrator_fresh")) {
+            // Lo que creaba hbm2ddl en la primera versión, sin SCHEMA_HISTORY_,
+            // con una reseña repetida de cuando no había restricción
+            try (Statement st = legacy.createStatement()) {
+                for (String statement : SchemaMigrator.parse(scripts.get(0).sql)) {
+                    st.execute(statement);
+                }
+                st.execute("INSERT INTO PROFILE_ (user_code, email, password, surname, telephone, username)"
+                        + " VALUES (1, 'a@example.com', '1234', 'A', '600000000', 'a')");
+                st.execute("INSERT INTO USER_ (user_code) VALUES (1)");
+                st.execute("INSERT INTO VIDEOGAME_ (videogame_code, name, stock) VALUES (1, 'Zelda', 5), (2, NULL, 1)");
+                st.execute("INSERT INTO REVIEW_ (id_user, id_videogame, rating) VALUES (1, 1, 4), (1, 1, 2)");
+            }
+            legacy.commit();
+
+            assertEquals(scripts.size() - 1, new SchemaMigrator().migrate(legacy));
+            assertEquals(scripts.size(), new SchemaMigrator().migrate(fresh));
+            assertEquals(0, new SchemaMigrator().migrate(legacy));
+
+            Map<String, Set<String>> migrated = schema(legacy);
+            assertEquals(schema(fresh), migrated);
+            assertTrue(migrated.get("VIDEOGAME_").contains("VERSION INTEGER(10) not null"));
+            assertTrue(migrated.get("VIDEOGAME_").contains("index IDX_VIDEOGAME_NAME_CODE"));
+            assertTrue(migrated.get("VIDEOGAME_").contains("NAME VARCHAR(255) not null"));
+            assertTrue(migrated.get("PROFILE_").contains("PASSWORD VARCHAR(255) not null"));
+            assertTrue(migrated.get("RESERVATION_").contains("index UK_RESERVATION_USER_GAME unique"));
+            assertTrue(migrated.containsKey("CART_"));
+            assertTrue(migrated.get("REVIEW_").contains("index UK_REVIEW_USER_GAME unique"));
+            try (Statement st = legacy.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT review_count, rating_sum FROM RATING_SUMMARY_ WHERE id_videogame = 1")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+                assertEquals(4.0, rs.getDouble(2), 0.001);
+            }
+        }
+    }
+
+    @Test
+    public void testElEsquemaFinalCoincideConLasEntidades() throws SQLException {
+        try (Connection connection = open("migrator_mapping")) {
+            new SchemaMigrator().migrate(connection);
+        }
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DRIVER, "org.h2.Driver")
+                .applySetting(AvailableSettings.URL, String.format(H2_URL, "migrator_mapping"))
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.PASS, "")
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .build();
+        try {
+            Metadata metadata = new MetadataSources(registry)
+                    .addAnnotatedClass(Profile.class).addAnnotatedClass(User.class).addAnnotatedClass(Admin.class)
+                    .addAnnotatedClass(Videogame.class).addAnnotatedClass(Order.class).addAnnotatedClass(Review.class)
+                    .addAnnotatedClass(Reservation.class).addAnnotatedClass(RatingSummary.class)
+                    .buildMetadata();
+            // Lanza una excepción si falta alguna tabla o columna de las entidades
+            new SchemaValidator().validate(metadata);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    @Test
+    public void testUnScriptQueFallaAMitadDiceDonde() throws SQLException {
+        try (Connection connection = open("migrator_failing")) {
+            try {
+                new SchemaMigrator("model/failing_migrations").migrate(connection);
+                fail("V2 must fail");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("V2 failed at statement 2 of 2"));
+                assertTrue(e.getMessage(), e.getMessage().contains("may already be applied"));
+            }
+            // V1 queda registrada y V2 no: el siguiente arranque la vuelve a intentar
+            try (Statement st = connection.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT version FROM " + SchemaMigrator.HISTORY_TABLE)) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    public void testSeparaLasSentenciasSinComentarios() {
+        List<String> sentencias = SchemaMigrator.parse("-- Comentario; con punto y coma\n"
+                + "create table A (\n    id integer\n);\n\n"
+                + "  -- Otro\ncreate index idx_a on A (id);\n");
+        assertEquals(2, sentencias.size());
+        assertEquals("create table A (\n    id integer\n)", sentencias.get(0));
+        assertEquals("create index idx_a on A (id)", sentencias.get(1));
+    }
+
+    @Test
+    public void testLeeLosScriptsEnOrden() {
+        List<SchemaMigrator.Migration> scripts = new SchemaMigrator().load();
+        assertTrue(scripts.size() >= 3);
+        for (int i = 0; i < scripts.size(); i++) {
+            assertEquals(i + 1, scripts.get(i).version);
+            assertTrue(SchemaMigrator.parse(scripts.get(i).sql).size() > 0);
+        }
+        assertEquals("baseline", scripts.get(0).description);
+    }
+
+    @Test
+    public void testElChecksumDependeDelContenido() {
+        SchemaMigrator.Migration a = new SchemaMigrator.Migration(1, "a", "create table A (id integer);\n");
+        SchemaMigrator.Migration b = new SchemaMigrator.Migration(1, "a", "create table A (id bigint);\n");
+        assertEquals(a.checksum, new SchemaMigrator.Migration(1, "a", "create table A (id integer);\n").checksum);
+        assertTrue(a.checksum != b.checksum);
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test para UserSession.
+ * Comprueba el inicio y el fin de la sesión y la referencia al usuario.
+ */
+public class UserSessionTest {
+
+    private static User usuario(int codigo, String nombre) {
+        User user = new User();
+        user.setUserCode(codigo);
+        user.setUsername(nombre);
+        return user;
+    }
+
+    @After
+    public void tearDown() {
+        UserSession.end();
+    }
+
+    @Test
+    public void testInicioYFin() {
+        UserSession session = UserSession.start(usuario(4, "ana"));
+        assertSame(session, UserSession.current());
+        assertEquals(4, session.getUserCode());
+        assertEquals("ana", session.getUsername());
+        assertFalse(session.isAdmin());
+
+        UserSession.end();
+        assertNull(UserSession.current());
+    }
+
+    @Test
+    public void testSesionDeOtroPerfil() {
+        UserSession session = UserSession.start(usuario(4, "ana"));
+        assertSame(session, UserSession.of(usuario(4, "ana")));
+
+        // Otro perfil no sustituye la sesión actual
+        UserSession other = UserSession.of(usuario(5, "luis"));
+        assertNotSame(session, other);
+        assertEquals(5, other.getUserCode());
+        assertSame(session, UserSession.current());
+
+        Admin admin = new Admin();
+        admin.setUserCode(6);
+        assertTrue(UserSession.of(admin).isAdmin());
+    }
+
+    @Test
+    public void testReferencia() {
+        User reference = UserSession.start(usuario(4, "ana")).reference();
+        assertEquals(4, reference.getUserCode());
+        assertEquals("ana", reference.getUsername());
+    }
+}
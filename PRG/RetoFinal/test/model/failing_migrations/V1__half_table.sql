@@ -0,0 +1 @@
+create table HALF_ (id integer not null, primary key (id));
@@ -0,0 +1,4 @@
+create index idx_half on HALF_ (id);
+
+-- Repetido: falla, y el primero ya está aplicado
+create index idx_half on HALF_ (id);
@@ -0,0 +1,80 @@
+package threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test para AsyncLogHandler.
+ * Escribe en una carpeta temporal que se borra al terminar.
+ */
+public class AsyncLogHandlerTest {
+
+    private File carpeta;
+    private File fichero;
+
+    @Before
+    public void setUp() throws IOException {
+        carpeta = Files.createTempDirectory("logs").toFile();
+        fichero = new File(carpeta, "Prueba.log");
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : carpeta.listFiles()) {
+            f.delete();
+        }
+        carpeta.delete();
+    }
+
+    @Test
+    public void testEscribeLosRegistrosAlVolcar() throws IOException {
+        AsyncLogHandler handler = new AsyncLogHandler(fichero, 1024 * 1024, 3);
+        handler.publish(new LogRecord(Level.INFO, "Primero"));
+        handler.publish(new LogRecord(Level.WARNING, "Segundo"));
+        handler.flush();
+
+        String texto = new String(Files.readAllBytes(fichero.toPath()), StandardCharsets.UTF_8);
+        assertTrue(texto.contains("[INFO] Primero"));
+        assertTrue(texto.contains("[WARNING] Segundo"));
+        assertTrue(texto.indexOf("Primero") < texto.indexOf("Segundo"));
+        handler.close();
+    }
+
+    @Test
+    public void testRotaElFicheroAlLlegarAlLimite() {
+        AsyncLogHandler handler = new AsyncLogHandler(fichero, 200, 3);
+        for (int i = 0; i < 20; i++) {
+            handler.publish(new LogRecord(Level.INFO, "Mensaje de prueba número " + i));
+        }
+        handler.flush();
+        handler.close();
+
+        assertTrue(fichero.length() <= 200);
+        assertTrue(new File(carpeta, "Prueba.log.1").exists());
+        assertTrue(new File(carpeta, "Prueba.log.2").exists());
+        assertFalse(new File(carpeta, "Prueba.log.3").exists());
+    }
+
+    @Test
+    public void testRespetaElNivelDelManejador() throws IOException {
+        AsyncLogHandler handler = new AsyncLogHandler(fichero, 1024 * 1024, 3);
+        handler.setLevel(Level.INFO);
+        handler.publish(new LogRecord(Level.FINE, "Oculto"));
+        handler.publish(new LogRecord(Level.INFO, "Visible"));
+        handler.close();
+
+        String texto = new String(Files.readAllBytes(fichero.toPath()), StandardCharsets.UTF_8);
+        assertEquals(-1, texto.indexOf("Oculto"));
+        assertTrue(texto.contains("Visible"));
+    }
+}
@@ -0,0 +1,66 @@
+package threads;
+
+import java.time.LocalDate;
+import model.GameGenre;
+import model.PEGI;
+import model.Platform;
+import model.Videogame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test para CatalogLoader.
+ * Comprueba la conversión de las líneas del fichero en juegos y el rechazo de
+ * los valores que no son válidos.
+ */
+public class CatalogLoaderTest {
+
+    private static String[] linea(String genre, String platform, String pegi, String price, String stock,
+            String date) {
+        return new String[]{"Nintendo", genre, "Mario Kart", platform, pegi, price, stock, date};
+    }
+
+    private static void rechazada(String[] record, String motivo) {
+        try {
+            CatalogLoader.parse(record);
+            fail("Debería rechazarse: " + motivo);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(motivo));
+        }
+    }
+
+    @Test
+    public void testLineaValida() {
+        Videogame game = CatalogLoader.parse(linea("racing", "Switch", "3", "49.95", "20", "2017-04-28"));
+        assertEquals("Nintendo", game.getCompanyName());
+        assertEquals("Mario Kart", game.getName());
+        assertEquals(GameGenre.RACING, game.getGameGenre());
+        assertEquals(Platform.SWITCH, game.getPlatforms());
+        assertEquals(PEGI.PEGI3, game.getPegi());
+        assertEquals(49.95, game.getPrice(), 0.0001);
+        assertEquals(20, game.getStock());
+        assertEquals(LocalDate.of(2017, 4, 28), ((java.sql.Date) game.getReleaseDate()).toLocalDate());
+    }
+
+    @Test
+    public void testEnumsConEspaciosYPegiCompleto() {
+        Videogame game = CatalogLoader.parse(linea("RPG", "xbox series", "PEGI18", "10", "0", "2020-11-10"));
+        assertEquals(Platform.XBOX_SERIES, game.getPlatforms());
+        assertEquals(PEGI.PEGI18, game.getPegi());
+    }
+
+    @Test
+    public void testValoresNoValidos() {
+        rechazada(linea("ALL", "PC", "3", "1", "1", "2020-01-01"), "genre");
+        rechazada(linea("ACTION", "ALL", "3", "1", "1", "2020-01-01"), "platform");
+        rechazada(linea("ACTION", "PC", "PEGI21", "1", "1", "2020-01-01"), "pegi");
+        rechazada(linea("ACTION", "PC", "3", "gratis", "1", "2020-01-01"), "price");
+        rechazada(linea("ACTION", "PC", "3", "-1", "1", "2020-01-01"), "price");
+        rechazada(linea("ACTION", "PC", "3", "1", "-5", "2020-01-01"), "stock");
+        rechazada(linea("ACTION", "PC", "3", "1", "1", "01/01/2020"), "release_date");
+        rechazada(linea(null, "PC", "3", "1", "1", "2020-01-01"), "genre is empty");
+        rechazada(new String[]{"Nintendo", "ACTION"}, "expected 8 fields");
+    }
+}
@@ -0,0 +1,76 @@
+package threads;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+import threads.ProfileFormat.RecordReader;
+import threads.ProfileFormat.RecordWriter;
+
+/**
+ * Test para ProfileFormat.
+ * Escribe y vuelve a leer perfiles con comas, comillas, saltos de línea y
+ * campos nulos en los dos formatos.
+ */
+public class ProfileFormatTest {
+
+    private static final String[] ADMIN = {"ADMIN", "admin", "pbkdf2$1000$c2Fs$aGFzaA==", "admin@store.com",
+        "Ana, \"la jefa\"", "600000000", "Línea 1\nLínea 2", null, null, "CTA-1"};
+    private static final String[] USER = {"USER", "user1", "1234", "user1@x.com", "", "612345678", "Gamer",
+        "Other", "ES12\\34", null};
+
+    private static void idaYVuelta(ProfileFormat formato) throws IOException {
+        StringWriter texto = new StringWriter();
+        try (RecordWriter out = formato.writer(texto)) {
+            out.write(ADMIN);
+            out.write(USER);
+        }
+        try (RecordReader in = formato.reader(new StringReader(texto.toString()))) {
+            assertArrayEquals(ADMIN, in.read());
+            assertArrayEquals(USER, in.read());
+            assertNull(in.read());
+        }
+    }
+
+    @Test
+    public void testCsvIdaYVuelta() throws IOException {
+        idaYVuelta(ProfileFormat.forFile("perfiles.csv"));
+    }
+
+    @Test
+    public void testJsonIdaYVuelta() throws IOException {
+        idaYVuelta(ProfileFormat.forFile("perfiles.JSON"));
+    }
+
+    @Test
+    public void testJsonAceptaObjetosSueltosYCamposEnOtroOrden() throws IOException {
+        String texto = "{\"username\": \"u\", \"type\": \"USER\", \"extra\": 3}\n"
+                + "{\"type\":\"ADMIN\",\"name\":\"\\u00d1o\\/\"}\n";
+        try (RecordReader in = ProfileFormat.forFile("a.json").reader(new StringReader(texto))) {
+            String[] primero = in.read();
+            assertEquals("USER", primero[0]);
+            assertEquals("u", primero[1]);
+            assertEquals("Ño/", in.read()[4]);
+            assertNull(in.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCsvSinCabeceraFalla() throws IOException {
+        ProfileFormat.forFile("a.csv").reader(new StringReader("USER,u,p,e,n,t,s,g,c,a\r\n"));
+    }
+
+    @Test
+    public void testValidaLosCamposObligatorios() {
+        assertNull(ProfileTransfer.validate(USER));
+        String[] sinEmail = USER.clone();
+        sinEmail[3] = " ";
+        assertEquals("email is required", ProfileTransfer.validate(sinEmail));
+        String[] otroTipo = USER.clone();
+        otroTipo[0] = "GUEST";
+        assertEquals("type must be USER or ADMIN", ProfileTransfer.validate(otroTipo));
+    }
+}